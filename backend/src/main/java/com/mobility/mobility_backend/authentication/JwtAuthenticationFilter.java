@@ -3,18 +3,22 @@ package com.mobility.mobility_backend.authentication;
 import java.io.IOException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.mobility.mobility_backend.service.JwtClaims;
 import com.mobility.mobility_backend.service.JwtService;
-import com.mobility.mobility_backend.service.UserService;
+import com.mobility.mobility_backend.service.auth.TokenVersionService;
+import com.mobility.mobility_backend.service.auth.UserDetailsCacheService;
 
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -26,12 +30,17 @@ import jakarta.servlet.http.HttpServletResponse;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
 	private final JwtService jwtService;
-	private final UserService userService;
+	private final UserDetailsCacheService userDetailsCache;
+	private final TokenVersionService tokenVersionService;
+	private final boolean statelessAuth;
 
 	@Autowired
-	public JwtAuthenticationFilter(JwtService jwtService, UserService userService) {
+	public JwtAuthenticationFilter(JwtService jwtService, UserDetailsCacheService userDetailsCache,
+			TokenVersionService tokenVersionService, @Value("${app.jwt.stateless-auth:true}") boolean statelessAuth) {
 		this.jwtService = jwtService;
-		this.userService = userService;
+		this.userDetailsCache = userDetailsCache;
+		this.tokenVersionService = tokenVersionService;
+		this.statelessAuth = statelessAuth;
 	}
 
 	@Override
@@ -90,29 +99,15 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 		try {
 			System.out.println("🔐 JWT Token length: " + jwt.length());
 
-			String userEmail = jwtService.extractUsername(jwt);
+			// Décodage unique : signature vérifiée, claims réutilisés pour la validation
+			JwtClaims claims = jwtService.decode(jwt);
+			String userEmail = claims != null ? claims.subject() : null;
 			System.out.println("🔐 Extracted username/email: " + userEmail);
 
 			if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-				System.out.println("🔐 Loading user details for: " + userEmail);
-
-				UserDetails userDetails;
-				try {
-					userDetails = this.userService.loadUserByUsername(userEmail);
-					System.out.println("🔐 User found: " + userDetails.getUsername());
-					System.out.println("🔐 User authorities: " + userDetails.getAuthorities());
-				} catch (UsernameNotFoundException e) {
-					System.err.println("❌ User not found: " + userEmail);
-					System.out.println("=== 🔐 [JwtAuthFilter] END (User Not Found) ===");
-					filterChain.doFilter(request, response);
-					return;
-				}
-
-				System.out.println("🔐 Validating token...");
-				boolean isTokenValid = jwtService.isTokenValid(jwt, userDetails);
-				System.out.println("🔐 Token valid: " + isTokenValid);
+				UserDetails userDetails = resolvePrincipal(claims);
 
-				if (isTokenValid) {
+				if (userDetails != null) {
 					UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(userDetails,
 							null, userDetails.getAuthorities());
 					authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -123,7 +118,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 				}
 			} else {
 				if (userEmail == null) {
-					System.err.println("❌ Could not extract username from token");
+					System.err.println("❌ Invalid, expired or unsigned token");
 				} else {
 					System.out.println("ℹ️ Authentication already set for user: " + userEmail);
 				}
@@ -138,6 +133,35 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 		filterChain.doFilter(request, response);
 	}
 
+	/**
+	 * Principal de la requête, ou {@code null} si le token est révoqué ou le
+	 * compte introuvable. La version du token est toujours contrôlée : via
+	 * {@link TokenVersionService} pour un compte connu, via la base sinon. En mode
+	 * stateless, le compte est ensuite authentifié à partir des seuls claims
+	 * (rôle + version) ; sinon les UserDetails sont chargés via le cache.
+	 */
+	private UserDetails resolvePrincipal(JwtClaims claims) {
+		String username = claims.subject();
+		boolean current = tokenVersionService.isKnown(username)
+				? tokenVersionService.isCurrent(username, claims.tokenVersion())
+				: tokenVersionService.isCurrentInDatabase(username, claims.tokenVersion());
+		if (!current) {
+			System.err.println("🚫 Token révoqué (version " + claims.tokenVersion() + ") pour: " + username);
+			return null;
+		}
+		if (statelessAuth && claims.role() != null) {
+			return User.withUsername(username).password("").authorities(claims.role()).build();
+		}
+
+		try {
+			UserDetails userDetails = userDetailsCache.load(username);
+			return jwtService.isTokenValid(claims, userDetails) ? userDetails : null;
+		} catch (UsernameNotFoundException e) {
+			System.err.println("❌ User not found: " + username);
+			return null;
+		}
+	}
+
 	/**
 	 * 🔥 LISTE DES PATHS PUBLICS - DOIT MATCHER AVEC SECURITYCONFIG
 	 */
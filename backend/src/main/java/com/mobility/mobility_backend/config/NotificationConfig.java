@@ -2,12 +2,21 @@ package com.mobility.mobility_backend.config;
 
 import java.util.Properties;
 
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.JavaMailSenderImpl;
 
+import com.mobility.mobility_backend.service.cache.CacheCodec;
+import com.mobility.mobility_backend.service.notification.LocalNotificationBus;
+import com.mobility.mobility_backend.service.notification.NotificationBus;
+import com.mobility.mobility_backend.service.notification.RedisNotificationBus;
+
 @Configuration
 public class NotificationConfig {
 
@@ -29,6 +38,9 @@ public class NotificationConfig {
 	@Value("${spring.mail.properties.mail.smtp.starttls.enable:false}")
 	private boolean startTls;
 
+	@Value("${notifications.bus.channel:notifications:delivery}")
+	private String busChannel;
+
 	@Bean
 	public JavaMailSender javaMailSender() {
 		JavaMailSenderImpl sender = new JavaMailSenderImpl();
@@ -42,4 +54,23 @@ public class NotificationConfig {
 		props.put("mail.smtp.starttls.enable", startTls);
 		return sender;
 	}
+
+	@Bean
+	@ConditionalOnProperty(prefix = "notifications.bus", name = "type", havingValue = "local", matchIfMissing = true)
+	public NotificationBus localNotificationBus() {
+		return new LocalNotificationBus();
+	}
+
+	// Réutilise la connexion du cache L2 : cache.redis.enabled=true est requis
+	@Bean
+	@ConditionalOnProperty(prefix = "notifications.bus", name = "type", havingValue = "redis")
+	public NotificationBus redisNotificationBus(ObjectProvider<RedisTemplate<String, byte[]>> cacheRedisTemplate,
+			ObjectProvider<RedisMessageListenerContainer> listenerContainer, CacheCodec codec) {
+		RedisTemplate<String, byte[]> template = cacheRedisTemplate.getIfAvailable();
+		RedisMessageListenerContainer container = listenerContainer.getIfAvailable();
+		if (template == null || container == null) {
+			throw new IllegalStateException("notifications.bus.type=redis requiert cache.redis.enabled=true");
+		}
+		return new RedisNotificationBus(template, container, codec, busChannel);
+	}
 }
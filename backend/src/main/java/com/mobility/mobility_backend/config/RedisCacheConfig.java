@@ -0,0 +1,72 @@
+package com.mobility.mobility_backend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import com.mobility.mobility_backend.service.redis.RedisCacheService;
+
+/**
+ * Niveau L2 (Redis) du cache. L'auto-configuration Redis reste exclue : ces
+ * beans n'existent que si {@code cache.redis.enabled=true}, sinon le backend
+ * fonctionne avec le seul cache mémoire.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "cache.redis", name = "enabled", havingValue = "true")
+public class RedisCacheConfig {
+
+	@Value("${spring.data.redis.host:localhost}")
+	private String host;
+
+	@Value("${spring.data.redis.port:6379}")
+	private int port;
+
+	@Value("${spring.data.redis.password:}")
+	private String password;
+
+	@Value("${spring.data.redis.database:0}")
+	private int database;
+
+	@Value("${cache.redis.invalidation-channel:cache:invalidation}")
+	private String invalidationChannel;
+
+	@Bean
+	public LettuceConnectionFactory redisConnectionFactory() {
+		RedisStandaloneConfiguration configuration = new RedisStandaloneConfiguration(host, port);
+		configuration.setDatabase(database);
+		if (!password.isBlank()) {
+			configuration.setPassword(password);
+		}
+		return new LettuceConnectionFactory(configuration);
+	}
+
+	@Bean
+	public RedisTemplate<String, byte[]> cacheRedisTemplate(RedisConnectionFactory connectionFactory) {
+		RedisTemplate<String, byte[]> template = new RedisTemplate<>();
+		template.setConnectionFactory(connectionFactory);
+		template.setKeySerializer(RedisSerializer.string());
+		template.setValueSerializer(RedisSerializer.byteArray());
+		return template;
+	}
+
+	@Bean
+	public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+			RedisConnectionFactory connectionFactory) {
+		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+		container.setConnectionFactory(connectionFactory);
+		return container;
+	}
+
+	@Bean
+	public RedisCacheService redisCacheService(RedisTemplate<String, byte[]> cacheRedisTemplate,
+			RedisMessageListenerContainer cacheInvalidationListenerContainer) {
+		return new RedisCacheService(cacheRedisTemplate, cacheInvalidationListenerContainer, invalidationChannel);
+	}
+}
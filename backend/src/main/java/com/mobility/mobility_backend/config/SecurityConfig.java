@@ -116,7 +116,8 @@ public class SecurityConfig {
 				Arrays.asList("Authorization", "Content-Type", "Accept", "Origin", "X-Requested-With",
 						"Access-Control-Request-Method", "Access-Control-Request-Headers", "Cache-Control"));
 		configuration.setExposedHeaders(
-				Arrays.asList("Access-Control-Allow-Origin", "Access-Control-Allow-Credentials", "Authorization"));
+				Arrays.asList("Access-Control-Allow-Origin", "Access-Control-Allow-Credentials", "Authorization",
+						"X-Has-More", "X-Next-Cursor"));
 		configuration.setAllowCredentials(true);
 		configuration.setMaxAge(3600L);
 
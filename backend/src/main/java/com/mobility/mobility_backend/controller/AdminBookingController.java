@@ -1,12 +1,9 @@
 package com.mobility.mobility_backend.controller;
 
-import java.math.BigDecimal;
-import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
 import java.time.format.DateTimeParseException;
 import java.util.List;
-import java.util.Locale;
 import java.util.Map;
 
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,9 +24,11 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import com.mobility.mobility_backend.dto.BookingStatsDTO;
 import com.mobility.mobility_backend.dto.ReservationDTO;
+import com.mobility.mobility_backend.dto.finance.ReceiptBatchDTO;
 import com.mobility.mobility_backend.dto.payment.AdminPaymentSessionRequest;
 import com.mobility.mobility_backend.dto.payment.PaymentAdminActionRequest;
 import com.mobility.mobility_backend.dto.payment.PaymentSessionRequest;
@@ -39,6 +38,8 @@ import com.mobility.mobility_backend.entity.ReservationAdminAction;
 import com.mobility.mobility_backend.service.FinanceService;
 import com.mobility.mobility_backend.service.PaymentService;
 import com.mobility.mobility_backend.service.ReservationAdminActionService;
+import com.mobility.mobility_backend.service.ReservationDocumentService;
+import com.mobility.mobility_backend.service.ReservationExportService;
 import com.mobility.mobility_backend.service.ReservationService;
 
 @RestController
@@ -50,14 +51,20 @@ public class AdminBookingController {
 	private final PaymentService paymentService;
 	private final FinanceService financeService;
 	private final ReservationAdminActionService adminActionService;
+	private final ReservationExportService reservationExportService;
+	private final ReservationDocumentService reservationDocumentService;
 
 	@Autowired
 	public AdminBookingController(ReservationService reservationService, PaymentService paymentService,
-			FinanceService financeService, ReservationAdminActionService adminActionService) {
+			FinanceService financeService, ReservationAdminActionService adminActionService,
+			ReservationExportService reservationExportService,
+			ReservationDocumentService reservationDocumentService) {
 		this.reservationService = reservationService;
 		this.paymentService = paymentService;
 		this.financeService = financeService;
 		this.adminActionService = adminActionService;
+		this.reservationExportService = reservationExportService;
+		this.reservationDocumentService = reservationDocumentService;
 
 		System.out.println("✅ AdminBookingController chargé !");
 	}
@@ -224,22 +231,37 @@ public class AdminBookingController {
 	}
 
 	@GetMapping("/bookings/export")
-	public ResponseEntity<byte[]> exportBookings(@RequestParam(required = false) String query,
+	public ResponseEntity<StreamingResponseBody> exportBookings(@RequestParam(required = false) String query,
 			@RequestParam(required = false) String status, @RequestParam(required = false) String startDate,
 			@RequestParam(required = false) String endDate,
 			@RequestParam(required = false) Integer userId,
-			@RequestParam(defaultValue = "false") boolean anomaliesOnly) {
+			@RequestParam(defaultValue = "false") boolean anomaliesOnly,
+			@RequestParam(defaultValue = "false") boolean gzip) {
 		LocalDate start = parseDate(startDate);
 		LocalDate end = parseDate(endDate);
 
-		List<Reservation> reservations = reservationService.findReservationsForExport(query, status, start, end,
-				anomaliesOnly, userId);
-		String csvContent = buildBookingsCsv(reservations);
-		byte[] bytes = csvContent.getBytes(StandardCharsets.UTF_8);
+		// Lignes écrites au fil du curseur, sans construire le fichier en mémoire
+		StreamingResponseBody body = output -> reservationExportService.writeCsv(query, status, start, end,
+				anomaliesOnly, userId, output, gzip);
 
+		String filename = gzip ? "reservations-export.csv.gz" : "reservations-export.csv";
 		return ResponseEntity.ok()
-				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reservations-export.csv\"")
-				.contentType(MediaType.parseMediaType("text/csv")).contentLength(bytes.length).body(bytes);
+				.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+				.contentType(MediaType.parseMediaType(gzip ? "application/gzip" : "text/csv; charset=UTF-8"))
+				.body(body);
+	}
+
+	// Reçus du mois (réservations payées) rendus en parallèle dans le magasin de reçus
+	@PostMapping("/receipts/batch")
+	public ResponseEntity<?> renderMonthlyReceipts(@RequestParam String month) {
+		YearMonth period;
+		try {
+			period = YearMonth.parse(month.trim());
+		} catch (DateTimeParseException e) {
+			return ResponseEntity.badRequest().body("Mois invalide (format attendu : yyyy-MM)");
+		}
+		ReceiptBatchDTO result = reservationDocumentService.renderMonth(period);
+		return ResponseEntity.ok(result);
 	}
 
 	@GetMapping("/bookings/{id}/admin-actions")
@@ -268,47 +290,4 @@ public class AdminBookingController {
 		}
 	}
 
-	private String buildBookingsCsv(List<Reservation> reservations) {
-		DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-		StringBuilder builder = new StringBuilder();
-		builder.append("reservation_id;client;email;service;statut_reservation;statut_paiement;montant;date_reservation;derniere_mise_a_jour\n");
-
-		for (Reservation reservation : reservations) {
-			String username = reservation.getUser() != null ? reservation.getUser().getUsername() : "";
-			String email = reservation.getUser() != null ? reservation.getUser().getEmail() : "";
-			String service = reservation.getOffer() != null ? reservation.getOffer().getDescription() : "";
-			String status = reservation.getStatus() != null ? reservation.getStatus().name() : "";
-			String paymentStatus = reservation.getPaymentStatus() != null ? reservation.getPaymentStatus().name() : "";
-			BigDecimal paymentAmount = null;
-			if (reservation.getPaymentAmount() != null) {
-				paymentAmount = reservation.getPaymentAmount();
-			} else if (reservation.getOffer() != null && reservation.getOffer().getPrice() != null) {
-				paymentAmount = reservation.getOffer().getPrice();
-			}
-			String formattedAmount = paymentAmount != null
-					? String.format(Locale.FRANCE, "%.2f", paymentAmount.doubleValue())
-					: "";
-			String reservationDate = reservation.getReservationDate() != null
-					? reservation.getReservationDate().format(formatter)
-					: "";
-			String updatedAt = reservation.getUpdatedAt() != null ? reservation.getUpdatedAt().format(formatter)
-					: "";
-
-			builder.append(reservation.getReservationId()).append(';').append(escapeCsv(username)).append(';')
-					.append(escapeCsv(email)).append(';').append(escapeCsv(service)).append(';')
-					.append(escapeCsv(status)).append(';').append(escapeCsv(paymentStatus)).append(';')
-					.append(formattedAmount).append(';').append(reservationDate).append(';').append(updatedAt)
-					.append('\n');
-		}
-		return builder.toString();
-	}
-
-	private String escapeCsv(String value) {
-		if (value == null || value.isBlank()) {
-			return "";
-		}
-		String sanitized = value.replace("\"", "\"\"");
-		return "\"" + sanitized + "\"";
-	}
-
 }
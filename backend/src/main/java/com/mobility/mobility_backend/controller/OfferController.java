@@ -1,10 +1,13 @@
 package com.mobility.mobility_backend.controller;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -14,11 +17,13 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.security.access.prepost.PreAuthorize;
 
 import com.mobility.mobility_backend.dto.CreateOfferDTO;
 import com.mobility.mobility_backend.dto.OfferDTO;
+import com.mobility.mobility_backend.dto.OfferSearchCriteria;
 import com.mobility.mobility_backend.service.FavoriteService;
 import com.mobility.mobility_backend.service.OfferService;
 
@@ -37,13 +42,41 @@ public class OfferController {
 		this.favoriteService = favoriteService;
 	}
 
-	// Récupérer toutes les offres
+	// Récupérer les offres (plafonné, préférer /search pour paginer)
 	@GetMapping
 	public ResponseEntity<List<OfferDTO>> getAllOffers() {
 		List<OfferDTO> offerDTOs = offerService.getAllOffers();
 		return new ResponseEntity<>(offerDTOs, HttpStatus.OK);
 	}
 
+	// Rechercher des offres avec filtres et pagination par curseur
+	@GetMapping("/search")
+	public ResponseEntity<?> searchOffers(@RequestParam(required = false) Integer pickupCityId,
+			@RequestParam(required = false) Integer serviceId,
+			@RequestParam(required = false) BigDecimal minPrice,
+			@RequestParam(required = false) BigDecimal maxPrice,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+			@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+			@RequestParam(required = false) Boolean active,
+			@RequestParam(required = false) String cursor,
+			@RequestParam(defaultValue = "20") int size) {
+		OfferSearchCriteria criteria = new OfferSearchCriteria();
+		criteria.setPickupCityId(pickupCityId);
+		criteria.setServiceId(serviceId);
+		criteria.setMinPrice(minPrice);
+		criteria.setMaxPrice(maxPrice);
+		criteria.setFrom(from);
+		criteria.setTo(to);
+		criteria.setActive(active);
+		criteria.setCursor(cursor);
+		criteria.setSize(size);
+		try {
+			return ResponseEntity.ok(offerService.searchOffers(criteria));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
 	// Récupérer une offre par ID
 	@GetMapping("/{id}")
 	public ResponseEntity<OfferDTO> getOfferById(@PathVariable Integer id) {
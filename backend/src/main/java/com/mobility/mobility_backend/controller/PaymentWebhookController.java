@@ -23,7 +23,8 @@ public class PaymentWebhookController {
 	@PostMapping("/webhook")
 	public ResponseEntity<String> handleWebhook(@RequestBody String payload,
 			@RequestHeader(name = "Stripe-Signature", required = false) String signature) throws StripeException {
-		stripeWebhookService.handleWebhook(payload, signature);
-		return ResponseEntity.ok("received");
+		// Traitement asynchrone : Stripe est acquitté dès l'enregistrement de l'événement
+		boolean accepted = stripeWebhookService.handleWebhook(payload, signature);
+		return ResponseEntity.ok(accepted ? "received" : "duplicate");
 	}
 }
@@ -1,5 +1,6 @@
 package com.mobility.mobility_backend.controller;
 
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -7,6 +8,9 @@ import java.util.Optional;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
@@ -22,12 +26,15 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
 
 import com.mobility.mobility_backend.dto.ReservationCreationDTO;
 import com.mobility.mobility_backend.dto.ReservationDTO;
 import com.mobility.mobility_backend.dto.timeline.ReservationTimelineDTO;
 import com.mobility.mobility_backend.service.ReservationDocumentService;
 import com.mobility.mobility_backend.service.ReservationService;
+import com.mobility.mobility_backend.service.receipt.ReceiptContent;
 
 import jakarta.validation.Valid;
 
@@ -110,13 +117,25 @@ public class ReservationController {
 		return ResponseEntity.ok(reservationService.getReservationTimeline(id));
 	}
 
+	// Reçu servi depuis le disque ; If-None-Match sur la version courante : 304 sans rendu
 	@GetMapping("/{id}/receipt")
 	@PreAuthorize("hasAnyAuthority('ROLE_USER','ROLE_ADMIN')")
-	public ResponseEntity<byte[]> downloadReceipt(@PathVariable Integer id) {
-		byte[] pdf = reservationDocumentService.buildReceipt(id);
+	public ResponseEntity<Resource> downloadReceipt(@PathVariable Integer id, WebRequest webRequest) {
+		ReceiptContent content;
+		try {
+			content = reservationDocumentService.describeReceipt(id);
+		} catch (IllegalArgumentException e) {
+			return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+		}
+		String etag = ReservationDocumentService.etag(content);
+		if (webRequest.checkNotModified(etag)) {
+			return null;
+		}
+		Path file = reservationDocumentService.getReceiptFile(content);
 		return ResponseEntity.ok()
 				.header("Content-Disposition", "attachment; filename=reservation-" + id + "-receipt.pdf")
-				.contentType(org.springframework.http.MediaType.APPLICATION_PDF).body(pdf);
+				.eTag(etag).cacheControl(CacheControl.noCache().cachePrivate())
+				.contentType(org.springframework.http.MediaType.APPLICATION_PDF).body(new FileSystemResource(file));
 	}
 
 	// Créer une nouvelle réservation
@@ -127,6 +146,9 @@ public class ReservationController {
 		try {
 			ReservationDTO createdReservation = reservationService.createReservation(reservationDTO);
 			return new ResponseEntity<>(createdReservation, HttpStatus.CREATED);
+		} catch (ResponseStatusException e) {
+			// Créneau déjà réservé : 409 pour que le client propose un autre horaire
+			return new ResponseEntity<>(null, e.getStatusCode());
 		} catch (RuntimeException e) {
 			return new ResponseEntity<>(null, HttpStatus.BAD_REQUEST);
 		}
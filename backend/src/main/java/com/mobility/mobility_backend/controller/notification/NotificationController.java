@@ -11,6 +11,7 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -18,6 +19,7 @@ import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.server.ResponseStatusException;
 
 import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.dto.socket.NotificationPageDTO;
 import com.mobility.mobility_backend.dto.socket.NotificationSeverity;
 import com.mobility.mobility_backend.service.UserService;
 import com.mobility.mobility_backend.service.notification.NotificationService;
@@ -39,12 +41,13 @@ public class NotificationController {
 	 */
 	@GetMapping(value = "/stream", produces = "text/event-stream")
 	public SseEmitter streamNotifications(@RequestParam String userId,
-			@RequestParam(required = false) String userRole) {
+			@RequestParam(required = false) String userRole,
+			@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
 
 		enforceUserAccess(userId);
 		String effectiveRole = isAdmin() ? "ADMIN" : "USER";
 		System.out.println("🔔 [CONTROLLER] Connexion SSE demandée - userId: " + userId + ", userRole: " + userRole);
-		return notificationService.connect(userId, effectiveRole);
+		return notificationService.connect(userId, effectiveRole, lastEventId);
 	}
 
 	// === ENVOI DE NOTIFICATIONS ===
@@ -127,7 +130,9 @@ public class NotificationController {
 	// === GESTION DES NOTIFICATIONS ===
 
 	/**
-	 * Récupérer les notifications d'un utilisateur
+	 * Récupérer les notifications d'un utilisateur (les plus récentes, plafonnées).
+	 * Liste tronquée : en-têtes {@code X-Has-More: true} et {@code X-Next-Cursor}
+	 * pour continuer via {@code /inbox}.
 	 */
 	@GetMapping("/user/{userId}")
 	public ResponseEntity<java.util.List<NotificationMessage>> getUserNotifications(@PathVariable String userId,
@@ -137,15 +142,36 @@ public class NotificationController {
 		try {
 			System.out.println("📋 [CONTROLLER] Récupération notifications - userId: " + userId + ", category: "
 					+ category + ", severity: " + severity);
-			java.util.List<NotificationMessage> notifications = notificationService.getUserNotifications(userId,
-					category, severity);
-			return ResponseEntity.ok(notifications);
+			NotificationPageDTO notifications = notificationService.getUserNotifications(userId, category, severity);
+			if (notifications.isHasMore()) {
+				return ResponseEntity.ok().header("X-Has-More", "true")
+						.header("X-Next-Cursor", notifications.getNextCursor()).body(notifications.getItems());
+			}
+			return ResponseEntity.ok(notifications.getItems());
 		} catch (Exception e) {
 			System.err.println("❌ [CONTROLLER] Erreur récupération notifications: " + e.getMessage());
 			return ResponseEntity.badRequest().body(null);
 		}
 	}
 
+	/**
+	 * Boîte de réception paginée par curseur
+	 */
+	@GetMapping("/user/{userId}/inbox")
+	public ResponseEntity<?> getInbox(@PathVariable String userId, @RequestParam(required = false) String category,
+			@RequestParam(required = false) String severity,
+			@RequestParam(defaultValue = "false") boolean unreadOnly,
+			@RequestParam(required = false) String cursor, @RequestParam(defaultValue = "20") int size) {
+
+		enforceUserAccess(userId);
+		try {
+			return ResponseEntity
+					.ok(notificationService.getInboxPage(userId, category, severity, unreadOnly, cursor, size));
+		} catch (IllegalArgumentException e) {
+			return ResponseEntity.badRequest().body(e.getMessage());
+		}
+	}
+
 	/**
 	 * Compter les notifications non lues
 	 */
@@ -0,0 +1,6 @@
+package com.mobility.mobility_backend.dto;
+
+public interface LabelCountProjection {
+    String getLabel();
+    Long getCount();
+}
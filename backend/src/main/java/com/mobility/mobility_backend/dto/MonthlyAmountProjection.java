@@ -0,0 +1,10 @@
+package com.mobility.mobility_backend.dto;
+
+import java.math.BigDecimal;
+
+public interface MonthlyAmountProjection {
+    Integer getPeriodYear();
+    Integer getPeriodMonth();
+    Long getCount();
+    BigDecimal getAmount();
+}
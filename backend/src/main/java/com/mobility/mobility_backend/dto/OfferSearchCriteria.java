@@ -0,0 +1,96 @@
+package com.mobility.mobility_backend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Filtres de la recherche d'offres. Tous les champs sont optionnels ; le curseur
+ * est celui renvoyé par la page précédente.
+ */
+public class OfferSearchCriteria {
+
+	private Integer pickupCityId;
+	private Integer serviceId;
+	private BigDecimal minPrice;
+	private BigDecimal maxPrice;
+	private LocalDateTime from;
+	private LocalDateTime to;
+	private Boolean active;
+	private String cursor;
+	private int size;
+
+	public OfferSearchCriteria() {
+	}
+
+	public Integer getPickupCityId() {
+		return pickupCityId;
+	}
+
+	public void setPickupCityId(Integer pickupCityId) {
+		this.pickupCityId = pickupCityId;
+	}
+
+	public Integer getServiceId() {
+		return serviceId;
+	}
+
+	public void setServiceId(Integer serviceId) {
+		this.serviceId = serviceId;
+	}
+
+	public BigDecimal getMinPrice() {
+		return minPrice;
+	}
+
+	public void setMinPrice(BigDecimal minPrice) {
+		this.minPrice = minPrice;
+	}
+
+	public BigDecimal getMaxPrice() {
+		return maxPrice;
+	}
+
+	public void setMaxPrice(BigDecimal maxPrice) {
+		this.maxPrice = maxPrice;
+	}
+
+	public LocalDateTime getFrom() {
+		return from;
+	}
+
+	public void setFrom(LocalDateTime from) {
+		this.from = from;
+	}
+
+	public LocalDateTime getTo() {
+		return to;
+	}
+
+	public void setTo(LocalDateTime to) {
+		this.to = to;
+	}
+
+	public Boolean getActive() {
+		return active;
+	}
+
+	public void setActive(Boolean active) {
+		this.active = active;
+	}
+
+	public String getCursor() {
+		return cursor;
+	}
+
+	public void setCursor(String cursor) {
+		this.cursor = cursor;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+}
@@ -0,0 +1,43 @@
+package com.mobility.mobility_backend.dto;
+
+import java.util.List;
+
+public class OfferSearchPageDTO {
+
+	private List<OfferDTO> items;
+	private String nextCursor;
+	private boolean hasMore;
+
+	public OfferSearchPageDTO() {
+	}
+
+	public OfferSearchPageDTO(List<OfferDTO> items, String nextCursor, boolean hasMore) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+		this.hasMore = hasMore;
+	}
+
+	public List<OfferDTO> getItems() {
+		return items;
+	}
+
+	public void setItems(List<OfferDTO> items) {
+		this.items = items;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	public boolean isHasMore() {
+		return hasMore;
+	}
+
+	public void setHasMore(boolean hasMore) {
+		this.hasMore = hasMore;
+	}
+}
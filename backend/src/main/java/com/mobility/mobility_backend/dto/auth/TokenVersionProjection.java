@@ -0,0 +1,8 @@
+package com.mobility.mobility_backend.dto.auth;
+
+public interface TokenVersionProjection {
+
+	String getUsername();
+
+	Integer getTokenVersion();
+}
@@ -0,0 +1,12 @@
+package com.mobility.mobility_backend.dto.availability;
+
+import java.time.LocalDateTime;
+
+public interface OfferSlotProjection {
+
+	Integer getReservationId();
+
+	LocalDateTime getReservationDate();
+
+	LocalDateTime getSlotEnd();
+}
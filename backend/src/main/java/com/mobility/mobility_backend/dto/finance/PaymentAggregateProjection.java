@@ -0,0 +1,14 @@
+package com.mobility.mobility_backend.dto.finance;
+
+import java.math.BigDecimal;
+
+import com.mobility.mobility_backend.entity.Reservation;
+
+public interface PaymentAggregateProjection {
+    Reservation.PaymentStatus getPaymentStatus();
+    Reservation.ReservationStatus getStatus();
+    Integer getPaymentYear();
+    Integer getPaymentMonth();
+    Long getCount();
+    BigDecimal getAmount();
+}
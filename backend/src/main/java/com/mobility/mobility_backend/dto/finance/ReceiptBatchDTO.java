@@ -0,0 +1,49 @@
+package com.mobility.mobility_backend.dto.finance;
+
+public class ReceiptBatchDTO {
+	private String month;
+	private long total;
+	private long rendered;
+	private long reused;
+	private long failed;
+
+	public String getMonth() {
+		return month;
+	}
+
+	public void setMonth(String month) {
+		this.month = month;
+	}
+
+	public long getTotal() {
+		return total;
+	}
+
+	public void setTotal(long total) {
+		this.total = total;
+	}
+
+	public long getRendered() {
+		return rendered;
+	}
+
+	public void setRendered(long rendered) {
+		this.rendered = rendered;
+	}
+
+	public long getReused() {
+		return reused;
+	}
+
+	public void setReused(long reused) {
+		this.reused = reused;
+	}
+
+	public long getFailed() {
+		return failed;
+	}
+
+	public void setFailed(long failed) {
+		this.failed = failed;
+	}
+}
@@ -0,0 +1,8 @@
+package com.mobility.mobility_backend.dto.identity;
+
+public interface IdentityDocumentCountProjection {
+
+	Integer getUserId();
+
+	Long getDocumentCount();
+}
@@ -0,0 +1,18 @@
+package com.mobility.mobility_backend.dto.identity;
+
+import java.time.LocalDateTime;
+
+import com.mobility.mobility_backend.entity.UserIdentityVerification.VerificationStatus;
+
+public interface IdentityLatestStatusProjection {
+
+	Integer getUserId();
+
+	Long getId();
+
+	VerificationStatus getStatus();
+
+	String getReason();
+
+	LocalDateTime getUpdatedAt();
+}
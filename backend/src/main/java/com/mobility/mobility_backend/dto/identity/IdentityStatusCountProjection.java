@@ -0,0 +1,10 @@
+package com.mobility.mobility_backend.dto.identity;
+
+import com.mobility.mobility_backend.entity.UserIdentityVerification.VerificationStatus;
+
+public interface IdentityStatusCountProjection {
+
+	VerificationStatus getStatus();
+
+	Long getTotal();
+}
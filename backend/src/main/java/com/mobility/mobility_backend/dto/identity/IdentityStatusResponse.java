@@ -11,6 +11,7 @@ public class IdentityStatusResponse {
 	private String reason;
 	private LocalDateTime updatedAt;
 	private List<IdentityDocumentDTO> documents = new ArrayList<>();
+	private long documentCount;
 
 	public IdentityStatusResponse() {
 	}
@@ -67,4 +68,12 @@ public class IdentityStatusResponse {
 	public void setDocuments(List<IdentityDocumentDTO> documents) {
 		this.documents = documents != null ? documents : new ArrayList<>();
 	}
+
+	public long getDocumentCount() {
+		return documentCount;
+	}
+
+	public void setDocumentCount(long documentCount) {
+		this.documentCount = documentCount;
+	}
 }
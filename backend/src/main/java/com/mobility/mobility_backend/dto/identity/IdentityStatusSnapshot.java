@@ -0,0 +1,68 @@
+package com.mobility.mobility_backend.dto.identity;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dernier état de vérification d'identité d'un utilisateur, sans les documents
+ * (seulement leur nombre) : valeur mise en cache par utilisateur.
+ */
+public class IdentityStatusSnapshot {
+
+	private String status;
+	private boolean verified;
+	private String reason;
+	private LocalDateTime updatedAt;
+	private long documentCount;
+
+	public IdentityStatusSnapshot() {
+	}
+
+	public IdentityStatusSnapshot(String status, boolean verified, String reason, LocalDateTime updatedAt,
+			long documentCount) {
+		this.status = status;
+		this.verified = verified;
+		this.reason = reason;
+		this.updatedAt = updatedAt;
+		this.documentCount = documentCount;
+	}
+
+	public String getStatus() {
+		return status;
+	}
+
+	public void setStatus(String status) {
+		this.status = status;
+	}
+
+	public boolean isVerified() {
+		return verified;
+	}
+
+	public void setVerified(boolean verified) {
+		this.verified = verified;
+	}
+
+	public String getReason() {
+		return reason;
+	}
+
+	public void setReason(String reason) {
+		this.reason = reason;
+	}
+
+	public LocalDateTime getUpdatedAt() {
+		return updatedAt;
+	}
+
+	public void setUpdatedAt(LocalDateTime updatedAt) {
+		this.updatedAt = updatedAt;
+	}
+
+	public long getDocumentCount() {
+		return documentCount;
+	}
+
+	public void setDocumentCount(long documentCount) {
+		this.documentCount = documentCount;
+	}
+}
@@ -0,0 +1,18 @@
+package com.mobility.mobility_backend.dto.payment;
+
+import java.time.LocalDateTime;
+
+import com.mobility.mobility_backend.entity.Reservation;
+
+public interface PaymentDeadlineProjection {
+
+	Integer getReservationId();
+
+	Reservation.PaymentStatus getPaymentStatus();
+
+	LocalDateTime getUpdatedAt();
+
+	LocalDateTime getReservationDate();
+
+	LocalDateTime getPaymentReminderSentAt();
+}
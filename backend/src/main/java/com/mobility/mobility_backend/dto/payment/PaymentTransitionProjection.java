@@ -0,0 +1,17 @@
+package com.mobility.mobility_backend.dto.payment;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import com.mobility.mobility_backend.entity.Reservation;
+
+public interface PaymentTransitionProjection {
+
+	Integer getReservationId();
+
+	Reservation.ReservationStatus getStatus();
+
+	LocalDateTime getPaymentDate();
+
+	BigDecimal getAmount();
+}
@@ -0,0 +1,10 @@
+package com.mobility.mobility_backend.dto.payment;
+
+public interface WebhookReplayProjection {
+
+	Long getId();
+
+	String getEventId();
+
+	String getReservationReference();
+}
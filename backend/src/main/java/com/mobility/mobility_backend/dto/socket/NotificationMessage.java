@@ -4,6 +4,11 @@ import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.hibernate.annotations.BatchSize;
+import org.springframework.data.domain.Persistable;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import jakarta.persistence.CollectionTable;
 import jakarta.persistence.Column;
 import jakarta.persistence.ElementCollection;
@@ -13,11 +18,14 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.MapKeyColumn;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 
 @Entity
 @Table(name = "notifications")
-public class NotificationMessage {
+public class NotificationMessage implements Persistable<String> {
 
 	@Id
 	private String id;
@@ -45,7 +53,9 @@ public class NotificationMessage {
 	@Column(name = "sender")
 	private String sender;
 
+	// Chargées par lots pour une page de boîte de réception, pas une requête par notification
 	@ElementCollection
+	@BatchSize(size = 100)
 	@CollectionTable(name = "notification_metadata", joinColumns = @JoinColumn(name = "notification_id"))
 	@MapKeyColumn(name = "metadata_key")
 	@Column(name = "metadata_value", length = 1000)
@@ -69,6 +79,17 @@ public class NotificationMessage {
 	@Column(name = "is_read")
 	private boolean read = false;
 
+	// L'id est attribué à la construction : sans ce drapeau, save() ferait un merge (SELECT + INSERT).
+	// Faux par défaut (instances désérialisées depuis Redis/JSON) : seul l'envoi d'une nouvelle
+	// notification le lève, via markNew()
+	@Transient
+	@JsonIgnore
+	private boolean isNew = false;
+
+	// Identifiant d'événement SSE (croissant), attribué à l'envoi ; non persisté
+	@Transient
+	private Long eventId;
+
 	// === CONSTRUCTEURS ===
 	public NotificationMessage() {
 		this.id = java.util.UUID.randomUUID().toString();
@@ -185,14 +206,39 @@ public class NotificationMessage {
 	}
 
 	// === GETTERS/SETTERS ===
+	@Override
 	public String getId() {
 		return id;
 	}
 
+	@Override
+	@JsonIgnore
+	public boolean isNew() {
+		return isNew;
+	}
+
+	public void markNew() {
+		this.isNew = true;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		this.isNew = false;
+	}
+
 	public void setId(String id) {
 		this.id = id;
 	}
 
+	public Long getEventId() {
+		return eventId;
+	}
+
+	public void setEventId(Long eventId) {
+		this.eventId = eventId;
+	}
+
 	public NotificationCategory getCategory() {
 		return category;
 	}
@@ -0,0 +1,43 @@
+package com.mobility.mobility_backend.dto.socket;
+
+import java.util.List;
+
+public class NotificationPageDTO {
+
+	private List<NotificationMessage> items;
+	private String nextCursor;
+	private boolean hasMore;
+
+	public NotificationPageDTO() {
+	}
+
+	public NotificationPageDTO(List<NotificationMessage> items, String nextCursor, boolean hasMore) {
+		this.items = items;
+		this.nextCursor = nextCursor;
+		this.hasMore = hasMore;
+	}
+
+	public List<NotificationMessage> getItems() {
+		return items;
+	}
+
+	public void setItems(List<NotificationMessage> items) {
+		this.items = items;
+	}
+
+	public String getNextCursor() {
+		return nextCursor;
+	}
+
+	public void setNextCursor(String nextCursor) {
+		this.nextCursor = nextCursor;
+	}
+
+	public boolean isHasMore() {
+		return hasMore;
+	}
+
+	public void setHasMore(boolean hasMore) {
+		this.hasMore = hasMore;
+	}
+}
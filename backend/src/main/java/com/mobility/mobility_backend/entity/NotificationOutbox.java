@@ -0,0 +1,177 @@
+package com.mobility.mobility_backend.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * Message email/SMS à envoyer, écrit dans la même transaction que le
+ * changement métier qui le déclenche puis envoyé par
+ * {@code NotificationOutboxDispatcher}.
+ */
+@Entity
+@Table(name = "notification_outbox", indexes = @Index(name = "idx_notification_outbox_due", columnList = "status, next_attempt_at"))
+public class NotificationOutbox {
+
+	public enum Channel {
+		EMAIL, SMS
+	}
+
+	public enum Status {
+		PENDING, SENDING, SENT, FAILED
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 10)
+	private Channel channel;
+
+	@Enumerated(EnumType.STRING)
+	@Column(nullable = false, length = 10)
+	private Status status = Status.PENDING;
+
+	@Column(nullable = false)
+	private String recipient;
+
+	private String subject;
+
+	@Column(length = 4000)
+	private String body;
+
+	private int attempts;
+
+	@Column(name = "next_attempt_at", nullable = false)
+	private LocalDateTime nextAttemptAt;
+
+	// Bail d'envoi : une ligne SENDING dont le bail a expiré est reprise (worker arrêté en cours d'envoi)
+	@Column(name = "lease_until")
+	private LocalDateTime leaseUntil;
+
+	@Column(name = "last_error", length = 1000)
+	private String lastError;
+
+	@Column(name = "created_at", nullable = false)
+	private LocalDateTime createdAt;
+
+	@Column(name = "sent_at")
+	private LocalDateTime sentAt;
+
+	public NotificationOutbox() {
+	}
+
+	public NotificationOutbox(Channel channel, String recipient, String subject, String body) {
+		this.channel = channel;
+		this.recipient = recipient;
+		this.subject = subject;
+		this.body = body;
+		this.createdAt = LocalDateTime.now();
+		this.nextAttemptAt = this.createdAt;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public Channel getChannel() {
+		return channel;
+	}
+
+	public void setChannel(Channel channel) {
+		this.channel = channel;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public void setStatus(Status status) {
+		this.status = status;
+	}
+
+	public String getRecipient() {
+		return recipient;
+	}
+
+	public void setRecipient(String recipient) {
+		this.recipient = recipient;
+	}
+
+	public String getSubject() {
+		return subject;
+	}
+
+	public void setSubject(String subject) {
+		this.subject = subject;
+	}
+
+	public String getBody() {
+		return body;
+	}
+
+	public void setBody(String body) {
+		this.body = body;
+	}
+
+	public int getAttempts() {
+		return attempts;
+	}
+
+	public void setAttempts(int attempts) {
+		this.attempts = attempts;
+	}
+
+	public LocalDateTime getNextAttemptAt() {
+		return nextAttemptAt;
+	}
+
+	public void setNextAttemptAt(LocalDateTime nextAttemptAt) {
+		this.nextAttemptAt = nextAttemptAt;
+	}
+
+	public LocalDateTime getLeaseUntil() {
+		return leaseUntil;
+	}
+
+	public void setLeaseUntil(LocalDateTime leaseUntil) {
+		this.leaseUntil = leaseUntil;
+	}
+
+	public String getLastError() {
+		return lastError;
+	}
+
+	public void setLastError(String lastError) {
+		this.lastError = lastError;
+	}
+
+	public LocalDateTime getCreatedAt() {
+		return createdAt;
+	}
+
+	public void setCreatedAt(LocalDateTime createdAt) {
+		this.createdAt = createdAt;
+	}
+
+	public LocalDateTime getSentAt() {
+		return sentAt;
+	}
+
+	public void setSentAt(LocalDateTime sentAt) {
+		this.sentAt = sentAt;
+	}
+}
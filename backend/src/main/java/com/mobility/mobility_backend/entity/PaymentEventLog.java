@@ -9,9 +9,10 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.Lob;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 
 @Entity
-@Table(name = "payment_events")
+@Table(name = "payment_events", uniqueConstraints = @UniqueConstraint(name = "uk_payment_events_event_id", columnNames = "event_id"))
 public class PaymentEventLog {
 
 	@Id
@@ -32,6 +33,10 @@ public class PaymentEventLog {
 
 	private LocalDateTime receivedAt;
 
+	// Nombre de traitements tentés (rejeu automatique des échecs, plafonné)
+	@Column(name = "attempts", columnDefinition = "INTEGER DEFAULT 0")
+	private Integer attempts = 0;
+
 	@Lob
 	private String payload;
 
@@ -91,6 +96,14 @@ public class PaymentEventLog {
 		this.receivedAt = receivedAt;
 	}
 
+	public int getAttempts() {
+		return attempts != null ? attempts : 0;
+	}
+
+	public void setAttempts(Integer attempts) {
+		this.attempts = attempts;
+	}
+
 	public String getPayload() {
 		return payload;
 	}
@@ -6,6 +6,7 @@ import java.time.LocalDateTime;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
@@ -14,10 +15,12 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotNull;
-
+
 @Entity
 @Table(name = "reservations")
+@EntityListeners(ReservationEntityListener.class)
 public class Reservation {
 
 	@Id
@@ -54,6 +57,14 @@ public class Reservation {
 	@Column(name = "payment_amount", precision = 10, scale = 2)
 	private BigDecimal paymentAmount;
 
+	// Rappel de paiement envoyé (une seule fois, posé par un UPDATE conditionnel)
+	@Column(name = "payment_reminder_sent_at")
+	private LocalDateTime paymentReminderSentAt;
+
+	// Fin du créneau occupé sur l'offre [reservationDate, slotEnd) ; null pour les réservations antérieures
+	@Column(name = "slot_end")
+	private LocalDateTime slotEnd;
+
 	@Column(name = "created_at")
 	private LocalDateTime createdAt;
 
@@ -83,6 +94,10 @@ public class Reservation {
 
 	@Column(name = "driver_profile_completed_at")
 	private LocalDateTime driverProfileCompletedAt;
+
+	// Etat financier tel que chargé depuis la base, pour calculer les deltas des agrégats
+	@Transient
+	private FinanceState loadedFinanceState;
 
 	// Getters and Setters
 
@@ -158,6 +173,28 @@ public class Reservation {
 		this.paymentAmount = paymentAmount;
 	}
 
+	public LocalDateTime getPaymentReminderSentAt() {
+		return paymentReminderSentAt;
+	}
+
+	public void setPaymentReminderSentAt(LocalDateTime paymentReminderSentAt) {
+		this.paymentReminderSentAt = paymentReminderSentAt;
+	}
+
+	public LocalDateTime getSlotEnd() {
+		return slotEnd;
+	}
+
+	public void setSlotEnd(LocalDateTime slotEnd) {
+		this.slotEnd = slotEnd;
+	}
+
+	// Une réservation en attente ou confirmée bloque son créneau sur l'offre, sauf paiement expiré ou échoué
+	public boolean holdsSlot() {
+		return (status == ReservationStatus.PENDING || status == ReservationStatus.CONFIRMED)
+				&& paymentStatus != PaymentStatus.EXPIRED && paymentStatus != PaymentStatus.FAILED;
+	}
+
 	public LocalDateTime getCreatedAt() {
 		return createdAt;
 	}
@@ -238,6 +275,30 @@ public class Reservation {
 		this.driverProfileCompletedAt = driverProfileCompletedAt;
 	}
 
+	public FinanceState getLoadedFinanceState() {
+		return loadedFinanceState;
+	}
+
+	public void setLoadedFinanceState(FinanceState loadedFinanceState) {
+		this.loadedFinanceState = loadedFinanceState;
+	}
+
+	/**
+	 * Photographie des champs qui alimentent les agrégats financiers. Le montant
+	 * retombe sur le prix de l'offre quand aucun paiement n'est enregistré.
+	 */
+	public FinanceState captureFinanceState() {
+		BigDecimal amount = paymentAmount;
+		if (amount == null && offer != null) {
+			amount = offer.getPrice();
+		}
+		return new FinanceState(paymentStatus, status, paymentDate, amount != null ? amount : BigDecimal.ZERO);
+	}
+
+	public record FinanceState(PaymentStatus paymentStatus, ReservationStatus status, LocalDateTime paymentDate,
+			BigDecimal amount) {
+	}
+
 	public enum ReservationStatus {
 		PENDING, CONFIRMED, CANCELLED, COMPLETED
 	}
@@ -0,0 +1,21 @@
+package com.mobility.mobility_backend.entity;
+
+/**
+ * Réaction d'un service au cycle de vie d'une {@link Reservation}, appelée par
+ * {@link ReservationEntityListener} pour chaque bean qui l'implémente. Les
+ * effets visibles hors de la transaction sont à différer au commit.
+ */
+public interface ReservationChangeListener {
+
+	default void onLoad(Reservation reservation) {
+	}
+
+	default void onPersist(Reservation reservation) {
+	}
+
+	default void onUpdate(Reservation reservation) {
+	}
+
+	default void onRemove(Reservation reservation) {
+	}
+}
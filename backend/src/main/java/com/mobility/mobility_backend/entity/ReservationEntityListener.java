@@ -0,0 +1,59 @@
+package com.mobility.mobility_backend.entity;
+
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+/**
+ * Unique listener JPA de {@link Reservation} : relaie chaque événement aux
+ * {@link ReservationChangeListener} du contexte (agrégats financiers,
+ * échéances de paiement, créneaux, reçus), sans que l'entité dépende de la
+ * couche service.
+ */
+@Component
+public class ReservationEntityListener {
+
+	private final ObjectProvider<ReservationChangeListener> provider;
+
+	// Résolus au premier événement : Hibernate crée ce listener avant les services
+	private volatile List<ReservationChangeListener> listeners;
+
+	public ReservationEntityListener(ObjectProvider<ReservationChangeListener> provider) {
+		this.provider = provider;
+	}
+
+	@PostLoad
+	public void onLoad(Reservation reservation) {
+		listeners().forEach(listener -> listener.onLoad(reservation));
+	}
+
+	@PostPersist
+	public void onPersist(Reservation reservation) {
+		listeners().forEach(listener -> listener.onPersist(reservation));
+	}
+
+	@PostUpdate
+	public void onUpdate(Reservation reservation) {
+		listeners().forEach(listener -> listener.onUpdate(reservation));
+	}
+
+	@PostRemove
+	public void onRemove(Reservation reservation) {
+		listeners().forEach(listener -> listener.onRemove(reservation));
+	}
+
+	private List<ReservationChangeListener> listeners() {
+		List<ReservationChangeListener> resolved = listeners;
+		if (resolved == null) {
+			resolved = provider.orderedStream().toList();
+			listeners = resolved;
+		}
+		return resolved;
+	}
+}
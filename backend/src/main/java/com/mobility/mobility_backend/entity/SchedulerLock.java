@@ -0,0 +1,81 @@
+package com.mobility.mobility_backend.entity;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+
+/**
+ * Verrou d'exécution d'une tâche planifiée, partagé entre réplicas : une ligne
+ * par tâche, détenue jusqu'à {@code lockUntil}.
+ */
+@Entity
+@Table(name = "scheduler_locks")
+public class SchedulerLock implements Persistable<String> {
+
+	@Id
+	@Column(name = "name", length = 64)
+	private String name;
+
+	@Column(name = "lock_until", nullable = false)
+	private LocalDateTime lockUntil;
+
+	@Column(name = "locked_at", nullable = false)
+	private LocalDateTime lockedAt;
+
+	@Column(name = "locked_by", nullable = false)
+	private String lockedBy;
+
+	// Première prise du verrou : INSERT strict (un doublon échoue au lieu d'écraser le détenteur)
+	@Transient
+	private boolean isNew = true;
+
+	protected SchedulerLock() {
+	}
+
+	public SchedulerLock(String name, LocalDateTime lockUntil, LocalDateTime lockedAt, String lockedBy) {
+		this.name = name;
+		this.lockUntil = lockUntil;
+		this.lockedAt = lockedAt;
+		this.lockedBy = lockedBy;
+	}
+
+	@Override
+	public String getId() {
+		return name;
+	}
+
+	@Override
+	public boolean isNew() {
+		return isNew;
+	}
+
+	@PostLoad
+	@PostPersist
+	void markNotNew() {
+		this.isNew = false;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public LocalDateTime getLockUntil() {
+		return lockUntil;
+	}
+
+	public LocalDateTime getLockedAt() {
+		return lockedAt;
+	}
+
+	public String getLockedBy() {
+		return lockedBy;
+	}
+}
@@ -46,6 +46,10 @@ public class User implements UserDetails {
 	@Enumerated(EnumType.STRING)
 	private Role role;
 
+	// Incrémenté à chaque révocation : les JWT portant une version plus ancienne sont refusés
+	@Column(name = "token_version", columnDefinition = "INTEGER DEFAULT 0")
+	private Integer tokenVersion = 0;
+
 	@Column(name = "created_at", columnDefinition = "DATETIME DEFAULT CURRENT_TIMESTAMP")
 	private LocalDateTime createdAt;
 
@@ -178,6 +182,14 @@ public class User implements UserDetails {
 		return List.of(new SimpleGrantedAuthority(role.name()));
 	}
 
+	public int getTokenVersion() {
+		return tokenVersion != null ? tokenVersion : 0;
+	}
+
+	public void setTokenVersion(Integer tokenVersion) {
+		this.tokenVersion = tokenVersion;
+	}
+
 	public String getFirstName() {
 		return firstName;
 	}
@@ -44,6 +44,10 @@ public class UserIdentityVerification {
 	@Column(name = "reason", length = 512)
 	private String reason;
 
+	// Vérification la plus récente de l'utilisateur (une seule par utilisateur), tenue à jour à l'écriture
+	@Column(name = "is_latest", nullable = false)
+	private boolean latest;
+
 	@Column(name = "last_checked_at")
 	private LocalDateTime lastCheckedAt;
 
@@ -121,6 +125,14 @@ public class UserIdentityVerification {
 		this.reason = reason;
 	}
 
+	public boolean isLatest() {
+		return latest;
+	}
+
+	public void setLatest(boolean latest) {
+		this.latest = latest;
+	}
+
 	public LocalDateTime getLastCheckedAt() {
 		return lastCheckedAt;
 	}
@@ -1,8 +1,10 @@
 package com.mobility.mobility_backend.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import com.mobility.mobility_backend.entity.Admin;
@@ -18,4 +20,7 @@ public interface AdminRepository extends JpaRepository<Admin, Integer> {
 
 	boolean existsByEmail(String email);
 
+	@Query("SELECT a.username FROM Admin a")
+	List<String> findAllUsernames();
+
 }
@@ -0,0 +1,30 @@
+package com.mobility.mobility_backend.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import com.mobility.mobility_backend.entity.NotificationOutbox;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+
+public interface NotificationOutboxRepository extends JpaRepository<NotificationOutbox, Long> {
+
+	// ✅ Lignes dues, verrouillées en SKIP LOCKED (timeout -2) : plusieurs réplicas se partagent l'outbox sans doublon
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+	@Query("SELECT o FROM NotificationOutbox o WHERE (o.status = :pending AND o.nextAttemptAt <= :now) "
+			+ "OR (o.status = :sending AND o.leaseUntil < :now) ORDER BY o.nextAttemptAt ASC")
+	List<NotificationOutbox> findDueForUpdate(@Param("now") LocalDateTime now,
+			@Param("pending") NotificationOutbox.Status pending, @Param("sending") NotificationOutbox.Status sending,
+			Pageable pageable);
+
+	long countByStatus(NotificationOutbox.Status status);
+}
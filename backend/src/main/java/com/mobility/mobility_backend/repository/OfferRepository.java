@@ -8,8 +8,11 @@ import java.util.Optional;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.mobility.mobility_backend.dto.LabelCountProjection;
 import com.mobility.mobility_backend.entity.Admin;
 import com.mobility.mobility_backend.entity.City;
 import com.mobility.mobility_backend.entity.MobilityService;
@@ -86,6 +89,34 @@ public interface OfferRepository extends JpaRepository<Offer, Integer> {
 	// "status")
 	long countByStatus(Offer.OfferStatus status);
 
+	// ✅ Statistiques agrégées côté base pour le dashboard
+	@Query("SELECT ms.categorie AS label, COUNT(o) AS count FROM Offer o LEFT JOIN o.mobilityService ms "
+			+ "GROUP BY ms.categorie")
+	List<LabelCountProjection> countByCategory();
+
+	@Query("SELECT c.name AS label, COUNT(o) AS count FROM Offer o LEFT JOIN o.pickupLocation c "
+			+ "GROUP BY c.name ORDER BY COUNT(o) DESC")
+	List<LabelCountProjection> countByPickupCity(Pageable pageable);
+
+	// ✅ Recherche paginée par curseur (pickupDatetime, offerId) avec relations chargées en une requête
+	@Query("SELECT o FROM Offer o JOIN FETCH o.pickupLocation p JOIN FETCH o.returnLocation r "
+			+ "JOIN FETCH o.mobilityService ms JOIN FETCH o.admin a "
+			+ "WHERE (:pickupCityId IS NULL OR p.cityId = :pickupCityId) "
+			+ "AND (:serviceId IS NULL OR ms.serviceId = :serviceId) "
+			+ "AND (:active IS NULL OR o.active = :active) "
+			+ "AND (:minPrice IS NULL OR o.price >= :minPrice) "
+			+ "AND (:maxPrice IS NULL OR o.price <= :maxPrice) "
+			+ "AND (:from IS NULL OR o.pickupDatetime >= :from) "
+			+ "AND (:to IS NULL OR o.pickupDatetime < :to) "
+			+ "AND (:afterDatetime IS NULL OR o.pickupDatetime > :afterDatetime "
+			+ "OR (o.pickupDatetime = :afterDatetime AND o.offerId > :afterId)) "
+			+ "ORDER BY o.pickupDatetime ASC, o.offerId ASC")
+	List<Offer> searchOffers(@Param("pickupCityId") Integer pickupCityId, @Param("serviceId") Integer serviceId,
+			@Param("active") Boolean active, @Param("minPrice") BigDecimal minPrice,
+			@Param("maxPrice") BigDecimal maxPrice, @Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+			@Param("afterDatetime") LocalDateTime afterDatetime, @Param("afterId") Integer afterId,
+			Pageable pageable);
+
 	// ✅ Méthode pour pagination
 	@Override
 	Page<Offer> findAll(Pageable pageable);
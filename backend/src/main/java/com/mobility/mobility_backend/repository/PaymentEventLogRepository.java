@@ -1,12 +1,41 @@
 package com.mobility.mobility_backend.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.mobility.mobility_backend.dto.payment.WebhookReplayProjection;
 import com.mobility.mobility_backend.entity.PaymentEventLog;
 
 public interface PaymentEventLogRepository extends JpaRepository<PaymentEventLog, Long> {
 	List<PaymentEventLog> findTop20ByOrderByReceivedAtDesc();
 	List<PaymentEventLog> findTop20ByReservationReferenceOrderByReceivedAtDesc(String reservationReference);
+
+	boolean existsByEventId(String eventId);
+
+	// ✅ Événements à rejouer : réservation pas encore connue, échec retentable, ou reçu mais jamais traité (redémarrage)
+	@Query("SELECT l.id AS id, l.eventId AS eventId, l.reservationReference AS reservationReference "
+			+ "FROM PaymentEventLog l WHERE l.receivedAt > :since AND (l.status = 'PENDING_RESERVATION' "
+			+ "OR (l.status = 'FAILED' AND l.attempts < :maxAttempts) "
+			+ "OR (l.status = 'RECEIVED' AND l.receivedAt < :staleBefore)) ORDER BY l.receivedAt ASC")
+	List<WebhookReplayProjection> findReplayable(@Param("since") LocalDateTime since,
+			@Param("staleBefore") LocalDateTime staleBefore, @Param("maxAttempts") int maxAttempts,
+			Pageable pageable);
+
+	// ✅ Prise en charge exclusive : 1 pour un seul thread / réplica, le verrou de ligne est tenu jusqu'au commit
+	@Modifying(flushAutomatically = true, clearAutomatically = true)
+	@Query("UPDATE PaymentEventLog l SET l.status = 'PROCESSING' WHERE l.id = :id "
+			+ "AND l.status IN ('RECEIVED', 'PENDING_RESERVATION', 'FAILED')")
+	int claim(@Param("id") Long id);
+
+	// Échec enregistré seulement si aucun autre traitement n'a abouti entre-temps
+	@Modifying
+	@Query("UPDATE PaymentEventLog l SET l.status = 'FAILED', l.attempts = COALESCE(l.attempts, 0) + 1, "
+			+ "l.errorMessage = :error WHERE l.id = :id AND l.status IN ('RECEIVED', 'PENDING_RESERVATION', 'FAILED')")
+	int markFailed(@Param("id") Long id, @Param("error") String error);
 }
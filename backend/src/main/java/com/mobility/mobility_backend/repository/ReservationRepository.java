@@ -5,17 +5,28 @@ import java.time.LocalDateTime;
 import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.mobility.mobility_backend.dto.MonthlyAmountProjection;
+import com.mobility.mobility_backend.dto.availability.OfferSlotProjection;
+import com.mobility.mobility_backend.dto.finance.PaymentAggregateProjection;
 import com.mobility.mobility_backend.dto.finance.PeriodAmountProjection;
+import com.mobility.mobility_backend.dto.payment.PaymentDeadlineProjection;
+import com.mobility.mobility_backend.dto.payment.PaymentTransitionProjection;
 import com.mobility.mobility_backend.entity.Reservation;
+
+import jakarta.persistence.QueryHint;
 
 @Repository
 public interface ReservationRepository extends JpaRepository<Reservation, Integer> {
@@ -33,9 +44,33 @@ public interface ReservationRepository extends JpaRepository<Reservation, Intege
 
 	Optional<Reservation> findByPaymentReference(String paymentReference);
 
+	// ✅ Identifiant seul : clé d'ordonnancement des webhooks Stripe
+	@Query("SELECT r.reservationId FROM Reservation r WHERE r.paymentReference = :paymentReference")
+	Optional<Integer> findIdByPaymentReference(@Param("paymentReference") String paymentReference);
+
 	List<Reservation> findTop5ByPaymentStatusOrderByReservationDateDesc(Reservation.PaymentStatus status);
 
-	List<Reservation> findByPaymentStatusIn(Collection<Reservation.PaymentStatus> statuses);
+	// ✅ Créneaux occupés d'une offre (réservations en attente ou confirmées, paiement ni expiré ni échoué)
+	@Query("SELECT r.reservationId AS reservationId, r.reservationDate AS reservationDate, r.slotEnd AS slotEnd "
+			+ "FROM Reservation r WHERE r.offer.offerId = :offerId AND r.status IN ("
+			+ "com.mobility.mobility_backend.entity.Reservation$ReservationStatus.PENDING, "
+			+ "com.mobility.mobility_backend.entity.Reservation$ReservationStatus.CONFIRMED) "
+			+ "AND (r.paymentStatus IS NULL OR r.paymentStatus NOT IN ("
+			+ "com.mobility.mobility_backend.entity.Reservation$PaymentStatus.EXPIRED, "
+			+ "com.mobility.mobility_backend.entity.Reservation$PaymentStatus.FAILED))")
+	List<OfferSlotProjection> findActiveSlots(@Param("offerId") Integer offerId);
+
+	// ✅ Alertes de paiement : statuts, période, recherche et limite appliqués en base
+	@Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.user u LEFT JOIN FETCH r.offer o "
+			+ "WHERE r.paymentStatus IN :statuses "
+			+ "AND (:from IS NULL OR r.reservationDate >= :from) "
+			+ "AND (:to IS NULL OR r.reservationDate < :to) "
+			+ "AND (:needle IS NULL OR LOWER(u.username) LIKE :needle "
+			+ "OR CAST(r.reservationId AS string) LIKE :needle OR r.paymentStatus IN :needleStatuses) "
+			+ "ORDER BY r.reservationDate DESC NULLS FIRST, r.reservationId DESC")
+	List<Reservation> findAlerts(@Param("statuses") Collection<Reservation.PaymentStatus> statuses,
+			@Param("from") LocalDateTime from, @Param("to") LocalDateTime to, @Param("needle") String needle,
+			@Param("needleStatuses") Collection<Reservation.PaymentStatus> needleStatuses, Pageable pageable);
 
 	List<Reservation> findByPaymentStatusAndReservationDateBetween(Reservation.PaymentStatus status,
 			LocalDateTime start, LocalDateTime end);
@@ -43,9 +78,70 @@ public interface ReservationRepository extends JpaRepository<Reservation, Intege
 	List<Reservation> findByPaymentStatusAndUpdatedAtBefore(Reservation.PaymentStatus status,
 		LocalDateTime threshold);
 
+	// Lot de réservations à faire transiter (état financier avant transition, pour les agrégats)
+	@Query("SELECT r.reservationId AS reservationId, r.status AS status, r.paymentDate AS paymentDate, "
+		+ "COALESCE(r.paymentAmount, o.price, 0) AS amount FROM Reservation r LEFT JOIN r.offer o "
+		+ "WHERE r.paymentStatus = :status AND r.updatedAt < :threshold ORDER BY r.reservationId")
+	List<PaymentTransitionProjection> findTransitionCandidates(@Param("status") Reservation.PaymentStatus status,
+		@Param("threshold") LocalDateTime threshold, Pageable pageable);
+
+	// Même lot, restreint à des réservations précises (échéances de PaymentDeadlineService)
+	@Query("SELECT r.reservationId AS reservationId, r.status AS status, r.paymentDate AS paymentDate, "
+		+ "COALESCE(r.paymentAmount, o.price, 0) AS amount FROM Reservation r LEFT JOIN r.offer o "
+		+ "WHERE r.reservationId IN :ids AND r.paymentStatus = :status AND r.updatedAt < :threshold")
+	List<PaymentTransitionProjection> findTransitionCandidatesByIds(@Param("ids") Collection<Integer> ids,
+		@Param("status") Reservation.PaymentStatus status, @Param("threshold") LocalDateTime threshold);
+
+	// ✅ Transition ensembliste : la condition sur l'ancien statut écarte les lignes modifiées entre-temps
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE Reservation r SET r.paymentStatus = :to, r.updatedAt = :now "
+		+ "WHERE r.reservationId IN :ids AND r.paymentStatus = :from AND r.updatedAt < :threshold")
+	int transitionPaymentStatus(@Param("ids") Collection<Integer> ids, @Param("from") Reservation.PaymentStatus from,
+		@Param("to") Reservation.PaymentStatus to, @Param("threshold") LocalDateTime threshold,
+		@Param("now") LocalDateTime now);
+
+	// Réservations effectivement passées par transitionPaymentStatus (même horodatage), avec de quoi notifier
+	@Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.user LEFT JOIN FETCH r.offer "
+		+ "WHERE r.reservationId IN :ids AND r.paymentStatus = :status AND r.updatedAt = :updatedAt")
+	List<Reservation> findTransitioned(@Param("ids") Collection<Integer> ids,
+		@Param("status") Reservation.PaymentStatus status, @Param("updatedAt") LocalDateTime updatedAt);
+
+	// Réservations en attente de paiement dont la date approche et sans rappel envoyé
+	@Query("SELECT r.reservationId FROM Reservation r WHERE r.paymentStatus = "
+		+ "com.mobility.mobility_backend.entity.Reservation$PaymentStatus.PENDING "
+		+ "AND r.paymentReminderSentAt IS NULL AND r.reservationDate BETWEEN :from AND :to ORDER BY r.reservationId")
+	List<Integer> findReminderCandidates(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+		Pageable pageable);
+
+	// ✅ Un seul rappel par réservation, même si plusieurs nœuds voient l'échéance
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE Reservation r SET r.paymentReminderSentAt = :now WHERE r.reservationId IN :ids "
+		+ "AND r.paymentStatus = com.mobility.mobility_backend.entity.Reservation$PaymentStatus.PENDING "
+		+ "AND r.paymentReminderSentAt IS NULL AND r.reservationDate BETWEEN :from AND :to")
+	int markPaymentReminderSent(@Param("ids") Collection<Integer> ids, @Param("now") LocalDateTime now,
+		@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+	@Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.user LEFT JOIN FETCH r.offer "
+		+ "WHERE r.reservationId IN :ids AND r.paymentReminderSentAt = :sentAt")
+	List<Reservation> findReminded(@Param("ids") Collection<Integer> ids, @Param("sentAt") LocalDateTime sentAt);
+
+	// Échéances de paiement à armer au démarrage (réservations en attente de paiement)
+	@Query("SELECT r.reservationId AS reservationId, r.paymentStatus AS paymentStatus, r.updatedAt AS updatedAt, "
+		+ "r.reservationDate AS reservationDate, r.paymentReminderSentAt AS paymentReminderSentAt "
+		+ "FROM Reservation r WHERE r.paymentStatus IN :statuses")
+	List<PaymentDeadlineProjection> findPaymentDeadlines(
+		@Param("statuses") Collection<Reservation.PaymentStatus> statuses);
+
 	@EntityGraph(attributePaths = { "user", "offer", "offer.mobilityService" })
 	Optional<Reservation> findWithReceiptDetailsByReservationId(Integer reservationId);
 
+	// Réservations payées sur la période, avec de quoi rendre leur reçu (lots mensuels)
+	@EntityGraph(attributePaths = { "user", "offer", "offer.mobilityService" })
+	@Query("SELECT r FROM Reservation r WHERE r.paymentStatus = "
+		+ "com.mobility.mobility_backend.entity.Reservation$PaymentStatus.PAID "
+		+ "AND r.paymentDate >= :from AND r.paymentDate < :to ORDER BY r.reservationId")
+	List<Reservation> findPaidWithReceiptDetails(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
 	@Query("SELECT COALESCE(SUM(COALESCE(r.paymentAmount, r.offer.price, 0)), 0) FROM Reservation r "
 		+ "WHERE r.paymentStatus = com.mobility.mobility_backend.entity.Reservation$PaymentStatus.PAID")
 	BigDecimal sumPaidAmount();
@@ -60,6 +156,21 @@ public interface ReservationRepository extends JpaRepository<Reservation, Intege
 		+ "AND r.paymentDate >= :start")
 	BigDecimal sumPaidAmountSince(@Param("start") LocalDateTime start);
 
+	// Réservations et chiffre d'affaires (prix des offres) par mois de réservation
+	@Query("SELECT YEAR(r.reservationDate) AS periodYear, MONTH(r.reservationDate) AS periodMonth, "
+		+ "COUNT(r) AS count, COALESCE(SUM(COALESCE(o.price, 0)), 0) AS amount "
+		+ "FROM Reservation r LEFT JOIN r.offer o WHERE r.reservationDate >= :from "
+		+ "GROUP BY YEAR(r.reservationDate), MONTH(r.reservationDate)")
+	List<MonthlyAmountProjection> aggregateMonthlyReservationsSince(@Param("from") LocalDateTime from);
+
+	// Agrégats financiers par statut et par mois de paiement (reconstruction du cache au démarrage)
+	@Query("SELECT r.paymentStatus AS paymentStatus, r.status AS status, "
+		+ "YEAR(r.paymentDate) AS paymentYear, MONTH(r.paymentDate) AS paymentMonth, "
+		+ "COUNT(r) AS count, COALESCE(SUM(COALESCE(r.paymentAmount, o.price, 0)), 0) AS amount "
+		+ "FROM Reservation r LEFT JOIN r.offer o "
+		+ "GROUP BY r.paymentStatus, r.status, YEAR(r.paymentDate), MONTH(r.paymentDate)")
+	List<PaymentAggregateProjection> aggregateByPaymentStatusAndMonth();
+
 	@Query(value = "SELECT FORMATDATETIME(r.reservation_date, 'YYYY-ww') AS period, COUNT(*) AS count, "
 		+ "COALESCE(SUM(COALESCE(r.payment_amount, o.price, 0)), 0) AS amount "
 		+ "FROM reservations r LEFT JOIN offers o ON o.offer_id = r.offer_id "
@@ -76,6 +187,30 @@ public interface ReservationRepository extends JpaRepository<Reservation, Intege
 		nativeQuery = true)
 	List<PeriodAmountProjection> findOutstandingByMonth(@Param("from") LocalDateTime from);
 
+	// ✅ Export CSV en flux : filtres et tri en base, curseur en lecture seule (fetch size) sans tout charger
+	@QueryHints({ @QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "500"),
+			@QueryHint(name = AvailableHints.HINT_READ_ONLY, value = "true") })
+	@Query("SELECT r FROM Reservation r LEFT JOIN FETCH r.user u LEFT JOIN FETCH r.offer o "
+			+ "WHERE (:reservationId IS NULL OR r.reservationId = :reservationId) "
+			+ "AND (:keyword IS NULL OR LOWER(u.username) LIKE :keyword OR LOWER(u.email) LIKE :keyword "
+			+ "OR LOWER(o.description) LIKE :keyword) "
+			+ "AND (:status IS NULL OR r.status = :status) "
+			+ "AND (:paymentStatus IS NULL OR r.paymentStatus = :paymentStatus) "
+			+ "AND (:userId IS NULL OR u.id = :userId) "
+			+ "AND (:from IS NULL OR COALESCE(r.reservationDate, r.createdAt) >= :from) "
+			+ "AND (:to IS NULL OR COALESCE(r.reservationDate, r.createdAt) < :to) "
+			+ "AND (:anomaliesOnly = false OR r.paymentStatus IN ("
+			+ "com.mobility.mobility_backend.entity.Reservation$PaymentStatus.PENDING, "
+			+ "com.mobility.mobility_backend.entity.Reservation$PaymentStatus.REQUIRES_ACTION, "
+			+ "com.mobility.mobility_backend.entity.Reservation$PaymentStatus.FAILED, "
+			+ "com.mobility.mobility_backend.entity.Reservation$PaymentStatus.EXPIRED)) "
+			+ "ORDER BY COALESCE(r.reservationDate, r.createdAt) DESC NULLS LAST, r.reservationId DESC")
+	Stream<Reservation> streamForExport(@Param("reservationId") Integer reservationId,
+			@Param("keyword") String keyword, @Param("status") Reservation.ReservationStatus status,
+			@Param("paymentStatus") Reservation.PaymentStatus paymentStatus, @Param("userId") Integer userId,
+			@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+			@Param("anomaliesOnly") boolean anomaliesOnly);
+
 	@Query("SELECT r FROM Reservation r LEFT JOIN r.user u LEFT JOIN r.offer o "
 			+ "WHERE LOWER(u.username) LIKE LOWER(CONCAT('%', :keyword, '%')) "
 			+ "OR LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) "
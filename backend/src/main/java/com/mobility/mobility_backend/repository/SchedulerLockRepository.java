@@ -0,0 +1,24 @@
+package com.mobility.mobility_backend.repository;
+
+import java.time.LocalDateTime;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import com.mobility.mobility_backend.entity.SchedulerLock;
+
+public interface SchedulerLockRepository extends JpaRepository<SchedulerLock, String> {
+
+	// ✅ Prise du verrou seulement s'il est libre (expiré) : un UPDATE atomique, pas de SELECT préalable
+	@Modifying
+	@Query("UPDATE SchedulerLock l SET l.lockUntil = :lockUntil, l.lockedAt = :now, l.lockedBy = :owner "
+			+ "WHERE l.name = :name AND l.lockUntil <= :now")
+	int tryAcquire(@Param("name") String name, @Param("owner") String owner, @Param("now") LocalDateTime now,
+			@Param("lockUntil") LocalDateTime lockUntil);
+
+	@Modifying
+	@Query("UPDATE SchedulerLock l SET l.lockUntil = :lockUntil WHERE l.name = :name AND l.lockedBy = :owner")
+	int release(@Param("name") String name, @Param("owner") String owner, @Param("lockUntil") LocalDateTime lockUntil);
+}
@@ -1,9 +1,13 @@
 package com.mobility.mobility_backend.repository;
 
+import java.util.Collection;
 import java.util.List;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.mobility.mobility_backend.dto.identity.IdentityDocumentCountProjection;
 import com.mobility.mobility_backend.entity.UserIdentityDocument;
 import com.mobility.mobility_backend.entity.UserIdentityVerification;
 
@@ -14,4 +18,8 @@ public interface UserIdentityDocumentRepository extends JpaRepository<UserIdenti
 	List<UserIdentityDocument> findByVerification_IdOrderByUpdatedAtDesc(Long verificationId);
 
 	void deleteByVerification(UserIdentityVerification verification);
+
+	@Query("SELECT d.user.id AS userId, COUNT(d) AS documentCount FROM UserIdentityDocument d "
+			+ "WHERE d.user.id IN :userIds GROUP BY d.user.id")
+	List<IdentityDocumentCountProjection> countByUserIds(@Param("userIds") Collection<Integer> userIds);
 }
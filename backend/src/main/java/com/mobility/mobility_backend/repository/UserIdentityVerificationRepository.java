@@ -1,22 +1,45 @@
 package com.mobility.mobility_backend.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import com.mobility.mobility_backend.dto.identity.IdentityLatestStatusProjection;
+import com.mobility.mobility_backend.dto.identity.IdentityStatusCountProjection;
 import com.mobility.mobility_backend.entity.UserIdentityVerification;
 
 public interface UserIdentityVerificationRepository
 		extends JpaRepository<UserIdentityVerification, Long> {
 
-	Optional<UserIdentityVerification> findTopByUser_IdOrderByCreatedAtDesc(Integer userId);
-
 	Optional<UserIdentityVerification> findByStripeSessionId(String sessionId);
 
-	List<UserIdentityVerification> findAllByOrderByUpdatedAtDesc();
-
 	List<UserIdentityVerification> findByUser_IdInOrderByUpdatedAtDesc(List<Integer> userIds);
 
 	List<UserIdentityVerification> findByUser_IdOrderByUpdatedAtDesc(Integer userId);
+
+	// Dernière vérification de chaque utilisateur (drapeau latest ; ex æquo éventuels départagés par l'appelant)
+	@Query("SELECT v.user.id AS userId, v.id AS id, v.status AS status, v.reason AS reason, v.updatedAt AS updatedAt "
+			+ "FROM UserIdentityVerification v WHERE v.user.id IN :userIds AND v.latest = true "
+			+ "ORDER BY v.id DESC")
+	List<IdentityLatestStatusProjection> findLatestStatuses(@Param("userIds") Collection<Integer> userIds);
+
+	// Retire le drapeau « latest » des autres vérifications, avant que la nouvelle ne le prenne (index unique)
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE UserIdentityVerification v SET v.latest = false "
+			+ "WHERE v.user.id = :userId AND v.latest = true AND v.id <> :verificationId")
+	int clearLatestExcept(@Param("userId") Integer userId, @Param("verificationId") Long verificationId);
+
+	@Modifying(flushAutomatically = true)
+	@Query("UPDATE UserIdentityVerification v SET v.latest = false WHERE v.user.id = :userId AND v.latest = true")
+	int clearLatest(@Param("userId") Integer userId);
+
+	// Répartition des utilisateurs par statut courant : une requête sur l'index partiel is_latest
+	@Query("SELECT v.status AS status, COUNT(v) AS total FROM UserIdentityVerification v "
+			+ "WHERE v.latest = true GROUP BY v.status")
+	List<IdentityStatusCountProjection> countLatestByStatus();
 }
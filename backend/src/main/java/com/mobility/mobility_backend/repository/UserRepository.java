@@ -1,14 +1,21 @@
 package com.mobility.mobility_backend.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.mobility.mobility_backend.dto.auth.TokenVersionProjection;
 import com.mobility.mobility_backend.entity.User;
 
+import jakarta.persistence.LockModeType;
+
 @Repository
 public interface UserRepository extends JpaRepository<User, Integer> {
 
@@ -27,4 +34,16 @@ public interface UserRepository extends JpaRepository<User, Integer> {
 	@Override
 	long count();
 
+	// Versions de token de tous les comptes, pour valider les JWT sans charger les entités
+	@Query("SELECT u.username AS username, u.tokenVersion AS tokenVersion FROM User u")
+	List<TokenVersionProjection> findAllTokenVersions();
+
+	@Query("SELECT u.username AS username, u.tokenVersion AS tokenVersion FROM User u WHERE u.username = :username")
+	Optional<TokenVersionProjection> findTokenVersionByUsername(@Param("username") String username);
+
+	// ✅ Verrou de ligne sur le compte : sérialise les écritures concurrentes qui en dépendent (jusqu'au commit)
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("SELECT u FROM User u WHERE u.id = :id")
+	Optional<User> findByIdForUpdate(@Param("id") Integer id);
+
 }
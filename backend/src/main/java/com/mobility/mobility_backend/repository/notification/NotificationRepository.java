@@ -1,7 +1,9 @@
 package com.mobility.mobility_backend.repository.notification;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -16,39 +18,47 @@ import com.mobility.mobility_backend.dto.socket.NotificationSeverity;
 @Repository
 public interface NotificationRepository extends JpaRepository<NotificationMessage, String> {
 
-	@Query("SELECT n FROM NotificationMessage n WHERE n.recipient = :userId AND n.read = false ORDER BY n.createdAt DESC")
-	List<NotificationMessage> findUnreadByUserId(@Param("userId") String userId);
-
-	@Query("SELECT n FROM NotificationMessage n WHERE n.recipient = :userId ORDER BY n.createdAt DESC")
-	List<NotificationMessage> findByUserId(@Param("userId") String userId);
-
-	@Query("SELECT n FROM NotificationMessage n WHERE n.recipient = :userId AND n.category = :category ORDER BY n.createdAt DESC")
-	List<NotificationMessage> findByUserIdAndCategory(@Param("userId") String userId,
-			@Param("category") NotificationCategory category);
-
-	@Query("SELECT n FROM NotificationMessage n WHERE n.recipient = :userId AND n.severity = :severity ORDER BY n.createdAt DESC")
-	List<NotificationMessage> findByUserIdAndSeverity(@Param("userId") String userId,
-			@Param("severity") NotificationSeverity severity);
-
-	@Query("SELECT n FROM NotificationMessage n WHERE n.recipient = :userId AND n.category = :category AND n.severity = :severity ORDER BY n.createdAt DESC")
-	List<NotificationMessage> findByUserIdAndCategoryAndSeverity(@Param("userId") String userId,
-			@Param("category") NotificationCategory category, @Param("severity") NotificationSeverity severity);
+	// ✅ Boîte de réception paginée par curseur (createdAt, id) décroissant, servie par idx_notifications_recipient_read_created
+	@Query("SELECT n FROM NotificationMessage n WHERE n.recipient = :userId "
+			+ "AND (:category IS NULL OR n.category = :category) "
+			+ "AND (:severity IS NULL OR n.severity = :severity) "
+			+ "AND (:unreadOnly = false OR n.read = false) "
+			+ "AND (:beforeCreatedAt IS NULL OR n.createdAt < :beforeCreatedAt "
+			+ "OR (n.createdAt = :beforeCreatedAt AND n.id < :beforeId)) "
+			+ "ORDER BY n.createdAt DESC, n.id DESC")
+	List<NotificationMessage> findInboxPage(@Param("userId") String userId,
+			@Param("category") NotificationCategory category, @Param("severity") NotificationSeverity severity,
+			@Param("unreadOnly") boolean unreadOnly, @Param("beforeCreatedAt") LocalDateTime beforeCreatedAt,
+			@Param("beforeId") String beforeId, Pageable pageable);
 
 	@Query("SELECT COUNT(n) FROM NotificationMessage n WHERE n.recipient = :userId AND n.read = false")
 	long countUnreadByUserId(@Param("userId") String userId);
 
 	@Modifying
 	@Transactional
-	@Query("UPDATE NotificationMessage n SET n.read = true WHERE n.id = :notificationId AND n.recipient = :userId")
-	void markAsRead(@Param("notificationId") String notificationId, @Param("userId") String userId);
+	@Query("UPDATE NotificationMessage n SET n.read = true WHERE n.id = :notificationId AND n.recipient = :userId AND n.read = false")
+	int markAsRead(@Param("notificationId") String notificationId, @Param("userId") String userId);
 
 	@Modifying
 	@Transactional
 	@Query("UPDATE NotificationMessage n SET n.read = true WHERE n.recipient = :userId AND n.read = false")
-	void markAllAsRead(@Param("userId") String userId);
+	int markAllAsRead(@Param("userId") String userId);
+
+	// === RÉTENTION : suppression par lots bornés (voir NotificationRetentionService) ===
 
+	@Query("SELECT n.id FROM NotificationMessage n WHERE n.expiresAt < :now")
+	List<String> findExpiredIds(@Param("now") LocalDateTime now, Pageable pageable);
+
+	@Query("SELECT n.id FROM NotificationMessage n WHERE n.category = :category AND n.createdAt < :cutoff")
+	List<String> findIdsCreatedBefore(@Param("category") NotificationCategory category,
+			@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+	// Lignes filles d'abord : la collection de métadonnées n'est pas couverte par un DELETE JPQL
 	@Modifying
-	@Transactional
-	@Query("DELETE FROM NotificationMessage n WHERE n.expiresAt < CURRENT_TIMESTAMP")
-	void deleteExpiredNotifications();
+	@Query(value = "DELETE FROM notification_metadata WHERE notification_id IN (:ids)", nativeQuery = true)
+	int deleteMetadataByNotificationIds(@Param("ids") List<String> ids);
+
+	@Modifying
+	@Query("DELETE FROM NotificationMessage n WHERE n.id IN :ids")
+	int deleteByIds(@Param("ids") List<String> ids);
 }
\ No newline at end of file
@@ -16,8 +16,10 @@ import com.mobility.mobility_backend.dto.UserDTO;
 import com.mobility.mobility_backend.entity.Reservation.ReservationStatus;
 import com.mobility.mobility_backend.entity.Role;
 import com.mobility.mobility_backend.entity.User;
+import com.mobility.mobility_backend.repository.RefreshTokenRepository;
 import com.mobility.mobility_backend.repository.ReservationRepository;
 import com.mobility.mobility_backend.repository.UserRepository;
+import com.mobility.mobility_backend.service.auth.TokenVersionService;
 import com.mobility.mobility_backend.service.cache.AdminStatsCacheService;
 
 @Service
@@ -32,6 +34,12 @@ public class AdminUserService {
 	@Autowired
 	private AdminStatsCacheService adminStatsCacheService;
 
+	@Autowired
+	private TokenVersionService tokenVersionService;
+
+	@Autowired
+	private RefreshTokenRepository refreshTokenRepository;
+
 	@Autowired
 	public AdminUserService(UserRepository userRepository) {
 		this.userRepository = userRepository;
@@ -110,6 +118,8 @@ public class AdminUserService {
 		try {
 			Role role = Role.valueOf(newRole.toUpperCase());
 			user.setRole(role);
+			// Les JWT en circulation portent l'ancien rôle : ils doivent être réémis
+			tokenVersionService.revokeTokens(user, null);
 			User updatedUser = userRepository.save(user);
 
 			// Invalider le cache car les données ont changé
@@ -129,6 +139,9 @@ public class AdminUserService {
 		User user = userRepository.findById(userId)
 				.orElseThrow(() -> new RuntimeException("Utilisateur non trouvé avec l'ID: " + userId));
 
+		String previousUsername = user.getUsername();
+		Role previousRole = user.getRole();
+
 		// Mettre à jour les champs modifiables
 		if (userDTO.getUsername() != null) {
 			user.setUsername(userDTO.getUsername());
@@ -151,6 +164,11 @@ public class AdminUserService {
 			}
 		}
 
+		// Le nom (sub) ou le rôle portés par les JWT ont changé : révocation
+		if (!previousUsername.equals(user.getUsername()) || previousRole != user.getRole()) {
+			tokenVersionService.revokeTokens(user, previousUsername);
+		}
+
 		User updatedUser = userRepository.save(user);
 
 		// Invalider le cache car les données ont changé
@@ -168,7 +186,9 @@ public class AdminUserService {
 				.orElseThrow(() -> new RuntimeException("Utilisateur non trouvé avec l'ID: " + userId));
 		// Implémentez la logique de désactivation selon votre modèle
 		// user.setActive(false);
+		tokenVersionService.revokeTokens(user, null);
 		userRepository.save(user);
+		refreshTokenRepository.deleteByUsername(user.getUsername());
 
 		// Invalider le cache
 		invalidateUserCache();
@@ -194,10 +214,11 @@ public class AdminUserService {
 	 * Supprime un utilisateur ET invalide le cache
 	 */
 	public void deleteUser(Integer userId) {
-		if (!userRepository.existsById(userId)) {
-			throw new RuntimeException("Utilisateur non trouvé avec l'ID: " + userId);
-		}
-		userRepository.deleteById(userId);
+		User user = userRepository.findById(userId)
+				.orElseThrow(() -> new RuntimeException("Utilisateur non trouvé avec l'ID: " + userId));
+		userRepository.delete(user);
+		refreshTokenRepository.deleteByUsername(user.getUsername());
+		tokenVersionService.forget(user.getUsername());
 
 		// Invalider le cache
 		invalidateUserCache();
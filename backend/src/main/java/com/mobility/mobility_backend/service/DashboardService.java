@@ -14,6 +14,7 @@ import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -181,21 +182,17 @@ public class DashboardService {
 	private List<MonthlyReservationStatDTO> buildMonthlyReservationStats(int months) {
 		Map<YearMonth, MonthlyReservationStatDTO> statsMap = new LinkedHashMap<>();
 		YearMonth current = YearMonth.now();
-		for (int i = months - 1; i >= 0; i--) {
-			YearMonth month = current.minusMonths(i);
+		YearMonth first = current.minusMonths(months - 1);
+		for (YearMonth month = first; !month.isAfter(current); month = month.plusMonths(1)) {
 			String label = month.getMonth().getDisplayName(TextStyle.SHORT, Locale.FRENCH) + " " + month.getYear();
 			statsMap.put(month, new MonthlyReservationStatDTO(label, 0, 0));
 		}
 
-		reservationRepository.findAll().forEach(reservation -> {
-			YearMonth month = YearMonth.from(reservation.getReservationDate());
-			if (statsMap.containsKey(month)) {
-				MonthlyReservationStatDTO stat = statsMap.get(month);
-				stat.setReservations(stat.getReservations() + 1);
-				BigDecimal price = reservation.getOffer() != null && reservation.getOffer().getPrice() != null
-						? reservation.getOffer().getPrice()
-						: BigDecimal.ZERO;
-				stat.setRevenue(round(stat.getRevenue() + price.doubleValue()));
+		reservationRepository.aggregateMonthlyReservationsSince(first.atDay(1).atStartOfDay()).forEach(row -> {
+			MonthlyReservationStatDTO stat = statsMap.get(YearMonth.of(row.getPeriodYear(), row.getPeriodMonth()));
+			if (stat != null) {
+				stat.setReservations(row.getCount() != null ? row.getCount() : 0);
+				stat.setRevenue(round(row.getAmount() != null ? row.getAmount().doubleValue() : 0));
 			}
 		});
 
@@ -203,17 +200,12 @@ public class DashboardService {
 	}
 
 	private List<CategoryStatDTO> buildCategoryStats() {
-		Map<String, Long> counts = offerRepository.findAll().stream()
-				.collect(Collectors.groupingBy(
-						offer -> {
-							if (offer.getMobilityService() != null
-									&& offer.getMobilityService().getCategorie() != null
-									&& !offer.getMobilityService().getCategorie().isBlank()) {
-								return offer.getMobilityService().getCategorie();
-							}
-							return "Autre";
-						},
-						Collectors.counting()));
+		// Les catégories vides ou absentes sont regroupées sous "Autre"
+		Map<String, Long> counts = new LinkedHashMap<>();
+		offerRepository.countByCategory().forEach(row -> {
+			String category = row.getLabel() != null && !row.getLabel().isBlank() ? row.getLabel() : "Autre";
+			counts.merge(category, row.getCount() != null ? row.getCount() : 0L, Long::sum);
+		});
 
 		return counts.entrySet().stream()
 				.map(entry -> new CategoryStatDTO(entry.getKey(), entry.getValue()))
@@ -222,15 +214,9 @@ public class DashboardService {
 	}
 
 	private List<CityStatDTO> buildCityStats() {
-		Map<String, Long> counts = offerRepository.findAll().stream()
-				.collect(Collectors.groupingBy(
-						offer -> offer.getPickupLocation() != null ? offer.getPickupLocation().getName() : "Inconnu",
-						Collectors.counting()));
-
-		return counts.entrySet().stream()
-				.sorted((a, b) -> Long.compare(b.getValue(), a.getValue()))
-				.limit(5)
-				.map(entry -> new CityStatDTO(entry.getKey(), entry.getValue()))
+		return offerRepository.countByPickupCity(PageRequest.of(0, 5)).stream()
+				.map(row -> new CityStatDTO(row.getLabel() != null ? row.getLabel() : "Inconnu",
+						row.getCount() != null ? row.getCount() : 0L))
 				.collect(Collectors.toList());
 	}
 
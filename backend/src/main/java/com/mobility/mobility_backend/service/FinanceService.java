@@ -6,14 +6,13 @@ import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.time.format.TextStyle;
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.EnumMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.stream.Collectors;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import com.mobility.mobility_backend.dto.BookingStatsDTO;
@@ -27,8 +26,10 @@ import com.mobility.mobility_backend.dto.finance.PeriodAmountProjection;
 import com.mobility.mobility_backend.dto.identity.IdentityStatusResponse;
 import com.mobility.mobility_backend.entity.PaymentEventLog;
 import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.entity.User;
 import com.mobility.mobility_backend.repository.PaymentEventLogRepository;
 import com.mobility.mobility_backend.repository.ReservationRepository;
+import com.mobility.mobility_backend.service.finance.FinanceAggregateService;
 
 @Service
 public class FinanceService {
@@ -36,37 +37,38 @@ public class FinanceService {
     private final ReservationRepository reservationRepository;
     private final PaymentEventLogRepository paymentEventLogRepository;
     private final IdentityVerificationService identityVerificationService;
+    private final FinanceAggregateService financeAggregateService;
 
     public FinanceService(ReservationRepository reservationRepository,
 		PaymentEventLogRepository paymentEventLogRepository,
-		IdentityVerificationService identityVerificationService) {
+		IdentityVerificationService identityVerificationService,
+		FinanceAggregateService financeAggregateService) {
 	this.reservationRepository = reservationRepository;
 	this.paymentEventLogRepository = paymentEventLogRepository;
 	this.identityVerificationService = identityVerificationService;
+	this.financeAggregateService = financeAggregateService;
     }
 
 	public FinanceOverviewDTO getFinanceOverview(int months) {
 		FinanceOverviewDTO overview = new FinanceOverviewDTO();
 		YearMonth currentMonth = YearMonth.now();
-		LocalDateTime monthStart = currentMonth.atDay(1).atStartOfDay();
 
-		BigDecimal totalRevenue = reservationRepository.sumPaidAmount();
-		BigDecimal monthRevenue = reservationRepository.sumPaidAmountSince(monthStart);
-		BigDecimal outstandingRevenue = reservationRepository.sumOutstandingAmount();
+		BigDecimal totalRevenue = financeAggregateService.sumPaidAmount();
+		BigDecimal monthRevenue = financeAggregateService.sumPaidAmountSince(currentMonth);
+		BigDecimal outstandingRevenue = financeAggregateService.sumOutstandingAmount();
 
 		overview.setTotalRevenue(round(totalRevenue.doubleValue()));
 		overview.setMonthToDateRevenue(round(monthRevenue.doubleValue()));
 		overview.setOutstandingRevenue(round(outstandingRevenue.doubleValue()));
 
-		long confirmed = reservationRepository.countByStatus(Reservation.ReservationStatus.CONFIRMED)
-				+ reservationRepository.countByStatus(Reservation.ReservationStatus.COMPLETED);
-		long total = reservationRepository.count();
+		long confirmed = financeAggregateService.countByStatus(Reservation.ReservationStatus.CONFIRMED)
+				+ financeAggregateService.countByStatus(Reservation.ReservationStatus.COMPLETED);
+		long total = financeAggregateService.totalCount();
 		double confirmationRate = total == 0 ? 0 : (double) confirmed / total;
 		overview.setConfirmationRate(confirmationRate);
 
-		List<Reservation> reservations = reservationRepository.findAll();
-		overview.setPaymentsByStatus(buildStatusBreakdown(reservations));
-		overview.setRevenueHistory(buildHistory(reservations, Math.max(1, Math.min(months, 12))));
+		overview.setPaymentsByStatus(buildStatusBreakdown());
+		overview.setRevenueHistory(buildHistory(Math.max(1, Math.min(months, 12))));
 		overview.setAlerts(getAlerts(null, null, null, null, null, false, 10));
 
 		LocalDateTime eightWeeksAgo = LocalDateTime.now().minusWeeks(8);
@@ -85,23 +87,21 @@ public class FinanceService {
 
 	public BookingStatsDTO getBookingStatsSummary() {
 		BookingStatsDTO stats = new BookingStatsDTO();
-		long totalBookings = reservationRepository.count();
-		long pending = reservationRepository.countByStatus(Reservation.ReservationStatus.PENDING);
-		long confirmed = reservationRepository.countByStatus(Reservation.ReservationStatus.CONFIRMED);
-		long cancelled = reservationRepository.countByStatus(Reservation.ReservationStatus.CANCELLED);
-		long completed = reservationRepository.countByStatus(Reservation.ReservationStatus.COMPLETED);
+		long totalBookings = financeAggregateService.totalCount();
+		long pending = financeAggregateService.countByStatus(Reservation.ReservationStatus.PENDING);
+		long confirmed = financeAggregateService.countByStatus(Reservation.ReservationStatus.CONFIRMED);
+		long cancelled = financeAggregateService.countByStatus(Reservation.ReservationStatus.CANCELLED);
+		long completed = financeAggregateService.countByStatus(Reservation.ReservationStatus.COMPLETED);
 
 		stats.setTotalBookings(totalBookings);
 		stats.setPendingBookings(pending);
 		stats.setConfirmedBookings(confirmed);
 		stats.setCancelledBookings(cancelled);
 		stats.setCompletedBookings(completed);
-		stats.setTotalRevenue(round(reservationRepository.sumPaidAmount().doubleValue()));
-		stats.setOutstandingRevenue(round(reservationRepository.sumOutstandingAmount().doubleValue()));
-
-		YearMonth currentMonth = YearMonth.now();
-		LocalDateTime monthStart = currentMonth.atDay(1).atStartOfDay();
-		stats.setMonthToDateRevenue(round(reservationRepository.sumPaidAmountSince(monthStart).doubleValue()));
+		stats.setTotalRevenue(round(financeAggregateService.sumPaidAmount().doubleValue()));
+		stats.setOutstandingRevenue(round(financeAggregateService.sumOutstandingAmount().doubleValue()));
+		stats.setMonthToDateRevenue(
+				round(financeAggregateService.sumPaidAmountSince(YearMonth.now()).doubleValue()));
 
 		long confirmedOrCompleted = confirmed + completed;
 		double confirmationRate = totalBookings == 0 ? 0 : (double) confirmedOrCompleted / totalBookings;
@@ -154,52 +154,53 @@ public class FinanceService {
 			boolean actionRequiredOnly,
 			int limit) {
 
-		List<Reservation.PaymentStatus> statusFilter = resolveStatusFilter(statuses);
-		List<Reservation> candidates = reservationRepository.findByPaymentStatusIn(statusFilter);
-		LocalDateTime from = startDate != null ? startDate.atStartOfDay() : null;
-		LocalDateTime to = endDate != null ? endDate.plusDays(1).atStartOfDay() : null;
+		List<Reservation.PaymentStatus> statusFilter = new ArrayList<>(resolveStatusFilter(statuses));
+		// Gravité et action requise ne dépendent que du statut : ils restreignent la liste des statuts
 		String severityFilter = severity != null && !severity.isBlank() ? severity.trim().toUpperCase(Locale.ROOT)
 				: null;
-		String needle = search != null ? search.trim().toLowerCase(Locale.ROOT) : null;
+		if (severityFilter != null) {
+			statusFilter.removeIf(status -> !severityFilter.equalsIgnoreCase(severityOf(status)));
+		}
+		if (actionRequiredOnly) {
+			statusFilter.removeIf(status -> !isActionRequired(status.name()));
+		}
+		if (statusFilter.isEmpty()) {
+			return List.of();
+		}
+		LocalDateTime from = startDate != null ? startDate.atStartOfDay() : null;
+		LocalDateTime to = endDate != null ? endDate.plusDays(1).atStartOfDay() : null;
+		String needle = search != null && !search.isBlank() ? search.trim().toLowerCase(Locale.ROOT) : null;
+		// Le message d'alerte est déduit du statut : la recherche sur le message devient un filtre de statut
+		List<Reservation.PaymentStatus> needleStatuses = needle == null ? statusFilter
+				: statusFilter.stream()
+						.filter(status -> status.name().toLowerCase(Locale.ROOT).contains(needle)
+								|| alertMessagePrefix(status).toLowerCase(Locale.ROOT).contains(needle))
+						.collect(Collectors.toList());
 		int effectiveLimit = limit > 0 ? Math.min(limit, 200) : 20;
 
-		return candidates.stream()
-				.filter(res -> from == null || (res.getReservationDate() != null
-						&& !res.getReservationDate().isBefore(from)))
-				.filter(res -> to == null || (res.getReservationDate() != null
-						&& res.getReservationDate().isBefore(to)))
-				.sorted(Comparator.comparing(Reservation::getReservationDate,
-						Comparator.nullsLast(LocalDateTime::compareTo)).reversed())
-				.map(this::toAlert)
-				.filter(alert -> severityFilter == null
-						|| severityFilter.equalsIgnoreCase(alert.getSeverity()))
-				.filter(alert -> !actionRequiredOnly || isActionRequired(alert.getPaymentStatus()))
-				.filter(alert -> {
-					if (needle == null || needle.isBlank()) {
-						return true;
-					}
-					return (alert.getCustomer() != null && alert.getCustomer().toLowerCase(Locale.ROOT).contains(needle))
-							|| (alert.getMessage() != null
-									&& alert.getMessage().toLowerCase(Locale.ROOT).contains(needle))
-							|| (alert.getPaymentStatus() != null
-									&& alert.getPaymentStatus().toLowerCase(Locale.ROOT).contains(needle))
-							|| (alert.getReservationId() != null
-									&& String.valueOf(alert.getReservationId()).contains(needle));
-				})
-				.limit(effectiveLimit)
+		List<Reservation> reservations = reservationRepository.findAlerts(statusFilter, from, to,
+				needle != null ? "%" + needle + "%" : null, needleStatuses, PageRequest.of(0, effectiveLimit));
+		List<Integer> userIds = reservations.stream()
+				.map(Reservation::getUser)
+				.filter(Objects::nonNull)
+				.map(User::getId)
+				.collect(Collectors.toList());
+		Map<Integer, IdentityStatusResponse> identities = identityVerificationService.getLatestStatusForUsers(userIds);
+		return reservations.stream()
+				.map(reservation -> toAlert(reservation,
+						reservation.getUser() != null ? identities.get(reservation.getUser().getId()) : null))
 				.collect(Collectors.toList());
 	}
 
 	public String buildFinanceCsv(int months) {
-		FinanceOverviewDTO overview = getFinanceOverview(months);
 		StringBuilder builder = new StringBuilder();
 		builder.append("Statut,Nombre,Montant\n");
-		overview.getPaymentsByStatus()
+		buildStatusBreakdown()
 				.forEach(item -> builder.append(item.getStatus()).append(',')
 						.append(item.getCount()).append(',')
 						.append(item.getAmount()).append('\n'));
 		builder.append("\nRevenus mensuels\nMois,Paiements,Montant\n");
-		overview.getRevenueHistory().forEach(point -> builder.append(point.getLabel()).append(',')
+		buildHistory(Math.max(1, Math.min(months, 12))).forEach(point -> builder.append(point.getLabel()).append(',')
 				.append(point.getPayments()).append(',')
 				.append(point.getRevenue()).append('\n'));
 		return builder.toString();
@@ -232,46 +233,26 @@ public class FinanceService {
 		return sanitized;
 	}
 
-	private List<PaymentStatusBreakdownDTO> buildStatusBreakdown(List<Reservation> reservations) {
-		Map<Reservation.PaymentStatus, PaymentStatusBreakdownDTO> map = new EnumMap<>(Reservation.PaymentStatus.class);
-		for (Reservation.PaymentStatus status : Reservation.PaymentStatus.values()) {
-			map.put(status, new PaymentStatusBreakdownDTO(status.name(), 0, 0));
-		}
-
-		reservations.forEach(res -> {
-			Reservation.PaymentStatus status = res.getPaymentStatus() != null ? res.getPaymentStatus()
-					: Reservation.PaymentStatus.PENDING;
-			PaymentStatusBreakdownDTO dto = map.get(status);
-			dto.setCount(dto.getCount() + 1);
-			dto.setAmount(round(dto.getAmount() + resolveReservationAmount(res)));
-		});
-
-		return new ArrayList<>(map.values());
+	private List<PaymentStatusBreakdownDTO> buildStatusBreakdown() {
+		return financeAggregateService.breakdownByPaymentStatus().entrySet().stream()
+				.map(entry -> new PaymentStatusBreakdownDTO(entry.getKey().name(), entry.getValue().count(),
+						round(entry.getValue().amount().doubleValue())))
+				.collect(Collectors.toList());
 	}
 
-	private List<MonthlyRevenuePointDTO> buildHistory(List<Reservation> reservations, int months) {
+	private List<MonthlyRevenuePointDTO> buildHistory(int months) {
 		YearMonth current = YearMonth.now();
-		Map<YearMonth, MonthlyRevenuePointDTO> points = new java.util.LinkedHashMap<>();
-		for (int i = months - 1; i >= 0; i--) {
-			YearMonth ym = current.minusMonths(i);
+		YearMonth first = current.minusMonths(months - 1);
+		Map<YearMonth, FinanceAggregateService.Bucket> paid = financeAggregateService.paidHistory(first, current);
+		List<MonthlyRevenuePointDTO> points = new ArrayList<>();
+		for (YearMonth ym = first; !ym.isAfter(current); ym = ym.plusMonths(1)) {
 			String label = ym.getMonth().getDisplayName(TextStyle.SHORT, Locale.FRENCH) + " " + ym.getYear();
-			points.put(ym, new MonthlyRevenuePointDTO(label, 0, 0));
+			FinanceAggregateService.Bucket bucket = paid.get(ym);
+			points.add(bucket != null
+					? new MonthlyRevenuePointDTO(label, round(bucket.amount().doubleValue()), bucket.count())
+					: new MonthlyRevenuePointDTO(label, 0, 0));
 		}
-
-		reservations.stream().filter(this::isPaid).forEach(res -> {
-			if (res.getPaymentDate() == null) {
-				return;
-			}
-			YearMonth month = YearMonth.from(res.getPaymentDate());
-			if (!points.containsKey(month)) {
-				return;
-			}
-			MonthlyRevenuePointDTO dto = points.get(month);
-			dto.setPayments(dto.getPayments() + 1);
-			dto.setRevenue(round(dto.getRevenue() + resolveReservationAmount(res)));
-		});
-
-		return new ArrayList<>(points.values());
+		return points;
 	}
 
 	private List<Reservation.PaymentStatus> resolveStatusFilter(List<String> statuses) {
@@ -301,12 +282,12 @@ public class FinanceService {
 		}
 	}
 
-	private PaymentAlertDTO toAlert(Reservation reservation) {
-		String severity = reservation.getPaymentStatus() == Reservation.PaymentStatus.FAILED ? "CRITIQUE" : "ALERTE";
+	private PaymentAlertDTO toAlert(Reservation reservation, IdentityStatusResponse identityStatus) {
+		String severity = severityOf(reservation.getPaymentStatus());
 		String message = buildAlertMessage(reservation);
-		IdentityStatusResponse identityStatus = reservation.getUser() != null
-				? identityVerificationService.getStatus(reservation.getUser().getId())
-				: new IdentityStatusResponse("NONE", false, null, null);
+		if (identityStatus == null) {
+			identityStatus = new IdentityStatusResponse("NONE", false, null, null);
+		}
 		return new PaymentAlertDTO(reservation.getReservationId(),
 				reservation.getUser() != null ? reservation.getUser().getUsername() : "Client",
 				round(resolveReservationAmount(reservation)),
@@ -316,26 +297,31 @@ public class FinanceService {
 				identityStatus.getStatus());
 	}
 
-	private String buildAlertMessage(Reservation reservation) {
-		switch (reservation.getPaymentStatus()) {
+	private String severityOf(Reservation.PaymentStatus status) {
+		return status == Reservation.PaymentStatus.FAILED ? "CRITIQUE" : "ALERTE";
+	}
+
+	private String alertMessagePrefix(Reservation.PaymentStatus status) {
+		switch (status) {
 		case FAILED:
 			return "Paiement refusé - intervention nécessaire";
 		case REQUIRES_ACTION:
 			return "Action requise du client pour confirmer le paiement";
 		default:
-			LocalDate date = reservation.getReservationDate() != null ? reservation.getReservationDate().toLocalDate()
-					: LocalDate.now();
-			return "Paiement en attente pour la réservation du " + date;
+			return "Paiement en attente pour la réservation du ";
 		}
 	}
 
-	private boolean isPaid(Reservation reservation) {
-		if (reservation.getPaymentStatus() == Reservation.PaymentStatus.PAID
-				|| reservation.getPaymentStatus() == Reservation.PaymentStatus.REFUNDED) {
-			return true;
+	private String buildAlertMessage(Reservation reservation) {
+		switch (reservation.getPaymentStatus()) {
+		case FAILED:
+		case REQUIRES_ACTION:
+			return alertMessagePrefix(reservation.getPaymentStatus());
+		default:
+			LocalDate date = reservation.getReservationDate() != null ? reservation.getReservationDate().toLocalDate()
+					: LocalDate.now();
+			return alertMessagePrefix(reservation.getPaymentStatus()) + date;
 		}
-		return reservation.getStatus() == Reservation.ReservationStatus.COMPLETED
-				|| reservation.getStatus() == Reservation.ReservationStatus.CONFIRMED;
 	}
 
 	private List<OutstandingPointDTO> mapOutstandingPoints(List<PeriodAmountProjection> projections) {
@@ -5,7 +5,6 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -16,7 +15,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 import com.mobility.mobility_backend.dto.identity.IdentityDocumentDTO;
 import com.mobility.mobility_backend.dto.identity.IdentitySessionResponse;
+import com.mobility.mobility_backend.dto.identity.IdentityStatusCountProjection;
 import com.mobility.mobility_backend.dto.identity.IdentityStatusResponse;
+import com.mobility.mobility_backend.dto.identity.IdentityStatusSnapshot;
 import com.mobility.mobility_backend.dto.identity.IdentityVerificationStatsDTO;
 import com.mobility.mobility_backend.dto.identity.IdentityVerificationRecordDTO;
 import com.mobility.mobility_backend.dto.socket.NotificationCategory;
@@ -29,6 +30,7 @@ import com.mobility.mobility_backend.entity.UserIdentityVerification.Verificatio
 import com.mobility.mobility_backend.repository.UserIdentityDocumentRepository;
 import com.mobility.mobility_backend.repository.UserIdentityVerificationRepository;
 import com.mobility.mobility_backend.repository.UserRepository;
+import com.mobility.mobility_backend.service.cache.IdentityStatusCacheService;
 import com.mobility.mobility_backend.service.notification.NotificationService;
 import com.stripe.Stripe;
 import com.stripe.exception.StripeException;
@@ -44,6 +46,7 @@ public class IdentityVerificationService {
 	private final UserIdentityVerificationRepository verificationRepository;
 	private final UserIdentityDocumentRepository documentRepository;
 	private final NotificationService notificationService;
+	private final IdentityStatusCacheService identityStatusCache;
 
 	@Value("${stripe.secret.key:}")
 	private String stripeSecretKey;
@@ -54,11 +57,13 @@ public class IdentityVerificationService {
 	public IdentityVerificationService(UserRepository userRepository,
 			UserIdentityVerificationRepository verificationRepository,
 			UserIdentityDocumentRepository documentRepository,
-			NotificationService notificationService) {
+			NotificationService notificationService,
+			IdentityStatusCacheService identityStatusCache) {
 		this.userRepository = userRepository;
 		this.verificationRepository = verificationRepository;
 		this.documentRepository = documentRepository;
 		this.notificationService = notificationService;
+		this.identityStatusCache = identityStatusCache;
 	}
 
 	public IdentitySessionResponse startVerification(Integer userId, Integer reservationId, String documentType,
@@ -100,15 +105,14 @@ public class IdentityVerificationService {
 		verification.setStatus(mapStripeStatus(session.getStatus()));
 		verification.setReason(null);
 		verification.setLastCheckedAt(LocalDateTime.now());
-		verificationRepository.save(verification);
+		saveAsLatest(verification);
+		identityStatusCache.refresh(userId);
 
 		return new IdentitySessionResponse(session.getId(), session.getClientSecret(), session.getStatus());
 	}
 
 	public IdentityStatusResponse getStatus(Integer userId) {
-		IdentityStatusResponse response = verificationRepository.findTopByUser_IdOrderByCreatedAtDesc(userId)
-				.map(this::toStatusResponse)
-				.orElseGet(() -> new IdentityStatusResponse("NONE", false, null, null));
+		IdentityStatusResponse response = toStatusResponse(identityStatusCache.get(userId));
 		if (userId != null) {
 			response.setDocuments(mapDocumentsForUser(userId));
 		}
@@ -116,32 +120,14 @@ public class IdentityVerificationService {
 	}
 
   public String getLatestStatusLabel(Integer userId) {
-    IdentityStatusResponse response = getStatus(userId);
-    return response != null ? response.getStatus() : null;
+    return identityStatusCache.get(userId).getStatus();
   }
 
+	// Statuts lus dans le modèle de lecture (sans les documents) : une requête groupée pour les absents du cache
 	public Map<Integer, IdentityStatusResponse> getLatestStatusForUsers(Collection<Integer> userIds) {
 		Map<Integer, IdentityStatusResponse> result = new HashMap<>();
-		if (userIds == null || userIds.isEmpty()) {
-			return result;
-		}
-		List<Integer> distinctIds = new ArrayList<>(new HashSet<>(userIds));
-		List<UserIdentityVerification> history = verificationRepository
-				.findByUser_IdInOrderByUpdatedAtDesc(distinctIds);
-		for (UserIdentityVerification record : history) {
-			if (record.getUser() == null || record.getUser().getId() == null) {
-				continue;
-			}
-			Integer userId = record.getUser().getId();
-			result.putIfAbsent(userId, toStatusResponse(record));
-			if (result.size() == distinctIds.size()) {
-				break;
-			}
-		}
-		// ensure users without records are present
-		for (Integer id : distinctIds) {
-			result.putIfAbsent(id, new IdentityStatusResponse("NONE", false, null, null));
-		}
+		identityStatusCache.getAll(userIds)
+				.forEach((userId, snapshot) -> result.put(userId, toStatusResponse(snapshot)));
 		return result;
 	}
 
@@ -149,34 +135,50 @@ public class IdentityVerificationService {
 		if (userId == null) {
 			return false;
 		}
-		IdentityStatusResponse status = getStatus(userId);
-		return status != null && status.isVerified();
+		return identityStatusCache.get(userId).isVerified();
 	}
 
+	// Compteurs lus sur la dernière vérification de chaque utilisateur (drapeau tenu à jour à l'écriture)
+	@Transactional(readOnly = true)
 	public IdentityVerificationStatsDTO getGlobalStats() {
-		List<UserIdentityVerification> history = verificationRepository.findAllByOrderByUpdatedAtDesc();
-		Map<Integer, VerificationStatus> latest = new HashMap<>();
-		for (UserIdentityVerification record : history) {
-			if (record.getUser() != null && record.getUser().getId() != null) {
-				latest.putIfAbsent(record.getUser().getId(), record.getStatus());
-			}
-		}
 		IdentityVerificationStatsDTO stats = new IdentityVerificationStatsDTO();
-		stats.setTotal(latest.size());
-		latest.values().forEach(status -> {
+		for (IdentityStatusCountProjection row : verificationRepository.countLatestByStatus()) {
+			long count = row.getTotal() != null ? row.getTotal() : 0L;
+			VerificationStatus status = row.getStatus();
+			stats.setTotal(stats.getTotal() + count);
 			if (status == VerificationStatus.VERIFIED) {
-				stats.setVerified(stats.getVerified() + 1);
+				stats.setVerified(stats.getVerified() + count);
 			} else if (status == VerificationStatus.PROCESSING) {
-				stats.setProcessing(stats.getProcessing() + 1);
+				stats.setProcessing(stats.getProcessing() + count);
 			} else if (status == VerificationStatus.REQUIRES_INPUT || status == VerificationStatus.REJECTED) {
-				stats.setRequiresInput(stats.getRequiresInput() + 1);
+				stats.setRequiresInput(stats.getRequiresInput() + count);
 			} else {
-				stats.setPending(stats.getPending() + 1);
+				stats.setPending(stats.getPending() + count);
 			}
-		});
+		}
 		return stats;
 	}
 
+	/**
+	 * Enregistre la vérification comme la plus récente de son utilisateur : les
+	 * autres perdent le drapeau dans la même transaction, les statistiques
+	 * restent ainsi cohérentes avec les statuts.
+	 */
+	// Index unique (user_id) WHERE is_latest : compte verrouillé, ancien drapeau retiré, puis nouveau posé
+	private UserIdentityVerification saveAsLatest(UserIdentityVerification verification) {
+		Integer userId = verification.getUser() != null ? verification.getUser().getId() : null;
+		if (userId != null) {
+			userRepository.findByIdForUpdate(userId);
+			if (verification.getId() == null) {
+				verificationRepository.clearLatest(userId);
+			} else {
+				verificationRepository.clearLatestExcept(userId, verification.getId());
+			}
+		}
+		verification.setLatest(true);
+		return verificationRepository.save(verification);
+	}
+
 	private void notifyIdentityUpdate(UserIdentityVerification verification) {
 		User user = verification.getUser();
 		if (user == null || user.getId() == null) {
@@ -272,8 +274,11 @@ public class IdentityVerificationService {
 		}
 		applyMetadataFromSession(verification, session);
 		verification.setLastCheckedAt(LocalDateTime.now());
-		verificationRepository.save(verification);
+		saveAsLatest(verification);
 		syncDocumentsFromSession(verification, session);
+		if (verification.getUser() != null) {
+			identityStatusCache.refresh(verification.getUser().getId());
+		}
 		notifyIdentityUpdate(verification);
 	}
 
@@ -298,7 +303,7 @@ public class IdentityVerificationService {
 			verification.setReason(null);
 			verification.setLastCheckedAt(LocalDateTime.now());
 			applyMetadataFromSession(verification, session);
-			return verificationRepository.save(verification);
+			return saveAsLatest(verification);
 		} catch (NumberFormatException ex) {
 			return null;
 		}
@@ -317,13 +322,11 @@ public class IdentityVerificationService {
 		};
 	}
 
-	private IdentityStatusResponse toStatusResponse(UserIdentityVerification verification) {
-		if (verification == null) {
-			return new IdentityStatusResponse("NONE", false, null, null);
-		}
-		return new IdentityStatusResponse(verification.getStatus().name(),
-				verification.getStatus() == VerificationStatus.VERIFIED,
-				verification.getReason(), verification.getUpdatedAt());
+	private IdentityStatusResponse toStatusResponse(IdentityStatusSnapshot snapshot) {
+		IdentityStatusResponse response = new IdentityStatusResponse(snapshot.getStatus(), snapshot.isVerified(),
+				snapshot.getReason(), snapshot.getUpdatedAt());
+		response.setDocumentCount(snapshot.getDocumentCount());
+		return response;
 	}
 
 	private void applyMetadataFromSession(UserIdentityVerification verification, VerificationSession session) {
@@ -0,0 +1,37 @@
+package com.mobility.mobility_backend.service;
+
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Claims d'un JWT dont la signature a été vérifiée. Immuable : peut être
+ * partagé entre requêtes via le cache de {@link JwtService}.
+ */
+public record JwtClaims(String subject, String role, String type, Instant issuedAt, Instant expiresAt,
+		Map<String, Object> claims) {
+
+	public JwtClaims {
+		claims = Map.copyOf(claims);
+	}
+
+	public boolean isExpired(Instant now) {
+		return expiresAt == null || !expiresAt.isAfter(now);
+	}
+
+	public boolean isRefreshToken() {
+		return "refresh".equalsIgnoreCase(type);
+	}
+
+	public Integer userId() {
+		return claims.get("uid") instanceof Number number ? number.intValue() : null;
+	}
+
+	// Absent sur les tokens émis avant l'introduction des versions : équivaut à 0
+	public int tokenVersion() {
+		return claims.get("ver") instanceof Number number ? number.intValue() : 0;
+	}
+
+	public Object get(String name) {
+		return claims.get(name);
+	}
+}
@@ -1,11 +1,15 @@
 package com.mobility.mobility_backend.service;
 
-import java.security.Key;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Instant;
 import java.util.Base64;
-import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
+import javax.crypto.Mac;
 import javax.crypto.spec.SecretKeySpec;
 
 import org.springframework.beans.factory.annotation.Value;
@@ -13,19 +17,62 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobility.mobility_backend.entity.User;
+
 @Service
 public class JwtService {
 
-	@Value("${app.jwt.secret:mySecretKey12345678901234567890123456789012}") // 32 caractères minimum
-	private String secretKey;
+	private static final String HMAC_ALGORITHM = "HmacSHA256";
+	private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+	private static final TypeReference<Map<String, Object>> CLAIMS_TYPE = new TypeReference<>() {
+	};
 
-	@Value("${app.jwt.expiration:86400000}") // 24 heures par défaut
-	private long jwtExpiration;
+	private final long jwtExpiration;
+	private final long refreshExpiration;
+	private final SecretKeySpec signingKey;
+	private final int verifiedCacheSize;
+
+	// Mac n'est pas thread-safe : une instance initialisée par thread, au lieu d'une par signature
+	private final ThreadLocal<Mac> macs;
+
+	private final ThreadLocal<MessageDigest> digests = ThreadLocal.withInitial(JwtService::newDigest);
+
+	// SHA-256 des tokens déjà vérifiés -> claims, en LRU ; les bearer tokens bruts ne sont
+	// jamais gardés en mémoire. Une entrée n'est plus servie après son exp
+	private final Map<String, JwtClaims> verifiedTokens;
 
-	@Value("${app.jwt.refresh-expiration:604800000}") // 7 jours par défaut
-	private long refreshExpiration;
+	public JwtService(
+			@Value("${app.jwt.secret:mySecretKey12345678901234567890123456789012}") String secretKey, // 32 caractères minimum
+			@Value("${app.jwt.expiration:86400000}") long jwtExpiration, // 24 heures par défaut
+			@Value("${app.jwt.refresh-expiration:604800000}") long refreshExpiration, // 7 jours par défaut
+			@Value("${app.jwt.verified-cache-size:10000}") int verifiedCacheSize) {
+		this.jwtExpiration = jwtExpiration;
+		this.refreshExpiration = refreshExpiration;
+		this.signingKey = new SecretKeySpec(secretKey.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+		this.verifiedCacheSize = Math.max(0, verifiedCacheSize);
+		this.macs = ThreadLocal.withInitial(this::newMac);
+		this.verifiedTokens = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, JwtClaims> eldest) {
+				return size() > JwtService.this.verifiedCacheSize;
+			}
+		};
+	}
 
 	public String generateToken(UserDetails userDetails) {
+		if (userDetails instanceof User user) {
+			return generateToken(userDetails, user.getId(), user.getTokenVersion());
+		}
+		return generateToken(userDetails, null, 0);
+	}
+
+	/**
+	 * Token d'accès portant tout ce qu'il faut pour authentifier sans requête :
+	 * rôle, id du compte et version de token (révocation).
+	 */
+	public String generateToken(UserDetails userDetails, Integer userId, int tokenVersion) {
 
 		Map<String, Object> claims = new HashMap<>();
 
@@ -34,6 +81,10 @@ public class JwtService {
 				.orElse("ROLE_USER");
 
 		claims.put("role", role);
+		if (userId != null) {
+			claims.put("uid", userId);
+		}
+		claims.put("ver", tokenVersion);
 		System.out.println("🔐 Adding role to JWT: " + role);
 		return generateToken(claims, userDetails, jwtExpiration);
 	}
@@ -49,16 +100,7 @@ public class JwtService {
 	}
 
 	public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails, long expirationMs) {
-		// Version simplifiée sans JJWT
-		String header = "{\"alg\":\"HS256\",\"typ\":\"JWT\"}";
-		String payload = createPayload(userDetails.getUsername(), extraClaims, expirationMs);
-
-		String headerEncoded = Base64.getUrlEncoder().withoutPadding().encodeToString(header.getBytes());
-		String payloadEncoded = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes());
-
-		String signature = createSignature(headerEncoded + "." + payloadEncoded);
-
-		return headerEncoded + "." + payloadEncoded + "." + signature;
+		return generateToken(userDetails.getUsername(), extraClaims, expirationMs);
 	}
 
 	// ⭐ NOUVELLE MÉTHODE : Pour générer un token avec juste un username
@@ -75,10 +117,13 @@ public class JwtService {
 		String header = "{\"alg\":\"HS256\",\"typ\":\"JWT\"}";
 		String payload = createPayload(username, extraClaims, expirationMs);
 
-		String headerEncoded = Base64.getUrlEncoder().withoutPadding().encodeToString(header.getBytes());
-		String payloadEncoded = Base64.getUrlEncoder().withoutPadding().encodeToString(payload.getBytes());
+		String headerEncoded = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(header.getBytes(StandardCharsets.UTF_8));
+		String payloadEncoded = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(payload.getBytes(StandardCharsets.UTF_8));
 
-		String signature = createSignature(headerEncoded + "." + payloadEncoded);
+		String signature = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString(sign(headerEncoded + "." + payloadEncoded));
 
 		return headerEncoded + "." + payloadEncoded + "." + signature;
 	}
@@ -87,116 +132,141 @@ public class JwtService {
 		long currentTime = System.currentTimeMillis();
 		long expirationTime = currentTime + expirationMs;
 
-		StringBuilder payload = new StringBuilder();
-		payload.append("{\"sub\":\"").append(username).append("\"");
-		payload.append(",\"iat\":").append(currentTime / 1000);
-		payload.append(",\"exp\":").append(expirationTime / 1000);
-
-		for (Map.Entry<String, Object> entry : extraClaims.entrySet()) {
-			payload.append(",\"").append(entry.getKey()).append("\":");
-			if (entry.getValue() instanceof String) {
-				payload.append("\"").append(entry.getValue()).append("\"");
-			} else {
-				payload.append(entry.getValue());
-			}
-		}
-
-		payload.append("}");
-		return payload.toString();
-	}
-
-	private String createSignature(String data) {
+		Map<String, Object> payload = new LinkedHashMap<>();
+		payload.put("sub", username);
+		payload.put("iat", currentTime / 1000);
+		payload.put("exp", expirationTime / 1000);
+		payload.putAll(extraClaims);
 		try {
-			javax.crypto.Mac mac = javax.crypto.Mac.getInstance("HmacSHA256");
-			Key key = new SecretKeySpec(secretKey.getBytes(), "HmacSHA256");
-			mac.init(key);
-			byte[] signatureBytes = mac.doFinal(data.getBytes());
-			return Base64.getUrlEncoder().withoutPadding().encodeToString(signatureBytes);
+			return OBJECT_MAPPER.writeValueAsString(payload);
 		} catch (Exception e) {
-			throw new RuntimeException("Error creating signature", e);
+			throw new RuntimeException("Error creating payload", e);
 		}
 	}
 
-	public boolean isTokenValid(String token, UserDetails userDetails) {
-		if (token == null || !token.contains(".")) {
-			return false;
+	/**
+	 * Décode le token en une seule passe : contrôle de l'algorithme, vérification
+	 * HMAC, lecture JSON des claims et de l'expiration. Retourne {@code null} si
+	 * le token est malformé, mal signé ou expiré. Les tokens valides sont mis en
+	 * cache jusqu'à leur expiration.
+	 */
+	public JwtClaims decode(String token) {
+		if (token == null || token.isBlank()) {
+			return null;
+		}
+		Instant now = Instant.now();
+		String cacheKey = cacheKey(token);
+		JwtClaims cached;
+		synchronized (verifiedTokens) {
+			cached = verifiedTokens.get(cacheKey);
+		}
+		if (cached != null) {
+			if (!cached.isExpired(now)) {
+				return cached;
+			}
+			synchronized (verifiedTokens) {
+				verifiedTokens.remove(cacheKey);
+			}
+			return null;
 		}
 
-		final String username = extractUsername(token);
-		return (username != null && username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+		JwtClaims claims = verify(token);
+		if (claims == null || claims.isExpired(now)) {
+			return null;
+		}
+		if (verifiedCacheSize > 0) {
+			synchronized (verifiedTokens) {
+				verifiedTokens.put(cacheKey, claims);
+			}
+		}
+		return claims;
+	}
+
+	public boolean isTokenValid(String token, UserDetails userDetails) {
+		return isTokenValid(decode(token), userDetails);
+	}
+
+	public boolean isTokenValid(JwtClaims claims, UserDetails userDetails) {
+		return claims != null && claims.subject() != null && claims.subject().equals(userDetails.getUsername())
+				&& !claims.isExpired(Instant.now());
 	}
 
 	public boolean isRefreshTokenValid(String token, UserDetails userDetails) {
-		if (!isTokenValid(token, userDetails)) {
-			return false;
-		}
-		String type = extractClaim(token, "type");
-		return "refresh".equalsIgnoreCase(type);
+		JwtClaims claims = decode(token);
+		return isTokenValid(claims, userDetails) && claims.isRefreshToken();
 	}
 
 	public long getRefreshExpirationMs() {
 		return refreshExpiration;
 	}
 
-	private boolean isTokenExpired(String token) {
-		try {
-			Date expiration = extractExpiration(token);
-			return expiration.before(new Date());
-		} catch (Exception e) {
-			return true;
-		}
-	}
-
 	public String extractUsername(String token) {
-		return extractClaim(token, "sub");
+		JwtClaims claims = decode(token);
+		return claims != null ? claims.subject() : null;
 	}
 
-	private Date extractExpiration(String token) {
-		try {
-			String exp = extractClaim(token, "exp");
-			if (exp != null) {
-				long expirationSeconds = Long.parseLong(exp);
-				return new Date(expirationSeconds * 1000);
-			}
-		} catch (Exception e) {
-			// Ignorer l'erreur
+	private JwtClaims verify(String token) {
+		int firstDot = token.indexOf('.');
+		int secondDot = token.indexOf('.', firstDot + 1);
+		if (firstDot <= 0 || secondDot <= firstDot + 1 || token.indexOf('.', secondDot + 1) != -1) {
+			return null;
 		}
-		return new Date(0); // Date dans le passé
-	}
-
-	private String extractClaim(String token, String claimName) {
 		try {
-			String[] parts = token.split("\\.");
-			if (parts.length != 3) {
+			Base64.Decoder decoder = Base64.getUrlDecoder();
+			Map<String, Object> header = OBJECT_MAPPER.readValue(decoder.decode(token.substring(0, firstDot)),
+					CLAIMS_TYPE);
+			if (!"HS256".equals(header.get("alg"))) {
 				return null;
 			}
 
-			String payload = new String(Base64.getUrlDecoder().decode(parts[1]));
-			// Parse JSON simple pour extraire le claim
-			String search = "\"" + claimName + "\":";
-			int startIndex = payload.indexOf(search);
-			if (startIndex == -1) {
+			byte[] expected = sign(token.substring(0, secondDot));
+			byte[] actual = decoder.decode(token.substring(secondDot + 1));
+			if (!MessageDigest.isEqual(expected, actual)) {
 				return null;
 			}
 
-			startIndex += search.length();
-			int endIndex = payload.indexOf(",", startIndex);
-			if (endIndex == -1) {
-				endIndex = payload.indexOf("}", startIndex);
-			}
+			Map<String, Object> payload = OBJECT_MAPPER
+					.readValue(decoder.decode(token.substring(firstDot + 1, secondDot)), CLAIMS_TYPE);
+			payload.values().removeIf(value -> value == null);
+			return new JwtClaims(asString(payload.get("sub")), asString(payload.get("role")),
+					asString(payload.get("type")), asInstant(payload.get("iat")), asInstant(payload.get("exp")),
+					payload);
+		} catch (Exception e) {
+			return null;
+		}
+	}
 
-			if (endIndex == -1) {
-				return null;
-			}
+	private String cacheKey(String token) {
+		return Base64.getEncoder().encodeToString(digests.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+	}
 
-			String value = payload.substring(startIndex, endIndex).trim();
-			if (value.startsWith("\"") && value.endsWith("\"")) {
-				value = value.substring(1, value.length() - 1);
-			}
+	private byte[] sign(String data) {
+		return macs.get().doFinal(data.getBytes(StandardCharsets.US_ASCII));
+	}
 
-			return value;
-		} catch (Exception e) {
-			return null;
+	private Mac newMac() {
+		try {
+			Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+			mac.init(signingKey);
+			return mac;
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("Error creating signature", e);
 		}
 	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-256");
+		} catch (GeneralSecurityException e) {
+			throw new IllegalStateException("SHA-256 not available", e);
+		}
+	}
+
+	private static String asString(Object value) {
+		return value != null ? value.toString() : null;
+	}
+
+	private static Instant asInstant(Object value) {
+		return value instanceof Number number ? Instant.ofEpochSecond(number.longValue()) : null;
+	}
 }
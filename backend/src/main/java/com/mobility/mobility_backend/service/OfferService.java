@@ -1,5 +1,9 @@
 package com.mobility.mobility_backend.service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -8,6 +12,7 @@ import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,6 +22,8 @@ import org.springframework.transaction.annotation.Transactional;
 import com.mobility.mobility_backend.dto.CreateOfferDTO;
 import com.mobility.mobility_backend.dto.OfferDTO;
 import com.mobility.mobility_backend.dto.OfferMapper;
+import com.mobility.mobility_backend.dto.OfferSearchCriteria;
+import com.mobility.mobility_backend.dto.OfferSearchPageDTO;
 import com.mobility.mobility_backend.entity.Admin;
 import com.mobility.mobility_backend.entity.City;
 import com.mobility.mobility_backend.entity.MobilityService;
@@ -25,36 +32,106 @@ import com.mobility.mobility_backend.repository.AdminRepository;
 import com.mobility.mobility_backend.repository.CityRepository;
 import com.mobility.mobility_backend.repository.MobilityServiceRepository;
 import com.mobility.mobility_backend.repository.OfferRepository;
+import com.mobility.mobility_backend.service.cache.OfferCatalogCacheService;
 import com.mobility.mobility_backend.util.SanitizationUtils;
 
 @Service
 @Transactional
 public class OfferService {
 
+	// Taille par défaut / maximale d'une page de recherche, et plafond de l'ancien GET /api/offers
+	public static final int DEFAULT_SEARCH_SIZE = 20;
+	public static final int MAX_SEARCH_SIZE = 100;
+	public static final int LEGACY_LIST_CAP = 200;
+
 	private final OfferRepository offerRepository;
 	private final OfferMapper offerMapper;
 	private final CityRepository cityRepository;
 	private final MobilityServiceRepository mobilityServiceRepository;
 	private final AdminRepository adminRepository;
+	private final OfferCatalogCacheService offerCatalogCache;
 
 	@Autowired
 	public OfferService(OfferRepository offerRepository, OfferMapper offerMapper, CityRepository cityRepository,
-			MobilityServiceRepository mobilityServiceRepository, AdminRepository adminRepository) {
+			MobilityServiceRepository mobilityServiceRepository, AdminRepository adminRepository,
+			OfferCatalogCacheService offerCatalogCache) {
 		this.offerRepository = offerRepository;
 		this.offerMapper = offerMapper;
 		this.cityRepository = cityRepository;
 		this.mobilityServiceRepository = mobilityServiceRepository;
 		this.adminRepository = adminRepository;
+		this.offerCatalogCache = offerCatalogCache;
 	}
 
+	/**
+	 * Ancien listing complet, conservé pour compatibilité : première page de la
+	 * recherche sur les offres à venir (départ à partir de maintenant), plafonnée à
+	 * {@link #LEGACY_LIST_CAP} offres. Sans ce filtre, le plafond ne garderait que
+	 * les plus anciennes offres, déjà passées.
+	 */
 	@Transactional(readOnly = true)
 	public List<OfferDTO> getAllOffers() {
-		return offerRepository.findAll().stream().map(offerMapper::toDTO).collect(Collectors.toList());
+		return offerCatalogCache.getListing("all", () -> {
+			OfferSearchCriteria upcoming = new OfferSearchCriteria();
+			upcoming.setFrom(LocalDateTime.now());
+			return fetchSearchPage(upcoming, LEGACY_LIST_CAP).getItems();
+		});
+	}
+
+	@Transactional(readOnly = true)
+	public OfferSearchPageDTO searchOffers(OfferSearchCriteria criteria) {
+		int size = criteria.getSize() > 0 ? Math.min(criteria.getSize(), MAX_SEARCH_SIZE) : DEFAULT_SEARCH_SIZE;
+		return offerCatalogCache.getListing(searchCacheKey(criteria, size), () -> fetchSearchPage(criteria, size));
+	}
+
+	private String searchCacheKey(OfferSearchCriteria criteria, int size) {
+		return "search:" + criteria.getPickupCityId() + ":" + criteria.getServiceId() + ":" + criteria.getActive()
+				+ ":" + criteria.getMinPrice() + ":" + criteria.getMaxPrice() + ":" + criteria.getFrom() + ":"
+				+ criteria.getTo() + ":" + criteria.getCursor() + ":" + size;
+	}
+
+	private OfferSearchPageDTO fetchSearchPage(OfferSearchCriteria criteria, int size) {
+		LocalDateTime afterDatetime = null;
+		Integer afterId = null;
+		if (criteria.getCursor() != null && !criteria.getCursor().isBlank()) {
+			String[] cursor = decodeCursor(criteria.getCursor());
+			afterDatetime = LocalDateTime.parse(cursor[0]);
+			afterId = Integer.valueOf(cursor[1]);
+		}
+
+		// Une ligne de plus que demandé pour savoir s'il existe une page suivante
+		List<Offer> rows = offerRepository.searchOffers(criteria.getPickupCityId(), criteria.getServiceId(),
+				criteria.getActive(), criteria.getMinPrice(), criteria.getMaxPrice(), criteria.getFrom(),
+				criteria.getTo(), afterDatetime, afterId, PageRequest.of(0, size + 1));
+		boolean hasMore = rows.size() > size;
+		List<Offer> page = hasMore ? rows.subList(0, size) : rows;
+		String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+		return new OfferSearchPageDTO(page.stream().map(offerMapper::toDTO).toList(), nextCursor, hasMore);
+	}
+
+	private String encodeCursor(Offer offer) {
+		String raw = offer.getPickupDatetime() + "|" + offer.getOfferId();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private String[] decodeCursor(String cursor) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			String[] parts = raw.split("\\|");
+			if (parts.length != 2) {
+				throw new IllegalArgumentException("Curseur de pagination invalide");
+			}
+			LocalDateTime.parse(parts[0]);
+			Integer.valueOf(parts[1]);
+			return parts;
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new IllegalArgumentException("Curseur de pagination invalide", e);
+		}
 	}
 
 	@Transactional(readOnly = true)
 	public Optional<OfferDTO> getOfferById(Integer id) {
-		return offerRepository.findById(id).map(offerMapper::toDTO);
+		return offerCatalogCache.getOffer(id, () -> offerRepository.findById(id).map(offerMapper::toDTO));
 	}
 
 	public OfferDTO createOffer(CreateOfferDTO createOfferDTO) {
@@ -134,6 +211,7 @@ public class OfferService {
 
 			System.out.println("💾 Sauvegarde de l'offre...");
 			Offer savedOffer = offerRepository.save(offer);
+			offerCatalogCache.evictListings();
 			System.out.println("✅ Offre créée avec ID: " + savedOffer.getOfferId());
 
 			return offerMapper.toDTO(savedOffer);
@@ -257,6 +335,7 @@ public class OfferService {
 
 		System.out.println("💾 Sauvegarde de l'offre mise à jour...");
 		Offer updatedOffer = offerRepository.save(existingOffer);
+		offerCatalogCache.evictOffer(id);
 		System.out.println("✅ Offre mise à jour ID: " + updatedOffer.getOfferId());
 
 		return Optional.of(offerMapper.toDTO(updatedOffer));
@@ -291,6 +370,7 @@ public class OfferService {
 	public boolean deleteOffer(Integer id) {
 		if (offerRepository.existsById(id)) {
 			offerRepository.deleteById(id);
+			offerCatalogCache.evictOffer(id);
 			return true;
 		}
 		return false;
@@ -340,6 +420,7 @@ public class OfferService {
 			Offer offer = offerOpt.get();
 			offer.setActive(active);
 			Offer savedOffer = offerRepository.save(offer);
+			offerCatalogCache.evictOffer(offerId);
 			return offerMapper.toDTO(savedOffer);
 		} else {
 			throw new RuntimeException("Offre non trouvée avec l'ID: " + offerId);
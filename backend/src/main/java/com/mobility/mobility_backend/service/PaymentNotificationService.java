@@ -1,13 +1,13 @@
 package com.mobility.mobility_backend.service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.SimpleMailMessage;
-import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
 import com.mobility.mobility_backend.dto.socket.NotificationCategory;
@@ -17,45 +17,31 @@ import com.mobility.mobility_backend.entity.Offer;
 import com.mobility.mobility_backend.entity.Reservation;
 import com.mobility.mobility_backend.entity.User;
 import com.mobility.mobility_backend.service.notification.NotificationService;
-import com.twilio.Twilio;
-import com.twilio.exception.ApiException;
-import com.twilio.rest.api.v2010.account.Message;
-import com.twilio.type.PhoneNumber;
+import com.mobility.mobility_backend.service.outbox.NotificationOutboxService;
+import com.mobility.mobility_backend.service.outbox.SmsGateway;
+import com.mobility.mobility_backend.util.AfterCommit;
 
 @Service
 public class PaymentNotificationService {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(PaymentNotificationService.class);
 
-	private final JavaMailSender mailSender;
+	private final NotificationOutboxService outboxService;
 	private final boolean mailEnabled;
-	private final String mailFrom;
 
 	private final boolean smsEnabled;
-	private final String smsFrom;
 	private final String smsToFallback;
 	private final NotificationService notificationStreamingService;
 
-	public PaymentNotificationService(JavaMailSender mailSender,
+	public PaymentNotificationService(NotificationOutboxService outboxService, SmsGateway smsGateway,
 			@Value("${notifications.mail.enabled:false}") boolean mailEnabled,
-			@Value("${notifications.mail.from:no-reply@locationup.test}") String mailFrom,
-			@Value("${notifications.sms.enabled:false}") boolean smsEnabled,
-			@Value("${twilio.account-sid:}") String twilioSid,
-			@Value("${twilio.auth-token:}") String twilioToken,
-			@Value("${twilio.from-number:}") String smsFrom,
 			@Value("${notifications.sms.test-recipient:+33123456789}") String smsToFallback,
 			NotificationService notificationStreamingService) {
-		this.mailSender = mailSender;
+		this.outboxService = outboxService;
 		this.mailEnabled = mailEnabled;
-		this.mailFrom = mailFrom;
-		this.smsEnabled = smsEnabled && !twilioSid.isBlank() && !twilioToken.isBlank() && !smsFrom.isBlank();
-		this.smsFrom = smsFrom;
+		this.smsEnabled = smsGateway.isEnabled();
 		this.smsToFallback = smsToFallback;
 		this.notificationStreamingService = notificationStreamingService;
-
-		if (this.smsEnabled) {
-			Twilio.init(twilioSid, twilioToken);
-		}
 	}
 
 	public void notifyPaymentSuccess(Reservation reservation) {
@@ -70,38 +56,69 @@ public class PaymentNotificationService {
 	}
 
 	public void notifyPaymentFailure(Reservation reservation, String reason) {
-		String subject = "Echec de paiement - Réservation #" + reservation.getReservationId();
-		String body = "Bonjour "
-				+ (reservation.getUser() != null ? reservation.getUser().getUsername() : "client")
-				+ ",\n\nNous n'avons pas pu traiter votre paiement. Raison: " + reason
-				+ ".\nMerci de vous reconnecter pour finaliser la transaction.\n";
+		String subject = paymentFailureSubject(reservation);
+		String body = paymentFailureBody(reservation, reason);
 		dispatch(reservation, subject, body);
 		sendRealtimePaymentNotification(reservation, NotificationSeverity.ERROR, subject, body, "payment_failed",
 				"failed");
 	}
 
+	/**
+	 * Variante par lot (transitions en masse du planificateur) : emails/SMS mis en
+	 * outbox dans la transaction du lot, notifications temps réel après son commit.
+	 */
+	public void notifyPaymentFailures(List<Reservation> reservations, String reason) {
+		List<Runnable> realtime = new ArrayList<>(reservations.size());
+		for (Reservation reservation : reservations) {
+			String subject = paymentFailureSubject(reservation);
+			String body = paymentFailureBody(reservation, reason);
+			dispatch(reservation, subject, body);
+			realtime.add(() -> sendRealtimePaymentNotification(reservation, NotificationSeverity.ERROR, subject, body,
+					"payment_failed", "failed"));
+		}
+		runAfterCommit(realtime);
+	}
+
 	public void notifyUpcomingPayment(Reservation reservation) {
-		String subject = "Rappel paiement - Réservation #" + reservation.getReservationId();
-		String body = "Bonjour "
-				+ (reservation.getUser() != null ? reservation.getUser().getUsername() : "client")
-				+ ",\n\nVotre réservation est planifiée le " + reservation.getReservationDate()
-				+ ". Merci de finaliser le paiement si ce n'est pas déjà fait.\n";
+		String subject = upcomingPaymentSubject(reservation);
+		String body = upcomingPaymentBody(reservation);
 		dispatch(reservation, subject, body);
 		sendRealtimePaymentNotification(reservation, NotificationSeverity.WARNING, subject, body, "payment_pending",
 				"pending");
 	}
 
+	public void notifyUpcomingPayments(List<Reservation> reservations) {
+		List<Runnable> realtime = new ArrayList<>(reservations.size());
+		for (Reservation reservation : reservations) {
+			String subject = upcomingPaymentSubject(reservation);
+			String body = upcomingPaymentBody(reservation);
+			dispatch(reservation, subject, body);
+			realtime.add(() -> sendRealtimePaymentNotification(reservation, NotificationSeverity.WARNING, subject,
+					body, "payment_pending", "pending"));
+		}
+		runAfterCommit(realtime);
+	}
+
 	public void notifyPaymentExpired(Reservation reservation) {
-		String subject = "Paiement expiré - Réservation #" + reservation.getReservationId();
-		String body = "Bonjour "
-				+ (reservation.getUser() != null ? reservation.getUser().getUsername() : "client")
-				+ ",\n\nVotre session de paiement a expiré. Merci de relancer le paiement pour confirmer la réservation #"
-				+ reservation.getReservationId() + ".\n";
+		String subject = paymentExpiredSubject(reservation);
+		String body = paymentExpiredBody(reservation);
 		dispatch(reservation, subject, body);
 		sendRealtimePaymentNotification(reservation, NotificationSeverity.WARNING, subject, body, "payment_expired",
 				"expired");
 	}
 
+	public void notifyPaymentsExpired(List<Reservation> reservations) {
+		List<Runnable> realtime = new ArrayList<>(reservations.size());
+		for (Reservation reservation : reservations) {
+			String subject = paymentExpiredSubject(reservation);
+			String body = paymentExpiredBody(reservation);
+			dispatch(reservation, subject, body);
+			realtime.add(() -> sendRealtimePaymentNotification(reservation, NotificationSeverity.WARNING, subject,
+					body, "payment_expired", "expired"));
+		}
+		runAfterCommit(realtime);
+	}
+
 	public void notifyPaymentRefunded(Reservation reservation, String reason) {
 		String subject = "Paiement remboursé - Réservation #" + reservation.getReservationId();
 		StringBuilder body = new StringBuilder("Bonjour ")
@@ -149,33 +166,57 @@ public class PaymentNotificationService {
 				"pending");
 	}
 
+	private String upcomingPaymentSubject(Reservation reservation) {
+		return "Rappel paiement - Réservation #" + reservation.getReservationId();
+	}
+
+	private String upcomingPaymentBody(Reservation reservation) {
+		return "Bonjour " + (reservation.getUser() != null ? reservation.getUser().getUsername() : "client")
+				+ ",\n\nVotre réservation est planifiée le " + reservation.getReservationDate()
+				+ ". Merci de finaliser le paiement si ce n'est pas déjà fait.\n";
+	}
+
+	private String paymentFailureSubject(Reservation reservation) {
+		return "Echec de paiement - Réservation #" + reservation.getReservationId();
+	}
+
+	private String paymentFailureBody(Reservation reservation, String reason) {
+		return "Bonjour " + (reservation.getUser() != null ? reservation.getUser().getUsername() : "client")
+				+ ",\n\nNous n'avons pas pu traiter votre paiement. Raison: " + reason
+				+ ".\nMerci de vous reconnecter pour finaliser la transaction.\n";
+	}
+
+	private String paymentExpiredSubject(Reservation reservation) {
+		return "Paiement expiré - Réservation #" + reservation.getReservationId();
+	}
+
+	private String paymentExpiredBody(Reservation reservation) {
+		return "Bonjour " + (reservation.getUser() != null ? reservation.getUser().getUsername() : "client")
+				+ ",\n\nVotre session de paiement a expiré. Merci de relancer le paiement pour confirmer la réservation #"
+				+ reservation.getReservationId() + ".\n";
+	}
+
+	private void runAfterCommit(List<Runnable> tasks) {
+		if (tasks.isEmpty()) {
+			return;
+		}
+		AfterCommit.run(() -> tasks.forEach(Runnable::run));
+	}
+
 	private void dispatch(Reservation reservation, String subject, String body) {
 		dispatchToUser(reservation.getUser(), subject, body);
 	}
 
+	// Email et SMS passent par l'outbox (même transaction que l'appelant), envoyés par NotificationOutboxDispatcher
 	private void dispatchToUser(User user, String subject, String body) {
 		if (mailEnabled && user != null && user.getEmail() != null) {
-			try {
-				SimpleMailMessage message = new SimpleMailMessage();
-				message.setFrom(mailFrom);
-				message.setTo(user.getEmail());
-				message.setSubject(subject);
-				message.setText(body);
-				mailSender.send(message);
-			} catch (Exception ex) {
-				LOGGER.warn("Impossible d'envoyer l'email: {}", ex.getMessage());
-			}
+			outboxService.enqueueEmail(user.getEmail(), subject, body);
 		} else {
 			LOGGER.info("[MAIL MOCK] {} -> {}", subject, body);
 		}
 
 		if (smsEnabled) {
-			String to = smsToFallback;
-			try {
-				Message.creator(new PhoneNumber(to), new PhoneNumber(smsFrom), subject).create();
-			} catch (ApiException ex) {
-				LOGGER.warn("Impossible d'envoyer le SMS: {}", ex.getMessage());
-			}
+			outboxService.enqueueSms(smsToFallback, subject);
 		} else {
 			LOGGER.info("[SMS MOCK] {} -> {}", subject, body);
 		}
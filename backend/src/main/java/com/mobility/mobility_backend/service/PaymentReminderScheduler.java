@@ -1,97 +1,300 @@
 package com.mobility.mobility_backend.service;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.mobility.mobility_backend.dto.payment.PaymentTransitionProjection;
 import com.mobility.mobility_backend.entity.Reservation;
 import com.mobility.mobility_backend.repository.ReservationRepository;
+import com.mobility.mobility_backend.service.availability.OfferAvailabilityService;
+import com.mobility.mobility_backend.service.finance.FinanceAggregateService;
+import com.mobility.mobility_backend.service.scheduling.SchedulerLockService;
+import com.mobility.mobility_backend.util.AfterCommit;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Rappels et expirations de paiement. Les échéances sont normalement tenues à
+ * l'heure par {@code PaymentDeadlineService} (roue temporelle), qui appelle
+ * {@link #remind}, {@link #expireStale} et {@link #expirePending} ; les tâches
+ * cron ne sont plus qu'un balayage de rattrapage, exécuté par un seul réplica
+ * ({@link SchedulerLockService}).
+ *
+ * Les transitions de statut se font par lots bornés, chacun dans sa
+ * transaction : un UPDATE ensembliste conditionné sur l'ancien statut (un nœud
+ * qui arrive second ne transite ni ne notifie rien), les emails/SMS du lot mis
+ * en outbox, puis au commit le delta des agrégats financiers appliqué et les
+ * créneaux des paiements expirés ou échoués libérés (l'UPDATE JPQL ne passe
+ * ni par {@code ReservationFinanceListener} ni par
+ * {@code ReservationAvailabilityListener}).
+ */
 @Component
 public class PaymentReminderScheduler {
 
 	private static final Logger LOGGER = LoggerFactory.getLogger(PaymentReminderScheduler.class);
 
+	private static final String STALE_PAYMENT_REASON = "Paiement expiré : la session Stripe n'a pas été finalisée à temps.";
+
 	private final ReservationRepository reservationRepository;
 	private final PaymentNotificationService notificationService;
+	private final SchedulerLockService lockService;
+	private final TransactionTemplate transactionTemplate;
+	private final ObjectProvider<FinanceAggregateService> aggregateService;
+	private final ObjectProvider<OfferAvailabilityService> availabilityService;
+	private final MeterRegistry meterRegistry;
 	private final long paymentActionTimeoutMinutes;
 	private final long paymentExpiryHours;
+	private final long reminderLeadHours;
+	private final int chunkSize;
+	private final Duration maxRunDuration;
+	private final Duration lockAtLeastFor;
 
 	public PaymentReminderScheduler(ReservationRepository reservationRepository,
-			PaymentNotificationService notificationService,
+			PaymentNotificationService notificationService, SchedulerLockService lockService,
+			PlatformTransactionManager transactionManager, ObjectProvider<FinanceAggregateService> aggregateService,
+			ObjectProvider<OfferAvailabilityService> availabilityService, MeterRegistry meterRegistry,
 			@Value("${app.payment.action-timeout-minutes:120}") long paymentActionTimeoutMinutes,
-			@Value("${app.payment.expire-hours:48}") long paymentExpiryHours) {
+			@Value("${app.payment.expire-hours:48}") long paymentExpiryHours,
+			@Value("${app.payment.reminder-lead-hours:24}") long reminderLeadHours,
+			@Value("${payments.scheduler.chunk-size:500}") int chunkSize,
+			@Value("${payments.scheduler.max-run-duration-ms:600000}") long maxRunDurationMs,
+			@Value("${payments.scheduler.lock-at-least-for-ms:30000}") long lockAtLeastForMs) {
 		this.reservationRepository = reservationRepository;
 		this.notificationService = notificationService;
+		this.lockService = lockService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.aggregateService = aggregateService;
+		this.availabilityService = availabilityService;
+		this.meterRegistry = meterRegistry;
 		this.paymentActionTimeoutMinutes = paymentActionTimeoutMinutes;
 		this.paymentExpiryHours = paymentExpiryHours;
+		this.reminderLeadHours = reminderLeadHours;
+		this.chunkSize = Math.max(1, chunkSize);
+		this.maxRunDuration = Duration.ofMillis(Math.max(1, maxRunDurationMs));
+		this.lockAtLeastFor = Duration.ofMillis(Math.max(0, lockAtLeastForMs));
+	}
+
+	public long getPaymentActionTimeoutMinutes() {
+		return paymentActionTimeoutMinutes;
+	}
+
+	public long getPaymentExpiryHours() {
+		return paymentExpiryHours;
+	}
+
+	public long getReminderLeadHours() {
+		return reminderLeadHours;
 	}
 
-	@Scheduled(cron = "0 0 * * * *")
+	@Scheduled(cron = "${payments.scheduler.reminder-cron:0 0 * * * *}")
 	public void sendReminders() {
-		LocalDateTime now = LocalDateTime.now();
-		LocalDateTime in24h = now.plusHours(24);
-		List<Reservation> upcoming = reservationRepository
-				.findByPaymentStatusAndReservationDateBetween(Reservation.PaymentStatus.PENDING, now, in24h);
-		upcoming.forEach(notificationService::notifyUpcomingPayment);
+		lockService.runIfLeader("payments.send-reminders", maxRunDuration, lockAtLeastFor, () -> {
+			long deadline = System.nanoTime() + maxRunDuration.toNanos();
+			int total = 0;
+			while (System.nanoTime() < deadline) {
+				LocalDateTime now = LocalDateTime.now();
+				List<Integer> ids = reservationRepository.findReminderCandidates(now, now.plusHours(reminderLeadHours),
+						PageRequest.of(0, chunkSize));
+				if (ids.isEmpty()) {
+					break;
+				}
+				total += remind(ids);
+			}
+			if (total > 0) {
+				LOGGER.info("Sent {} payment reminders (sweep)", total);
+			}
+		});
 	}
 
-	@Scheduled(cron = "0 */15 * * * *")
+	@Scheduled(cron = "${payments.scheduler.expire-stale-cron:0 20 * * * *}")
 	public void expireStalePayments() {
 		if (paymentActionTimeoutMinutes <= 0) {
 			return;
 		}
-		LocalDateTime threshold = LocalDateTime.now().minusMinutes(paymentActionTimeoutMinutes);
-		List<Reservation> staleReservations = reservationRepository
-				.findByPaymentStatusAndUpdatedAtBefore(Reservation.PaymentStatus.REQUIRES_ACTION, threshold);
+		lockService.runIfLeader("payments.expire-stale", maxRunDuration, lockAtLeastFor, () -> {
+			LocalDateTime threshold = LocalDateTime.now().minusMinutes(paymentActionTimeoutMinutes);
+			int expired = transitionInChunks(Reservation.PaymentStatus.REQUIRES_ACTION,
+					Reservation.PaymentStatus.FAILED, threshold, this::notifyStale);
+			if (expired > 0) {
+				LOGGER.info("Expired {} reservations stuck in REQUIRES_ACTION since before {}", expired, threshold);
+			}
+		});
+	}
 
-		if (staleReservations.isEmpty()) {
+	@Scheduled(cron = "${payments.scheduler.mark-expired-cron:0 40 * * * *}")
+	public void markExpiredPayments() {
+		if (paymentExpiryHours <= 0) {
 			return;
 		}
+		lockService.runIfLeader("payments.mark-expired", maxRunDuration, lockAtLeastFor, () -> {
+			LocalDateTime threshold = LocalDateTime.now().minusHours(paymentExpiryHours);
+			int expired = transitionInChunks(Reservation.PaymentStatus.PENDING, Reservation.PaymentStatus.EXPIRED,
+					threshold, notificationService::notifyPaymentsExpired);
+			if (expired > 0) {
+				LOGGER.info("Marked {} reservations as EXPIRED (pending since before {})", expired, threshold);
+			}
+		});
+	}
 
-		LOGGER.info("Expiring {} reservations stuck in REQUIRES_ACTION since before {}", staleReservations.size(),
-				threshold);
-		LocalDateTime now = LocalDateTime.now();
-		staleReservations.forEach(reservation -> {
-			if (reservation.getOffer() != null && reservation.getOffer().getVersion() == null) {
-				reservation.getOffer().setVersion(0L);
+	/**
+	 * Rappel de paiement pour ces réservations, si elles sont toujours en
+	 * attente, proches de leur date et pas encore relancées.
+	 *
+	 * @return le nombre de rappels envoyés
+	 */
+	public int remind(Collection<Integer> ids) {
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		Integer reminded = transactionTemplate.execute(status -> {
+			LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+			if (reservationRepository.markPaymentReminderSent(ids, now, now, now.plusHours(reminderLeadHours)) == 0) {
+				return 0;
 			}
-			reservation.setPaymentStatus(Reservation.PaymentStatus.FAILED);
-			reservation.setUpdatedAt(now);
-			reservationRepository.save(reservation);
-			notificationService.notifyPaymentFailure(reservation,
-					"Paiement expiré : la session Stripe n'a pas été finalisée à temps.");
+			List<Reservation> reservations = reservationRepository.findReminded(ids, now);
+			notificationService.notifyUpcomingPayments(reservations);
+			return reservations.size();
 		});
+		return reminded != null ? reminded : 0;
 	}
 
-	@Scheduled(cron = "0 10 * * * *")
-	public void markExpiredPayments() {
-		if (paymentExpiryHours <= 0) {
-			return;
+	/**
+	 * Échec des paiements restés en REQUIRES_ACTION au-delà du délai, pour ces réservations.
+	 */
+	public int expireStale(Collection<Integer> ids) {
+		if (paymentActionTimeoutMinutes <= 0 || ids.isEmpty()) {
+			return 0;
+		}
+		LocalDateTime threshold = LocalDateTime.now().minusMinutes(paymentActionTimeoutMinutes);
+		return transitionByIds(ids, Reservation.PaymentStatus.REQUIRES_ACTION, Reservation.PaymentStatus.FAILED,
+				threshold, this::notifyStale);
+	}
+
+	/**
+	 * Expiration des paiements restés PENDING au-delà du délai, pour ces réservations.
+	 */
+	public int expirePending(Collection<Integer> ids) {
+		if (paymentExpiryHours <= 0 || ids.isEmpty()) {
+			return 0;
 		}
 		LocalDateTime threshold = LocalDateTime.now().minusHours(paymentExpiryHours);
-		List<Reservation> toExpire = reservationRepository
-				.findByPaymentStatusAndUpdatedAtBefore(Reservation.PaymentStatus.PENDING, threshold);
+		return transitionByIds(ids, Reservation.PaymentStatus.PENDING, Reservation.PaymentStatus.EXPIRED, threshold,
+				notificationService::notifyPaymentsExpired);
+	}
 
-		if (toExpire.isEmpty()) {
-			return;
+	private void notifyStale(List<Reservation> reservations) {
+		notificationService.notifyPaymentFailures(reservations, STALE_PAYMENT_REASON);
+	}
+
+	private int transitionByIds(Collection<Integer> ids, Reservation.PaymentStatus from,
+			Reservation.PaymentStatus to, LocalDateTime threshold, Consumer<List<Reservation>> notifier) {
+		Integer transitioned = transactionTemplate.execute(status -> transition(
+				reservationRepository.findTransitionCandidatesByIds(ids, from, threshold), from, to, threshold,
+				notifier));
+		int total = transitioned != null ? Math.max(0, transitioned) : 0;
+		if (total > 0) {
+			meterRegistry.counter("payments.scheduler.transitions", "to", to.name()).increment(total);
 		}
+		return total;
+	}
 
-		LOGGER.info("Marking {} reservations as EXPIRED (pending since before {})", toExpire.size(), threshold);
-		LocalDateTime now = LocalDateTime.now();
-		toExpire.forEach(reservation -> {
-			if (reservation.getOffer() != null && reservation.getOffer().getVersion() == null) {
-				reservation.getOffer().setVersion(0L);
+	/**
+	 * Fait passer de {@code from} à {@code to} les réservations non modifiées
+	 * depuis {@code threshold}, lot par lot, dans la limite de
+	 * {@code payments.scheduler.max-run-duration-ms} (le reliquat attend le
+	 * passage suivant).
+	 */
+	int transitionInChunks(Reservation.PaymentStatus from, Reservation.PaymentStatus to, LocalDateTime threshold,
+			Consumer<List<Reservation>> notifier) {
+		long deadline = System.nanoTime() + maxRunDuration.toNanos();
+		int total = 0;
+		while (System.nanoTime() < deadline) {
+			Integer transitioned = transactionTemplate
+					.execute(status -> transitionChunk(from, to, threshold, notifier));
+			if (transitioned == null || transitioned < 0) {
+				break;
 			}
-			reservation.setPaymentStatus(Reservation.PaymentStatus.EXPIRED);
-			reservation.setUpdatedAt(now);
-			reservationRepository.save(reservation);
-			notificationService.notifyPaymentExpired(reservation);
-		});
+			total += transitioned;
+		}
+		if (total > 0) {
+			meterRegistry.counter("payments.scheduler.transitions", "to", to.name()).increment(total);
+		}
+		return total;
+	}
+
+	/**
+	 * @return le nombre de réservations passées à {@code to}, ou -1 s'il n'y a plus rien à traiter
+	 */
+	private int transitionChunk(Reservation.PaymentStatus from, Reservation.PaymentStatus to,
+			LocalDateTime threshold, Consumer<List<Reservation>> notifier) {
+		return transition(reservationRepository.findTransitionCandidates(from, threshold, PageRequest.of(0, chunkSize)),
+				from, to, threshold, notifier);
+	}
+
+	private int transition(List<PaymentTransitionProjection> candidates, Reservation.PaymentStatus from,
+			Reservation.PaymentStatus to, LocalDateTime threshold, Consumer<List<Reservation>> notifier) {
+		if (candidates.isEmpty()) {
+			return -1;
+		}
+		Map<Integer, PaymentTransitionProjection> before = new HashMap<>();
+		candidates.forEach(candidate -> before.put(candidate.getReservationId(), candidate));
+
+		// Précision milliseconde : l'horodatage sert ensuite à retrouver exactement les lignes modifiées
+		LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+		int updated = reservationRepository.transitionPaymentStatus(before.keySet(), from, to, threshold, now);
+		if (updated == 0) {
+			// Tout le lot a changé de statut entre-temps : les lignes ne sont plus candidates
+			return 0;
+		}
+
+		List<Reservation> transitioned = reservationRepository.findTransitioned(before.keySet(), to, now);
+		notifier.accept(transitioned);
+		applyFinanceDeltasAfterCommit(transitioned.stream()
+				.map(reservation -> before.get(reservation.getReservationId()))
+				.toList(), from, to);
+		releaseSlotsAfterCommit(transitioned);
+		return transitioned.size();
+	}
+
+	private void applyFinanceDeltasAfterCommit(List<PaymentTransitionProjection> rows,
+			Reservation.PaymentStatus from, Reservation.PaymentStatus to) {
+		FinanceAggregateService service = aggregateService.getIfAvailable();
+		if (service == null || rows.isEmpty()) {
+			return;
+		}
+		AfterCommit.run(() -> rows.forEach(row -> service.apply(
+				new Reservation.FinanceState(from, row.getStatus(), row.getPaymentDate(), row.getAmount()),
+				new Reservation.FinanceState(to, row.getStatus(), row.getPaymentDate(), row.getAmount()))));
+	}
+
+	// Paiement expiré ou échoué : la réservation ne bloque plus son créneau
+	private void releaseSlotsAfterCommit(List<Reservation> transitioned) {
+		OfferAvailabilityService service = availabilityService.getIfAvailable();
+		if (service == null) {
+			return;
+		}
+		List<Reservation> released = transitioned.stream().filter(reservation -> !reservation.holdsSlot()).toList();
+		if (released.isEmpty()) {
+			return;
+		}
+		AfterCommit.run(() -> released.forEach(reservation -> service.release(
+				reservation.getOffer() != null ? reservation.getOffer().getOfferId() : null,
+				reservation.getReservationId())));
 	}
 }
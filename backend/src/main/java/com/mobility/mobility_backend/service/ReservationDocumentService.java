@@ -1,163 +1,140 @@
 package com.mobility.mobility_backend.service;
 
-import java.io.ByteArrayOutputStream;
-import java.time.format.DateTimeFormatter;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import com.lowagie.text.Document;
-import com.lowagie.text.Font;
-import com.lowagie.text.FontFactory;
-import com.lowagie.text.PageSize;
-import com.lowagie.text.Paragraph;
-import com.lowagie.text.Phrase;
-import com.lowagie.text.pdf.PdfPCell;
-import com.lowagie.text.pdf.PdfPTable;
-import com.lowagie.text.pdf.PdfWriter;
+import com.lowagie.text.DocumentException;
+import com.mobility.mobility_backend.dto.finance.ReceiptBatchDTO;
 import com.mobility.mobility_backend.entity.Reservation;
 import com.mobility.mobility_backend.repository.ReservationRepository;
+import com.mobility.mobility_backend.service.receipt.ReceiptContent;
+import com.mobility.mobility_backend.service.receipt.ReceiptStore;
+import com.mobility.mobility_backend.service.receipt.ReceiptTemplate;
 
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Reçus PDF des réservations. Un reçu n'est rendu qu'une fois par version de
+ * son contenu puis servi depuis {@link ReceiptStore} ; la version (empreinte
+ * du contenu) sert aussi d'ETag pour les GET conditionnels.
+ */
 @Service
 public class ReservationDocumentService {
 
-	private final ReservationRepository reservationRepository;
-
-	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
 	private static final Logger LOGGER = LoggerFactory.getLogger(ReservationDocumentService.class);
 
-	public ReservationDocumentService(ReservationRepository reservationRepository) {
+	private final ReservationRepository reservationRepository;
+	private final ReceiptTemplate receiptTemplate;
+	private final ReceiptStore receiptStore;
+	private final ExecutorService batchExecutor;
+
+	public ReservationDocumentService(ReservationRepository reservationRepository, ReceiptTemplate receiptTemplate,
+			ReceiptStore receiptStore, @Value("${receipts.batch.threads:4}") int batchThreads) {
 		this.reservationRepository = reservationRepository;
+		this.receiptTemplate = receiptTemplate;
+		this.receiptStore = receiptStore;
+		AtomicInteger threadIndex = new AtomicInteger();
+		this.batchExecutor = Executors.newFixedThreadPool(Math.max(1, batchThreads), runnable -> {
+			Thread thread = new Thread(runnable, "receipt-batch-" + threadIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
 	}
 
-	public byte[] buildReceipt(Integer reservationId) {
+	/**
+	 * Contenu et version du reçu, sans rendu : suffit à répondre 304.
+	 */
+	public ReceiptContent describeReceipt(Integer reservationId) {
 		Optional<Reservation> optional = reservationRepository.findWithReceiptDetailsByReservationId(reservationId);
 		if (optional.isEmpty()) {
 			throw new IllegalArgumentException("Réservation introuvable");
 		}
-		Reservation reservation = optional.get();
-
-		ByteArrayOutputStream baos = new ByteArrayOutputStream();
-		Document document = new Document(PageSize.A4);
-		try {
-			PdfWriter.getInstance(document, baos);
-			document.open();
-
-			Font titleFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 18);
-			Font sectionFont = FontFactory.getFont(FontFactory.HELVETICA_BOLD, 12);
-			Font textFont = FontFactory.getFont(FontFactory.HELVETICA, 11);
-
-			document.add(new Paragraph("Reçu de réservation", titleFont));
-			document.add(new Paragraph("Réservation #" + reservation.getReservationId(), textFont));
-			document.add(new Paragraph(" "));
-
-			document.add(new Paragraph("Informations client", sectionFont));
-			PdfPTable clientTable = new PdfPTable(2);
-			clientTable.setWidthPercentage(100);
-			clientTable.addCell(cell("Client"));
-			String username = reservation.getUser() != null ? reservation.getUser().getUsername() : "N/A";
-			clientTable.addCell(cell(username));
-			clientTable.addCell(cell("Nom complet"));
-			clientTable.addCell(cell(resolveClientName(reservation)));
-			clientTable.addCell(cell("Email"));
-			String email = reservation.getUser() != null ? reservation.getUser().getEmail() : "N/A";
-			clientTable.addCell(cell(email));
-			document.add(clientTable);
-			document.add(new Paragraph(" "));
-
-			document.add(new Paragraph("Informations réservation", sectionFont));
-			PdfPTable bookingTable = new PdfPTable(2);
-			bookingTable.setWidthPercentage(100);
-			bookingTable.addCell(cell("Date de réservation"));
-			bookingTable.addCell(
-					cell(reservation.getReservationDate() != null ? DATE_FORMAT.format(reservation.getReservationDate())
-							: "N/A"));
-			bookingTable.addCell(cell("Statut"));
-			bookingTable.addCell(cell(formatReservationStatus(reservation.getStatus())));
-			bookingTable.addCell(cell("Statut paiement"));
-			bookingTable.addCell(cell(formatPaymentStatus(reservation.getPaymentStatus())));
-			bookingTable.addCell(cell("Référence paiement"));
-			bookingTable.addCell(cell(reservation.getPaymentReference() != null ? reservation.getPaymentReference()
-					: "Non disponible"));
-			bookingTable.addCell(cell("Montant"));
-			String amount = reservation.getPaymentAmount() != null ? reservation.getPaymentAmount().toPlainString()
-					: (reservation.getOffer() != null && reservation.getOffer().getPrice() != null
-							? reservation.getOffer().getPrice().toPlainString()
-							: "0");
-			bookingTable.addCell(cell(amount + " €"));
-			document.add(bookingTable);
-			document.add(new Paragraph(" "));
-
-			document.add(new Paragraph("Offre", sectionFont));
-			PdfPTable offerTable = new PdfPTable(2);
-			offerTable.setWidthPercentage(100);
-			offerTable.addCell(cell("Description"));
-			offerTable.addCell(
-					cell(reservation.getOffer() != null ? reservation.getOffer().getDescription() : "Non disponible"));
-			offerTable.addCell(cell("Service"));
-			offerTable.addCell(cell(reservation.getOffer() != null && reservation.getOffer().getMobilityService() != null
-					? reservation.getOffer().getMobilityService().getName()
-					: "Non disponible"));
-			document.add(offerTable);
+		return ReceiptContent.from(optional.get());
+	}
 
-			document.close();
-			return baos.toByteArray();
-		} catch (Exception ex) {
-			LOGGER.error("Failed to generate receipt for reservation {}", reservationId, ex);
-			throw new IllegalStateException("Impossible de générer le reçu", ex);
-		}
+	public static String etag(ReceiptContent content) {
+		return "\"receipt-" + content.reservationId() + "-" + content.fingerprint() + "\"";
 	}
 
-	private PdfPCell cell(String value) {
-		PdfPCell cell = new PdfPCell(new Phrase(value));
-		cell.setPadding(6f);
-		return cell;
+	/**
+	 * Fichier du reçu dans le magasin, rendu à la première demande de cette
+	 * version.
+	 */
+	public Path getReceiptFile(ReceiptContent content) {
+		String version = content.fingerprint();
+		return receiptStore.find(content.reservationId(), version).orElseGet(() -> render(content, version));
 	}
 
-	private String resolveClientName(Reservation reservation) {
-		if (reservation.getUser() == null) {
-			return "N/A";
-		}
-		String first = reservation.getUser().getFirstName();
-		String last = reservation.getUser().getLastName();
-		StringBuilder fullName = new StringBuilder();
-		if (first != null && !first.isBlank()) {
-			fullName.append(first.trim());
+	/**
+	 * Rend en parallèle les reçus des réservations payées sur le mois ; les
+	 * versions déjà stockées sont réutilisées.
+	 */
+	public ReceiptBatchDTO renderMonth(YearMonth month) {
+		List<Reservation> reservations = reservationRepository.findPaidWithReceiptDetails(
+				month.atDay(1).atStartOfDay(), month.plusMonths(1).atDay(1).atStartOfDay());
+		AtomicInteger rendered = new AtomicInteger();
+		AtomicInteger reused = new AtomicInteger();
+		AtomicInteger failed = new AtomicInteger();
+		List<CompletableFuture<Void>> tasks = new ArrayList<>();
+		for (Reservation reservation : reservations) {
+			ReceiptContent content = ReceiptContent.from(reservation);
+			tasks.add(CompletableFuture.runAsync(() -> {
+				String version = content.fingerprint();
+				if (receiptStore.find(content.reservationId(), version).isPresent()) {
+					reused.incrementAndGet();
+					return;
+				}
+				try {
+					render(content, version);
+					rendered.incrementAndGet();
+				} catch (RuntimeException ex) {
+					failed.incrementAndGet();
+				}
+			}, batchExecutor));
 		}
-		if (last != null && !last.isBlank()) {
-			if (fullName.length() > 0) {
-				fullName.append(" ");
-			}
-			fullName.append(last.trim());
-		}
-		return fullName.length() == 0 ? "N/A" : fullName.toString();
+		CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new)).join();
+
+		ReceiptBatchDTO result = new ReceiptBatchDTO();
+		result.setMonth(month.toString());
+		result.setTotal(reservations.size());
+		result.setRendered(rendered.get());
+		result.setReused(reused.get());
+		result.setFailed(failed.get());
+		LOGGER.info("🧾 Reçus {} : {} rendus, {} réutilisés, {} en échec", month, rendered.get(), reused.get(),
+				failed.get());
+		return result;
 	}
 
-	private String formatReservationStatus(Reservation.ReservationStatus status) {
-		if (status == null) {
-			return "N/A";
+	private Path render(ReceiptContent content, String version) {
+		try {
+			return receiptStore.write(content.reservationId(), version, output -> {
+				try {
+					receiptTemplate.render(content, output);
+				} catch (DocumentException ex) {
+					throw new IOException(ex);
+				}
+			});
+		} catch (Exception ex) {
+			LOGGER.error("Failed to generate receipt for reservation {}", content.reservationId(), ex);
+			throw new IllegalStateException("Impossible de générer le reçu", ex);
 		}
-		return switch (status) {
-		case PENDING -> "En attente";
-		case CONFIRMED -> "Confirmée";
-		case CANCELLED -> "Annulée";
-		case COMPLETED -> "Terminée";
-		};
 	}
 
-	private String formatPaymentStatus(Reservation.PaymentStatus status) {
-		if (status == null) {
-			return "N/A";
-		}
-		return switch (status) {
-		case PENDING -> "En attente";
-		case REQUIRES_ACTION -> "Action requise";
-		case PAID -> "Payé";
-		case FAILED -> "Echoué";
-		case REFUNDED -> "Remboursé";
-		case EXPIRED -> "Expiré";
-		};
+	@PreDestroy
+	public void shutdown() {
+		batchExecutor.shutdownNow();
 	}
 }
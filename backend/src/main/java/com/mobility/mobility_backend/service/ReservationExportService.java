@@ -0,0 +1,166 @@
+package com.mobility.mobility_backend.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.repository.ReservationRepository;
+
+import jakarta.persistence.EntityManager;
+
+/**
+ * Export CSV des réservations écrit ligne par ligne dans la réponse : filtres et
+ * tri sont faits en base, les lignes arrivent par un curseur en lecture seule
+ * et le contexte de persistance est vidé régulièrement, si bien que la mémoire
+ * reste constante quel que soit le volume exporté.
+ */
+@Service
+public class ReservationExportService {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReservationExportService.class);
+
+	static final String HEADER = "reservation_id;client;email;service;statut_reservation;statut_paiement;montant;date_reservation;derniere_mise_a_jour";
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+	private final ReservationRepository reservationRepository;
+	private final EntityManager entityManager;
+	private final int clearEvery;
+
+	public ReservationExportService(ReservationRepository reservationRepository, EntityManager entityManager,
+			@Value("${exports.bookings.clear-every:500}") int clearEvery) {
+		this.reservationRepository = reservationRepository;
+		this.entityManager = entityManager;
+		this.clearEvery = Math.max(1, clearEvery);
+	}
+
+	/**
+	 * Écrit l'export dans {@code output} (compressé si {@code gzip}) et renvoie
+	 * le nombre de lignes exportées. Le flux de sortie n'est pas fermé.
+	 */
+	@Transactional(readOnly = true)
+	public long writeCsv(String query, String statusFilter, LocalDate startDate, LocalDate endDate,
+			boolean anomaliesOnly, Integer userId, OutputStream output, boolean gzip) throws IOException {
+		GZIPOutputStream gzipStream = gzip ? new GZIPOutputStream(output, 8192) : null;
+		Writer writer = new BufferedWriter(
+				new OutputStreamWriter(gzipStream != null ? gzipStream : output, StandardCharsets.UTF_8), 16384);
+
+		Integer reservationId = null;
+		String keyword = null;
+		if (query != null && !query.isBlank()) {
+			String sanitized = query.trim();
+			if (sanitized.matches("\\d+")) {
+				reservationId = Integer.valueOf(sanitized);
+			} else {
+				keyword = "%" + sanitized.toLowerCase(Locale.ROOT) + "%";
+			}
+		}
+		Reservation.ReservationStatus status = null;
+		Reservation.PaymentStatus paymentStatus = null;
+		if (statusFilter != null && !statusFilter.isBlank() && !"ALL".equalsIgnoreCase(statusFilter)) {
+			String normalized = statusFilter.trim().toUpperCase(Locale.ROOT);
+			status = parseEnum(Reservation.ReservationStatus.class, normalized);
+			if (status == null) {
+				paymentStatus = parseEnum(Reservation.PaymentStatus.class, normalized);
+			}
+		}
+		LocalDateTime from = startDate != null ? startDate.atStartOfDay() : null;
+		LocalDateTime to = endDate != null ? endDate.plusDays(1).atStartOfDay() : null;
+
+		writer.write(HEADER);
+		writer.write('\n');
+		long rows = 0;
+		try (Stream<Reservation> reservations = reservationRepository.streamForExport(reservationId, keyword, status,
+				paymentStatus, userId, from, to, anomaliesOnly)) {
+			Iterator<Reservation> iterator = reservations.iterator();
+			while (iterator.hasNext()) {
+				writeRow(writer, iterator.next());
+				rows++;
+				// Les entités lues restent sinon attachées jusqu'à la fin de la transaction
+				if (rows % clearEvery == 0) {
+					entityManager.clear();
+					writer.flush();
+				}
+			}
+		}
+		writer.flush();
+		if (gzipStream != null) {
+			gzipStream.finish();
+		}
+		logger.info("📤 Export CSV des réservations : {} lignes{}", rows, gzip ? " (gzip)" : "");
+		return rows;
+	}
+
+	private void writeRow(Writer writer, Reservation reservation) throws IOException {
+		String username = reservation.getUser() != null ? reservation.getUser().getUsername() : "";
+		String email = reservation.getUser() != null ? reservation.getUser().getEmail() : "";
+		String service = reservation.getOffer() != null ? reservation.getOffer().getDescription() : "";
+		String status = reservation.getStatus() != null ? reservation.getStatus().name() : "";
+		String paymentStatus = reservation.getPaymentStatus() != null ? reservation.getPaymentStatus().name() : "";
+		BigDecimal paymentAmount = null;
+		if (reservation.getPaymentAmount() != null) {
+			paymentAmount = reservation.getPaymentAmount();
+		} else if (reservation.getOffer() != null && reservation.getOffer().getPrice() != null) {
+			paymentAmount = reservation.getOffer().getPrice();
+		}
+		String formattedAmount = paymentAmount != null
+				? String.format(Locale.FRANCE, "%.2f", paymentAmount.doubleValue())
+				: "";
+		String reservationDate = reservation.getReservationDate() != null
+				? reservation.getReservationDate().format(DATE_FORMAT)
+				: "";
+		String updatedAt = reservation.getUpdatedAt() != null ? reservation.getUpdatedAt().format(DATE_FORMAT) : "";
+
+		writer.write(String.valueOf(reservation.getReservationId()));
+		writer.write(';');
+		writer.write(escapeCsv(username));
+		writer.write(';');
+		writer.write(escapeCsv(email));
+		writer.write(';');
+		writer.write(escapeCsv(service));
+		writer.write(';');
+		writer.write(escapeCsv(status));
+		writer.write(';');
+		writer.write(escapeCsv(paymentStatus));
+		writer.write(';');
+		writer.write(formattedAmount);
+		writer.write(';');
+		writer.write(reservationDate);
+		writer.write(';');
+		writer.write(updatedAt);
+		writer.write('\n');
+	}
+
+	private String escapeCsv(String value) {
+		if (value == null || value.isBlank()) {
+			return "";
+		}
+		String sanitized = value.replace("\"", "\"\"");
+		return "\"" + sanitized + "\"";
+	}
+
+	private static <E extends Enum<E>> E parseEnum(Class<E> type, String value) {
+		try {
+			return Enum.valueOf(type, value);
+		} catch (IllegalArgumentException ex) {
+			return null;
+		}
+	}
+}
@@ -1,6 +1,5 @@
 package com.mobility.mobility_backend.service;
 
-import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.HashMap;
@@ -10,7 +9,9 @@ import java.util.Objects;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
@@ -30,7 +31,8 @@ import com.mobility.mobility_backend.entity.Reservation;
 import com.mobility.mobility_backend.entity.User;
 import com.mobility.mobility_backend.repository.OfferRepository;
 import com.mobility.mobility_backend.repository.ReservationRepository;
-import com.mobility.mobility_backend.repository.UserRepository;
+import com.mobility.mobility_backend.repository.UserRepository;
+import com.mobility.mobility_backend.service.availability.OfferAvailabilityService;
 
 @Service
 public class ReservationService {
@@ -42,13 +44,16 @@ public class ReservationService {
 	private final PaymentNotificationService paymentNotificationService;
 	private final IdentityVerificationService identityVerificationService;
 	private final DriverProfileService driverProfileService;
+	private final OfferAvailabilityService offerAvailabilityService;
+
+	private static final String SLOT_CONSTRAINT = "ex_reservations_offer_slot";
 
 	@Autowired
 	public ReservationService(ReservationRepository reservationRepository, UserRepository userRepository,
 			OfferRepository offerRepository, ReservationMapper reservationMapper,
 			PaymentNotificationService paymentNotificationService,
 			IdentityVerificationService identityVerificationService,
-			DriverProfileService driverProfileService) {
+			DriverProfileService driverProfileService, OfferAvailabilityService offerAvailabilityService) {
 		this.reservationRepository = reservationRepository;
 		this.userRepository = userRepository;
 		this.offerRepository = offerRepository;
@@ -56,6 +61,7 @@ public class ReservationService {
 		this.paymentNotificationService = paymentNotificationService;
 		this.identityVerificationService = identityVerificationService;
 		this.driverProfileService = driverProfileService;
+		this.offerAvailabilityService = offerAvailabilityService;
 	}
 
 	// Récupérer toutes les réservations
@@ -136,8 +142,23 @@ public class ReservationService {
 		}
 		applyDriverProfile(reservation, driverProfile);
 
-		System.out.println("🟡 [ReservationService] Saving reservation...");
-		Reservation savedReservation = reservationRepository.save(reservation);
+		// Créneau bloqué en mémoire avant l'écriture : un doublon concurrent est refusé immédiatement (409)
+		OfferAvailabilityService.Hold hold = offerAvailabilityService.hold(offer.getOfferId(),
+				reservation.getReservationDate());
+		reservation.setSlotEnd(hold.getEnd());
+
+		System.out.println("🟡 [ReservationService] Saving reservation...");
+		Reservation savedReservation;
+		try {
+			savedReservation = reservationRepository.saveAndFlush(reservation);
+		} catch (DataIntegrityViolationException e) {
+			hold.release();
+			throw slotConflictOr(e, offer.getOfferId());
+		} catch (RuntimeException e) {
+			hold.release();
+			throw e;
+		}
+		hold.confirm(savedReservation.getReservationId());
 		System.out
 				.println("🟢 [ReservationService] Reservation created with ID: " + savedReservation.getReservationId());
 
@@ -152,8 +173,41 @@ public class ReservationService {
 			System.out.println(
 					"🟡 [ReservationService] Reservation found, current status: " + existingReservation.getStatus());
 
+			LocalDateTime previousDate = existingReservation.getReservationDate();
+			boolean heldSlot = existingReservation.holdsSlot();
 			reservationMapper.updateEntityFromDTO(reservationDTO, existingReservation);
-			Reservation updatedReservation = reservationRepository.save(existingReservation);
+
+			// Nouvelle date ou réservation réactivée : créneau recalculé et déplacé comme à la création (409)
+			LocalDateTime date = existingReservation.getReservationDate();
+			boolean moved = date != null && !date.equals(previousDate);
+			Integer offerId = existingReservation.getOffer() != null ? existingReservation.getOffer().getOfferId()
+					: null;
+			OfferAvailabilityService.Hold hold = null;
+			if (moved) {
+				existingReservation.setSlotEnd(offerAvailabilityService.slotEnd(date));
+			}
+			if (offerId != null && date != null && existingReservation.holdsSlot() && (moved || !heldSlot)) {
+				hold = offerAvailabilityService.reschedule(offerId, id, date);
+				existingReservation.setSlotEnd(hold.getEnd());
+			}
+
+			Reservation updatedReservation;
+			try {
+				updatedReservation = reservationRepository.saveAndFlush(existingReservation);
+			} catch (DataIntegrityViolationException e) {
+				if (hold != null) {
+					hold.release();
+				}
+				throw slotConflictOr(e, offerId);
+			} catch (RuntimeException e) {
+				if (hold != null) {
+					hold.release();
+				}
+				throw e;
+			}
+			if (hold != null) {
+				hold.confirm(id);
+			}
 
 			System.out.println(
 					"🟢 [ReservationService] Reservation updated, new status: " + updatedReservation.getStatus());
@@ -161,6 +215,28 @@ public class ReservationService {
 		});
 	}
 
+	/**
+	 * Violation de la contrainte d'exclusion {@code ex_reservations_offer_slot} :
+	 * créneau pris depuis un autre réplica, 409 et index de l'offre à recharger.
+	 * Toute autre violation d'intégrité est propagée telle quelle.
+	 */
+	private RuntimeException slotConflictOr(DataIntegrityViolationException e, Integer offerId) {
+		for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+			String constraint = cause instanceof ConstraintViolationException violation
+					? violation.getConstraintName()
+					: null;
+			String message = cause.getMessage();
+			if (SLOT_CONSTRAINT.equalsIgnoreCase(constraint)
+					|| (message != null && message.contains(SLOT_CONSTRAINT))) {
+				if (offerId != null) {
+					offerAvailabilityService.evict(offerId);
+				}
+				return new ResponseStatusException(HttpStatus.CONFLICT, "Ce créneau est déjà réservé pour cette offre");
+			}
+		}
+		return e;
+	}
+
 	// Supprimer une réservation
 	public boolean deleteReservation(Integer id) {
 		System.out.println("🔵 [ReservationService] Deleting reservation ID: " + id);
@@ -419,30 +495,6 @@ public class ReservationService {
 		return reservationMapper.toDTO(savedReservation);
 	}
 
-	public List<Reservation> findReservationsForExport(String query, String statusFilter, LocalDate startDate,
-			LocalDate endDate, boolean anomaliesOnly, Integer userId) {
-		List<Reservation> base = resolveBaseReservations(query);
-
-		return base.stream().filter(reservation -> matchesStatusFilter(reservation, statusFilter))
-				.filter(reservation -> matchesUserFilter(reservation, userId))
-				.filter(reservation -> matchesDateFilter(reservation, startDate, endDate))
-				.filter(reservation -> !anomaliesOnly || isPaymentAnomaly(reservation))
-				.sorted((a, b) -> {
-					LocalDateTime dateA = a.getReservationDate() != null ? a.getReservationDate() : a.getCreatedAt();
-					LocalDateTime dateB = b.getReservationDate() != null ? b.getReservationDate() : b.getCreatedAt();
-					if (dateA == null && dateB == null) {
-						return 0;
-					}
-					if (dateA == null) {
-						return 1;
-					}
-					if (dateB == null) {
-						return -1;
-					}
-					return dateB.compareTo(dateA);
-				}).collect(Collectors.toList());
-	}
-
 	private void enrichIdentityStatuses(List<ReservationDTO> reservations) {
 		if (reservations == null || reservations.isEmpty()) {
 			return;
@@ -486,71 +538,4 @@ public class ReservationService {
 		}
 	}
 
-	private List<Reservation> resolveBaseReservations(String query) {
-		if (query == null || query.isBlank()) {
-			return reservationRepository.findAll();
-		}
-		String sanitized = query.trim();
-		if (sanitized.matches("\\d+")) {
-			return reservationRepository.findById(Integer.valueOf(sanitized)).map(List::of)
-					.orElseGet(Collections::emptyList);
-		}
-		return reservationRepository.searchByKeyword(sanitized, Pageable.unpaged()).getContent();
-	}
-
-	private boolean matchesStatusFilter(Reservation reservation, String statusFilter) {
-		if (statusFilter == null || statusFilter.isBlank() || "ALL".equalsIgnoreCase(statusFilter)) {
-			return true;
-		}
-		String normalized = statusFilter.trim().toUpperCase();
-		try {
-			Reservation.ReservationStatus reservationStatus = Reservation.ReservationStatus.valueOf(normalized);
-			return reservation.getStatus() == reservationStatus;
-		} catch (IllegalArgumentException ex) {
-			try {
-				Reservation.PaymentStatus paymentStatus = Reservation.PaymentStatus.valueOf(normalized);
-				return reservation.getPaymentStatus() == paymentStatus;
-			} catch (IllegalArgumentException ignored) {
-				return true;
-			}
-		}
-	}
-
-	private boolean matchesUserFilter(Reservation reservation, Integer userId) {
-		if (userId == null) {
-			return true;
-		}
-		return reservation.getUser() != null && reservation.getUser().getId() != null
-				&& reservation.getUser().getId().equals(userId);
-	}
-
-	private boolean matchesDateFilter(Reservation reservation, LocalDate startDate, LocalDate endDate) {
-		if (startDate == null && endDate == null) {
-			return true;
-		}
-		LocalDate reservationDay = null;
-		if (reservation.getReservationDate() != null) {
-			reservationDay = reservation.getReservationDate().toLocalDate();
-		} else if (reservation.getCreatedAt() != null) {
-			reservationDay = reservation.getCreatedAt().toLocalDate();
-		}
-		if ((reservationDay == null) || (startDate != null && reservationDay.isBefore(startDate))) {
-			return false;
-		}
-		if (endDate != null && reservationDay.isAfter(endDate)) {
-			return false;
-		}
-		return true;
-	}
-
-	private boolean isPaymentAnomaly(Reservation reservation) {
-		if (reservation.getPaymentStatus() == null) {
-			return false;
-		}
-		return reservation.getPaymentStatus() == Reservation.PaymentStatus.PENDING
-				|| reservation.getPaymentStatus() == Reservation.PaymentStatus.REQUIRES_ACTION
-				|| reservation.getPaymentStatus() == Reservation.PaymentStatus.FAILED
-				|| reservation.getPaymentStatus() == Reservation.PaymentStatus.EXPIRED;
-	}
-
 }
@@ -2,14 +2,26 @@ package com.mobility.mobility_backend.service;
 
 import java.time.LocalDateTime;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.mobility.mobility_backend.dto.payment.WebhookReplayProjection;
 import com.mobility.mobility_backend.entity.PaymentEventLog;
 import com.mobility.mobility_backend.entity.Reservation;
 import com.mobility.mobility_backend.repository.PaymentEventLogRepository;
 import com.mobility.mobility_backend.repository.ReservationRepository;
+import com.mobility.mobility_backend.service.payment.StripedExecutor;
 import com.stripe.exception.SignatureVerificationException;
 import com.stripe.exception.StripeException;
 import com.stripe.model.Event;
@@ -17,58 +29,252 @@ import com.stripe.model.PaymentIntent;
 import com.stripe.model.checkout.Session;
 import com.stripe.net.Webhook;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Ingestion des webhooks Stripe en deux temps :
+ * <ul>
+ * <li>dans la requête HTTP : vérification de la signature, déduplication sur
+ * {@code event_id} (index unique) et enregistrement {@code RECEIVED}, puis
+ * acquittement immédiat ;</li>
+ * <li>en tâche de fond : traitement sur un exécuteur à bandes indexé par
+ * l'identifiant de réservation ({@code client_reference_id} d'une session, ou
+ * résolu depuis la référence de paiement d'un PaymentIntent) : les événements
+ * d'une même réservation restent ordonnés, les autres sont traités en
+ * parallèle.</li>
+ * </ul>
+ * Les événements arrivés avant leur réservation ({@code PENDING_RESERVATION}),
+ * les échecs ({@code FAILED}, tentatives plafonnées) et les {@code RECEIVED}
+ * orphelins (redémarrage, file pleine) sont rejoués périodiquement : Stripe ne
+ * renvoie plus un événement déjà acquitté. Un événement déjà en file sur ce
+ * nœud n'est pas replanifié.
+ *
+ * Le rejeu tourne sur chaque réplica : un événement n'est traité qu'après sa
+ * prise en charge par un UPDATE conditionnel ({@code PROCESSING}), qui ne
+ * réussit que pour un seul traitement à la fois.
+ */
 @Service
 public class StripeWebhookService {
 
+	private static final Logger logger = LoggerFactory.getLogger(StripeWebhookService.class);
+
+	static final String CHECKOUT_COMPLETED = "checkout.session.completed";
+	static final String PAYMENT_FAILED = "payment_intent.payment_failed";
+	private static final Set<String> HANDLED_TYPES = Set.of(CHECKOUT_COMPLETED, PAYMENT_FAILED);
+	private static final int REPLAY_BATCH_SIZE = 200;
+	private static final long STALE_RECEIVED_SECONDS = 60;
+
 	private final ReservationRepository reservationRepository;
 	private final PaymentEventLogRepository logRepository;
 	private final PaymentNotificationService notificationService;
+	private final TransactionTemplate transactionTemplate;
+	private final StripedExecutor executor;
+	// Événements en file ou en cours sur ce nœud : le rejeu ne les empile pas une seconde fois
+	private final Set<Long> queued = ConcurrentHashMap.newKeySet();
+	private final MeterRegistry meterRegistry;
+	private final Timer processingTimer;
+	private final int maxAttempts;
+	private final long replayWindowHours;
 
 	@Value("${stripe.webhook.secret:}")
 	private String webhookSecret;
 
 	public StripeWebhookService(ReservationRepository reservationRepository, PaymentEventLogRepository logRepository,
-			PaymentNotificationService notificationService) {
+			PaymentNotificationService notificationService, PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry, @Value("${payments.webhook.workers:4}") int workers,
+			@Value("${payments.webhook.queue-capacity:1000}") int queueCapacity,
+			@Value("${payments.webhook.max-attempts:5}") int maxAttempts,
+			@Value("${payments.webhook.replay-window-hours:24}") long replayWindowHours) {
 		this.reservationRepository = reservationRepository;
 		this.logRepository = logRepository;
 		this.notificationService = notificationService;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.executor = new StripedExecutor("stripe-webhook", workers, queueCapacity);
+		this.meterRegistry = meterRegistry;
+		this.maxAttempts = Math.max(1, maxAttempts);
+		this.replayWindowHours = Math.max(1, replayWindowHours);
+
+		this.processingTimer = Timer.builder("payments.webhook.processing").register(meterRegistry);
+		Gauge.builder("payments.webhook.queue.depth", executor, StripedExecutor::queueDepth).register(meterRegistry);
 	}
 
-	public void handleWebhook(String payload, String signature) throws StripeException {
+	/**
+	 * Enregistre l'événement et planifie son traitement.
+	 *
+	 * @return {@code false} si l'événement a déjà été reçu (renvoi de Stripe)
+	 */
+	public boolean handleWebhook(String payload, String signature) throws StripeException {
+		Event event = parseEvent(payload, signature);
+
+		if (event.getId() != null && logRepository.existsByEventId(event.getId())) {
+			count("duplicate");
+			return false;
+		}
+
 		PaymentEventLog log = new PaymentEventLog();
+		log.setEventId(event.getId());
+		log.setType(event.getType());
 		log.setPayload(payload);
 		log.setReceivedAt(LocalDateTime.now());
+		log.setAttempts(0);
+
+		boolean handled = HANDLED_TYPES.contains(event.getType());
+		if (handled) {
+			log.setStatus("RECEIVED");
+			log.setReservationReference(extractReference(event));
+		} else {
+			log.setStatus("IGNORED");
+		}
 
 		try {
-			Event event = parseEvent(payload, signature);
-			log.setEventId(event.getId());
-			log.setType(event.getType());
-
-			switch (event.getType()) {
-			case "checkout.session.completed":
-				handleCheckoutCompleted(event, log);
-				break;
-			case "payment_intent.payment_failed":
-				handlePaymentFailed(event, log);
-				break;
-			default:
-				log.setStatus("IGNORED");
+			log = logRepository.saveAndFlush(log);
+		} catch (DataIntegrityViolationException ex) {
+			// Même événement reçu en parallèle sur un autre thread / réplica
+			count("duplicate");
+			return false;
+		}
+
+		if (!handled) {
+			count("ignored");
+			return true;
+		}
+		count("received");
+		schedule(log.getId(), log.getReservationReference(), log.getEventId());
+		return true;
+	}
+
+	/**
+	 * Rejoue les événements en attente de leur réservation, les échecs
+	 * retentables et les événements reçus jamais traités.
+	 */
+	@Scheduled(fixedDelayString = "${payments.webhook.replay-interval-ms:60000}",
+			initialDelayString = "${payments.webhook.replay-interval-ms:60000}")
+	public void replayPending() {
+		LocalDateTime now = LocalDateTime.now();
+		var replayable = logRepository.findReplayable(now.minusHours(replayWindowHours),
+				now.minusSeconds(STALE_RECEIVED_SECONDS), maxAttempts, PageRequest.of(0, REPLAY_BATCH_SIZE));
+		for (WebhookReplayProjection row : replayable) {
+			schedule(row.getId(), row.getReservationReference(), row.getEventId());
+		}
+		if (!replayable.isEmpty()) {
+			logger.info("🔁 {} événement(s) Stripe replanifié(s)", replayable.size());
+		}
+	}
+
+	public int getQueueDepth() {
+		return executor.queueDepth();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		// Les événements non traités restent RECEIVED et seront rejoués au démarrage suivant
+		executor.shutdown(10, TimeUnit.SECONDS);
+	}
+
+	private void schedule(Long logId, String reference, String eventId) {
+		if (!queued.add(logId)) {
+			return;
+		}
+		boolean accepted = executor.execute(stripeKey(reference, eventId), () -> {
+			try {
+				process(logId);
+			} finally {
+				queued.remove(logId);
+			}
+		});
+		if (!accepted) {
+			queued.remove(logId);
+			count("rejected");
+			logger.warn("⚠️ File de traitement des webhooks pleine - événement {} laissé au rejeu", eventId);
+		}
+	}
+
+	/**
+	 * Clé de bande : l'identifiant de réservation, commun aux sessions
+	 * ({@code client_reference_id}) et aux PaymentIntent (référence de paiement
+	 * résolue en base). Réservation encore inconnue : la référence brute, puis
+	 * l'identifiant de l'événement.
+	 */
+	private String stripeKey(String reference, String eventId) {
+		if (reference == null) {
+			return eventId;
+		}
+		try {
+			Integer.parseInt(reference);
+			return reference;
+		} catch (NumberFormatException ex) {
+			try {
+				return reservationRepository.findIdByPaymentReference(reference).map(String::valueOf)
+						.orElse(reference);
+			} catch (RuntimeException lookupError) {
+				return reference;
 			}
+		}
+	}
 
-			if (log.getStatus() == null) {
-				log.setStatus("PROCESSED");
+	void process(Long logId) {
+		Timer.Sample sample = Timer.start(meterRegistry);
+		try {
+			String status = transactionTemplate.execute(tx -> processInTransaction(logId));
+			if (status != null) {
+				count(status.toLowerCase());
 			}
-		} catch (StripeException ex) {
-			log.setStatus("FAILED");
-			log.setErrorMessage(ex.getMessage());
-			throw ex;
 		} catch (RuntimeException ex) {
-			log.setStatus("FAILED");
-			log.setErrorMessage(ex.getMessage());
-			throw ex;
+			logger.error("❌ Traitement du webhook Stripe (log {}) en échec: {}", logId, ex.getMessage());
+			markFailed(logId, ex);
+			count("failed");
 		} finally {
-			logRepository.save(log);
+			sample.stop(processingTimer);
+		}
+	}
+
+	private String processInTransaction(Long logId) {
+		// Déjà traité, ignoré ou en cours sur un autre réplica : rien à faire
+		if (logRepository.claim(logId) != 1) {
+			return null;
+		}
+		PaymentEventLog log = logRepository.findById(logId).orElse(null);
+		if (log == null) {
+			return null;
+		}
+		log.setAttempts(log.getAttempts() + 1);
+		log.setStatus(null);
+		log.setErrorMessage(null);
+
+		Event event = Event.GSON.fromJson(log.getPayload(), Event.class);
+		switch (event.getType()) {
+		case CHECKOUT_COMPLETED:
+			handleCheckoutCompleted(event, log);
+			break;
+		case PAYMENT_FAILED:
+			handlePaymentFailed(event, log);
+			break;
+		default:
+			log.setStatus("IGNORED");
 		}
+
+		if (log.getStatus() == null) {
+			log.setStatus("PROCESSED");
+		}
+		logRepository.save(log);
+		return log.getStatus();
+	}
+
+	private void markFailed(Long logId, RuntimeException cause) {
+		try {
+			// La transaction de traitement a été annulée : la tentative est recomptée ici
+			transactionTemplate
+					.executeWithoutResult(tx -> logRepository.markFailed(logId, truncate(cause.getMessage())));
+		} catch (RuntimeException ex) {
+			logger.error("❌ Impossible de marquer le webhook {} en échec: {}", logId, ex.getMessage());
+		}
+	}
+
+	private void count(String result) {
+		meterRegistry.counter("payments.webhook.events", "result", result).increment();
 	}
 
 	private Event parseEvent(String payload, String signature) throws SignatureVerificationException {
@@ -78,6 +284,36 @@ public class StripeWebhookService {
 		return Webhook.constructEvent(payload, signature, webhookSecret);
 	}
 
+	/**
+	 * Référence de réservation lue dans l'événement lui-même, sans appel réseau
+	 * (base de la clé de bande, voir {@link #stripeKey}).
+	 */
+	private String extractReference(Event event) {
+		try {
+			if (CHECKOUT_COMPLETED.equals(event.getType())) {
+				return deserializeLocally(event, Session.class).map(Session::getClientReferenceId).orElse(null);
+			}
+			return deserializeLocally(event, PaymentIntent.class).map(PaymentIntent::getClientSecret).orElse(null);
+		} catch (RuntimeException ex) {
+			return null;
+		}
+	}
+
+	private <T> Optional<T> deserializeLocally(Event event, Class<T> type) {
+		return event.getDataObjectDeserializer().getObject()
+				.filter(type::isInstance)
+				.map(type::cast)
+				.or(() -> Optional.ofNullable(event.getDataObjectDeserializer().getRawJson())
+						.map(json -> Event.GSON.fromJson(json, type)));
+	}
+
+	private static String truncate(String message) {
+		if (message == null) {
+			return null;
+		}
+		return message.length() > 1000 ? message.substring(0, 1000) : message;
+	}
+
 	private void handleCheckoutCompleted(Event event, PaymentEventLog log) {
 		Optional<Session> sessionOpt = deserializeSession(event);
 		if (sessionOpt.isEmpty()) {
@@ -98,6 +334,14 @@ public class StripeWebhookService {
 		}
 
 		Reservation reservation = optional.get();
+		if (reservation.getPaymentStatus() == Reservation.PaymentStatus.PAID
+				&& session.getId() != null && session.getId().equals(reservation.getPaymentReference())) {
+			// Même session déjà appliquée (autre événement Stripe) : pas de seconde notification
+			log.setStatus("PROCESSED");
+			log.setErrorMessage("Paiement déjà enregistré");
+			return;
+		}
+
 		LocalDateTime now = LocalDateTime.now();
 		reservation.setPaymentStatus(Reservation.PaymentStatus.PAID);
 		reservation.setPaymentReference(session.getId());
@@ -134,7 +378,7 @@ public class StripeWebhookService {
 				: "Erreur inconnue";
 		notificationService.notifyPaymentFailure(reservation, reason);
 		log.setStatus("PROCESSED");
-		log.setErrorMessage(reason);
+		log.setErrorMessage(truncate(reason));
 	}
 
 	private Optional<Reservation> parseReservation(String reference) {
@@ -105,13 +105,12 @@ public class AuthenticationService {
 
 			// ✅ UTILISEZ UserService pour obtenir UserDetails
 			UserDetails userDetails = userService.loadUserByUsername(request.getUsername());
-			var jwtToken = jwtService.generateToken(userDetails);
-			var refreshToken = generateAndStoreRefreshToken(userDetails.getUsername());
 
 			// ✅ POUR RÉCUPÉRER L'ID ET LE RÔLE, FAITES DES REQUÊTES DIRECTES
 			Integer userId = null;
 			String role = "";
 			String avatarUrl = null;
+			int tokenVersion = 0;
 
 			// Chercher d'abord dans USERS
 			Optional<User> userOptional = userRepository.findByUsername(request.getUsername());
@@ -120,6 +119,7 @@ public class AuthenticationService {
 				userId = user.getId();
 				role = user.getRole().name();
 				avatarUrl = buildAvatarUrl(user.getAvatarPath());
+				tokenVersion = user.getTokenVersion();
 			} else {
 				// Si pas trouvé dans USERS, chercher dans ADMINS
 				Optional<Admin> adminOptional = adminRepository.findByUsername(request.getUsername());
@@ -134,6 +134,9 @@ public class AuthenticationService {
 				}
 			}
 
+			var jwtToken = jwtService.generateToken(userDetails, userId, tokenVersion);
+			var refreshToken = generateAndStoreRefreshToken(userDetails.getUsername());
+
 			AuthenticationResponse response = new AuthenticationResponse(jwtToken, request.getUsername(), role, userId);
 			response.setAvatarUrl(avatarUrl);
 			response.setRefreshToken(refreshToken);
@@ -167,18 +170,17 @@ public class AuthenticationService {
 		String username = stored.getUsername();
 		UserDetails userDetails = userService.loadUserByUsername(username);
 
-		String newAccessToken = jwtService.generateToken(userDetails);
-		String newRefreshToken = rotateRefreshToken(stored);
-
 		Integer userId = null;
 		String role = "";
 		String avatarUrl = null;
+		int tokenVersion = 0;
 		Optional<User> userOptional = userRepository.findByUsername(username);
 		if (userOptional.isPresent()) {
 			User user = userOptional.get();
 			userId = user.getId();
 			role = user.getRole().name();
 			avatarUrl = buildAvatarUrl(user.getAvatarPath());
+			tokenVersion = user.getTokenVersion();
 		} else {
 			Optional<Admin> adminOptional = adminRepository.findByUsername(username);
 			if (adminOptional.isPresent()) {
@@ -191,6 +193,9 @@ public class AuthenticationService {
 			}
 		}
 
+		String newAccessToken = jwtService.generateToken(userDetails, userId, tokenVersion);
+		String newRefreshToken = rotateRefreshToken(stored);
+
 		AuthenticationResponse response = new AuthenticationResponse(newAccessToken, username, role, userId);
 		response.setAvatarUrl(avatarUrl);
 		response.setRefreshToken(newRefreshToken);
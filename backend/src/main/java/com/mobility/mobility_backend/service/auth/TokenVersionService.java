@@ -0,0 +1,151 @@
+package com.mobility.mobility_backend.service.auth;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mobility.mobility_backend.dto.auth.TokenVersionProjection;
+import com.mobility.mobility_backend.entity.User;
+import com.mobility.mobility_backend.repository.AdminRepository;
+import com.mobility.mobility_backend.repository.UserRepository;
+import com.mobility.mobility_backend.util.AfterCommit;
+
+/**
+ * Version de token courante de chaque compte (users et admins), gardée en
+ * mémoire pour que {@code JwtAuthenticationFilter} valide un JWT sans requête.
+ * Un JWT dont le claim "ver" diffère de la version connue est révoqué.
+ *
+ * Mis à jour localement après commit lors d'une révocation, et rechargé
+ * périodiquement pour récupérer les changements faits sur les autres réplicas.
+ */
+@Service
+public class TokenVersionService {
+
+	private static final Logger logger = LoggerFactory.getLogger(TokenVersionService.class);
+
+	private final UserRepository userRepository;
+	private final AdminRepository adminRepository;
+	private final UserDetailsCacheService userDetailsCache;
+
+	private volatile Map<String, Integer> versions = new ConcurrentHashMap<>();
+	// Changements locaux horodatés, réappliqués si un rechargement concurrent a lu la base avant leur commit
+	private final Map<String, LocalChange> localChanges = new ConcurrentHashMap<>();
+	private volatile boolean ready = false;
+
+	private record LocalChange(Integer version, long at) {
+	}
+
+	public TokenVersionService(UserRepository userRepository, AdminRepository adminRepository,
+			UserDetailsCacheService userDetailsCache) {
+		this.userRepository = userRepository;
+		this.adminRepository = adminRepository;
+		this.userDetailsCache = userDetailsCache;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		reload();
+	}
+
+	@Scheduled(fixedDelayString = "${auth.token-versions.refresh-interval-ms:60000}",
+			initialDelayString = "${auth.token-versions.refresh-interval-ms:60000}")
+	public void refresh() {
+		reload();
+	}
+
+	public void reload() {
+		long startedAt = System.nanoTime();
+		Map<String, Integer> fresh = new ConcurrentHashMap<>();
+		for (String admin : adminRepository.findAllUsernames()) {
+			fresh.put(admin, 0);
+		}
+		for (TokenVersionProjection row : userRepository.findAllTokenVersions()) {
+			fresh.put(row.getUsername(), row.getTokenVersion() != null ? row.getTokenVersion() : 0);
+		}
+		localChanges.forEach((username, change) -> {
+			if (change.at() >= startedAt) {
+				applyTo(fresh, username, change.version());
+			}
+		});
+		localChanges.values().removeIf(change -> change.at() < startedAt);
+		versions = fresh;
+		ready = true;
+		logger.info("🔑 Versions de token rechargées - {} comptes", fresh.size());
+	}
+
+	/**
+	 * {@code true} si le compte est connu de la table en mémoire. Un compte
+	 * inconnu (créé sur un autre réplica, ou table pas encore chargée) doit être
+	 * validé via la base.
+	 */
+	public boolean isKnown(String username) {
+		return ready && username != null && versions.containsKey(username);
+	}
+
+	public boolean isCurrent(String username, int tokenVersion) {
+		Integer current = versions.get(username);
+		return current != null && current == tokenVersion;
+	}
+
+	/**
+	 * Validation d'un compte inconnu de la table : la version est lue en base,
+	 * comparée au claim puis mémorisée pour les requêtes suivantes. Un compte
+	 * absent des deux tables est refusé.
+	 */
+	public boolean isCurrentInDatabase(String username, int tokenVersion) {
+		Integer current = userRepository.findTokenVersionByUsername(username)
+				.map(row -> row.getTokenVersion() != null ? row.getTokenVersion() : 0)
+				.orElseGet(() -> adminRepository.existsByUsername(username) ? 0 : null);
+		if (current == null) {
+			return false;
+		}
+		// putIfAbsent : une révocation locale publiée entre-temps reste prioritaire
+		versions.putIfAbsent(username, current);
+		return current == tokenVersion;
+	}
+
+	/**
+	 * Révoque tous les JWT du compte : incrémente la version sur l'entité (à
+	 * sauvegarder par l'appelant) et publie la nouvelle version après commit.
+	 * {@code previousUsername} permet de retirer l'ancienne clé après un renommage.
+	 */
+	public void revokeTokens(User user, String previousUsername) {
+		int next = user.getTokenVersion() + 1;
+		user.setTokenVersion(next);
+		String username = user.getUsername();
+		AfterCommit.run(() -> {
+			if (previousUsername != null && !previousUsername.equals(username)) {
+				record(previousUsername, null);
+			}
+			record(username, next);
+		});
+		logger.info("🔒 Tokens révoqués pour {} (version {})", username, next);
+	}
+
+	/**
+	 * Compte supprimé : plus aucun JWT ne doit être accepté pour ce nom.
+	 */
+	public void forget(String username) {
+		AfterCommit.run(() -> record(username, null));
+	}
+
+	private void record(String username, Integer version) {
+		localChanges.put(username, new LocalChange(version, System.nanoTime()));
+		applyTo(versions, username, version);
+		userDetailsCache.evict(username);
+	}
+
+	private static void applyTo(Map<String, Integer> target, String username, Integer version) {
+		if (version == null) {
+			target.remove(username);
+		} else {
+			target.put(username, version);
+		}
+	}
+}
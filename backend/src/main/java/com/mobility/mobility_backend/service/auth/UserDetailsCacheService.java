@@ -0,0 +1,48 @@
+package com.mobility.mobility_backend.service.auth;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+
+import com.mobility.mobility_backend.service.UserService;
+import com.mobility.mobility_backend.service.cache.MemoryCacheService;
+
+/**
+ * {@link UserDetails} chargés depuis la base, gardés peu de temps dans le cache
+ * mémoire (borné) pour les JWT qui ne peuvent pas être validés à partir de
+ * leurs seuls claims. Volontairement hors du cache Redis partagé : les
+ * UserDetails contiennent le hash du mot de passe.
+ */
+@Service
+public class UserDetailsCacheService {
+
+	private static final String KEY_PREFIX = "auth:userdetails:";
+
+	private final UserService userService;
+	private final MemoryCacheService memoryCacheService;
+	private final long ttlSeconds;
+
+	public UserDetailsCacheService(UserService userService, MemoryCacheService memoryCacheService,
+			@Value("${app.jwt.user-details-cache-ttl-seconds:60}") long ttlSeconds) {
+		this.userService = userService;
+		this.memoryCacheService = memoryCacheService;
+		this.ttlSeconds = ttlSeconds;
+	}
+
+	public UserDetails load(String username) throws UsernameNotFoundException {
+		Object cached = memoryCacheService.get(KEY_PREFIX + username);
+		if (cached instanceof UserDetails userDetails) {
+			return userDetails;
+		}
+		UserDetails userDetails = userService.loadUserByUsername(username);
+		memoryCacheService.set(KEY_PREFIX + username, userDetails, ttlSeconds, TimeUnit.SECONDS);
+		return userDetails;
+	}
+
+	public void evict(String username) {
+		memoryCacheService.delete(KEY_PREFIX + username);
+	}
+}
@@ -0,0 +1,300 @@
+package com.mobility.mobility_backend.service.availability;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.mobility.mobility_backend.dto.availability.OfferSlotProjection;
+import com.mobility.mobility_backend.repository.ReservationRepository;
+import com.mobility.mobility_backend.util.AfterCommit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Disponibilité des offres : index mémoire des créneaux occupés par offre
+ * ({@link OfferSlots}), chargé à la première demande depuis la base puis tenu
+ * à jour par les réservations de ce nœud.
+ *
+ * Les offres sont réparties sur des verrous à bandes : deux réservations sur
+ * des offres différentes avancent en parallèle, deux réservations concurrentes
+ * sur le même créneau sont départagées en mémoire et la seconde est refusée
+ * (409) sans attendre la base. Entre réplicas, la contrainte d'exclusion
+ * PostgreSQL sur (offer_id, [reservation_date, slot_end)) reste le garde-fou.
+ *
+ * L'index ignore les annulations faites sur un autre réplica : avant de
+ * refuser un créneau, l'offre est relue une fois en base (au plus une fois par
+ * {@code availability.reload-min-interval-ms}), en conservant les créneaux
+ * bloqués localement dont la transaction est en cours.
+ */
+@Service
+public class OfferAvailabilityService {
+
+	private static final Logger logger = LoggerFactory.getLogger(OfferAvailabilityService.class);
+
+	private final ReservationRepository reservationRepository;
+	private final Duration slotDuration;
+	private final long reloadMinIntervalNanos;
+	private final ReentrantLock[] stripes;
+	private final Map<Integer, OfferSlots> slotsByOffer = new ConcurrentHashMap<>();
+	private final Counter conflicts;
+
+	public OfferAvailabilityService(ReservationRepository reservationRepository, MeterRegistry meterRegistry,
+			@Value("${availability.slot-duration-minutes:1440}") long slotDurationMinutes,
+			@Value("${availability.lock-stripes:64}") int lockStripes,
+			@Value("${availability.reload-min-interval-ms:1000}") long reloadMinIntervalMs) {
+		this.reservationRepository = reservationRepository;
+		this.slotDuration = Duration.ofMinutes(Math.max(1, slotDurationMinutes));
+		this.reloadMinIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, reloadMinIntervalMs));
+		this.stripes = new ReentrantLock[Math.max(1, lockStripes)];
+		for (int i = 0; i < stripes.length; i++) {
+			stripes[i] = new ReentrantLock();
+		}
+		this.conflicts = meterRegistry.counter("availability.conflicts");
+	}
+
+	public LocalDateTime slotEnd(LocalDateTime start) {
+		return start.plus(slotDuration);
+	}
+
+	public boolean isAvailable(Integer offerId, LocalDateTime start) {
+		ReentrantLock lock = lockFor(offerId);
+		lock.lock();
+		try {
+			return !slotsFor(offerId).overlaps(start, slotEnd(start));
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Bloque le créneau [start, start + durée) de l'offre avant l'enregistrement
+	 * de la réservation ; le créneau est libéré si la transaction en cours est
+	 * annulée (ou par {@link Hold#release()} hors transaction).
+	 *
+	 * @throws ResponseStatusException 409 si le créneau chevauche une réservation active
+	 */
+	public Hold hold(Integer offerId, LocalDateTime start) {
+		return hold(offerId, null, start);
+	}
+
+	/**
+	 * Déplace le créneau d'une réservation existante (nouvelle date, ou
+	 * réservation qui redevient active) : son ancien créneau ne compte pas comme
+	 * conflit et est restitué si la transaction est annulée.
+	 *
+	 * @throws ResponseStatusException 409 si le nouveau créneau chevauche une autre réservation
+	 */
+	public Hold reschedule(Integer offerId, Integer reservationId, LocalDateTime start) {
+		return hold(offerId, reservationId, start);
+	}
+
+	private Hold hold(Integer offerId, Integer reservationId, LocalDateTime start) {
+		LocalDateTime end = slotEnd(start);
+		Hold hold;
+		ReentrantLock lock = lockFor(offerId);
+		lock.lock();
+		try {
+			OfferSlots slots = slotsFor(offerId);
+			OfferSlots.Slot previous = reservationId != null ? slots.slotOf(reservationId) : null;
+			if (previous != null) {
+				slots.removeReservation(reservationId);
+			}
+			OfferSlots.Slot slot = slots.tryAdd(start, end, reservationId);
+			if (slot == null && System.nanoTime() - slots.loadedAt() >= reloadMinIntervalNanos) {
+				// Conflit peut-être périmé (annulation sur un autre réplica) : relecture unique de l'offre
+				slots = reload(offerId);
+				if (reservationId != null) {
+					slots.removeReservation(reservationId);
+				}
+				slot = slots.tryAdd(start, end, reservationId);
+			}
+			if (slot == null) {
+				if (previous != null) {
+					slots.adopt(previous);
+				}
+				conflicts.increment();
+				logger.debug("⛔ Créneau indisponible pour l'offre {} à {}", offerId, start);
+				throw new ResponseStatusException(HttpStatus.CONFLICT, "Ce créneau est déjà réservé pour cette offre");
+			}
+			slot.held = true;
+			hold = new Hold(offerId, slot, previous);
+		} finally {
+			lock.unlock();
+		}
+		AfterCommit.onCompletion(hold::settle, hold::release);
+		return hold;
+	}
+
+	/**
+	 * Réservation (re)devenue active hors du parcours de création : occupe son
+	 * créneau si l'offre est déjà indexée.
+	 */
+	public void track(Integer offerId, Integer reservationId, LocalDateTime start, LocalDateTime end) {
+		if (offerId == null || reservationId == null || start == null) {
+			return;
+		}
+		ReentrantLock lock = lockFor(offerId);
+		lock.lock();
+		try {
+			OfferSlots slots = slotsByOffer.get(offerId);
+			LocalDateTime slotEnd = end != null ? end : slotEnd(start);
+			OfferSlots.Slot current = slots != null ? slots.slotOf(reservationId) : null;
+			if (current != null && current.start.equals(start) && current.end.equals(slotEnd)) {
+				return;
+			}
+			if (current != null) {
+				// Date modifiée hors de reschedule : l'ancien créneau est remplacé
+				slots.removeReservation(reservationId);
+			}
+			if (slots != null && slots.tryAdd(start, slotEnd, reservationId) == null) {
+				logger.warn("⚠️ Réservation {} en chevauchement sur l'offre {} : index rechargé", reservationId,
+						offerId);
+				slotsByOffer.remove(offerId);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public void release(Integer offerId, Integer reservationId) {
+		if (offerId == null || reservationId == null) {
+			return;
+		}
+		ReentrantLock lock = lockFor(offerId);
+		lock.lock();
+		try {
+			OfferSlots slots = slotsByOffer.get(offerId);
+			if (slots != null) {
+				slots.removeReservation(reservationId);
+			}
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Oublie l'index d'une offre (réservé par un autre réplica) : rechargé depuis
+	 * la base à la prochaine demande.
+	 */
+	public void evict(Integer offerId) {
+		ReentrantLock lock = lockFor(offerId);
+		lock.lock();
+		try {
+			slotsByOffer.remove(offerId);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	// Appelé sous le verrou de l'offre : index relu en base, créneaux en cours de transaction conservés
+	private OfferSlots reload(Integer offerId) {
+		OfferSlots previous = slotsByOffer.remove(offerId);
+		OfferSlots fresh = slotsFor(offerId);
+		if (previous != null) {
+			previous.held().forEach(fresh::adopt);
+		}
+		return fresh;
+	}
+
+	// Appelé sous le verrou de l'offre : un seul chargement par offre
+	private OfferSlots slotsFor(Integer offerId) {
+		OfferSlots slots = slotsByOffer.get(offerId);
+		if (slots != null) {
+			return slots;
+		}
+		slots = new OfferSlots();
+		for (OfferSlotProjection row : reservationRepository.findActiveSlots(offerId)) {
+			if (row.getReservationDate() == null) {
+				continue;
+			}
+			LocalDateTime end = row.getSlotEnd() != null ? row.getSlotEnd() : slotEnd(row.getReservationDate());
+			if (slots.tryAdd(row.getReservationDate(), end, row.getReservationId()) == null) {
+				logger.warn("⚠️ Réservation {} en chevauchement sur l'offre {} (antérieure à l'index)",
+						row.getReservationId(), offerId);
+			}
+		}
+		slotsByOffer.put(offerId, slots);
+		return slots;
+	}
+
+	private ReentrantLock lockFor(Integer offerId) {
+		return stripes[Math.floorMod(offerId != null ? offerId.hashCode() : 0, stripes.length)];
+	}
+
+	/**
+	 * Créneau bloqué en attendant l'identifiant de la réservation.
+	 */
+	public final class Hold {
+
+		private final Integer offerId;
+		private final OfferSlots.Slot slot;
+		// Créneau occupé avant un reschedule, restitué par release()
+		private final OfferSlots.Slot previous;
+
+		private Hold(Integer offerId, OfferSlots.Slot slot, OfferSlots.Slot previous) {
+			this.offerId = offerId;
+			this.slot = slot;
+			this.previous = previous;
+		}
+
+		public LocalDateTime getEnd() {
+			return slot.end;
+		}
+
+		public void confirm(Integer reservationId) {
+			ReentrantLock lock = lockFor(offerId);
+			lock.lock();
+			try {
+				OfferSlots slots = slotsByOffer.get(offerId);
+				if (slots != null) {
+					slots.bind(slot, reservationId);
+				}
+				// Hors transaction, l'enregistrement est déjà validé
+				if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+					slot.held = false;
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		private void settle() {
+			ReentrantLock lock = lockFor(offerId);
+			lock.lock();
+			try {
+				slot.held = false;
+			} finally {
+				lock.unlock();
+			}
+		}
+
+		public void release() {
+			ReentrantLock lock = lockFor(offerId);
+			lock.lock();
+			try {
+				slot.held = false;
+				OfferSlots slots = slotsByOffer.get(offerId);
+				if (slots != null) {
+					slots.remove(slot);
+					if (previous != null) {
+						slots.adopt(previous);
+					}
+				}
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+}
@@ -0,0 +1,113 @@
+package com.mobility.mobility_backend.service.availability;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Créneaux occupés d'une offre, intervalles semi-ouverts [début, fin) rangés
+ * par début dans un arbre rouge-noir. Les créneaux étant disjoints par
+ * construction, ils sont aussi triés par fin : le seul candidat au
+ * chevauchement est celui qui commence juste avant la fin demandée, d'où une
+ * vérification en O(log n) sans arbre d'intervalles augmenté.
+ *
+ * Non synchronisée : protégée par le verrou de l'offre dans
+ * {@link OfferAvailabilityService}.
+ */
+final class OfferSlots {
+
+	private final TreeMap<LocalDateTime, Slot> byStart = new TreeMap<>();
+	private final Map<Integer, Slot> byReservation = new HashMap<>();
+	private final long loadedAt = System.nanoTime();
+
+	long loadedAt() {
+		return loadedAt;
+	}
+
+	boolean overlaps(LocalDateTime start, LocalDateTime end) {
+		Map.Entry<LocalDateTime, Slot> previous = byStart.lowerEntry(end);
+		return previous != null && previous.getValue().end.isAfter(start);
+	}
+
+	/**
+	 * Occupe [start, end) si le créneau est libre ; {@code reservationId} peut
+	 * être null le temps que la réservation soit enregistrée.
+	 */
+	Slot tryAdd(LocalDateTime start, LocalDateTime end, Integer reservationId) {
+		if (!end.isAfter(start) || overlaps(start, end)) {
+			return null;
+		}
+		Slot slot = new Slot(start, end);
+		byStart.put(start, slot);
+		bind(slot, reservationId);
+		return slot;
+	}
+
+	void bind(Slot slot, Integer reservationId) {
+		if (reservationId != null && byStart.get(slot.start) == slot) {
+			slot.reservationId = reservationId;
+			byReservation.put(reservationId, slot);
+		}
+	}
+
+	boolean contains(Integer reservationId) {
+		return byReservation.containsKey(reservationId);
+	}
+
+	Slot slotOf(Integer reservationId) {
+		return byReservation.get(reservationId);
+	}
+
+	/**
+	 * Reprend un créneau existant (même instance) d'un ancien index, s'il ne
+	 * chevauche rien et que sa réservation n'y figure pas déjà.
+	 */
+	void adopt(Slot slot) {
+		if ((slot.reservationId != null && byReservation.containsKey(slot.reservationId))
+				|| overlaps(slot.start, slot.end)) {
+			return;
+		}
+		byStart.put(slot.start, slot);
+		if (slot.reservationId != null) {
+			byReservation.put(slot.reservationId, slot);
+		}
+	}
+
+	// Créneaux bloqués dont la transaction n'est pas encore validée : absents d'un rechargement
+	List<Slot> held() {
+		return byStart.values().stream().filter(slot -> slot.held).toList();
+	}
+
+	void remove(Slot slot) {
+		if (byStart.remove(slot.start, slot) && slot.reservationId != null) {
+			byReservation.remove(slot.reservationId, slot);
+		}
+	}
+
+	boolean removeReservation(Integer reservationId) {
+		Slot slot = byReservation.remove(reservationId);
+		if (slot == null) {
+			return false;
+		}
+		byStart.remove(slot.start, slot);
+		return true;
+	}
+
+	int size() {
+		return byStart.size();
+	}
+
+	static final class Slot {
+		final LocalDateTime start;
+		final LocalDateTime end;
+		Integer reservationId;
+		boolean held;
+
+		private Slot(LocalDateTime start, LocalDateTime end) {
+			this.start = start;
+			this.end = end;
+		}
+	}
+}
@@ -0,0 +1,52 @@
+package com.mobility.mobility_backend.service.availability;
+
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.entity.ReservationChangeListener;
+import com.mobility.mobility_backend.util.AfterCommit;
+
+/**
+ * Suit les {@link Reservation} : libère le créneau d'une réservation
+ * annulée, terminée ou supprimée (et le reprend si elle redevient active) dans
+ * {@link OfferAvailabilityService}, une fois la transaction validée. La
+ * création passe par {@link OfferAvailabilityService#hold}.
+ */
+@Component
+public class ReservationAvailabilityListener implements ReservationChangeListener {
+
+	private final ObjectProvider<OfferAvailabilityService> availabilityService;
+
+	public ReservationAvailabilityListener(ObjectProvider<OfferAvailabilityService> availabilityService) {
+		this.availabilityService = availabilityService;
+	}
+
+	@Override
+	public void onUpdate(Reservation reservation) {
+		Integer offerId = reservation.getOffer() != null ? reservation.getOffer().getOfferId() : null;
+		Integer reservationId = reservation.getReservationId();
+		if (reservation.holdsSlot()) {
+			afterCommit(service -> service.track(offerId, reservationId, reservation.getReservationDate(),
+					reservation.getSlotEnd()));
+		} else {
+			afterCommit(service -> service.release(offerId, reservationId));
+		}
+	}
+
+	@Override
+	public void onRemove(Reservation reservation) {
+		Integer offerId = reservation.getOffer() != null ? reservation.getOffer().getOfferId() : null;
+		Integer reservationId = reservation.getReservationId();
+		afterCommit(service -> service.release(offerId, reservationId));
+	}
+
+	private void afterCommit(Consumer<OfferAvailabilityService> action) {
+		OfferAvailabilityService service = availabilityService.getIfAvailable();
+		if (service != null) {
+			AfterCommit.run(() -> action.accept(service));
+		}
+	}
+}
@@ -1,5 +1,6 @@
 package com.mobility.mobility_backend.service.cache;
 
+import java.util.List;
 import java.util.concurrent.TimeUnit;
 
 import org.slf4j.Logger;
@@ -8,6 +9,8 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.mobility.mobility_backend.dto.AdminStatsDTO;
+import com.mobility.mobility_backend.dto.RecentActivityDTO;
+import com.mobility.mobility_backend.dto.UserDTO;
 
 @Service
 public class AdminStatsCacheService {
@@ -16,58 +19,57 @@ public class AdminStatsCacheService {
 	 private static final Logger logger = LoggerFactory.getLogger(AdminStatsCacheService.class);
 
 	    @Autowired
-	    private MemoryCacheService memoryCacheService;
+	    private TieredCacheService tieredCacheService;
 
 	    private static final String STATS_KEY = "admin:stats";
 	    private static final String USERS_KEY_PREFIX = "admin:users:";
 	    private static final String ACTIVITY_KEY = "admin:recent_activity";
 
 	    public void cacheStats(AdminStatsDTO stats) {
-	        memoryCacheService.set(STATS_KEY, stats, 5, TimeUnit.MINUTES);
+	        tieredCacheService.set(STATS_KEY, stats, 5, TimeUnit.MINUTES);
 	    }
 
 	    public AdminStatsDTO getCachedStats() {
-	        Object cached = memoryCacheService.get(STATS_KEY);
-	        if (cached instanceof AdminStatsDTO) {
-	            logger.info("✅ Statistiques récupérées du cache MEMORY");
-	            return (AdminStatsDTO) cached;
+	        AdminStatsDTO cached = tieredCacheService.get(STATS_KEY, AdminStatsDTO.class);
+	        if (cached != null) {
+	            logger.info("✅ Statistiques récupérées du cache");
 	        }
-	        return null;
+	        return cached;
 	    }
 
-	    public void cacheUsers(int page, int size, Object users) {
+	    public void cacheUsers(int page, int size, List<UserDTO> users) {
 	        String key = USERS_KEY_PREFIX + "page:" + page + ":size:" + size;
-	        memoryCacheService.set(key, users, 10, TimeUnit.MINUTES);
+	        tieredCacheService.set(key, users, 10, TimeUnit.MINUTES);
 	    }
 
-	    public Object getCachedUsers(int page, int size) {
+	    public List<UserDTO> getCachedUsers(int page, int size) {
 	        String key = USERS_KEY_PREFIX + "page:" + page + ":size:" + size;
-	        Object cached = memoryCacheService.get(key);
+	        List<UserDTO> cached = tieredCacheService.getList(key, UserDTO.class);
 	        if (cached != null) {
-	            logger.info("✅ Utilisateurs récupérés du cache MEMORY");
+	            logger.info("✅ Utilisateurs récupérés du cache");
 	        }
 	        return cached;
 	    }
 
-	    public void cacheRecentActivity(Object activity) {
-	        memoryCacheService.set(ACTIVITY_KEY, activity, 2, TimeUnit.MINUTES);
+	    public void cacheRecentActivity(List<RecentActivityDTO> activity) {
+	        tieredCacheService.set(ACTIVITY_KEY, activity, 2, TimeUnit.MINUTES);
 	    }
 
-	    public Object getCachedRecentActivity() {
-	        Object cached = memoryCacheService.get(ACTIVITY_KEY);
+	    public List<RecentActivityDTO> getCachedRecentActivity() {
+	        List<RecentActivityDTO> cached = tieredCacheService.getList(ACTIVITY_KEY, RecentActivityDTO.class);
 	        if (cached != null) {
-	            logger.info("✅ Activité récente récupérée du cache MEMORY");
+	            logger.info("✅ Activité récente récupérée du cache");
 	        }
 	        return cached;
 	    }
 
 	    public void invalidateStatsCache() {
-	        memoryCacheService.delete(STATS_KEY);
+	        tieredCacheService.delete(STATS_KEY);
 	        logger.info("🗑️ Cache statistiques invalidé");
 	    }
 
 	    public void invalidateAllAdminCache() {
-	        memoryCacheService.deleteByPattern("admin:");
+	        tieredCacheService.deleteByPrefix("admin:");
 	        logger.info("🗑️ Tout le cache admin invalidé");
 	    }
 
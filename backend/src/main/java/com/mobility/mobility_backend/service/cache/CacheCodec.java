@@ -0,0 +1,45 @@
+package com.mobility.mobility_backend.service.cache;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+/**
+ * Sérialisation des DTO mis en cache dans le niveau partagé (Redis) : JSON
+ * encodé en UTF-8. Le type attendu est fourni à la lecture, ce qui évite de
+ * stocker des noms de classes dans les valeurs.
+ */
+@Component
+public class CacheCodec {
+
+	private final ObjectMapper objectMapper;
+
+	public CacheCodec(ObjectMapper objectMapper) {
+		// Copie : on tolère les champs inconnus pour supporter deux versions du backend en parallèle
+		this.objectMapper = objectMapper.copy()
+				.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+				.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+	}
+
+	public byte[] encode(Object value) throws IOException {
+		return objectMapper.writeValueAsBytes(value);
+	}
+
+	public <T> T decode(byte[] payload, JavaType type) throws IOException {
+		return objectMapper.readValue(payload, type);
+	}
+
+	public JavaType typeOf(Class<?> type) {
+		return objectMapper.getTypeFactory().constructType(type);
+	}
+
+	public JavaType listOf(Class<?> elementType) {
+		return objectMapper.getTypeFactory().constructCollectionType(List.class, elementType);
+	}
+}
@@ -0,0 +1,121 @@
+package com.mobility.mobility_backend.service.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.mobility.mobility_backend.dto.identity.IdentityDocumentCountProjection;
+import com.mobility.mobility_backend.dto.identity.IdentityLatestStatusProjection;
+import com.mobility.mobility_backend.dto.identity.IdentityStatusSnapshot;
+import com.mobility.mobility_backend.entity.UserIdentityVerification.VerificationStatus;
+import com.mobility.mobility_backend.repository.UserIdentityDocumentRepository;
+import com.mobility.mobility_backend.repository.UserIdentityVerificationRepository;
+import com.mobility.mobility_backend.util.AfterCommit;
+
+/**
+ * Modèle de lecture des statuts d'identité : un {@link IdentityStatusSnapshot}
+ * par utilisateur dans le cache à deux niveaux. Les absences sont chargées en
+ * une fois (dernière vérification et nombre de documents par utilisateur,
+ * deux requêtes quel que soit le nombre d'utilisateurs) ; chaque écriture
+ * d'une vérification rafraîchit l'entrée une fois la transaction validée.
+ */
+@Service
+public class IdentityStatusCacheService {
+
+	private static final Logger logger = LoggerFactory.getLogger(IdentityStatusCacheService.class);
+
+	private static final String KEY_PREFIX = "identity:status:";
+
+	private final TieredCacheService tieredCacheService;
+	private final UserIdentityVerificationRepository verificationRepository;
+	private final UserIdentityDocumentRepository documentRepository;
+	private final long ttlSeconds;
+
+	public IdentityStatusCacheService(TieredCacheService tieredCacheService,
+			UserIdentityVerificationRepository verificationRepository,
+			UserIdentityDocumentRepository documentRepository,
+			@Value("${identity.status-cache.ttl-seconds:300}") long ttlSeconds) {
+		this.tieredCacheService = tieredCacheService;
+		this.verificationRepository = verificationRepository;
+		this.documentRepository = documentRepository;
+		this.ttlSeconds = Math.max(1, ttlSeconds);
+	}
+
+	public IdentityStatusSnapshot get(Integer userId) {
+		if (userId == null) {
+			return none();
+		}
+		return getAll(List.of(userId)).get(userId);
+	}
+
+	public Map<Integer, IdentityStatusSnapshot> getAll(Collection<Integer> userIds) {
+		Map<Integer, IdentityStatusSnapshot> result = new HashMap<>();
+		if (userIds == null || userIds.isEmpty()) {
+			return result;
+		}
+		List<Integer> missing = new ArrayList<>();
+		for (Integer userId : new LinkedHashSet<>(userIds)) {
+			if (userId == null) {
+				continue;
+			}
+			IdentityStatusSnapshot cached = tieredCacheService.get(KEY_PREFIX + userId, IdentityStatusSnapshot.class);
+			if (cached != null) {
+				result.put(userId, cached);
+			} else {
+				missing.add(userId);
+			}
+		}
+		if (!missing.isEmpty()) {
+			result.putAll(load(missing));
+		}
+		return result;
+	}
+
+	/**
+	 * Recharge l'entrée de l'utilisateur après validation de la transaction en
+	 * cours (vérification créée ou mise à jour par Stripe).
+	 */
+	public void refresh(Integer userId) {
+		if (userId == null) {
+			return;
+		}
+		Runnable reload = () -> {
+			tieredCacheService.delete(KEY_PREFIX + userId);
+			load(List.of(userId));
+			logger.debug("🔄 Statut d'identité rafraîchi - utilisateur {}", userId);
+		};
+		AfterCommit.run(reload);
+	}
+
+	private Map<Integer, IdentityStatusSnapshot> load(List<Integer> userIds) {
+		Map<Integer, Long> documentCounts = new HashMap<>();
+		for (IdentityDocumentCountProjection row : documentRepository.countByUserIds(userIds)) {
+			documentCounts.put(row.getUserId(), row.getDocumentCount() != null ? row.getDocumentCount() : 0L);
+		}
+		Map<Integer, IdentityStatusSnapshot> loaded = new HashMap<>();
+		// Ex æquo sur updatedAt : la vérification la plus récente (id le plus grand) arrive en premier
+		for (IdentityLatestStatusProjection row : verificationRepository.findLatestStatuses(userIds)) {
+			loaded.putIfAbsent(row.getUserId(),
+					new IdentityStatusSnapshot(row.getStatus().name(), row.getStatus() == VerificationStatus.VERIFIED,
+							row.getReason(), row.getUpdatedAt(), documentCounts.getOrDefault(row.getUserId(), 0L)));
+		}
+		for (Integer userId : userIds) {
+			IdentityStatusSnapshot snapshot = loaded.computeIfAbsent(userId, id -> none());
+			tieredCacheService.set(KEY_PREFIX + userId, snapshot, ttlSeconds, TimeUnit.SECONDS);
+		}
+		return loaded;
+	}
+
+	private IdentityStatusSnapshot none() {
+		return new IdentityStatusSnapshot("NONE", false, null, null, 0);
+	}
+}
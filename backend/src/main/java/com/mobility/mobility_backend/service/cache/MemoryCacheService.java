@@ -1,106 +1,279 @@
 package com.mobility.mobility_backend.service.cache;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache mémoire borné : nombre d'entrées et poids maximum (une collection pèse
+ * sa taille, un objet simple pèse 1), éviction LRU, expiration par TTL avec un
+ * balayage planifié, et index trié des clés pour que {@link #deleteByPattern}
+ * ne parcoure que les clés du préfixe. Seul {@link #get} compte comme un accès
+ * pour l'ordre LRU : les sondes et la maintenance passent par l'index.
+ */
 @Service
 public class MemoryCacheService {
 
-	  private static final Logger logger = LoggerFactory.getLogger(MemoryCacheService.class);
-
-	    private final ConcurrentHashMap<String, CacheEntry> memoryCache = new ConcurrentHashMap<>();
-
-	    private static final long DEFAULT_TTL = 30; // 30 minutes
-
-	    private static class CacheEntry {
-	        Object data;
-	        long timestamp;
-	        long ttl;
-
-	        CacheEntry(Object data, long ttl) {
-	            this.data = data;
-	            this.timestamp = System.currentTimeMillis();
-	            this.ttl = ttl;
-	        }
-
-	        boolean isExpired() {
-	            return System.currentTimeMillis() - timestamp > ttl;
-	        }
-	    }
-
-	    public void set(String key, Object value) {
-	        set(key, value, DEFAULT_TTL, TimeUnit.MINUTES);
-	    }
-
-	    public void set(String key, Object value, long timeout, TimeUnit unit) {
-	        try {
-	            long ttlMillis = unit.toMillis(timeout);
-	            memoryCache.put(key, new CacheEntry(value, ttlMillis));
-	            logger.debug("✅ Cache MEMORY SET - Key: {}, TTL: {} {}", key, timeout, unit);
-	        } catch (Exception e) {
-	            logger.error("❌ Erreur cache memory set - Key: {}, Error: {}", key, e.getMessage());
-	        }
-	    }
-
-	    public Object get(String key) {
-	        try {
-	            CacheEntry entry = memoryCache.get(key);
-	            if (entry != null) {
-	                if (entry.isExpired()) {
-	                    memoryCache.remove(key);
-	                    logger.debug("❌ Cache MEMORY MISS (expired) - Key: {}", key);
-	                    return null;
-	                }
-	                logger.debug("✅ Cache MEMORY HIT - Key: {}", key);
-	                return entry.data;
-	            }
-	            logger.debug("❌ Cache MEMORY MISS - Key: {}", key);
-	            return null;
-	        } catch (Exception e) {
-	            logger.error("❌ Erreur cache memory get - Key: {}, Error: {}", key, e.getMessage());
-	            return null;
-	        }
-	    }
-
-	    public boolean exists(String key) {
-	        CacheEntry entry = memoryCache.get(key);
-	        return entry != null && !entry.isExpired();
-	    }
-
-	    public void delete(String key) {
-	        try {
-	            memoryCache.remove(key);
-	            logger.debug("🗑️ Cache MEMORY DELETE - Key: {}", key);
-	        } catch (Exception e) {
-	            logger.error("❌ Erreur cache memory delete - Key: {}, Error: {}", key, e.getMessage());
-	        }
-	    }
-
-	    public void deleteByPattern(String pattern) {
-	        try {
-	            memoryCache.keySet().removeIf(key -> key.startsWith(pattern));
-	            logger.debug("🗑️ Cache MEMORY DELETE PATTERN - Pattern: {}", pattern);
-	        } catch (Exception e) {
-	            logger.error("❌ Erreur cache memory deleteByPattern - Pattern: {}, Error: {}", pattern, e.getMessage());
-	        }
-	    }
-
-	    public Long getTtl(String key) {
-	        try {
-	            CacheEntry entry = memoryCache.get(key);
-	            if (entry != null && !entry.isExpired()) {
-	                long remaining = entry.timestamp + entry.ttl - System.currentTimeMillis();
-	                return Math.max(0, remaining / 1000); // Retourne en secondes
-	            }
-	            return -1L;
-	        } catch (Exception e) {
-	            logger.error("❌ Erreur cache memory TTL - Key: {}, Error: {}", key, e.getMessage());
-	            return -1L;
-	        }
-	    }
+	private static final Logger logger = LoggerFactory.getLogger(MemoryCacheService.class);
+
+	private static final long DEFAULT_TTL = 30; // 30 minutes
+
+	private final int maxEntries;
+	private final long maxWeight;
+
+	// Toutes les structures ci-dessous sont protégées par le verrou "lock"
+	private final Object lock = new Object();
+	private final LinkedHashMap<String, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+	// Mêmes entrées, triées par clé ; une lecture ici ne modifie pas l'ordre LRU de "entries"
+	private final NavigableMap<String, CacheEntry> keyIndex = new TreeMap<>();
+	private final PriorityQueue<CacheEntry> expiryQueue = new PriorityQueue<>(
+			(a, b) -> Long.compare(a.expiresAt, b.expiresAt));
+	private long totalWeight;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+	private final AtomicLong evictions = new AtomicLong();
+	private final AtomicLong expirations = new AtomicLong();
+
+	private static class CacheEntry {
+		final String key;
+		final Object data;
+		final long expiresAt;
+		final long weight;
+
+		CacheEntry(String key, Object data, long ttlMillis) {
+			this.key = key;
+			this.data = data;
+			this.expiresAt = System.currentTimeMillis() + ttlMillis;
+			this.weight = weigh(data);
+		}
+
+		boolean isExpired(long now) {
+			return now > expiresAt;
+		}
+
+		private static long weigh(Object data) {
+			if (data instanceof Collection<?> collection) {
+				return Math.max(1, collection.size());
+			}
+			if (data instanceof Map<?, ?> map) {
+				return Math.max(1, map.size());
+			}
+			return 1;
+		}
+	}
+
+	public MemoryCacheService(MeterRegistry meterRegistry,
+			@Value("${cache.memory.max-entries:10000}") int maxEntries,
+			@Value("${cache.memory.max-weight:100000}") long maxWeight) {
+		this.maxEntries = Math.max(1, maxEntries);
+		this.maxWeight = Math.max(1, maxWeight);
+
+		FunctionCounter.builder("cache.memory.requests", hits, AtomicLong::get).tag("result", "hit")
+				.register(meterRegistry);
+		FunctionCounter.builder("cache.memory.requests", misses, AtomicLong::get).tag("result", "miss")
+				.register(meterRegistry);
+		FunctionCounter.builder("cache.memory.evictions", evictions, AtomicLong::get).tag("cause", "size")
+				.register(meterRegistry);
+		FunctionCounter.builder("cache.memory.evictions", expirations, AtomicLong::get).tag("cause", "expired")
+				.register(meterRegistry);
+		Gauge.builder("cache.memory.size", this, MemoryCacheService::size).register(meterRegistry);
+		Gauge.builder("cache.memory.weight", this, MemoryCacheService::weight).register(meterRegistry);
+	}
+
+	public void set(String key, Object value) {
+		set(key, value, DEFAULT_TTL, TimeUnit.MINUTES);
+	}
+
+	public void set(String key, Object value, long timeout, TimeUnit unit) {
+		try {
+			CacheEntry entry = new CacheEntry(key, value, unit.toMillis(timeout));
+			synchronized (lock) {
+				removeEntry(key);
+				entries.put(key, entry);
+				keyIndex.put(key, entry);
+				expiryQueue.add(entry);
+				totalWeight += entry.weight;
+				evictIfNeeded();
+			}
+			logger.debug("✅ Cache MEMORY SET - Key: {}, TTL: {} {}", key, timeout, unit);
+		} catch (Exception e) {
+			logger.error("❌ Erreur cache memory set - Key: {}, Error: {}", key, e.getMessage());
+		}
+	}
+
+	public Object get(String key) {
+		try {
+			synchronized (lock) {
+				CacheEntry entry = entries.get(key);
+				if (entry != null) {
+					if (entry.isExpired(System.currentTimeMillis())) {
+						removeEntry(key);
+						expirations.incrementAndGet();
+						misses.incrementAndGet();
+						logger.debug("❌ Cache MEMORY MISS (expired) - Key: {}", key);
+						return null;
+					}
+					hits.incrementAndGet();
+					logger.debug("✅ Cache MEMORY HIT - Key: {}", key);
+					return entry.data;
+				}
+			}
+			misses.incrementAndGet();
+			logger.debug("❌ Cache MEMORY MISS - Key: {}", key);
+			return null;
+		} catch (Exception e) {
+			logger.error("❌ Erreur cache memory get - Key: {}, Error: {}", key, e.getMessage());
+			return null;
+		}
+	}
+
+	public boolean exists(String key) {
+		synchronized (lock) {
+			CacheEntry entry = keyIndex.get(key);
+			return entry != null && !entry.isExpired(System.currentTimeMillis());
+		}
+	}
+
+	public void delete(String key) {
+		try {
+			synchronized (lock) {
+				removeEntry(key);
+			}
+			logger.debug("🗑️ Cache MEMORY DELETE - Key: {}", key);
+		} catch (Exception e) {
+			logger.error("❌ Erreur cache memory delete - Key: {}, Error: {}", key, e.getMessage());
+		}
+	}
+
+	/**
+	 * Supprime toutes les clés commençant par {@code pattern}. Seule la tranche
+	 * correspondante de l'index trié est parcourue.
+	 */
+	public void deleteByPattern(String pattern) {
+		try {
+			int removed = 0;
+			synchronized (lock) {
+				Iterator<String> matching = keyIndex.subMap(pattern, true, pattern + Character.MAX_VALUE, false)
+						.keySet().iterator();
+				while (matching.hasNext()) {
+					CacheEntry entry = entries.remove(matching.next());
+					matching.remove();
+					if (entry != null) {
+						totalWeight -= entry.weight;
+						removed++;
+					}
+				}
+			}
+			logger.debug("🗑️ Cache MEMORY DELETE PATTERN - Pattern: {}, Removed: {}", pattern, removed);
+		} catch (Exception e) {
+			logger.error("❌ Erreur cache memory deleteByPattern - Pattern: {}, Error: {}", pattern, e.getMessage());
+		}
+	}
+
+	public Long getTtl(String key) {
+		try {
+			synchronized (lock) {
+				CacheEntry entry = keyIndex.get(key);
+				long now = System.currentTimeMillis();
+				if (entry != null && !entry.isExpired(now)) {
+					return Math.max(0, (entry.expiresAt - now) / 1000); // Retourne en secondes
+				}
+			}
+			return -1L;
+		} catch (Exception e) {
+			logger.error("❌ Erreur cache memory TTL - Key: {}, Error: {}", key, e.getMessage());
+			return -1L;
+		}
+	}
+
+	/**
+	 * Balayage des entrées expirées, y compris celles qui ne sont plus jamais
+	 * relues. La file est triée par échéance : seul le début expiré est parcouru.
+	 */
+	@Scheduled(fixedDelayString = "${cache.memory.sweep-interval-ms:60000}")
+	public void purgeExpired() {
+		int purged = 0;
+		long now = System.currentTimeMillis();
+		synchronized (lock) {
+			while (!expiryQueue.isEmpty() && expiryQueue.peek().isExpired(now)) {
+				CacheEntry candidate = expiryQueue.poll();
+				// L'entrée a pu être remplacée ou supprimée depuis : on ne retire que l'instance courante
+				if (keyIndex.get(candidate.key) == candidate) {
+					removeEntry(candidate.key);
+					expirations.incrementAndGet();
+					purged++;
+				}
+			}
+		}
+		if (purged > 0) {
+			logger.debug("🧹 Cache MEMORY SWEEP - {} entrées expirées supprimées", purged);
+		}
+	}
+
+	public int size() {
+		synchronized (lock) {
+			return entries.size();
+		}
+	}
+
+	public long weight() {
+		synchronized (lock) {
+			return totalWeight;
+		}
+	}
+
+	public long getHitCount() {
+		return hits.get();
+	}
+
+	public long getMissCount() {
+		return misses.get();
+	}
+
+	public long getEvictionCount() {
+		return evictions.get();
+	}
+
+	// Appelé sous verrou
+	private void removeEntry(String key) {
+		CacheEntry previous = entries.remove(key);
+		if (previous != null) {
+			keyIndex.remove(key);
+			totalWeight -= previous.weight;
+			// La référence dans expiryQueue est ignorée au prochain balayage
+		}
+	}
 
+	// Appelé sous verrou : retire les entrées les moins récemment lues jusqu'à respecter les bornes
+	private void evictIfNeeded() {
+		Iterator<Map.Entry<String, CacheEntry>> eldest = entries.entrySet().iterator();
+		while ((entries.size() > maxEntries || totalWeight > maxWeight) && eldest.hasNext()) {
+			Map.Entry<String, CacheEntry> entry = eldest.next();
+			eldest.remove();
+			keyIndex.remove(entry.getKey());
+			totalWeight -= entry.getValue().weight;
+			evictions.incrementAndGet();
+		}
+		// Les entrées supprimées restent dans expiryQueue jusqu'à leur échéance : on la compacte si elle dérive
+		if (expiryQueue.size() > 2 * Math.max(entries.size(), maxEntries)) {
+			expiryQueue.removeIf(candidate -> keyIndex.get(candidate.key) != candidate);
+		}
+	}
 }
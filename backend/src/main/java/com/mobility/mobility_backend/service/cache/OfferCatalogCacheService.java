@@ -0,0 +1,161 @@
+package com.mobility.mobility_backend.service.cache;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.mobility.mobility_backend.util.AfterCommit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Cache en lecture du catalogue public d'offres (listing, recherche, détail).
+ * LRU borné en nombre d'entrées, TTL par clé, invalidé après commit par les
+ * écritures d'{@code OfferService}. Compteurs exposés via /actuator/metrics.
+ */
+@Service
+public class OfferCatalogCacheService {
+
+	private static final Logger logger = LoggerFactory.getLogger(OfferCatalogCacheService.class);
+
+	private static final String LIST_KEY_PREFIX = "offers:list:";
+	private static final String DETAIL_KEY_PREFIX = "offers:id:";
+
+	private final int maxEntries;
+	private final long listTtlMillis;
+	private final long detailTtlMillis;
+
+	private final LinkedHashMap<String, CacheEntry> entries;
+
+	// Incrémenté à chaque invalidation (gardé par entries) : un chargement commencé avant
+	// n'écrit pas son résultat, devenu potentiellement périmé
+	private long generation;
+
+	private final Counter hits;
+	private final Counter misses;
+	private final Counter sizeEvictions;
+	private final Counter expiredEvictions;
+
+	private static class CacheEntry {
+		final Object data;
+		final long expiresAt;
+
+		CacheEntry(Object data, long ttlMillis) {
+			this.data = data;
+			this.expiresAt = System.currentTimeMillis() + ttlMillis;
+		}
+
+		boolean isExpired() {
+			return System.currentTimeMillis() > expiresAt;
+		}
+	}
+
+	public OfferCatalogCacheService(MeterRegistry meterRegistry,
+			@Value("${cache.offers.max-entries:1000}") int maxEntries,
+			@Value("${cache.offers.list-ttl-seconds:60}") long listTtlSeconds,
+			@Value("${cache.offers.detail-ttl-seconds:300}") long detailTtlSeconds) {
+		this.maxEntries = Math.max(1, maxEntries);
+		this.listTtlMillis = TimeUnit.SECONDS.toMillis(listTtlSeconds);
+		this.detailTtlMillis = TimeUnit.SECONDS.toMillis(detailTtlSeconds);
+
+		this.hits = Counter.builder("offers.catalog.cache.requests").tag("result", "hit").register(meterRegistry);
+		this.misses = Counter.builder("offers.catalog.cache.requests").tag("result", "miss").register(meterRegistry);
+		this.sizeEvictions = Counter.builder("offers.catalog.cache.evictions").tag("cause", "size")
+				.register(meterRegistry);
+		this.expiredEvictions = Counter.builder("offers.catalog.cache.evictions").tag("cause", "expired")
+				.register(meterRegistry);
+
+		// Ordre d'accès : l'entrée la moins récemment lue est évincée en premier
+		this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CacheEntry> eldest) {
+				if (size() > OfferCatalogCacheService.this.maxEntries) {
+					sizeEvictions.increment();
+					return true;
+				}
+				return false;
+			}
+		};
+		Gauge.builder("offers.catalog.cache.size", this, OfferCatalogCacheService::size).register(meterRegistry);
+	}
+
+	public <T> T getListing(String key, Supplier<T> loader) {
+		return getOrLoad(LIST_KEY_PREFIX + key, listTtlMillis, loader);
+	}
+
+	public <T> T getOffer(Integer offerId, Supplier<T> loader) {
+		return getOrLoad(DETAIL_KEY_PREFIX + offerId, detailTtlMillis, loader);
+	}
+
+	/**
+	 * Invalide le détail de l'offre et tous les listings, une fois la transaction
+	 * courante validée (sinon une lecture concurrente remettrait l'ancien état en cache).
+	 */
+	public void evictOffer(Integer offerId) {
+		AfterCommit.run(() -> {
+			synchronized (entries) {
+				generation++;
+				if (offerId != null) {
+					entries.remove(DETAIL_KEY_PREFIX + offerId);
+				}
+				entries.keySet().removeIf(key -> key.startsWith(LIST_KEY_PREFIX));
+			}
+			logger.debug("🗑️ Cache catalogue invalidé - offre {}", offerId);
+		});
+	}
+
+	public void evictListings() {
+		evictOffer(null);
+	}
+
+	public int size() {
+		synchronized (entries) {
+			return entries.size();
+		}
+	}
+
+	/**
+	 * Les listes sont stockées en copie non modifiable : la même instance est
+	 * partagée par tous les appelants.
+	 */
+	@SuppressWarnings("unchecked")
+	private <T> T getOrLoad(String key, long ttlMillis, Supplier<T> loader) {
+		long loadGeneration;
+		synchronized (entries) {
+			loadGeneration = generation;
+			CacheEntry entry = entries.get(key);
+			if (entry != null && !entry.isExpired()) {
+				hits.increment();
+				return (T) entry.data;
+			}
+			if (entry != null) {
+				entries.remove(key);
+				expiredEvictions.increment();
+			}
+		}
+		misses.increment();
+		T value = loader.get();
+		if (value instanceof List<?> list) {
+			value = (T) List.copyOf(list);
+		}
+		// On ne met pas en cache les absences (Optional vide, null) pour ne pas masquer une création
+		if (value != null && !(value instanceof Optional<?> optional && optional.isEmpty())) {
+			synchronized (entries) {
+				if (generation == loadGeneration) {
+					entries.put(key, new CacheEntry(value, ttlMillis));
+				}
+			}
+		}
+		return value;
+	}
+}
@@ -0,0 +1,148 @@
+package com.mobility.mobility_backend.service.cache;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.mobility.mobility_backend.service.redis.RedisCacheService;
+
+/**
+ * Cache à deux niveaux : L1 en mémoire ({@link MemoryCacheService}) propre à
+ * chaque réplica, L2 Redis partagé. Chaque écriture ou suppression est publiée
+ * sur un canal pub/sub pour que les autres réplicas retirent leur copie L1.
+ * Sans Redis ({@code cache.redis.enabled=false}), seul le L1 est utilisé.
+ */
+@Service
+public class TieredCacheService {
+
+	private static final Logger logger = LoggerFactory.getLogger(TieredCacheService.class);
+
+	static final String OP_KEY = "KEY";
+	static final String OP_PREFIX = "PREFIX";
+	private static final String SEPARATOR = "|";
+
+	private final MemoryCacheService memoryCacheService;
+	private final RedisCacheService redisCacheService;
+	private final CacheCodec codec;
+	private final long l1TtlSeconds;
+	private final String nodeId = UUID.randomUUID().toString();
+
+	public TieredCacheService(MemoryCacheService memoryCacheService,
+			ObjectProvider<RedisCacheService> redisCacheService, CacheCodec codec,
+			@Value("${cache.tiered.l1-ttl-seconds:60}") long l1TtlSeconds) {
+		this.memoryCacheService = memoryCacheService;
+		this.redisCacheService = redisCacheService.getIfAvailable();
+		this.codec = codec;
+		this.l1TtlSeconds = l1TtlSeconds;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void subscribeToInvalidations() {
+		if (redisCacheService != null) {
+			redisCacheService.subscribe(this::onInvalidation);
+			logger.info("📡 Cache L2 Redis actif - invalidations inter-réplicas activées (node {})", nodeId);
+		} else {
+			logger.info("ℹ️ Cache L2 Redis désactivé - cache mémoire seul");
+		}
+	}
+
+	public <T> T get(String key, Class<T> type) {
+		Object local = memoryCacheService.get(key);
+		if (type.isInstance(local)) {
+			return type.cast(local);
+		}
+		return readThrough(key, codec.typeOf(type));
+	}
+
+	@SuppressWarnings("unchecked")
+	public <E> List<E> getList(String key, Class<E> elementType) {
+		Object local = memoryCacheService.get(key);
+		if (local instanceof List) {
+			return (List<E>) local;
+		}
+		return readThrough(key, codec.listOf(elementType));
+	}
+
+	public void set(String key, Object value, long timeout, TimeUnit unit) {
+		memoryCacheService.set(key, value, timeout, unit);
+		if (redisCacheService == null) {
+			return;
+		}
+		try {
+			redisCacheService.set(key, codec.encode(value), timeout, unit);
+			redisCacheService.publish(message(OP_KEY, key));
+		} catch (Exception e) {
+			logger.warn("⚠️ Encodage cache impossible - Key: {}, Error: {}", key, e.getMessage());
+		}
+	}
+
+	public void delete(String key) {
+		memoryCacheService.delete(key);
+		if (redisCacheService != null) {
+			redisCacheService.delete(key);
+			redisCacheService.publish(message(OP_KEY, key));
+		}
+	}
+
+	public void deleteByPrefix(String prefix) {
+		memoryCacheService.deleteByPattern(prefix);
+		if (redisCacheService != null) {
+			redisCacheService.deleteByPrefix(prefix);
+			redisCacheService.publish(message(OP_PREFIX, prefix));
+		}
+	}
+
+	/**
+	 * Message reçu d'un autre réplica : "nodeId|KEY|clé" ou "nodeId|PREFIX|préfixe".
+	 * Les messages émis par ce réplica sont ignorés, son L1 étant déjà à jour.
+	 */
+	void onInvalidation(String message) {
+		String[] parts = message.split("\\|", 3);
+		if (parts.length != 3 || nodeId.equals(parts[0])) {
+			return;
+		}
+		if (OP_PREFIX.equals(parts[1])) {
+			memoryCacheService.deleteByPattern(parts[2]);
+		} else {
+			memoryCacheService.delete(parts[2]);
+		}
+		logger.debug("🔄 Invalidation L1 reçue du node {} - {} {}", parts[0], parts[1], parts[2]);
+	}
+
+	String getNodeId() {
+		return nodeId;
+	}
+
+	private <T> T readThrough(String key, JavaType type) {
+		if (redisCacheService == null) {
+			return null;
+		}
+		byte[] payload = redisCacheService.get(key);
+		if (payload == null) {
+			return null;
+		}
+		try {
+			T value = codec.decode(payload, type);
+			// Copie L1 courte : la durée de vie restante côté Redis n'est pas relue
+			memoryCacheService.set(key, value, l1TtlSeconds, TimeUnit.SECONDS);
+			return value;
+		} catch (Exception e) {
+			logger.warn("⚠️ Décodage cache impossible - Key: {}, Error: {}", key, e.getMessage());
+			redisCacheService.delete(key);
+			return null;
+		}
+	}
+
+	private String message(String op, String target) {
+		return nodeId + SEPARATOR + op + SEPARATOR + target;
+	}
+}
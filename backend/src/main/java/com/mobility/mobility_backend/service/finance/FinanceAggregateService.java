@@ -0,0 +1,200 @@
+package com.mobility.mobility_backend.service.finance;
+
+import java.math.BigDecimal;
+import java.time.YearMonth;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.mobility.mobility_backend.dto.finance.PaymentAggregateProjection;
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.repository.ReservationRepository;
+
+/**
+ * Agrégats financiers maintenus en mémoire : un compteur (nombre, montant) par
+ * statut de paiement, statut de réservation et mois de paiement. Reconstruit au
+ * démarrage via un GROUP BY, puis tenu à jour par {@link ReservationFinanceListener}
+ * à chaque commit. Les lectures coûtent O(mois × statuts) au lieu de O(réservations).
+ */
+@Service
+public class FinanceAggregateService {
+
+	private static final Logger logger = LoggerFactory.getLogger(FinanceAggregateService.class);
+
+	private final ReservationRepository reservationRepository;
+
+	private volatile ConcurrentHashMap<AggregateKey, Bucket> buckets = new ConcurrentHashMap<>();
+	private volatile boolean ready = false;
+
+	// Tenu par la reconstruction de la requête jusqu'à la bascule : une transition attend
+	// le nouvel état au lieu d'être perdue ou comptée deux fois
+	private final Object deltaLock = new Object();
+
+	public FinanceAggregateService(ReservationRepository reservationRepository) {
+		this.reservationRepository = reservationRepository;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		rebuild();
+	}
+
+	// Filet de sécurité : recale les compteurs sur la base (mises à jour en masse, prix d'offre modifiés)
+	@Scheduled(fixedDelayString = "${finance.aggregates.reconcile-interval-ms:3600000}",
+			initialDelayString = "${finance.aggregates.reconcile-interval-ms:3600000}")
+	public void reconcile() {
+		rebuild();
+	}
+
+	/**
+	 * Recharge les compteurs depuis la base. Les transitions sont bloquées de la
+	 * requête jusqu'à la bascule : celles appliquées avant sont déjà dans le
+	 * GROUP BY (l'ancien état est jeté), celles validées pendant la requête
+	 * s'appliquent ensuite au nouvel état. Aucune n'est perdue ni comptée deux fois.
+	 */
+	public void rebuild() {
+		synchronized (deltaLock) {
+			ConcurrentHashMap<AggregateKey, Bucket> fresh = new ConcurrentHashMap<>();
+			for (PaymentAggregateProjection row : reservationRepository.aggregateByPaymentStatusAndMonth()) {
+				YearMonth month = row.getPaymentYear() != null && row.getPaymentMonth() != null
+						? YearMonth.of(row.getPaymentYear(), row.getPaymentMonth())
+						: null;
+				AggregateKey key = new AggregateKey(row.getPaymentStatus(), row.getStatus(), month);
+				Bucket bucket = new Bucket(row.getCount() != null ? row.getCount() : 0L,
+						row.getAmount() != null ? row.getAmount() : BigDecimal.ZERO);
+				fresh.merge(key, bucket, Bucket::plus);
+			}
+			buckets = fresh;
+			ready = true;
+			logger.info("📊 Agrégats financiers reconstruits - {} compteurs", fresh.size());
+		}
+	}
+
+	/**
+	 * Applique la transition d'une réservation : retire l'ancienne contribution et
+	 * ajoute la nouvelle. {@code null} signifie "absente" (création ou suppression).
+	 */
+	public void apply(Reservation.FinanceState before, Reservation.FinanceState after) {
+		synchronized (deltaLock) {
+			if (ready) {
+				applyTo(buckets, before, after);
+			}
+		}
+	}
+
+	private void applyTo(Map<AggregateKey, Bucket> target, Reservation.FinanceState before,
+			Reservation.FinanceState after) {
+		if (before != null) {
+			target.compute(keyOf(before), (key, current) -> {
+				Bucket updated = (current != null ? current : Bucket.EMPTY).minus(before.amount());
+				return updated.count() <= 0 ? null : updated;
+			});
+		}
+		if (after != null) {
+			target.merge(keyOf(after), new Bucket(1, after.amount()), Bucket::plus);
+		}
+	}
+
+	public long totalCount() {
+		return buckets.values().stream().mapToLong(Bucket::count).sum();
+	}
+
+	public long countByStatus(Reservation.ReservationStatus status) {
+		return buckets.entrySet().stream()
+				.filter(entry -> entry.getKey().status() == status)
+				.mapToLong(entry -> entry.getValue().count())
+				.sum();
+	}
+
+	public BigDecimal sumPaidAmount() {
+		return sumAmount(Reservation.PaymentStatus.PAID, null);
+	}
+
+	public BigDecimal sumPaidAmountSince(YearMonth from) {
+		return sumAmount(Reservation.PaymentStatus.PAID, from);
+	}
+
+	public BigDecimal sumOutstandingAmount() {
+		return sumAmount(Reservation.PaymentStatus.PENDING, null)
+				.add(sumAmount(Reservation.PaymentStatus.REQUIRES_ACTION, null));
+	}
+
+	/**
+	 * Répartition par statut de paiement ; un statut absent est compté comme
+	 * PENDING, comme à la création d'une réservation.
+	 */
+	public Map<Reservation.PaymentStatus, Bucket> breakdownByPaymentStatus() {
+		Map<Reservation.PaymentStatus, Bucket> result = new EnumMap<>(Reservation.PaymentStatus.class);
+		for (Reservation.PaymentStatus status : Reservation.PaymentStatus.values()) {
+			result.put(status, Bucket.EMPTY);
+		}
+		buckets.forEach((key, bucket) -> {
+			Reservation.PaymentStatus status = key.paymentStatus() != null ? key.paymentStatus()
+					: Reservation.PaymentStatus.PENDING;
+			result.merge(status, bucket, Bucket::plus);
+		});
+		return result;
+	}
+
+	/**
+	 * Paiements encaissés par mois (PAID/REFUNDED ou réservation confirmée/terminée,
+	 * avec une date de paiement) entre {@code from} et {@code to} inclus.
+	 */
+	public Map<YearMonth, Bucket> paidHistory(YearMonth from, YearMonth to) {
+		Map<YearMonth, Bucket> result = new TreeMap<>();
+		buckets.forEach((key, bucket) -> {
+			YearMonth month = key.paymentMonth();
+			if (month == null || month.isBefore(from) || month.isAfter(to) || !key.isPaid()) {
+				return;
+			}
+			result.merge(month, bucket, Bucket::plus);
+		});
+		return result;
+	}
+
+	private BigDecimal sumAmount(Reservation.PaymentStatus paymentStatus, YearMonth from) {
+		return buckets.entrySet().stream()
+				.filter(entry -> entry.getKey().paymentStatus() == paymentStatus)
+				.filter(entry -> from == null || (entry.getKey().paymentMonth() != null
+						&& !entry.getKey().paymentMonth().isBefore(from)))
+				.map(entry -> entry.getValue().amount())
+				.reduce(BigDecimal.ZERO, BigDecimal::add);
+	}
+
+	private AggregateKey keyOf(Reservation.FinanceState state) {
+		return new AggregateKey(state.paymentStatus(), state.status(),
+				state.paymentDate() != null ? YearMonth.from(state.paymentDate()) : null);
+	}
+
+	record AggregateKey(Reservation.PaymentStatus paymentStatus, Reservation.ReservationStatus status,
+			YearMonth paymentMonth) {
+
+		boolean isPaid() {
+			return paymentStatus == Reservation.PaymentStatus.PAID
+					|| paymentStatus == Reservation.PaymentStatus.REFUNDED
+					|| status == Reservation.ReservationStatus.COMPLETED
+					|| status == Reservation.ReservationStatus.CONFIRMED;
+		}
+	}
+
+	public record Bucket(long count, BigDecimal amount) {
+
+		static final Bucket EMPTY = new Bucket(0, BigDecimal.ZERO);
+
+		Bucket plus(Bucket other) {
+			return new Bucket(count + other.count, amount.add(other.amount));
+		}
+
+		Bucket minus(BigDecimal value) {
+			return new Bucket(count - 1, amount.subtract(value != null ? value : BigDecimal.ZERO));
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.mobility.mobility_backend.service.finance;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.entity.ReservationChangeListener;
+import com.mobility.mobility_backend.util.AfterCommit;
+
+/**
+ * Suit les {@link Reservation} : mémorise l'état financier chargé puis
+ * pousse le delta vers {@link FinanceAggregateService} une fois la transaction
+ * validée (un rollback ne fausse donc pas les compteurs).
+ */
+@Component
+public class ReservationFinanceListener implements ReservationChangeListener {
+
+	private final ObjectProvider<FinanceAggregateService> aggregateService;
+
+	public ReservationFinanceListener(ObjectProvider<FinanceAggregateService> aggregateService) {
+		this.aggregateService = aggregateService;
+	}
+
+	@Override
+	public void onLoad(Reservation reservation) {
+		reservation.setLoadedFinanceState(reservation.captureFinanceState());
+	}
+
+	@Override
+	public void onPersist(Reservation reservation) {
+		onWrite(reservation);
+	}
+
+	@Override
+	public void onUpdate(Reservation reservation) {
+		onWrite(reservation);
+	}
+
+	@Override
+	public void onRemove(Reservation reservation) {
+		Reservation.FinanceState before = reservation.getLoadedFinanceState() != null
+				? reservation.getLoadedFinanceState()
+				: reservation.captureFinanceState();
+		reservation.setLoadedFinanceState(null);
+		publish(before, null);
+	}
+
+	private void onWrite(Reservation reservation) {
+		Reservation.FinanceState before = reservation.getLoadedFinanceState();
+		Reservation.FinanceState after = reservation.captureFinanceState();
+		reservation.setLoadedFinanceState(after);
+		if (!after.equals(before)) {
+			publish(before, after);
+		}
+	}
+
+	private void publish(Reservation.FinanceState before, Reservation.FinanceState after) {
+		FinanceAggregateService service = aggregateService.getIfAvailable();
+		if (service == null) {
+			return;
+		}
+		AfterCommit.run(() -> service.apply(before, after));
+	}
+}
@@ -0,0 +1,59 @@
+package com.mobility.mobility_backend.service.notification;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+
+/**
+ * Bus en boucle locale : la publication est livrée directement aux abonnés de
+ * la JVM. Suffisant pour un nœud unique et pour les tests.
+ */
+public class LocalNotificationBus implements NotificationBus {
+
+	private static final Logger logger = LoggerFactory.getLogger(LocalNotificationBus.class);
+
+	private final List<Consumer<NotificationMessage>> subscribers = new CopyOnWriteArrayList<>();
+	private final AtomicLong lastEventId = new AtomicLong();
+
+	// Un seul nœud : la séquence locale suffit
+	@Override
+	public long nextEventId() {
+		return nextLocalId(lastEventId);
+	}
+
+	@Override
+	public void publish(NotificationMessage notification) {
+		deliver(subscribers, notification);
+	}
+
+	@Override
+	public void subscribe(Consumer<NotificationMessage> localDelivery) {
+		subscribers.add(localDelivery);
+	}
+
+	/**
+	 * Identifiant croissant dérivé de l'horloge ({@code max(précédent + 1,
+	 * millis * 1000)}) : il reste supérieur aux identifiants d'avant un redémarrage.
+	 */
+	static long nextLocalId(AtomicLong lastEventId) {
+		long floor = System.currentTimeMillis() * 1000;
+		return lastEventId.updateAndGet(previous -> Math.max(previous + 1, floor));
+	}
+
+	static void deliver(List<Consumer<NotificationMessage>> subscribers, NotificationMessage notification) {
+		for (Consumer<NotificationMessage> subscriber : subscribers) {
+			try {
+				subscriber.accept(notification);
+			} catch (Exception e) {
+				logger.warn("⚠️ Livraison locale de la notification {} impossible: {}", notification.getId(),
+						e.getMessage());
+			}
+		}
+	}
+}
@@ -0,0 +1,28 @@
+package com.mobility.mobility_backend.service.notification;
+
+import java.util.function.Consumer;
+
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+
+/**
+ * Bus de diffusion des notifications entre réplicas. Chaque réplica s'abonne
+ * avec sa livraison locale (ses propres connexions SSE) : une notification
+ * publiée sur n'importe quel nœud est livrée une fois par nœud, et chaque nœud
+ * ne sert que ses clients. Pas besoin de sessions collantes.
+ *
+ * Implémentation choisie par {@code notifications.bus.type} : {@code local}
+ * (boucle en mémoire, un seul nœud et tests) ou {@code redis} (pub/sub).
+ */
+public interface NotificationBus {
+
+	/**
+	 * Identifiant d'événement SSE suivant, croissant pour tout le cluster : un
+	 * événement publié après un autre, sur n'importe quel nœud, a un identifiant
+	 * plus grand et n'est jamais sauté au rejeu depuis {@code Last-Event-ID}.
+	 */
+	long nextEventId();
+
+	void publish(NotificationMessage notification);
+
+	void subscribe(Consumer<NotificationMessage> localDelivery);
+}
@@ -0,0 +1,237 @@
+package com.mobility.mobility_backend.service.notification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.repository.notification.NotificationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Écriture différée des notifications : {@link #submit} empile et rend la main,
+ * un thread dédié persiste par lots (une transaction et des INSERT JDBC groupés
+ * par lot, cf. {@code hibernate.jdbc.batch_size}).
+ *
+ * Mode {@code notifications.persistence.mode=sync} : sauvegarde immédiate sur
+ * le thread appelant, comme avant. En mode async, une file pleine bascule aussi
+ * en écriture synchrone plutôt que de perdre la notification, et la file est
+ * vidée à l'arrêt de l'application.
+ *
+ * Les non lues en attente sont suivies par {@link UnreadCounterService}, qui
+ * les reporte vers sa part "en base" au commit de chaque lot. Une notification
+ * lue alors qu'elle est encore en file est marquée lue juste après le commit
+ * de son lot (voir {@link #markReadWhenPersisted}).
+ */
+@Component
+public class NotificationPersistenceQueue {
+
+	private static final Logger logger = LoggerFactory.getLogger(NotificationPersistenceQueue.class);
+
+	private final NotificationRepository notificationRepository;
+	private final UnreadCounterService unreadCounters;
+	private final TransactionTemplate transactionTemplate;
+	private final boolean async;
+	private final int batchSize;
+	private final long flushIntervalMs;
+	private final BlockingQueue<NotificationMessage> backlog;
+	// Notifications soumises pas encore écrites (id -> destinataire), et celles lues entre-temps
+	private final Map<String, String> queuedRecipients = new ConcurrentHashMap<>();
+	private final Set<String> readWhileQueued = ConcurrentHashMap.newKeySet();
+	private final Thread writer;
+	private volatile boolean running = true;
+
+	private final Counter persisted;
+	private final Counter failed;
+
+	public NotificationPersistenceQueue(NotificationRepository notificationRepository,
+			UnreadCounterService unreadCounters, PlatformTransactionManager transactionManager,
+			MeterRegistry meterRegistry,
+			@Value("${notifications.persistence.mode:async}") String mode,
+			@Value("${notifications.persistence.queue-capacity:10000}") int queueCapacity,
+			@Value("${notifications.persistence.batch-size:100}") int batchSize,
+			@Value("${notifications.persistence.flush-interval-ms:200}") long flushIntervalMs) {
+		this.notificationRepository = notificationRepository;
+		this.unreadCounters = unreadCounters;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.async = !"sync".equalsIgnoreCase(mode.trim());
+		this.batchSize = Math.max(1, batchSize);
+		this.flushIntervalMs = Math.max(1, flushIntervalMs);
+		this.backlog = new LinkedBlockingQueue<>(Math.max(1, queueCapacity));
+
+		this.persisted = Counter.builder("notifications.persistence.persisted").register(meterRegistry);
+		this.failed = Counter.builder("notifications.persistence.failed").register(meterRegistry);
+		Gauge.builder("notifications.persistence.backlog", backlog, BlockingQueue::size).register(meterRegistry);
+
+		this.writer = new Thread(this::runWriter, "notification-writer");
+		this.writer.setDaemon(true);
+		if (async) {
+			this.writer.start();
+		}
+	}
+
+	public void submit(NotificationMessage notification) {
+		if (notification.getId() != null && notification.getRecipient() != null) {
+			queuedRecipients.put(notification.getId(), notification.getRecipient());
+		}
+		unreadCounters.submitted(notification);
+		if (async && running && backlog.offer(notification)) {
+			return;
+		}
+		if (async) {
+			logger.warn("⚠️ File de persistance des notifications pleine - écriture synchrone");
+		}
+		persistBatch(List.of(notification));
+	}
+
+	/**
+	 * Lecture d'une notification peut-être encore en file : à appeler AVANT
+	 * l'UPDATE en base. Si son lot est validé après cet UPDATE (qui ne la voyait
+	 * pas encore), elle est marquée lue juste après le commit ; sinon l'UPDATE
+	 * l'a déjà trouvée.
+	 */
+	public void markReadWhenPersisted(String notificationId, String userId) {
+		if (userId.equals(queuedRecipients.get(notificationId))) {
+			readWhileQueued.add(notificationId);
+		}
+	}
+
+	/**
+	 * Variante de {@link #markReadWhenPersisted} pour toutes les notifications en
+	 * file du destinataire.
+	 */
+	public void markAllReadWhenPersisted(String userId) {
+		queuedRecipients.forEach((notificationId, recipient) -> {
+			if (userId.equals(recipient)) {
+				readWhileQueued.add(notificationId);
+			}
+		});
+	}
+
+	/**
+	 * L'UPDATE a trouvé la notification : plus rien à faire après son commit.
+	 */
+	public void readApplied(String notificationId) {
+		readWhileQueued.remove(notificationId);
+	}
+
+	public int getBacklogSize() {
+		return backlog.size();
+	}
+
+	/**
+	 * Persiste immédiatement tout ce qui est en attente (arrêt, tests).
+	 */
+	public void flush() {
+		List<NotificationMessage> batch = new ArrayList<>(batchSize);
+		while (backlog.drainTo(batch, batchSize) > 0) {
+			persistBatch(batch);
+			batch.clear();
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		// Pas d'interruption : un lot en cours d'écriture JDBC doit aller au bout,
+		// le thread s'arrête au plus tard après flushIntervalMs
+		running = false;
+		try {
+			writer.join(flushIntervalMs + TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		flush();
+		logger.info("💾 File de persistance des notifications vidée à l'arrêt");
+	}
+
+	private void runWriter() {
+		List<NotificationMessage> batch = new ArrayList<>(batchSize);
+		while (running) {
+			try {
+				NotificationMessage first = backlog.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+				if (first == null) {
+					continue;
+				}
+				batch.add(first);
+				backlog.drainTo(batch, batchSize - 1);
+				persistBatch(batch);
+			} catch (InterruptedException e) {
+				// Arrêt demandé : le reliquat est vidé par shutdown()
+				Thread.currentThread().interrupt();
+				break;
+			} catch (Exception e) {
+				logger.error("❌ Erreur du thread de persistance des notifications: {}", e.getMessage());
+			} finally {
+				batch.clear();
+			}
+		}
+	}
+
+	private void persistBatch(List<NotificationMessage> batch) {
+		if (batch.isEmpty()) {
+			return;
+		}
+		try {
+			unreadCounters.persist(batch,
+					() -> transactionTemplate.executeWithoutResult(status -> notificationRepository.saveAll(batch)));
+			persisted.increment(batch.size());
+			applyReadsWhileQueued(batch);
+		} catch (Exception e) {
+			if (batch.size() == 1) {
+				failed.increment();
+				discard(batch.get(0));
+				unreadCounters.dropped(batch.get(0));
+				logger.error("❌ Notification {} non persistée: {}", batch.get(0).getId(), e.getMessage());
+				return;
+			}
+			// Un élément invalide ne doit pas faire perdre tout le lot : on isole
+			logger.warn("⚠️ Lot de {} notifications en échec, reprise unitaire: {}", batch.size(), e.getMessage());
+			for (NotificationMessage notification : batch) {
+				persistBatch(List.of(notification));
+			}
+		}
+	}
+
+	// Après le commit : la ligne est visible, les lectures arrivées pendant l'attente s'appliquent
+	private void applyReadsWhileQueued(List<NotificationMessage> batch) {
+		for (NotificationMessage notification : batch) {
+			String recipient = forget(notification);
+			if (recipient == null || !readWhileQueued.remove(notification.getId())) {
+				continue;
+			}
+			try {
+				unreadCounters.markRead(recipient,
+						() -> notificationRepository.markAsRead(notification.getId(), recipient));
+			} catch (Exception e) {
+				logger.warn("⚠️ Lecture de la notification {} non appliquée: {}", notification.getId(),
+						e.getMessage());
+			}
+		}
+	}
+
+	private String forget(NotificationMessage notification) {
+		return notification.getId() != null ? queuedRecipients.remove(notification.getId()) : null;
+	}
+
+	private void discard(NotificationMessage notification) {
+		if (forget(notification) != null) {
+			readWhileQueued.remove(notification.getId());
+		}
+	}
+}
@@ -0,0 +1,169 @@
+package com.mobility.mobility_backend.service.notification;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mobility.mobility_backend.dto.socket.NotificationCategory;
+import com.mobility.mobility_backend.repository.notification.NotificationRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Purge des notifications par lots bornés : chaque lot sélectionne au plus
+ * {@code notifications.retention.chunk-size} ids, supprime les métadonnées puis
+ * les notifications dans sa propre transaction courte, et une pause sépare les
+ * lots pour ne pas monopoliser la table. Une exécution s'arrête après
+ * {@code notifications.retention.max-run-duration-ms} ; le reste part au
+ * passage suivant.
+ *
+ * Règles : les notifications expirées ({@code expiresAt} dépassé), puis par
+ * catégorie celles plus anciennes que
+ * {@code notifications.retention.max-age-days.<CATEGORIE>} (défaut
+ * {@code notifications.retention.default-max-age-days}, 0 par défaut : seules
+ * les expirées sont supprimées, comme avant).
+ */
+@Service
+public class NotificationRetentionService {
+
+	private static final Logger logger = LoggerFactory.getLogger(NotificationRetentionService.class);
+
+	private final NotificationRepository notificationRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final UnreadCounterService unreadCounters;
+	private final Environment environment;
+	private final MeterRegistry meterRegistry;
+	private final int chunkSize;
+	private final long pauseMs;
+	private final long maxRunDurationMs;
+	private final int defaultMaxAgeDays;
+
+	private final Timer chunkDuration;
+	private final AtomicLong lastRunDeleted = new AtomicLong();
+
+	public NotificationRetentionService(NotificationRepository notificationRepository,
+			PlatformTransactionManager transactionManager, UnreadCounterService unreadCounters,
+			Environment environment, MeterRegistry meterRegistry,
+			@Value("${notifications.retention.chunk-size:500}") int chunkSize,
+			@Value("${notifications.retention.pause-ms:200}") long pauseMs,
+			@Value("${notifications.retention.max-run-duration-ms:600000}") long maxRunDurationMs,
+			@Value("${notifications.retention.default-max-age-days:0}") int defaultMaxAgeDays) {
+		this.notificationRepository = notificationRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.unreadCounters = unreadCounters;
+		this.environment = environment;
+		this.meterRegistry = meterRegistry;
+		this.chunkSize = Math.max(1, chunkSize);
+		this.pauseMs = Math.max(0, pauseMs);
+		this.maxRunDurationMs = maxRunDurationMs;
+		this.defaultMaxAgeDays = defaultMaxAgeDays;
+
+		this.chunkDuration = Timer.builder("notifications.retention.chunk.duration").register(meterRegistry);
+		Gauge.builder("notifications.retention.last-run.deleted", lastRunDeleted, AtomicLong::get)
+				.register(meterRegistry);
+	}
+
+	@Scheduled(cron = "${notifications.retention.cron:0 0 2 * * ?}")
+	public void scheduledPurge() {
+		purge();
+	}
+
+	/**
+	 * Exécute toutes les règles ; retourne le nombre de notifications supprimées.
+	 */
+	public long purge() {
+		long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxRunDurationMs);
+		LocalDateTime now = LocalDateTime.now();
+		logger.info("🧹 Purge des notifications - lots de {}", chunkSize);
+
+		long deleted = purgeRule("expired", pageable -> notificationRepository.findExpiredIds(now, pageable),
+				deadline);
+		for (NotificationCategory category : NotificationCategory.values()) {
+			int maxAgeDays = maxAgeDays(category);
+			if (maxAgeDays <= 0) {
+				continue;
+			}
+			LocalDateTime cutoff = now.minusDays(maxAgeDays);
+			deleted += purgeRule(category.name(),
+					pageable -> notificationRepository.findIdsCreatedBefore(category, cutoff, pageable), deadline);
+		}
+
+		lastRunDeleted.set(deleted);
+		if (deleted > 0) {
+			// Des non lues ont pu disparaître : les compteurs seront relus en base
+			unreadCounters.evictAll();
+		}
+		logger.info("✅ Purge terminée - {} notification(s) supprimée(s)", deleted);
+		return deleted;
+	}
+
+	int maxAgeDays(NotificationCategory category) {
+		return environment.getProperty("notifications.retention.max-age-days." + category.name(), Integer.class,
+				defaultMaxAgeDays);
+	}
+
+	private long purgeRule(String rule, Function<Pageable, List<String>> selectIds, long deadline) {
+		Counter deletedCounter = Counter.builder("notifications.retention.deleted").tag("rule", rule)
+				.register(meterRegistry);
+		long deleted = 0;
+		while (true) {
+			if (System.nanoTime() >= deadline) {
+				logger.warn("⏱️ Purge {} interrompue (durée max {} atteinte) - reprise au prochain passage", rule,
+						Duration.ofMillis(maxRunDurationMs));
+				break;
+			}
+			long start = System.nanoTime();
+			Integer removed = transactionTemplate.execute(status -> deleteChunk(selectIds));
+			chunkDuration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			if (removed == null || removed == 0) {
+				break;
+			}
+			deleted += removed;
+			deletedCounter.increment(removed);
+			logger.debug("🗑️ Rétention {} - lot de {} supprimé ({} au total)", rule, removed, deleted);
+			if (removed < chunkSize || !pause()) {
+				break;
+			}
+		}
+		return deleted;
+	}
+
+	private int deleteChunk(Function<Pageable, List<String>> selectIds) {
+		List<String> ids = selectIds.apply(PageRequest.of(0, chunkSize));
+		if (ids.isEmpty()) {
+			return 0;
+		}
+		notificationRepository.deleteMetadataByNotificationIds(ids);
+		return notificationRepository.deleteByIds(ids);
+	}
+
+	private boolean pause() {
+		if (pauseMs == 0) {
+			return true;
+		}
+		try {
+			Thread.sleep(pauseMs);
+			return true;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
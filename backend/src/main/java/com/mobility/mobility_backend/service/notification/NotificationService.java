@@ -1,67 +1,114 @@
 package com.mobility.mobility_backend.service.notification;
 
-import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
 
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.mobility.mobility_backend.dto.socket.NotificationCategory;
 import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.dto.socket.NotificationPageDTO;
 import com.mobility.mobility_backend.dto.socket.NotificationSeverity;
 import com.mobility.mobility_backend.repository.notification.NotificationRepository;
 
+import jakarta.annotation.PostConstruct;
+
 @Service
 public class NotificationService {
 
-	private final Map<String, SseEmitter> userEmitters = new ConcurrentHashMap<>();
-
 	@Autowired
 	private NotificationRepository notificationRepository;
 
+	@Autowired
+	private SseEmitterRegistry emitterRegistry;
+
+	@Autowired
+	private NotificationPersistenceQueue persistenceQueue;
+
+	@Autowired
+	private NotificationBus notificationBus;
+
+	@Autowired
+	private SseReplayBuffer replayBuffer;
+
+	@Autowired
+	private UnreadCounterService unreadCounters;
+
+	private static final int DEFAULT_PAGE_SIZE = 20;
+	private static final int MAX_PAGE_SIZE = 100;
+
+	@Value("${notifications.inbox.max-list-size:200}")
+	private int maxListSize = 200;
+
+	// Le flux est maintenu par les battements du registre : le timeout peut être long
+	@Value("${notifications.sse.timeout-ms:14400000}")
+	private long sseTimeoutMs = 14_400_000L;
+
+	// Enregistrement d'une connexion + rejeu atomiques vis-à-vis de la livraison :
+	// ni doublon ni trou entre les événements rejoués et ceux reçus en direct
+	private final Object deliveryLock = new Object();
+
+	@PostConstruct
+	void subscribeToBus() {
+		// Chaque réplica livre uniquement à ses propres connexions SSE
+		notificationBus.subscribe(this::deliverLocally);
+	}
+
 	// === MÉTHODES SSE ===
 
 	public SseEmitter connect(String userId, String userRole) {
-		System.out.println("🔔 [SERVICE] Nouvelle connexion SSE pour userId: " + userId);
-
-		SseEmitter emitter = new SseEmitter(120_000L); // 2 minutes timeout
-		String connectionId = userId + "_" + System.currentTimeMillis();
+		return connect(userId, userRole, null);
+	}
 
-		userEmitters.put(connectionId, emitter);
-		System.out.println("📊 [SERVICE] Connexions actives: " + userEmitters.size());
+	/**
+	 * Connexion SSE. Avec {@code lastEventId} (en-tête {@code Last-Event-ID} d'une
+	 * reconnexion), les événements manqués sont rejoués depuis la mémoire au lieu
+	 * du message de bienvenue ; si le tampon ne couvre plus l'écart, un événement
+	 * {@code resync} demande au client de recharger via l'API.
+	 */
+	public SseEmitter connect(String userId, String userRole, String lastEventId) {
+		System.out.println("🔔 [SERVICE] Nouvelle connexion SSE pour userId: " + userId);
 
-		// Configuration des callbacks
-		emitter.onCompletion(() -> {
-			System.out.println("🔌 [SERVICE] Connexion SSE terminée: " + connectionId);
-			userEmitters.remove(connectionId);
-		});
+		SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+		Long resumeFrom = parseEventId(lastEventId);
+		if (resumeFrom != null) {
+			synchronized (deliveryLock) {
+				SseEmitterRegistry.Connection connection = emitterRegistry.register(userId, emitter);
+				SseReplayBuffer.Replay replay = replayBuffer.replaySince(userId, resumeFrom);
+				if (!replay.complete()) {
+					connection.enqueue("resync", Map.of("lastEventId", resumeFrom));
+				}
+				for (NotificationMessage event : replay.events()) {
+					connection.enqueue(String.valueOf(event.getEventId()), "notification", event);
+				}
+				System.out.println("🔁 [SERVICE] Reprise SSE depuis " + resumeFrom + " - " + replay.events().size()
+						+ " événement(s) rejoué(s)");
+			}
+			return emitter;
+		}
 
-		emitter.onTimeout(() -> {
-			System.out.println("⏰ [SERVICE] Timeout SSE: " + connectionId);
-			userEmitters.remove(connectionId);
-		});
+		SseEmitterRegistry.Connection connection = emitterRegistry.register(userId, emitter);
+		System.out.println("📊 [SERVICE] Connexions actives: " + emitterRegistry.getConnectionCount());
 
 		// Envoyer un message de bienvenue
-		try {
-			NotificationMessage welcomeMsg = new NotificationMessage();
-			welcomeMsg.setCategory(NotificationCategory.SYSTEM_ALERT);
-			welcomeMsg.setSeverity(NotificationSeverity.INFO);
-			welcomeMsg.setTitle("Connexion établie");
-			welcomeMsg.setMessage("Vous êtes connecté aux notifications temps réel");
-			welcomeMsg.setRecipient(userId);
-
-			emitter.send(SseEmitter.event().name("notification").data(welcomeMsg));
-
-			System.out.println("✅ [SERVICE] Message de bienvenue envoyé à: " + userId);
-		} catch (IOException e) {
-			System.err.println("❌ [SERVICE] Erreur envoi message bienvenue: " + e.getMessage());
-		}
+		NotificationMessage welcomeMsg = new NotificationMessage();
+		welcomeMsg.setCategory(NotificationCategory.SYSTEM_ALERT);
+		welcomeMsg.setSeverity(NotificationSeverity.INFO);
+		welcomeMsg.setTitle("Connexion établie");
+		welcomeMsg.setMessage("Vous êtes connecté aux notifications temps réel");
+		welcomeMsg.setRecipient(userId);
+		connection.enqueue("notification", welcomeMsg);
 
 		return emitter;
 	}
@@ -70,51 +117,32 @@ public class NotificationService {
 		System.out.println(
 				"📤 [SERVICE] Envoi notification: " + notification.getTitle() + " à: " + notification.getRecipient());
 
-		// Sauvegarder en base
-		notificationRepository.save(notification);
-		System.out.println("💾 [SERVICE] Notification sauvegardée en base: " + notification.getId());
-
-		// Déterminer les destinataires
-		List<String> recipients = resolveRecipients(notification.getRecipient());
-		System.out.println("🎯 [SERVICE] Destinataires trouvés: " + recipients);
-
-		// Envoyer en temps réel via SSE
-		int sentCount = 0;
-		for (String recipient : recipients) {
-			for (Map.Entry<String, SseEmitter> entry : userEmitters.entrySet()) {
-				if (entry.getKey().startsWith(recipient + "_")) {
-					try {
-						entry.getValue().send(SseEmitter.event().name("notification").data(notification));
-						sentCount++;
-						System.out.println("📨 [SERVICE] Notification envoyée via SSE à: " + recipient);
-					} catch (IOException e) {
-						System.err.println("❌ [SERVICE] Erreur envoi SSE à " + recipient + ": " + e.getMessage());
-						entry.getValue().completeWithError(e);
-						userEmitters.remove(entry.getKey());
-					}
-				}
-			}
-		}
+		// Sauvegarder en base (écriture différée par lots, sauf mode sync) : INSERT direct, sans merge
+		notification.markNew();
+		persistenceQueue.submit(notification);
+		System.out.println("💾 [SERVICE] Notification transmise à la persistance: " + notification.getId());
 
-		System.out.println("📊 [SERVICE] Total notifications envoyées via SSE: " + sentCount);
-		if (sentCount == 0) {
-			System.out.println("⚠️ [SERVICE] Aucun client connecté pour recevoir la notification");
-		}
+		// Diffusion à tous les réplicas, chacun servant ses connexions (voir deliverLocally)
+		notification.setEventId(notificationBus.nextEventId());
+		notificationBus.publish(notification);
 	}
 
-	private List<String> resolveRecipients(String recipientPattern) {
-		List<String> recipients = new ArrayList<>();
-
-		if ("all".equals(recipientPattern)) {
-			// Tous les utilisateurs connectés
-			recipients.addAll(userEmitters.keySet().stream().map(key -> key.split("_")[0]).distinct()
-					.collect(Collectors.toList()));
-		} else {
-			// UserId spécifique
-			recipients.add(recipientPattern);
+	/**
+	 * Mise en file pour les connexions SSE locales du destinataire ; l'envoi se
+	 * fait sur le pool du registre.
+	 */
+	int deliverLocally(NotificationMessage notification) {
+		String eventId = notification.getEventId() != null ? String.valueOf(notification.getEventId()) : null;
+		int targeted;
+		synchronized (deliveryLock) {
+			replayBuffer.record(notification);
+			targeted = "all".equals(notification.getRecipient())
+					? emitterRegistry.broadcast(eventId, "notification", notification)
+					: emitterRegistry.sendTo(notification.getRecipient(), eventId, "notification", notification);
 		}
 
-		return recipients;
+		System.out.println("📊 [SERVICE] Notification mise en file pour " + targeted + " connexion(s) SSE locale(s)");
+		return targeted;
 	}
 
 	// ✅ MÉTHODE SPÉCIALE POUR LES TESTS
@@ -197,51 +225,90 @@ public class NotificationService {
 	// === MÉTHODES POUR LE CONTROLLER (CELLES QUI MANQUAIENT) ===
 
 	/**
-	 * Récupérer les notifications d'un utilisateur avec filtres
+	 * Récupérer les notifications d'un utilisateur avec filtres : les
+	 * {@code notifications.inbox.max-list-size} plus récentes. Au-delà,
+	 * {@code hasMore} et le curseur permettent de continuer via {@link #getInboxPage}.
 	 */
-	public List<NotificationMessage> getUserNotifications(String userId, String category, String severity) {
+	@Transactional(readOnly = true)
+	public NotificationPageDTO getUserNotifications(String userId, String category, String severity) {
 		System.out.println("📋 [SERVICE] Récupération notifications pour userId: " + userId + ", category: " + category
 				+ ", severity: " + severity);
 
-		if (category != null && severity != null) {
-			try {
-				NotificationCategory catEnum = NotificationCategory.valueOf(category.toUpperCase());
-				NotificationSeverity sevEnum = NotificationSeverity.valueOf(severity.toUpperCase());
-				return notificationRepository.findByUserIdAndCategoryAndSeverity(userId, catEnum, sevEnum);
-			} catch (IllegalArgumentException e) {
-				System.err.println("❌ [SERVICE] Catégorie ou sévérité invalide: " + e.getMessage());
-				return new ArrayList<>();
-			}
-		} else if (category != null) {
-			try {
-				NotificationCategory catEnum = NotificationCategory.valueOf(category.toUpperCase());
-				return notificationRepository.findByUserIdAndCategory(userId, catEnum);
-			} catch (IllegalArgumentException e) {
-				System.err.println("❌ [SERVICE] Catégorie invalide: " + e.getMessage());
-				return new ArrayList<>();
-			}
-		} else if (severity != null) {
-			try {
-				NotificationSeverity sevEnum = NotificationSeverity.valueOf(severity.toUpperCase());
-				return notificationRepository.findByUserIdAndSeverity(userId, sevEnum);
-			} catch (IllegalArgumentException e) {
-				System.err.println("❌ [SERVICE] Sévérité invalide: " + e.getMessage());
-				return new ArrayList<>();
+		try {
+			return loadPage(userId, parseCategory(category), parseSeverity(severity), false, null, null, maxListSize);
+		} catch (IllegalArgumentException e) {
+			System.err.println("❌ [SERVICE] Catégorie ou sévérité invalide: " + e.getMessage());
+			return new NotificationPageDTO(new ArrayList<>(), null, false);
+		}
+	}
+
+	/**
+	 * Boîte de réception paginée par curseur (plus récentes d'abord). Lève
+	 * {@link IllegalArgumentException} sur un filtre ou un curseur invalide.
+	 */
+	@Transactional(readOnly = true)
+	public NotificationPageDTO getInboxPage(String userId, String category, String severity, boolean unreadOnly,
+			String cursor, int size) {
+		int pageSize = size > 0 ? Math.min(size, MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+		LocalDateTime beforeCreatedAt = null;
+		String beforeId = null;
+		if (cursor != null && !cursor.isBlank()) {
+			String[] parts = decodeCursor(cursor);
+			beforeCreatedAt = LocalDateTime.parse(parts[0]);
+			beforeId = parts[1];
+		}
+
+		return loadPage(userId, parseCategory(category), parseSeverity(severity), unreadOnly, beforeCreatedAt,
+				beforeId, pageSize);
+	}
+
+	private NotificationPageDTO loadPage(String userId, NotificationCategory category, NotificationSeverity severity,
+			boolean unreadOnly, LocalDateTime beforeCreatedAt, String beforeId, int pageSize) {
+		// Une ligne de plus que demandé pour savoir s'il existe une page suivante
+		List<NotificationMessage> rows = notificationRepository.findInboxPage(userId, category, severity, unreadOnly,
+				beforeCreatedAt, beforeId, PageRequest.of(0, pageSize + 1));
+		boolean hasMore = rows.size() > pageSize;
+		List<NotificationMessage> page = hasMore ? rows.subList(0, pageSize) : rows;
+		// Métadonnées chargées ici (par lots, cf. @BatchSize) : la sérialisation a lieu hors transaction
+		page.forEach(notification -> Hibernate.initialize(notification.getMetadata()));
+		String nextCursor = hasMore ? encodeCursor(page.get(page.size() - 1)) : null;
+		return new NotificationPageDTO(new ArrayList<>(page), nextCursor, hasMore);
+	}
+
+	private static NotificationCategory parseCategory(String category) {
+		return category != null ? NotificationCategory.valueOf(category.toUpperCase()) : null;
+	}
+
+	private static NotificationSeverity parseSeverity(String severity) {
+		return severity != null ? NotificationSeverity.valueOf(severity.toUpperCase()) : null;
+	}
+
+	private static String encodeCursor(NotificationMessage notification) {
+		String raw = notification.getCreatedAt() + "|" + notification.getId();
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String[] decodeCursor(String cursor) {
+		try {
+			String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			String[] parts = raw.split("\\|", 2);
+			if (parts.length != 2) {
+				throw new IllegalArgumentException("Curseur de pagination invalide");
 			}
-		} else {
-			return notificationRepository.findByUserId(userId);
+			LocalDateTime.parse(parts[0]);
+			return parts;
+		} catch (IllegalArgumentException | DateTimeParseException e) {
+			throw new IllegalArgumentException("Curseur de pagination invalide", e);
 		}
 	}
 
 	/**
-	 * Compter les notifications non lues
+	 * Compter les notifications non lues (compteur mémoire, la base n'est lue
+	 * qu'au premier accès ; les notifications encore en file sont incluses)
 	 */
 	public long getUnreadCount(String userId) {
-		System.out.println("🔢 [SERVICE] Comptage notifications non lues pour userId: " + userId);
 		try {
-			long count = notificationRepository.countUnreadByUserId(userId);
-			System.out.println("📊 [SERVICE] Nombre de notifications non lues: " + count);
-			return count;
+			return unreadCounters.get(userId);
 		} catch (Exception e) {
 			System.err.println("❌ [SERVICE] Erreur comptage non lues: " + e.getMessage());
 			return 0L;
@@ -255,7 +322,15 @@ public class NotificationService {
 		System.out
 				.println("📖 [SERVICE] Marquer comme lue - notificationId: " + notificationId + ", userId: " + userId);
 		try {
-			notificationRepository.markAsRead(notificationId, userId);
+			// Encore en file de persistance : la lecture sera appliquée après le commit de son lot
+			persistenceQueue.markReadWhenPersisted(notificationId, userId);
+			unreadCounters.markRead(userId, () -> {
+				int updated = notificationRepository.markAsRead(notificationId, userId);
+				if (updated > 0) {
+					persistenceQueue.readApplied(notificationId);
+				}
+				return updated;
+			});
 			System.out.println("✅ [SERVICE] Notification marquée comme lue");
 		} catch (Exception e) {
 			System.err.println("❌ [SERVICE] Erreur marquer comme lue: " + e.getMessage());
@@ -269,7 +344,9 @@ public class NotificationService {
 	public void markAllAsRead(String userId) {
 		System.out.println("📚 [SERVICE] Marquer toutes comme lues - userId: " + userId);
 		try {
-			notificationRepository.markAllAsRead(userId);
+			// Celles encore en file sont marquées lues après le commit de leur lot
+			persistenceQueue.markAllReadWhenPersisted(userId);
+			unreadCounters.markRead(userId, () -> notificationRepository.markAllAsRead(userId));
 			System.out.println("✅ [SERVICE] Toutes les notifications marquées comme lues");
 		} catch (Exception e) {
 			System.err.println("❌ [SERVICE] Erreur marquer toutes comme lues: " + e.getMessage());
@@ -292,7 +369,10 @@ public class NotificationService {
 				throw new RuntimeException("Non autorisé à supprimer cette notification");
 			}
 
-			notificationRepository.deleteById(notificationId);
+			unreadCounters.markRead(userId, () -> {
+				notificationRepository.deleteById(notificationId);
+				return notification.isRead() ? 0 : 1;
+			});
 			System.out.println("✅ [SERVICE] Notification supprimée");
 		} catch (Exception e) {
 			System.err.println("❌ [SERVICE] Erreur suppression: " + e.getMessage());
@@ -300,22 +380,19 @@ public class NotificationService {
 		}
 	}
 
-	/**
-	 * Nettoyer les notifications expirées
-	 */
-	@Scheduled(cron = "0 0 2 * * ?") // Tous les jours à 2h du matin
-	public void cleanExpiredNotifications() {
-		System.out.println("🧹 [SERVICE] Nettoyage des notifications expirées");
+	private static Long parseEventId(String lastEventId) {
+		if (lastEventId == null || lastEventId.isBlank()) {
+			return null;
+		}
 		try {
-			notificationRepository.deleteExpiredNotifications();
-			System.out.println("✅ [SERVICE] Nettoyage terminé");
-		} catch (Exception e) {
-			System.err.println("❌ [SERVICE] Erreur nettoyage: " + e.getMessage());
+			return Long.parseLong(lastEventId.trim());
+		} catch (NumberFormatException e) {
+			return null;
 		}
 	}
 
 	// ✅ MÉTHODE POUR DÉBOGUAGE
-	public Map<String, SseEmitter> getUserEmitters() {
-		return userEmitters;
+	public int getActiveConnectionCount() {
+		return emitterRegistry.getConnectionCount();
 	}
 }
\ No newline at end of file
@@ -0,0 +1,136 @@
+package com.mobility.mobility_backend.service.notification;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.service.cache.CacheCodec;
+
+/**
+ * Bus Redis pub/sub. Le nœud émetteur livre d'abord à ses propres connexions
+ * (sans attendre Redis), puis publie l'enveloppe {@code (nœud d'origine,
+ * notification)} ; les autres nœuds livrent à leurs connexions et l'émetteur
+ * ignore son propre message. Redis indisponible : seuls les clients du nœud
+ * émetteur sont servis, la notification reste en base.
+ *
+ * Les identifiants d'événement viennent d'une séquence Redis partagée
+ * ({@code <canal>:event-id}), jamais de l'horloge d'un nœud : un décalage
+ * d'horloge entre réplicas ne peut pas produire un identifiant inférieur au
+ * {@code Last-Event-ID} d'un client. La séquence est relevée à l'horloge de
+ * l'appelant ({@code millis * 1000}) si elle est en retard : elle ne fait que
+ * monter et reste au-dessus des identifiants émis avant son introduction.
+ *
+ * Instancié par {@link com.mobility.mobility_backend.config.NotificationConfig}
+ * lorsque {@code notifications.bus.type=redis} (requiert
+ * {@code cache.redis.enabled=true} pour la connexion).
+ */
+public class RedisNotificationBus implements NotificationBus {
+
+	private static final Logger logger = LoggerFactory.getLogger(RedisNotificationBus.class);
+
+	// INCR atomique, relevé au plancher fourni s'il est plus grand
+	private static final byte[] NEXT_ID_SCRIPT = ("local id = redis.call('INCR', KEYS[1]) "
+			+ "local floor = tonumber(ARGV[1]) "
+			+ "if id < floor then redis.call('SET', KEYS[1], floor) id = floor end "
+			+ "return id").getBytes(StandardCharsets.UTF_8);
+
+	record Envelope(String origin, NotificationMessage notification) {
+	}
+
+	private final RedisTemplate<String, byte[]> redisTemplate;
+	private final RedisMessageListenerContainer listenerContainer;
+	private final CacheCodec codec;
+	private final ChannelTopic topic;
+	private final byte[] sequenceKey;
+	private final JavaType envelopeType;
+	private final String nodeId = UUID.randomUUID().toString();
+	private final List<Consumer<NotificationMessage>> subscribers = new CopyOnWriteArrayList<>();
+	// Plus grand identifiant émis ou reçu par ce nœud, plancher du repli sans Redis
+	private final AtomicLong lastEventId = new AtomicLong();
+
+	public RedisNotificationBus(RedisTemplate<String, byte[]> redisTemplate,
+			RedisMessageListenerContainer listenerContainer, CacheCodec codec, String channel) {
+		this.redisTemplate = redisTemplate;
+		this.listenerContainer = listenerContainer;
+		this.codec = codec;
+		this.topic = new ChannelTopic(channel);
+		this.sequenceKey = (channel + ":event-id").getBytes(StandardCharsets.UTF_8);
+		this.envelopeType = codec.typeOf(Envelope.class);
+		this.listenerContainer.addMessageListener((message, pattern) -> onMessage(message.getBody()), topic);
+		logger.info("📡 Bus de notifications Redis actif sur {} (node {})", channel, nodeId);
+	}
+
+	@Override
+	public long nextEventId() {
+		try {
+			byte[] floor = String.valueOf(System.currentTimeMillis() * 1000).getBytes(StandardCharsets.UTF_8);
+			Long id = redisTemplate.execute((RedisCallback<Long>) connection -> connection.scriptingCommands()
+					.eval(NEXT_ID_SCRIPT, ReturnType.INTEGER, 1, sequenceKey, floor));
+			if (id != null) {
+				observe(id);
+				return id;
+			}
+		} catch (Exception e) {
+			logger.warn("⚠️ Séquence REDIS des événements indisponible: {}", e.getMessage());
+		}
+		// Sans Redis, la notification ne quitte pas ce nœud : une séquence locale suffit
+		return LocalNotificationBus.nextLocalId(lastEventId);
+	}
+
+	@Override
+	public void publish(NotificationMessage notification) {
+		LocalNotificationBus.deliver(subscribers, notification);
+		try {
+			byte[] payload = codec.encode(new Envelope(nodeId, notification));
+			redisTemplate.execute((RedisCallback<Long>) connection -> connection
+					.publish(topic.getTopic().getBytes(StandardCharsets.UTF_8), payload));
+		} catch (Exception e) {
+			logger.warn("⚠️ Publication REDIS de la notification {} impossible: {}", notification.getId(),
+					e.getMessage());
+		}
+	}
+
+	@Override
+	public void subscribe(Consumer<NotificationMessage> localDelivery) {
+		subscribers.add(localDelivery);
+	}
+
+	void onMessage(byte[] payload) {
+		Envelope envelope;
+		try {
+			envelope = codec.decode(payload, envelopeType);
+		} catch (Exception e) {
+			logger.warn("⚠️ Notification REDIS illisible: {}", e.getMessage());
+			return;
+		}
+		if (envelope.notification() == null || nodeId.equals(envelope.origin())) {
+			return;
+		}
+		if (envelope.notification().getEventId() != null) {
+			observe(envelope.notification().getEventId());
+		}
+		logger.debug("🔄 Notification {} reçue du node {}", envelope.notification().getId(), envelope.origin());
+		LocalNotificationBus.deliver(subscribers, envelope.notification());
+	}
+
+	private void observe(long eventId) {
+		lastEventId.accumulateAndGet(eventId, Math::max);
+	}
+
+	String getNodeId() {
+		return nodeId;
+	}
+}
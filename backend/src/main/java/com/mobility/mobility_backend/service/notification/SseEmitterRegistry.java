@@ -0,0 +1,383 @@
+package com.mobility.mobility_backend.service.notification;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Connexions SSE indexées par destinataire ({@code userId -> connexions}).
+ * Chaque connexion a sa propre file d'envoi bornée, vidée par un pool dédié :
+ * l'appelant (webhook, réservation...) ne fait qu'empiler et n'attend jamais
+ * un client lent. Quand une file est pleine, on applique la politique
+ * {@code notifications.sse.overflow-policy} : {@code drop-oldest} (défaut) ou
+ * {@code disconnect}.
+ *
+ * L'écriture elle-même est bloquante : un envoi qui dépasse
+ * {@code notifications.sse.send-timeout-ms} est abandonné (connexion fermée,
+ * thread d'envoi interrompu) pour que quelques clients bloqués n'immobilisent
+ * pas tout le pool.
+ *
+ * Un commentaire SSE de maintien ({@code notifications.sse.heartbeat-interval-ms})
+ * est envoyé aux connexions inactives : les proxys ne coupent pas le flux et
+ * le timeout des émetteurs peut se compter en heures.
+ */
+@Component
+public class SseEmitterRegistry {
+
+	private static final Logger logger = LoggerFactory.getLogger(SseEmitterRegistry.class);
+
+	public enum OverflowPolicy {
+		DROP_OLDEST, DISCONNECT
+	}
+
+	private final Map<String, Set<Connection>> byRecipient = new ConcurrentHashMap<>();
+	private final AtomicInteger connectionCount = new AtomicInteger();
+	private final ExecutorService dispatcher;
+	private final int queueCapacity;
+	private final OverflowPolicy overflowPolicy;
+	private final long sendTimeoutNanos;
+
+	private final Timer sendLatency;
+	private final Counter droppedEvents;
+	private final Counter disconnectedSlowClients;
+	private final Counter timedOutSends;
+
+	public SseEmitterRegistry(MeterRegistry meterRegistry,
+			@Value("${notifications.sse.dispatcher-threads:4}") int dispatcherThreads,
+			@Value("${notifications.sse.queue-capacity:100}") int queueCapacity,
+			@Value("${notifications.sse.overflow-policy:drop-oldest}") String overflowPolicy,
+			@Value("${notifications.sse.send-timeout-ms:10000}") long sendTimeoutMs) {
+		this.queueCapacity = Math.max(1, queueCapacity);
+		this.overflowPolicy = OverflowPolicy.valueOf(overflowPolicy.trim().toUpperCase().replace('-', '_'));
+		this.sendTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, sendTimeoutMs));
+		AtomicInteger threadIndex = new AtomicInteger();
+		this.dispatcher = Executors.newFixedThreadPool(Math.max(1, dispatcherThreads), runnable -> {
+			Thread thread = new Thread(runnable, "sse-dispatcher-" + threadIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		this.sendLatency = Timer.builder("notifications.sse.send.latency").register(meterRegistry);
+		this.droppedEvents = Counter.builder("notifications.sse.dropped").tag("cause", "queue-full")
+				.register(meterRegistry);
+		this.disconnectedSlowClients = Counter.builder("notifications.sse.dropped").tag("cause", "slow-client")
+				.register(meterRegistry);
+		this.timedOutSends = Counter.builder("notifications.sse.dropped").tag("cause", "send-timeout")
+				.register(meterRegistry);
+		Gauge.builder("notifications.sse.connections", connectionCount, AtomicInteger::get).register(meterRegistry);
+		Gauge.builder("notifications.sse.queue.depth", this, SseEmitterRegistry::totalQueueDepth)
+				.register(meterRegistry);
+	}
+
+	/**
+	 * Enregistre une connexion ; elle est retirée automatiquement à la fin, au
+	 * timeout ou sur erreur d'envoi.
+	 */
+	public Connection register(String userId, SseEmitter emitter) {
+		Connection connection = new Connection(userId, emitter);
+		byRecipient.computeIfAbsent(userId, key -> ConcurrentHashMap.newKeySet()).add(connection);
+		connectionCount.incrementAndGet();
+
+		emitter.onCompletion(() -> remove(connection));
+		emitter.onTimeout(() -> remove(connection));
+		emitter.onError(error -> remove(connection));
+		return connection;
+	}
+
+	/**
+	 * Empile l'événement pour toutes les connexions du destinataire. Retourne le
+	 * nombre de connexions ciblées.
+	 */
+	public int sendTo(String userId, String eventName, Object data) {
+		return sendTo(userId, null, eventName, data);
+	}
+
+	/**
+	 * Variante avec identifiant d'événement ({@code id:} SSE, renvoyé par le
+	 * navigateur dans {@code Last-Event-ID} à la reconnexion).
+	 */
+	public int sendTo(String userId, String eventId, String eventName, Object data) {
+		Set<Connection> connections = byRecipient.get(userId);
+		if (connections == null) {
+			return 0;
+		}
+		int targeted = 0;
+		for (Connection connection : connections) {
+			connection.enqueue(eventId, eventName, data);
+			targeted++;
+		}
+		return targeted;
+	}
+
+	public int broadcast(String eventName, Object data) {
+		return broadcast(null, eventName, data);
+	}
+
+	public int broadcast(String eventId, String eventName, Object data) {
+		int targeted = 0;
+		for (Set<Connection> connections : byRecipient.values()) {
+			for (Connection connection : connections) {
+				connection.enqueue(eventId, eventName, data);
+				targeted++;
+			}
+		}
+		return targeted;
+	}
+
+	/**
+	 * Maintien de connexion : uniquement sur les files vides, une connexion
+	 * active n'en a pas besoin et le battement ne doit pas évincer un événement.
+	 */
+	@Scheduled(fixedDelayString = "${notifications.sse.heartbeat-interval-ms:25000}",
+			initialDelayString = "${notifications.sse.heartbeat-interval-ms:25000}")
+	public void sendHeartbeats() {
+		for (Set<Connection> connections : byRecipient.values()) {
+			for (Connection connection : connections) {
+				connection.enqueueHeartbeat();
+			}
+		}
+	}
+
+	/**
+	 * Ferme les connexions dont l'envoi en cours dépasse le délai et libère le
+	 * thread du pool qui y est bloqué.
+	 */
+	@Scheduled(fixedDelayString = "${notifications.sse.send-timeout-check-ms:1000}")
+	public void disconnectStalledSends() {
+		long now = System.nanoTime();
+		for (Set<Connection> connections : byRecipient.values()) {
+			for (Connection connection : connections) {
+				connection.abortIfStalled(now);
+			}
+		}
+	}
+
+	public int getConnectionCount() {
+		return connectionCount.get();
+	}
+
+	public int getRecipientCount() {
+		return byRecipient.size();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		dispatcher.shutdown();
+		try {
+			dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private double totalQueueDepth() {
+		int depth = 0;
+		for (Set<Connection> connections : byRecipient.values()) {
+			for (Connection connection : connections) {
+				depth += connection.queueDepth();
+			}
+		}
+		return depth;
+	}
+
+	private void remove(Connection connection) {
+		if (!connection.closed.compareAndSet(false, true)) {
+			return;
+		}
+		connectionCount.decrementAndGet();
+		byRecipient.computeIfPresent(connection.userId, (key, connections) -> {
+			connections.remove(connection);
+			return connections.isEmpty() ? null : connections;
+		});
+		logger.debug("🔌 Connexion SSE retirée: {} ({} actives)", connection.id, connectionCount.get());
+	}
+
+	private record PendingEvent(String id, String name, Object data) {
+
+		private static final PendingEvent HEARTBEAT = new PendingEvent(null, null, null);
+
+		private SseEmitter.SseEventBuilder toSse() {
+			if (this == HEARTBEAT) {
+				return SseEmitter.event().comment("keep-alive");
+			}
+			SseEmitter.SseEventBuilder builder = SseEmitter.event().name(name).data(data);
+			return id != null ? builder.id(id) : builder;
+		}
+	}
+
+	/**
+	 * Une connexion SSE et sa file d'envoi. Un seul drain actif à la fois par
+	 * connexion ({@code draining}) : l'ordre des événements est conservé et un
+	 * client lent n'occupe qu'un thread du pool.
+	 */
+	public final class Connection {
+
+		private final String id = UUID.randomUUID().toString();
+		private final String userId;
+		private final SseEmitter emitter;
+		private final ArrayDeque<PendingEvent> queue = new ArrayDeque<>();
+		private final AtomicBoolean draining = new AtomicBoolean(false);
+		private final AtomicBoolean closed = new AtomicBoolean(false);
+
+		// Envoi en cours (0 si aucun) et thread qui l'exécute ; gardés par sendLock
+		private final Object sendLock = new Object();
+		private long sendStartedAt;
+		private Thread sender;
+
+		private Connection(String userId, SseEmitter emitter) {
+			this.userId = userId;
+			this.emitter = emitter;
+		}
+
+		public String getId() {
+			return id;
+		}
+
+		public void enqueue(String eventName, Object data) {
+			enqueue(null, eventName, data);
+		}
+
+		public void enqueue(String eventId, String eventName, Object data) {
+			enqueue(new PendingEvent(eventId, eventName, data));
+		}
+
+		private void enqueueHeartbeat() {
+			synchronized (queue) {
+				if (!queue.isEmpty() || draining.get()) {
+					return;
+				}
+			}
+			enqueue(PendingEvent.HEARTBEAT);
+		}
+
+		private void enqueue(PendingEvent event) {
+			if (closed.get()) {
+				return;
+			}
+			synchronized (queue) {
+				if (queue.size() >= queueCapacity) {
+					if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+						disconnectedSlowClients.increment();
+						logger.warn("🐢 Client SSE trop lent, déconnexion: {}", userId);
+						queue.clear();
+						close();
+						return;
+					}
+					queue.pollFirst();
+					droppedEvents.increment();
+				}
+				queue.addLast(event);
+			}
+			scheduleDrain();
+		}
+
+		private int queueDepth() {
+			synchronized (queue) {
+				return queue.size();
+			}
+		}
+
+		private void scheduleDrain() {
+			if (draining.compareAndSet(false, true)) {
+				try {
+					dispatcher.execute(this::drain);
+				} catch (RejectedExecutionException e) {
+					draining.set(false);
+				}
+			}
+		}
+
+		private void drain() {
+			try {
+				PendingEvent event;
+				while (!closed.get() && (event = poll()) != null) {
+					long start = System.nanoTime();
+					synchronized (sendLock) {
+						sendStartedAt = start;
+						sender = Thread.currentThread();
+					}
+					try {
+						emitter.send(event.toSse());
+					} catch (IOException | IllegalStateException e) {
+						logger.debug("❌ Envoi SSE impossible à {}: {}", userId, e.getMessage());
+						emitter.completeWithError(e);
+						remove(this);
+						return;
+					} finally {
+						synchronized (sendLock) {
+							sendStartedAt = 0;
+							sender = null;
+							// Une interruption du délai d'envoi ne doit pas suivre le thread dans le pool
+							Thread.interrupted();
+						}
+						sendLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+					}
+				}
+			} finally {
+				draining.set(false);
+			}
+			// Un événement a pu arriver entre le dernier poll et la remise à false
+			if (!closed.get() && queueDepth() > 0) {
+				scheduleDrain();
+			}
+		}
+
+		private void abortIfStalled(long now) {
+			synchronized (sendLock) {
+				if (sender == null || now - sendStartedAt < sendTimeoutNanos) {
+					return;
+				}
+				sender.interrupt();
+			}
+			timedOutSends.increment();
+			logger.warn("🐢 Envoi SSE bloqué depuis plus de {} ms, déconnexion: {}",
+					TimeUnit.NANOSECONDS.toMillis(sendTimeoutNanos), userId);
+			synchronized (queue) {
+				queue.clear();
+			}
+			try {
+				emitter.completeWithError(new IOException("Délai d'envoi SSE dépassé"));
+			} catch (Exception e) {
+				// Déjà terminé
+			}
+			remove(this);
+		}
+
+		private PendingEvent poll() {
+			synchronized (queue) {
+				return queue.pollFirst();
+			}
+		}
+
+		private void close() {
+			try {
+				emitter.complete();
+			} catch (Exception e) {
+				// Déjà terminé
+			}
+			remove(this);
+		}
+	}
+}
@@ -0,0 +1,116 @@
+package com.mobility.mobility_backend.service.notification;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+
+/**
+ * Derniers événements SSE par destinataire, pour rejouer à partir de
+ * {@code Last-Event-ID} lors d'une reconnexion sans interroger la base.
+ *
+ * Les identifiants d'événement sont attribués une fois à la publication par
+ * {@link NotificationBus#nextEventId()}, croissants pour tout le cluster, et
+ * voyagent avec la notification. Chaque nœud enregistre toutes les
+ * notifications reçues du bus, y compris pour les destinataires connectés
+ * ailleurs, ce qui permet de reprendre sur un autre réplica.
+ *
+ * Bornes : {@code notifications.sse.replay.buffer-size} événements par
+ * destinataire et {@code notifications.sse.replay.max-recipients}
+ * destinataires (LRU).
+ */
+@Component
+public class SseReplayBuffer {
+
+	/**
+	 * Résultat d'un rejeu. {@code complete=false} : des événements postérieurs
+	 * à {@code Last-Event-ID} ont déjà été évincés, le client doit recharger
+	 * depuis l'API.
+	 */
+	public record Replay(List<NotificationMessage> events, boolean complete) {
+	}
+
+	private static final String BROADCAST = "all";
+
+	private final int bufferSize;
+	private final int maxRecipients;
+	private final Map<String, Ring> rings;
+	// Dernier id d'un destinataire évincé du LRU : en deçà, son absence ne prouve rien
+	private long evictedRecipientsUpTo = 0;
+
+	public SseReplayBuffer(@Value("${notifications.sse.replay.buffer-size:50}") int bufferSize,
+			@Value("${notifications.sse.replay.max-recipients:10000}") int maxRecipients) {
+		this.bufferSize = Math.max(1, bufferSize);
+		this.maxRecipients = Math.max(1, maxRecipients);
+		this.rings = new LinkedHashMap<>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, Ring> eldest) {
+				if (size() <= SseReplayBuffer.this.maxRecipients) {
+					return false;
+				}
+				evictedRecipientsUpTo = Math.max(evictedRecipientsUpTo, eldest.getValue().lastId());
+				return true;
+			}
+		};
+	}
+
+	public void record(NotificationMessage notification) {
+		if (notification.getEventId() == null || notification.getRecipient() == null) {
+			return;
+		}
+		synchronized (rings) {
+			rings.computeIfAbsent(notification.getRecipient(), key -> new Ring()).add(notification);
+		}
+	}
+
+	/**
+	 * Événements du destinataire (et diffusions "all") postérieurs à
+	 * {@code lastEventId}, dans l'ordre des identifiants.
+	 */
+	public Replay replaySince(String userId, long lastEventId) {
+		List<NotificationMessage> events = new ArrayList<>();
+		boolean complete = true;
+		synchronized (rings) {
+			for (String key : List.of(userId, BROADCAST)) {
+				Ring ring = rings.get(key);
+				if (ring == null) {
+					complete &= evictedRecipientsUpTo <= lastEventId;
+					continue;
+				}
+				complete &= ring.evictedUpTo <= lastEventId;
+				for (NotificationMessage event : ring.events) {
+					if (event.getEventId() > lastEventId) {
+						events.add(event);
+					}
+				}
+			}
+		}
+		events.sort(Comparator.comparing(NotificationMessage::getEventId));
+		return new Replay(events, complete);
+	}
+
+	private final class Ring {
+
+		private final ArrayDeque<NotificationMessage> events = new ArrayDeque<>();
+		private long evictedUpTo = 0;
+
+		private void add(NotificationMessage notification) {
+			if (events.size() >= bufferSize) {
+				evictedUpTo = Math.max(evictedUpTo, events.pollFirst().getEventId());
+			}
+			events.addLast(notification);
+		}
+
+		private long lastId() {
+			NotificationMessage last = events.peekLast();
+			return last != null ? last.getEventId() : evictedUpTo;
+		}
+	}
+}
@@ -0,0 +1,200 @@
+package com.mobility.mobility_backend.service.notification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntSupplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.repository.notification.NotificationRepository;
+import com.mobility.mobility_backend.service.cache.MemoryCacheService;
+
+/**
+ * Compteur de notifications non lues par utilisateur : le badge ne lit la base
+ * qu'au premier accès. Il additionne deux parts :
+ * <ul>
+ * <li>les non lues déjà en base, gardées dans le cache mémoire (borné) et
+ * tenues à jour à chaque commit de {@link NotificationPersistenceQueue} et à
+ * chaque lecture/suppression ;</li>
+ * <li>les non lues encore dans la file de persistance, comptées par
+ * destinataire jusqu'à leur écriture.</li>
+ * </ul>
+ * L'amorçage d'un utilisateur depuis la base exclut les écritures concurrentes
+ * sur sa tranche de verrous : une ligne n'est jamais comptée deux fois ni
+ * oubliée, et le COUNT ne bloque que les destinataires de la même tranche.
+ *
+ * Les modifications faites sur un autre réplica ne sont pas propagées : une
+ * entrée est relue en base après {@code notifications.unread.ttl-seconds}.
+ */
+@Service
+public class UnreadCounterService {
+
+	private static final String KEY_PREFIX = "notifications:unread:";
+	private static final int LOCK_STRIPES = 64;
+
+	private final NotificationRepository notificationRepository;
+	private final MemoryCacheService memoryCacheService;
+	private final long ttlSeconds;
+
+	// Non lues soumises à la file mais pas encore en base, par destinataire
+	private final Map<String, AtomicLong> pending = new ConcurrentHashMap<>();
+
+	// Par tranche de destinataires : partagé par les écritures (commits de lots, lectures,
+	// suppressions), exclusif pour l'amorçage
+	private final ReadWriteLock[] stripes = new ReadWriteLock[LOCK_STRIPES];
+
+	public UnreadCounterService(NotificationRepository notificationRepository,
+			MemoryCacheService memoryCacheService,
+			@Value("${notifications.unread.ttl-seconds:300}") long ttlSeconds) {
+		this.notificationRepository = notificationRepository;
+		this.memoryCacheService = memoryCacheService;
+		this.ttlSeconds = ttlSeconds;
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			stripes[i] = new ReentrantReadWriteLock();
+		}
+	}
+
+	public long get(String userId) {
+		long queued = pendingFor(userId);
+		AtomicLong persisted = cached(userId);
+		if (persisted == null) {
+			persisted = seed(userId);
+			queued = pendingFor(userId);
+		}
+		return persisted.get() + queued;
+	}
+
+	/**
+	 * Notification mise en file de persistance : comptée comme en attente
+	 * jusqu'à {@link #persist} ou {@link #dropped}.
+	 */
+	public void submitted(NotificationMessage notification) {
+		if (counts(notification)) {
+			pending.computeIfAbsent(notification.getRecipient(), key -> new AtomicLong()).incrementAndGet();
+		}
+	}
+
+	/**
+	 * Écrit un lot puis reporte ses non lues de la part "en attente" vers la part
+	 * "en base". Si l'écriture échoue, rien n'est reporté.
+	 */
+	public void persist(List<NotificationMessage> batch, Runnable write) {
+		// Tranches du lot verrouillées dans l'ordre croissant
+		boolean[] locked = new boolean[LOCK_STRIPES];
+		for (NotificationMessage notification : batch) {
+			if (counts(notification)) {
+				locked[stripeIndex(notification.getRecipient())] = true;
+			}
+		}
+		for (int i = 0; i < LOCK_STRIPES; i++) {
+			if (locked[i]) {
+				stripes[i].readLock().lock();
+			}
+		}
+		try {
+			write.run();
+			for (NotificationMessage notification : batch) {
+				if (counts(notification)) {
+					AtomicLong persisted = cached(notification.getRecipient());
+					if (persisted != null) {
+						persisted.incrementAndGet();
+					}
+					release(notification.getRecipient());
+				}
+			}
+		} finally {
+			for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+				if (locked[i]) {
+					stripes[i].readLock().unlock();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Notification définitivement non persistée : elle ne compte plus.
+	 */
+	public void dropped(NotificationMessage notification) {
+		if (counts(notification)) {
+			release(notification.getRecipient());
+		}
+	}
+
+	/**
+	 * Exécute une écriture (lecture, lecture globale, suppression) qui renvoie le
+	 * nombre de non lues qu'elle a retirées, et décompte celles-ci.
+	 */
+	public void markRead(String userId, IntSupplier write) {
+		ReadWriteLock stripe = stripeOf(userId);
+		stripe.readLock().lock();
+		try {
+			int removed = write.getAsInt();
+			AtomicLong persisted = cached(userId);
+			if (removed > 0 && persisted != null) {
+				persisted.updateAndGet(value -> Math.max(0, value - removed));
+			}
+		} finally {
+			stripe.readLock().unlock();
+		}
+	}
+
+	public void evictAll() {
+		for (ReadWriteLock stripe : stripes) {
+			stripe.writeLock().lock();
+		}
+		try {
+			memoryCacheService.deleteByPattern(KEY_PREFIX);
+		} finally {
+			for (int i = LOCK_STRIPES - 1; i >= 0; i--) {
+				stripes[i].writeLock().unlock();
+			}
+		}
+	}
+
+	private AtomicLong seed(String userId) {
+		ReadWriteLock stripe = stripeOf(userId);
+		stripe.writeLock().lock();
+		try {
+			AtomicLong persisted = cached(userId);
+			if (persisted == null) {
+				persisted = new AtomicLong(notificationRepository.countUnreadByUserId(userId));
+				memoryCacheService.set(KEY_PREFIX + userId, persisted, ttlSeconds, TimeUnit.SECONDS);
+			}
+			return persisted;
+		} finally {
+			stripe.writeLock().unlock();
+		}
+	}
+
+	private ReadWriteLock stripeOf(String userId) {
+		return stripes[stripeIndex(userId)];
+	}
+
+	private static int stripeIndex(String userId) {
+		return Math.floorMod(userId.hashCode(), LOCK_STRIPES);
+	}
+
+	private static boolean counts(NotificationMessage notification) {
+		return !notification.isRead() && notification.getRecipient() != null;
+	}
+
+	private long pendingFor(String userId) {
+		AtomicLong queued = pending.get(userId);
+		return queued != null ? queued.get() : 0;
+	}
+
+	private void release(String recipient) {
+		pending.computeIfPresent(recipient, (key, queued) -> queued.decrementAndGet() <= 0 ? null : queued);
+	}
+
+	private AtomicLong cached(String userId) {
+		return memoryCacheService.get(KEY_PREFIX + userId) instanceof AtomicLong counter ? counter : null;
+	}
+}
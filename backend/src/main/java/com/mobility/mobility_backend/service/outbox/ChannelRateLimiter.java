@@ -0,0 +1,34 @@
+package com.mobility.mobility_backend.service.outbox;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limiteur de débit par canal : espace les envois d'au moins
+ * {@code 1 / permitsPerSecond}. Une valeur {@code <= 0} désactive la limite.
+ */
+final class ChannelRateLimiter {
+
+	private final long intervalNanos;
+	private long nextFreeAt = System.nanoTime();
+
+	ChannelRateLimiter(double permitsPerSecond) {
+		this.intervalNanos = permitsPerSecond > 0 ? (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond) : 0;
+	}
+
+	void acquire() throws InterruptedException {
+		long wait = reserve();
+		if (wait > 0) {
+			TimeUnit.NANOSECONDS.sleep(wait);
+		}
+	}
+
+	private synchronized long reserve() {
+		if (intervalNanos == 0) {
+			return 0;
+		}
+		long now = System.nanoTime();
+		long slot = Math.max(now, nextFreeAt);
+		nextFreeAt = slot + intervalNanos;
+		return slot - now;
+	}
+}
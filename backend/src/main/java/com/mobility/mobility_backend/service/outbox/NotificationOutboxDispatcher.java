@@ -0,0 +1,237 @@
+package com.mobility.mobility_backend.service.outbox;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mobility.mobility_backend.entity.NotificationOutbox;
+import com.mobility.mobility_backend.entity.NotificationOutbox.Channel;
+import com.mobility.mobility_backend.entity.NotificationOutbox.Status;
+import com.mobility.mobility_backend.repository.NotificationOutboxRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Vide l'outbox des emails/SMS. Chaque passage réserve un lot de lignes dues
+ * (SKIP LOCKED + bail {@code SENDING}, donc sans doublon entre réplicas), les
+ * envoie sur un pool dédié par canal (emails d'un lot sur une seule session
+ * SMTP, débit plafonné par canal), puis enregistre le résultat :
+ * {@code SENT}, nouvelle tentative avec backoff exponentiel, ou {@code FAILED}
+ * après {@code notifications.outbox.max-attempts}.
+ */
+@Component
+public class NotificationOutboxDispatcher {
+
+	private static final Logger logger = LoggerFactory.getLogger(NotificationOutboxDispatcher.class);
+
+	private final NotificationOutboxRepository outboxRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final JavaMailSender mailSender;
+	private final SmsGateway smsGateway;
+	private final MeterRegistry meterRegistry;
+	private final String mailFrom;
+	private final int batchSize;
+	private final long leaseSeconds;
+	private final int maxAttempts;
+	private final long backoffBaseSeconds;
+	private final long backoffMaxSeconds;
+	private final Map<Channel, ChannelRateLimiter> rateLimiters;
+	private final ExecutorService workers;
+	private volatile boolean running = true;
+
+	public NotificationOutboxDispatcher(NotificationOutboxRepository outboxRepository,
+			PlatformTransactionManager transactionManager, JavaMailSender mailSender, SmsGateway smsGateway,
+			MeterRegistry meterRegistry,
+			@Value("${notifications.mail.from:no-reply@locationup.test}") String mailFrom,
+			@Value("${notifications.outbox.batch-size:50}") int batchSize,
+			@Value("${notifications.outbox.worker-threads:2}") int workerThreads,
+			@Value("${notifications.outbox.lease-seconds:120}") long leaseSeconds,
+			@Value("${notifications.outbox.max-attempts:6}") int maxAttempts,
+			@Value("${notifications.outbox.backoff-base-seconds:30}") long backoffBaseSeconds,
+			@Value("${notifications.outbox.backoff-max-seconds:3600}") long backoffMaxSeconds,
+			@Value("${notifications.outbox.email-rate-per-second:10}") double emailRatePerSecond,
+			@Value("${notifications.outbox.sms-rate-per-second:1}") double smsRatePerSecond) {
+		this.outboxRepository = outboxRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.mailSender = mailSender;
+		this.smsGateway = smsGateway;
+		this.meterRegistry = meterRegistry;
+		this.mailFrom = mailFrom;
+		this.batchSize = Math.max(1, batchSize);
+		this.leaseSeconds = Math.max(1, leaseSeconds);
+		this.maxAttempts = Math.max(1, maxAttempts);
+		this.backoffBaseSeconds = Math.max(1, backoffBaseSeconds);
+		this.backoffMaxSeconds = Math.max(this.backoffBaseSeconds, backoffMaxSeconds);
+		this.rateLimiters = Map.of(Channel.EMAIL, new ChannelRateLimiter(emailRatePerSecond), Channel.SMS,
+				new ChannelRateLimiter(smsRatePerSecond));
+		AtomicInteger threadIndex = new AtomicInteger();
+		this.workers = Executors.newFixedThreadPool(Math.max(1, workerThreads), runnable -> {
+			Thread thread = new Thread(runnable, "outbox-worker-" + threadIndex.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+
+		Gauge.builder("notifications.outbox.pending", outboxRepository, repository -> repository.countByStatus(Status.PENDING))
+				.register(meterRegistry);
+	}
+
+	@Scheduled(fixedDelayString = "${notifications.outbox.poll-interval-ms:2000}")
+	public void poll() {
+		List<NotificationOutbox> batch;
+		do {
+			batch = claim();
+			if (!batch.isEmpty()) {
+				dispatch(batch);
+			}
+		} while (running && batch.size() == batchSize);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		// Les lignes en cours d'envoi seront reprises à l'expiration de leur bail
+		running = false;
+		workers.shutdown();
+		try {
+			workers.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	List<NotificationOutbox> claim() {
+		List<NotificationOutbox> claimed = transactionTemplate.execute(status -> {
+			LocalDateTime now = LocalDateTime.now();
+			List<NotificationOutbox> due = outboxRepository.findDueForUpdate(now, Status.PENDING, Status.SENDING,
+					PageRequest.of(0, batchSize));
+			for (NotificationOutbox message : due) {
+				message.setStatus(Status.SENDING);
+				message.setLeaseUntil(now.plusSeconds(leaseSeconds));
+			}
+			return due;
+		});
+		return claimed != null ? claimed : List.of();
+	}
+
+	void dispatch(List<NotificationOutbox> batch) {
+		Map<Channel, List<NotificationOutbox>> byChannel = batch.stream()
+				.collect(Collectors.groupingBy(NotificationOutbox::getChannel));
+		List<Callable<Void>> tasks = new ArrayList<>();
+		byChannel.forEach((channel, messages) -> tasks.add(() -> {
+			if (channel == Channel.EMAIL) {
+				sendEmails(messages);
+			} else {
+				sendSms(messages);
+			}
+			return null;
+		}));
+		try {
+			workers.invokeAll(tasks);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return;
+		}
+		transactionTemplate.executeWithoutResult(status -> outboxRepository.saveAll(batch));
+	}
+
+	private void sendEmails(List<NotificationOutbox> messages) throws InterruptedException {
+		Map<SimpleMailMessage, NotificationOutbox> byMail = new IdentityHashMap<>();
+		for (NotificationOutbox message : messages) {
+			rateLimiters.get(Channel.EMAIL).acquire();
+			SimpleMailMessage mail = new SimpleMailMessage();
+			mail.setFrom(mailFrom);
+			mail.setTo(message.getRecipient());
+			mail.setSubject(message.getSubject());
+			mail.setText(message.getBody());
+			byMail.put(mail, message);
+		}
+		try {
+			// Une seule session SMTP pour tout le lot
+			mailSender.send(byMail.keySet().toArray(new SimpleMailMessage[0]));
+			byMail.values().forEach(this::markSent);
+		} catch (MailSendException e) {
+			Map<Object, Exception> failures = e.getFailedMessages();
+			byMail.forEach((mail, message) -> {
+				Exception failure = failures.get(mail);
+				if (failure != null) {
+					markFailed(message, failure);
+				} else if (failures.isEmpty()) {
+					// Échec global (connexion) : rien n'est parti
+					markFailed(message, e);
+				} else {
+					markSent(message);
+				}
+			});
+		} catch (Exception e) {
+			byMail.values().forEach(message -> markFailed(message, e));
+		}
+	}
+
+	private void sendSms(List<NotificationOutbox> messages) throws InterruptedException {
+		for (NotificationOutbox message : messages) {
+			rateLimiters.get(Channel.SMS).acquire();
+			try {
+				smsGateway.send(message.getRecipient(), message.getBody());
+				markSent(message);
+			} catch (Exception e) {
+				markFailed(message, e);
+			}
+		}
+	}
+
+	private void markSent(NotificationOutbox message) {
+		message.setAttempts(message.getAttempts() + 1);
+		message.setStatus(Status.SENT);
+		message.setSentAt(LocalDateTime.now());
+		message.setLeaseUntil(null);
+		message.setLastError(null);
+		count(message.getChannel(), "sent");
+	}
+
+	private void markFailed(NotificationOutbox message, Exception error) {
+		int attempts = message.getAttempts() + 1;
+		message.setAttempts(attempts);
+		message.setLeaseUntil(null);
+		String reason = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+		message.setLastError(reason.length() > 1000 ? reason.substring(0, 1000) : reason);
+		if (attempts >= maxAttempts) {
+			message.setStatus(Status.FAILED);
+			count(message.getChannel(), "failed");
+			logger.error("❌ Outbox {} #{} abandonné après {} tentatives: {}", message.getChannel(), message.getId(),
+					attempts, reason);
+			return;
+		}
+		long delay = Math.min(backoffMaxSeconds, backoffBaseSeconds << Math.min(attempts - 1, 20));
+		message.setStatus(Status.PENDING);
+		message.setNextAttemptAt(LocalDateTime.now().plusSeconds(delay));
+		count(message.getChannel(), "retry");
+		logger.warn("⚠️ Outbox {} #{} en échec (tentative {}), nouvel essai dans {}s: {}", message.getChannel(),
+				message.getId(), attempts, delay, reason);
+	}
+
+	private void count(Channel channel, String result) {
+		meterRegistry.counter("notifications.outbox.dispatched", "channel", channel.name(), "result", result)
+				.increment();
+	}
+}
@@ -0,0 +1,32 @@
+package com.mobility.mobility_backend.service.outbox;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.mobility.mobility_backend.entity.NotificationOutbox;
+import com.mobility.mobility_backend.repository.NotificationOutboxRepository;
+
+/**
+ * Mise en outbox des emails/SMS. L'écriture rejoint la transaction de
+ * l'appelant : le message n'existe que si le changement métier est commité,
+ * et l'appelant n'attend jamais le serveur SMTP ou la passerelle SMS.
+ */
+@Service
+public class NotificationOutboxService {
+
+	private final NotificationOutboxRepository outboxRepository;
+
+	public NotificationOutboxService(NotificationOutboxRepository outboxRepository) {
+		this.outboxRepository = outboxRepository;
+	}
+
+	@Transactional
+	public NotificationOutbox enqueueEmail(String to, String subject, String body) {
+		return outboxRepository.save(new NotificationOutbox(NotificationOutbox.Channel.EMAIL, to, subject, body));
+	}
+
+	@Transactional
+	public NotificationOutbox enqueueSms(String to, String body) {
+		return outboxRepository.save(new NotificationOutbox(NotificationOutbox.Channel.SMS, to, null, body));
+	}
+}
@@ -0,0 +1,12 @@
+package com.mobility.mobility_backend.service.outbox;
+
+/**
+ * Passerelle d'envoi SMS utilisée par {@link NotificationOutboxDispatcher}.
+ * Une exception signale un échec à retenter.
+ */
+public interface SmsGateway {
+
+	boolean isEnabled();
+
+	void send(String to, String body);
+}
@@ -0,0 +1,35 @@
+package com.mobility.mobility_backend.service.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.twilio.Twilio;
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.type.PhoneNumber;
+
+@Component
+public class TwilioSmsGateway implements SmsGateway {
+
+	private final boolean enabled;
+	private final String from;
+
+	public TwilioSmsGateway(@Value("${notifications.sms.enabled:false}") boolean smsEnabled,
+			@Value("${twilio.account-sid:}") String twilioSid, @Value("${twilio.auth-token:}") String twilioToken,
+			@Value("${twilio.from-number:}") String from) {
+		this.enabled = smsEnabled && !twilioSid.isBlank() && !twilioToken.isBlank() && !from.isBlank();
+		this.from = from;
+		if (this.enabled) {
+			Twilio.init(twilioSid, twilioToken);
+		}
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	@Override
+	public void send(String to, String body) {
+		Message.creator(new PhoneNumber(to), new PhoneNumber(from), body).create();
+	}
+}
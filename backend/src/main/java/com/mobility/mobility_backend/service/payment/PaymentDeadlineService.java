@@ -0,0 +1,195 @@
+package com.mobility.mobility_backend.service.payment;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.mobility.mobility_backend.dto.payment.PaymentDeadlineProjection;
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.repository.ReservationRepository;
+import com.mobility.mobility_backend.service.PaymentReminderScheduler;
+import com.mobility.mobility_backend.service.scheduling.TimingWheel;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Échéances de paiement tenues en mémoire dans une {@link TimingWheel} : un
+ * minuteur par réservation et par type (rappel, délai REQUIRES_ACTION,
+ * expiration PENDING). La roue est reconstruite depuis la base au démarrage
+ * puis tenue à jour à chaque écriture d'une réservation
+ * ({@link ReservationDeadlineListener}), en O(1) par transition.
+ *
+ * À l'échéance, les réservations dues sont traitées par lot via
+ * {@link PaymentReminderScheduler}, dont les UPDATE conditionnels revérifient
+ * l'état en base : un minuteur périmé, ou la même échéance vue par plusieurs
+ * réplicas, ne produit rien. Les cron du planificateur restent comme balayage
+ * de rattrapage.
+ */
+@Service
+public class PaymentDeadlineService {
+
+	private static final Logger logger = LoggerFactory.getLogger(PaymentDeadlineService.class);
+
+	public enum DeadlineType {
+		REMINDER, ACTION_TIMEOUT, PENDING_EXPIRY
+	}
+
+	public record DeadlineKey(Integer reservationId, DeadlineType type) {
+	}
+
+	private final ReservationRepository reservationRepository;
+	private final PaymentReminderScheduler paymentScheduler;
+	private final TimingWheel<DeadlineKey> wheel;
+	private final long tickMs;
+	private final ScheduledExecutorService ticker;
+	private final ExecutorService worker;
+	private volatile boolean ready = false;
+
+	public PaymentDeadlineService(ReservationRepository reservationRepository,
+			PaymentReminderScheduler paymentScheduler, MeterRegistry meterRegistry,
+			@Value("${payments.deadlines.tick-ms:1000}") long tickMs,
+			@Value("${payments.deadlines.wheel-size:64}") int wheelSize,
+			@Value("${payments.deadlines.levels:4}") int levels) {
+		this.reservationRepository = reservationRepository;
+		this.paymentScheduler = paymentScheduler;
+		this.tickMs = Math.max(1, tickMs);
+		this.wheel = new TimingWheel<>(this.tickMs, wheelSize, levels, System.currentTimeMillis());
+		this.ticker = Executors.newSingleThreadScheduledExecutor(runnable -> daemon(runnable, "payment-deadline-wheel"));
+		// Le travail en base ne doit pas retarder les ticks suivants
+		this.worker = Executors.newSingleThreadExecutor(runnable -> daemon(runnable, "payment-deadline-worker"));
+
+		Gauge.builder("payments.deadlines.timers", wheel, TimingWheel::size).register(meterRegistry);
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		rebuild();
+		ticker.scheduleAtFixedRate(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+	}
+
+	public void rebuild() {
+		List<PaymentDeadlineProjection> rows = reservationRepository.findPaymentDeadlines(
+				List.of(Reservation.PaymentStatus.PENDING, Reservation.PaymentStatus.REQUIRES_ACTION));
+		for (PaymentDeadlineProjection row : rows) {
+			track(row.getReservationId(), row.getPaymentStatus(), row.getUpdatedAt(), row.getReservationDate(),
+					row.getPaymentReminderSentAt());
+		}
+		ready = true;
+		logger.info("⏱️ Échéances de paiement armées - {} minuteurs pour {} réservations", wheel.size(), rows.size());
+	}
+
+	/**
+	 * Réarme les échéances d'une réservation d'après son état courant (et les
+	 * annule si elle n'attend plus de paiement).
+	 */
+	public void track(Reservation reservation) {
+		if (!ready || reservation.getReservationId() == null) {
+			return;
+		}
+		track(reservation.getReservationId(), reservation.getPaymentStatus(), reservation.getUpdatedAt(),
+				reservation.getReservationDate(), reservation.getPaymentReminderSentAt());
+	}
+
+	public void forget(Integer reservationId) {
+		for (DeadlineType type : DeadlineType.values()) {
+			wheel.cancel(new DeadlineKey(reservationId, type));
+		}
+	}
+
+	public int getTimerCount() {
+		return wheel.size();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		ticker.shutdownNow();
+		worker.shutdown();
+	}
+
+	private void track(Integer reservationId, Reservation.PaymentStatus paymentStatus, LocalDateTime updatedAt,
+			LocalDateTime reservationDate, LocalDateTime reminderSentAt) {
+		// Un statut absent compte comme PENDING, comme pour les agrégats financiers
+		Reservation.PaymentStatus status = paymentStatus != null ? paymentStatus : Reservation.PaymentStatus.PENDING;
+		LocalDateTime since = updatedAt != null ? updatedAt : LocalDateTime.now();
+
+		if (status == Reservation.PaymentStatus.PENDING && reminderSentAt == null && reservationDate != null
+				&& reservationDate.isAfter(LocalDateTime.now())) {
+			arm(reservationId, DeadlineType.REMINDER,
+					reservationDate.minusHours(paymentScheduler.getReminderLeadHours()));
+		} else {
+			wheel.cancel(new DeadlineKey(reservationId, DeadlineType.REMINDER));
+		}
+
+		if (status == Reservation.PaymentStatus.REQUIRES_ACTION && paymentScheduler.getPaymentActionTimeoutMinutes() > 0) {
+			arm(reservationId, DeadlineType.ACTION_TIMEOUT,
+					since.plusMinutes(paymentScheduler.getPaymentActionTimeoutMinutes()));
+		} else {
+			wheel.cancel(new DeadlineKey(reservationId, DeadlineType.ACTION_TIMEOUT));
+		}
+
+		if (status == Reservation.PaymentStatus.PENDING && paymentScheduler.getPaymentExpiryHours() > 0) {
+			arm(reservationId, DeadlineType.PENDING_EXPIRY, since.plusHours(paymentScheduler.getPaymentExpiryHours()));
+		} else {
+			wheel.cancel(new DeadlineKey(reservationId, DeadlineType.PENDING_EXPIRY));
+		}
+	}
+
+	private void arm(Integer reservationId, DeadlineType type, LocalDateTime at) {
+		// Un tick de marge : les UPDATE comparent updated_at strictement au seuil
+		long deadlineMs = at.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() + tickMs;
+		wheel.schedule(new DeadlineKey(reservationId, type), deadlineMs);
+	}
+
+	private void tick() {
+		try {
+			List<DeadlineKey> due = wheel.advance(System.currentTimeMillis());
+			if (!due.isEmpty()) {
+				worker.execute(() -> fire(due));
+			}
+		} catch (Exception e) {
+			logger.error("❌ Erreur de la roue des échéances de paiement: {}", e.getMessage());
+		}
+	}
+
+	void fire(List<DeadlineKey> due) {
+		Map<DeadlineType, List<Integer>> byType = new EnumMap<>(DeadlineType.class);
+		for (DeadlineKey key : due) {
+			byType.computeIfAbsent(key.type(), type -> new ArrayList<>()).add(key.reservationId());
+		}
+		byType.forEach((type, ids) -> {
+			try {
+				int handled = switch (type) {
+				case REMINDER -> paymentScheduler.remind(ids);
+				case ACTION_TIMEOUT -> paymentScheduler.expireStale(ids);
+				case PENDING_EXPIRY -> paymentScheduler.expirePending(ids);
+				};
+				logger.debug("⏱️ Échéances {} : {} / {} réservations traitées", type, handled, ids.size());
+			} catch (Exception e) {
+				// Le balayage cron rattrapera ces réservations
+				logger.error("❌ Échéances {} non traitées ({} réservations): {}", type, ids.size(), e.getMessage());
+			}
+		});
+	}
+
+	private static Thread daemon(Runnable runnable, String name) {
+		Thread thread = new Thread(runnable, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+}
@@ -0,0 +1,49 @@
+package com.mobility.mobility_backend.service.payment;
+
+import java.util.function.Consumer;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.entity.ReservationChangeListener;
+import com.mobility.mobility_backend.util.AfterCommit;
+
+/**
+ * Suit les {@link Reservation} : réarme les échéances de paiement de la
+ * réservation dans {@link PaymentDeadlineService} une fois la transaction
+ * validée, quel que soit le chemin d'écriture (réservation, paiement, webhook
+ * Stripe, administration).
+ */
+@Component
+public class ReservationDeadlineListener implements ReservationChangeListener {
+
+	private final ObjectProvider<PaymentDeadlineService> deadlineService;
+
+	public ReservationDeadlineListener(ObjectProvider<PaymentDeadlineService> deadlineService) {
+		this.deadlineService = deadlineService;
+	}
+
+	@Override
+	public void onPersist(Reservation reservation) {
+		afterCommit(service -> service.track(reservation));
+	}
+
+	@Override
+	public void onUpdate(Reservation reservation) {
+		afterCommit(service -> service.track(reservation));
+	}
+
+	@Override
+	public void onRemove(Reservation reservation) {
+		Integer reservationId = reservation.getReservationId();
+		afterCommit(service -> service.forget(reservationId));
+	}
+
+	private void afterCommit(Consumer<PaymentDeadlineService> action) {
+		PaymentDeadlineService service = deadlineService.getIfAvailable();
+		if (service != null) {
+			AfterCommit.run(() -> action.accept(service));
+		}
+	}
+}
@@ -0,0 +1,64 @@
+package com.mobility.mobility_backend.service.payment;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exécuteur « à bandes » : les tâches d'une même clé passent toujours par le
+ * même thread, dans leur ordre de soumission ; des clés différentes sont
+ * traitées en parallèle. Chaque bande a une file bornée : une tâche refusée
+ * doit pouvoir être resoumise plus tard par l'appelant.
+ */
+public class StripedExecutor {
+
+	private final ThreadPoolExecutor[] stripes;
+
+	public StripedExecutor(String threadNamePrefix, int stripeCount, int queueCapacityPerStripe) {
+		this.stripes = new ThreadPoolExecutor[Math.max(1, stripeCount)];
+		for (int i = 0; i < stripes.length; i++) {
+			String threadName = threadNamePrefix + "-" + (i + 1);
+			stripes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+					new LinkedBlockingQueue<>(Math.max(1, queueCapacityPerStripe)), runnable -> {
+						Thread thread = new Thread(runnable, threadName);
+						thread.setDaemon(true);
+						return thread;
+					});
+		}
+	}
+
+	/**
+	 * @return {@code false} si la file de la bande est pleine (ou l'exécuteur arrêté)
+	 */
+	public boolean execute(Object key, Runnable task) {
+		try {
+			stripes[Math.floorMod(key != null ? key.hashCode() : 0, stripes.length)].execute(task);
+			return true;
+		} catch (RejectedExecutionException e) {
+			return false;
+		}
+	}
+
+	public int queueDepth() {
+		int depth = 0;
+		for (ThreadPoolExecutor stripe : stripes) {
+			depth += stripe.getQueue().size() + stripe.getActiveCount();
+		}
+		return depth;
+	}
+
+	public void shutdown(long timeout, TimeUnit unit) {
+		for (ThreadPoolExecutor stripe : stripes) {
+			stripe.shutdown();
+		}
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		try {
+			for (ThreadPoolExecutor stripe : stripes) {
+				stripe.awaitTermination(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package com.mobility.mobility_backend.service.receipt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.format.DateTimeFormatter;
+import java.util.HexFormat;
+import java.util.List;
+
+import com.mobility.mobility_backend.entity.Reservation;
+
+/**
+ * Valeurs affichées sur un reçu, déjà formatées. Détachées de l'entité, elles
+ * peuvent être rendues hors transaction (lots en parallèle) ; leur empreinte
+ * sert de version au fichier stocké et d'ETag.
+ */
+public record ReceiptContent(Integer reservationId, String username, String clientName, String email,
+		String reservationDate, String status, String paymentStatus, String paymentReference, String amount,
+		String offerDescription, String serviceName) {
+
+	private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd MMM yyyy HH:mm");
+
+	public static ReceiptContent from(Reservation reservation) {
+		String username = reservation.getUser() != null ? reservation.getUser().getUsername() : "N/A";
+		String email = reservation.getUser() != null ? reservation.getUser().getEmail() : "N/A";
+		String amount = reservation.getPaymentAmount() != null ? reservation.getPaymentAmount().toPlainString()
+				: (reservation.getOffer() != null && reservation.getOffer().getPrice() != null
+						? reservation.getOffer().getPrice().toPlainString()
+						: "0");
+		return new ReceiptContent(reservation.getReservationId(), username, resolveClientName(reservation), email,
+				reservation.getReservationDate() != null ? DATE_FORMAT.format(reservation.getReservationDate()) : "N/A",
+				formatReservationStatus(reservation.getStatus()), formatPaymentStatus(reservation.getPaymentStatus()),
+				reservation.getPaymentReference() != null ? reservation.getPaymentReference() : "Non disponible",
+				amount + " €",
+				reservation.getOffer() != null ? reservation.getOffer().getDescription() : "Non disponible",
+				reservation.getOffer() != null && reservation.getOffer().getMobilityService() != null
+						? reservation.getOffer().getMobilityService().getName()
+						: "Non disponible");
+	}
+
+	/**
+	 * Empreinte SHA-256 des valeurs affichées et de la version du gabarit : un
+	 * changement de statut de paiement (ou de tout champ imprimé) donne une
+	 * nouvelle version.
+	 */
+	public String fingerprint() {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256");
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException("SHA-256 indisponible", ex);
+		}
+		List<String> values = List.of(String.valueOf(ReceiptTemplate.VERSION), String.valueOf(reservationId),
+				String.valueOf(username), clientName, String.valueOf(email), reservationDate, status, paymentStatus,
+				paymentReference, amount, String.valueOf(offerDescription), serviceName);
+		for (String value : values) {
+			digest.update(value.getBytes(StandardCharsets.UTF_8));
+			digest.update((byte) 0);
+		}
+		return HexFormat.of().formatHex(digest.digest(), 0, 16);
+	}
+
+	private static String resolveClientName(Reservation reservation) {
+		if (reservation.getUser() == null) {
+			return "N/A";
+		}
+		String first = reservation.getUser().getFirstName();
+		String last = reservation.getUser().getLastName();
+		StringBuilder fullName = new StringBuilder();
+		if (first != null && !first.isBlank()) {
+			fullName.append(first.trim());
+		}
+		if (last != null && !last.isBlank()) {
+			if (fullName.length() > 0) {
+				fullName.append(" ");
+			}
+			fullName.append(last.trim());
+		}
+		return fullName.length() == 0 ? "N/A" : fullName.toString();
+	}
+
+	private static String formatReservationStatus(Reservation.ReservationStatus status) {
+		if (status == null) {
+			return "N/A";
+		}
+		return switch (status) {
+		case PENDING -> "En attente";
+		case CONFIRMED -> "Confirmée";
+		case CANCELLED -> "Annulée";
+		case COMPLETED -> "Terminée";
+		};
+	}
+
+	private static String formatPaymentStatus(Reservation.PaymentStatus status) {
+		if (status == null) {
+			return "N/A";
+		}
+		return switch (status) {
+		case PENDING -> "En attente";
+		case REQUIRES_ACTION -> "Action requise";
+		case PAID -> "Payé";
+		case FAILED -> "Echoué";
+		case REFUNDED -> "Remboursé";
+		case EXPIRED -> "Expiré";
+		};
+	}
+}
@@ -0,0 +1,105 @@
+package com.mobility.mobility_backend.service.receipt;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reçus rendus, stockés sur disque sous {@code <racine>/<réservation>/<version>.pdf}
+ * où la version est l'empreinte du contenu ({@link ReceiptContent#fingerprint()}).
+ * L'écriture passe par un fichier temporaire renommé atomiquement : un lecteur
+ * ne voit jamais un PDF partiel, et une seule version est conservée par
+ * réservation.
+ */
+@Component
+public class ReceiptStore {
+
+	private static final Logger logger = LoggerFactory.getLogger(ReceiptStore.class);
+
+	private static final String EXTENSION = ".pdf";
+
+	private final Path root;
+
+	public ReceiptStore(@Value("${receipts.store-dir:receipts}") String storeDir) {
+		this.root = Paths.get(storeDir).toAbsolutePath().normalize();
+		try {
+			Files.createDirectories(root);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Impossible de préparer le dossier des reçus: " + e.getMessage(), e);
+		}
+	}
+
+	public Optional<Path> find(Integer reservationId, String version) {
+		Path file = directory(reservationId).resolve(version + EXTENSION);
+		return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+	}
+
+	public Path write(Integer reservationId, String version, ReceiptWriter writer) throws IOException {
+		Path directory = directory(reservationId);
+		Files.createDirectories(directory);
+		Path target = directory.resolve(version + EXTENSION);
+		Path temp = Files.createTempFile(directory, version, ".tmp");
+		try {
+			try (OutputStream output = new BufferedOutputStream(Files.newOutputStream(temp))) {
+				writer.write(output);
+			}
+			try {
+				Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temp);
+		}
+		deleteVersions(reservationId, target);
+		return target;
+	}
+
+	/**
+	 * Supprime les reçus stockés de la réservation (statut de paiement modifié,
+	 * réservation supprimée) : le prochain téléchargement les rend à nouveau.
+	 */
+	public void evict(Integer reservationId) {
+		if (reservationId != null) {
+			deleteVersions(reservationId, null);
+		}
+	}
+
+	private void deleteVersions(Integer reservationId, Path keep) {
+		Path directory = directory(reservationId);
+		if (!Files.isDirectory(directory)) {
+			return;
+		}
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + EXTENSION)) {
+			for (Path file : files) {
+				if (!file.equals(keep)) {
+					Files.deleteIfExists(file);
+				}
+			}
+		} catch (IOException e) {
+			logger.warn("⚠️ Nettoyage des reçus de la réservation {} impossible: {}", reservationId, e.getMessage());
+		}
+	}
+
+	private Path directory(Integer reservationId) {
+		return root.resolve(String.valueOf(reservationId));
+	}
+
+	@FunctionalInterface
+	public interface ReceiptWriter {
+		void write(OutputStream output) throws IOException;
+	}
+}
@@ -0,0 +1,87 @@
+package com.mobility.mobility_backend.service.receipt;
+
+import java.io.OutputStream;
+
+import org.springframework.stereotype.Component;
+
+import com.lowagie.text.Document;
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.Font;
+import com.lowagie.text.PageSize;
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.Phrase;
+import com.lowagie.text.pdf.BaseFont;
+import com.lowagie.text.pdf.PdfPCell;
+import com.lowagie.text.pdf.PdfPTable;
+import com.lowagie.text.pdf.PdfWriter;
+
+/**
+ * Gabarit PDF du reçu. Les polices sont résolues une fois au démarrage puis
+ * partagées par tous les rendus (y compris les lots en parallèle).
+ */
+@Component
+public class ReceiptTemplate {
+
+	// À incrémenter à chaque changement de mise en page : invalide les reçus stockés
+	public static final int VERSION = 1;
+
+	private final Font titleFont;
+	private final Font sectionFont;
+	private final Font textFont;
+	private final Font cellFont;
+
+	public ReceiptTemplate() {
+		BaseFont regular = loadFont(BaseFont.HELVETICA);
+		BaseFont bold = loadFont(BaseFont.HELVETICA_BOLD);
+		this.titleFont = new Font(bold, 18);
+		this.sectionFont = new Font(bold, 12);
+		this.textFont = new Font(regular, 11);
+		this.cellFont = new Font(regular, 12);
+	}
+
+	public void render(ReceiptContent content, OutputStream output) throws DocumentException {
+		Document document = new Document(PageSize.A4);
+		PdfWriter.getInstance(document, output);
+		document.open();
+
+		document.add(new Paragraph("Reçu de réservation", titleFont));
+		document.add(new Paragraph("Réservation #" + content.reservationId(), textFont));
+		document.add(new Paragraph(" "));
+
+		document.add(new Paragraph("Informations client", sectionFont));
+		document.add(table("Client", content.username(), "Nom complet", content.clientName(), "Email",
+				content.email()));
+		document.add(new Paragraph(" "));
+
+		document.add(new Paragraph("Informations réservation", sectionFont));
+		document.add(table("Date de réservation", content.reservationDate(), "Statut", content.status(),
+				"Statut paiement", content.paymentStatus(), "Référence paiement", content.paymentReference(),
+				"Montant", content.amount()));
+		document.add(new Paragraph(" "));
+
+		document.add(new Paragraph("Offre", sectionFont));
+		document.add(table("Description", content.offerDescription(), "Service", content.serviceName()));
+
+		document.close();
+	}
+
+	// Tableau libellé / valeur sur deux colonnes
+	private PdfPTable table(String... labelsAndValues) {
+		PdfPTable table = new PdfPTable(2);
+		table.setWidthPercentage(100);
+		for (String value : labelsAndValues) {
+			PdfPCell cell = new PdfPCell(new Phrase(value, cellFont));
+			cell.setPadding(6f);
+			table.addCell(cell);
+		}
+		return table;
+	}
+
+	private static BaseFont loadFont(String name) {
+		try {
+			return BaseFont.createFont(name, BaseFont.CP1252, BaseFont.NOT_EMBEDDED);
+		} catch (Exception ex) {
+			throw new IllegalStateException("Police PDF indisponible : " + name, ex);
+		}
+	}
+}
@@ -0,0 +1,44 @@
+package com.mobility.mobility_backend.service.receipt;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.entity.ReservationChangeListener;
+import com.mobility.mobility_backend.util.AfterCommit;
+
+/**
+ * Suit les {@link Reservation} : supprime les reçus stockés d'une
+ * réservation modifiée (statut de paiement notamment) ou supprimée, une fois
+ * la transaction validée. Les mises à jour en masse (JPQL) échappent au
+ * listener ; la version par empreinte écarte alors le reçu périmé au
+ * téléchargement suivant.
+ */
+@Component
+public class ReservationReceiptListener implements ReservationChangeListener {
+
+	private final ObjectProvider<ReceiptStore> receiptStore;
+
+	public ReservationReceiptListener(ObjectProvider<ReceiptStore> receiptStore) {
+		this.receiptStore = receiptStore;
+	}
+
+	@Override
+	public void onUpdate(Reservation reservation) {
+		evict(reservation);
+	}
+
+	@Override
+	public void onRemove(Reservation reservation) {
+		evict(reservation);
+	}
+
+	private void evict(Reservation reservation) {
+		ReceiptStore store = receiptStore.getIfAvailable();
+		Integer reservationId = reservation.getReservationId();
+		if (store == null || reservationId == null) {
+			return;
+		}
+		AfterCommit.run(() -> store.evict(reservationId));
+	}
+}
@@ -0,0 +1,126 @@
+package com.mobility.mobility_backend.service.redis;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Niveau L2 du cache, partagé entre les réplicas. Les valeurs sont des octets
+ * déjà encodés par {@link com.mobility.mobility_backend.service.cache.CacheCodec}.
+ * Toute erreur Redis est journalisée et traitée comme un défaut de cache : le
+ * backend continue de fonctionner avec le seul cache mémoire.
+ *
+ * Instancié par {@link com.mobility.mobility_backend.config.RedisCacheConfig}
+ * uniquement lorsque {@code cache.redis.enabled=true}.
+ */
+public class RedisCacheService {
+
+	private static final Logger logger = LoggerFactory.getLogger(RedisCacheService.class);
+
+	private static final int SCAN_BATCH = 500;
+
+	private final RedisTemplate<String, byte[]> redisTemplate;
+	private final RedisMessageListenerContainer listenerContainer;
+	private final ChannelTopic invalidationTopic;
+
+	public RedisCacheService(RedisTemplate<String, byte[]> redisTemplate,
+			RedisMessageListenerContainer listenerContainer, String invalidationChannel) {
+		this.redisTemplate = redisTemplate;
+		this.listenerContainer = listenerContainer;
+		this.invalidationTopic = new ChannelTopic(invalidationChannel);
+	}
+
+	public byte[] get(String key) {
+		try {
+			return redisTemplate.opsForValue().get(key);
+		} catch (Exception e) {
+			logger.warn("⚠️ Cache REDIS indisponible (get) - Key: {}, Error: {}", key, e.getMessage());
+			return null;
+		}
+	}
+
+	public void set(String key, byte[] value, long timeout, TimeUnit unit) {
+		try {
+			redisTemplate.opsForValue().set(key, value, timeout, unit);
+		} catch (Exception e) {
+			logger.warn("⚠️ Cache REDIS indisponible (set) - Key: {}, Error: {}", key, e.getMessage());
+		}
+	}
+
+	public void delete(String key) {
+		try {
+			redisTemplate.delete(key);
+		} catch (Exception e) {
+			logger.warn("⚠️ Cache REDIS indisponible (delete) - Key: {}, Error: {}", key, e.getMessage());
+		}
+	}
+
+	/**
+	 * Suppression par préfixe via SCAN (jamais KEYS, qui bloque le serveur) et
+	 * UNLINK par lots.
+	 */
+	public void deleteByPrefix(String prefix) {
+		try {
+			Long removed = redisTemplate.execute((RedisCallback<Long>) connection -> {
+				long count = 0;
+				List<byte[]> batch = new ArrayList<>(SCAN_BATCH);
+				ScanOptions options = ScanOptions.scanOptions().match(escapeGlob(prefix) + "*").count(SCAN_BATCH)
+						.build();
+				try (Cursor<byte[]> cursor = connection.keyCommands().scan(options)) {
+					while (cursor.hasNext()) {
+						batch.add(cursor.next());
+						if (batch.size() == SCAN_BATCH) {
+							count += unlink(connection, batch);
+						}
+					}
+				}
+				return count + unlink(connection, batch);
+			});
+			logger.debug("🗑️ Cache REDIS DELETE PATTERN - Pattern: {}, Removed: {}", prefix, removed);
+		} catch (Exception e) {
+			logger.warn("⚠️ Cache REDIS indisponible (deleteByPrefix) - Pattern: {}, Error: {}", prefix,
+					e.getMessage());
+		}
+	}
+
+	public void publish(String message) {
+		try {
+			redisTemplate.execute((RedisCallback<Long>) connection -> connection
+					.publish(invalidationTopic.getTopic().getBytes(StandardCharsets.UTF_8),
+							message.getBytes(StandardCharsets.UTF_8)));
+		} catch (Exception e) {
+			logger.warn("⚠️ Publication d'invalidation REDIS impossible: {}", e.getMessage());
+		}
+	}
+
+	public void subscribe(Consumer<String> handler) {
+		listenerContainer.addMessageListener(
+				(message, pattern) -> handler.accept(new String(message.getBody(), StandardCharsets.UTF_8)),
+				invalidationTopic);
+	}
+
+	private static long unlink(RedisConnection connection, List<byte[]> keys) {
+		if (keys.isEmpty()) {
+			return 0;
+		}
+		Long removed = connection.keyCommands().unlink(keys.toArray(new byte[0][]));
+		keys.clear();
+		return removed != null ? removed : 0;
+	}
+
+	private static String escapeGlob(String value) {
+		return value.replaceAll("([\\\\*?\\[\\]])", "\\\\$1");
+	}
+}
@@ -0,0 +1,110 @@
+package com.mobility.mobility_backend.service.scheduling;
+
+import java.net.InetAddress;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mobility.mobility_backend.entity.SchedulerLock;
+import com.mobility.mobility_backend.repository.SchedulerLockRepository;
+
+/**
+ * Exécution d'une tâche planifiée par un seul réplica à la fois (même principe
+ * que ShedLock) : le verrou est une ligne de {@code scheduler_locks} prise par
+ * un UPDATE conditionnel. {@code lockAtMostFor} borne la détention si le nœud
+ * meurt en cours de tâche ; {@code lockAtLeastFor} évite qu'un autre nœud, dont
+ * l'horloge est légèrement décalée, rejoue la même échéance juste après.
+ */
+@Service
+public class SchedulerLockService {
+
+	private static final Logger logger = LoggerFactory.getLogger(SchedulerLockService.class);
+
+	private final SchedulerLockRepository lockRepository;
+	private final TransactionTemplate lockTransaction;
+	private final String owner;
+
+	public SchedulerLockService(SchedulerLockRepository lockRepository, PlatformTransactionManager transactionManager) {
+		this(lockRepository, transactionManager, defaultOwner());
+	}
+
+	SchedulerLockService(SchedulerLockRepository lockRepository, PlatformTransactionManager transactionManager,
+			String owner) {
+		this.lockRepository = lockRepository;
+		this.lockTransaction = new TransactionTemplate(transactionManager);
+		this.lockTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		this.owner = owner;
+	}
+
+	/**
+	 * Exécute {@code task} si le verrou {@code name} est libre.
+	 *
+	 * @return {@code false} si un autre nœud détient le verrou (tâche non exécutée)
+	 */
+	public boolean runIfLeader(String name, Duration lockAtMostFor, Duration lockAtLeastFor, Runnable task) {
+		LocalDateTime lockedAt = LocalDateTime.now();
+		if (!tryAcquire(name, lockedAt, lockedAt.plus(lockAtMostFor))) {
+			logger.debug("🔒 Tâche {} déjà en cours sur un autre nœud", name);
+			return false;
+		}
+		try {
+			task.run();
+			return true;
+		} finally {
+			LocalDateTime earliestRelease = lockedAt.plus(lockAtLeastFor);
+			LocalDateTime now = LocalDateTime.now();
+			release(name, now.isAfter(earliestRelease) ? now : earliestRelease);
+		}
+	}
+
+	public String getOwner() {
+		return owner;
+	}
+
+	private boolean tryAcquire(String name, LocalDateTime now, LocalDateTime lockUntil) {
+		Boolean acquired = lockTransaction.execute(status -> {
+			if (lockRepository.tryAcquire(name, owner, now, lockUntil) > 0) {
+				return true;
+			}
+			return lockRepository.existsById(name) ? false : null;
+		});
+		if (acquired != null) {
+			return acquired;
+		}
+		// Première exécution de la tâche : la ligne n'existe pas encore
+		try {
+			lockTransaction.executeWithoutResult(
+					status -> lockRepository.saveAndFlush(new SchedulerLock(name, lockUntil, now, owner)));
+			return true;
+		} catch (DataIntegrityViolationException e) {
+			return false;
+		}
+	}
+
+	private void release(String name, LocalDateTime lockUntil) {
+		try {
+			lockTransaction.executeWithoutResult(status -> lockRepository.release(name, owner, lockUntil));
+		} catch (RuntimeException e) {
+			// Le verrou expirera de lui-même à lockAtMostFor
+			logger.warn("⚠️ Libération du verrou {} impossible: {}", name, e.getMessage());
+		}
+	}
+
+	private static String defaultOwner() {
+		String host;
+		try {
+			host = InetAddress.getLocalHost().getHostName();
+		} catch (Exception e) {
+			host = "unknown";
+		}
+		return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+	}
+}
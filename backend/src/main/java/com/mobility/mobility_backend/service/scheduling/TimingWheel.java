@@ -0,0 +1,160 @@
+package com.mobility.mobility_backend.service.scheduling;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Roue temporelle hiérarchique (à la Linux/Kafka) : {@code levels} roues de
+ * {@code wheelSize} cases, la case d'une roue couvrant une révolution complète
+ * de la roue inférieure. Armer, remplacer ou annuler un minuteur coûte O(1) ;
+ * chaque tick ne parcourt que la case courante (et, aux changements de tour,
+ * redistribue une case de la roue supérieure).
+ *
+ * Un minuteur par clé : {@link #schedule} remplace l'échéance précédente. Le
+ * temps est fourni par l'appelant via {@link #advance}, qui renvoie les clés
+ * échues ; la roue ne crée aucun thread. Les échéances au-delà de la dernière
+ * roue sont rangées dans sa case la plus lointaine et reclassées au passage.
+ */
+public class TimingWheel<K> {
+
+	private final long tickMs;
+	private final int wheelSize;
+	private final long[] spans;
+	private final List<List<Set<Timer<K>>>> wheels;
+	private final Map<K, Timer<K>> timers = new HashMap<>();
+	private long currentTick;
+
+	public TimingWheel(long tickMs, int wheelSize, int levels, long startMs) {
+		if (tickMs <= 0 || wheelSize < 2 || levels < 1) {
+			throw new IllegalArgumentException("Roue temporelle invalide");
+		}
+		this.tickMs = tickMs;
+		this.wheelSize = wheelSize;
+		this.spans = new long[levels + 1];
+		this.wheels = new ArrayList<>(levels);
+		spans[0] = 1;
+		for (int level = 0; level < levels; level++) {
+			spans[level + 1] = Math.multiplyExact(spans[level], wheelSize);
+			List<Set<Timer<K>>> buckets = new ArrayList<>(wheelSize);
+			for (int i = 0; i < wheelSize; i++) {
+				buckets.add(new LinkedHashSet<>());
+			}
+			wheels.add(buckets);
+		}
+		this.currentTick = startMs / tickMs;
+	}
+
+	/**
+	 * Arme (ou réarme) le minuteur de {@code key}. Une échéance déjà passée
+	 * expire au prochain tick.
+	 */
+	public synchronized void schedule(K key, long deadlineMs) {
+		cancel(key);
+		long deadlineTick = Math.max(ceilDiv(deadlineMs, tickMs), currentTick + 1);
+		Timer<K> timer = new Timer<>(key, deadlineTick);
+		timers.put(key, timer);
+		place(timer);
+	}
+
+	public synchronized boolean cancel(K key) {
+		Timer<K> timer = timers.remove(key);
+		if (timer == null) {
+			return false;
+		}
+		timer.bucket.remove(timer);
+		timer.bucket = null;
+		return true;
+	}
+
+	public synchronized boolean contains(K key) {
+		return timers.containsKey(key);
+	}
+
+	public synchronized int size() {
+		return timers.size();
+	}
+
+	/**
+	 * Avance la roue jusqu'à {@code nowMs} et renvoie les clés échues, dans
+	 * l'ordre de leurs échéances (à un tick près).
+	 */
+	public synchronized List<K> advance(long nowMs) {
+		long targetTick = nowMs / tickMs;
+		List<K> expired = new ArrayList<>();
+		while (currentTick < targetTick) {
+			currentTick++;
+			cascade();
+			Set<Timer<K>> bucket = wheels.get(0).get(index(currentTick, 0));
+			if (bucket.isEmpty()) {
+				continue;
+			}
+			List<Timer<K>> due = new ArrayList<>(bucket);
+			bucket.clear();
+			for (Timer<K> timer : due) {
+				timer.bucket = null;
+				if (timer.deadlineTick > currentTick) {
+					place(timer);
+				} else {
+					timers.remove(timer.key);
+					expired.add(timer.key);
+				}
+			}
+		}
+		return expired;
+	}
+
+	// À chaque tour complet d'une roue, la case suivante de la roue supérieure redescend ;
+	// de haut en bas, pour qu'un minuteur redescendu de deux niveaux soit encore reclassé
+	private void cascade() {
+		int highest = 0;
+		while (highest + 1 < wheels.size() && currentTick % spans[highest + 1] == 0) {
+			highest++;
+		}
+		for (int level = highest; level >= 1; level--) {
+			Set<Timer<K>> bucket = wheels.get(level).get(index(currentTick, level));
+			if (bucket.isEmpty()) {
+				continue;
+			}
+			List<Timer<K>> moved = new ArrayList<>(bucket);
+			bucket.clear();
+			moved.forEach(this::place);
+		}
+	}
+
+	private void place(Timer<K> timer) {
+		long delta = Math.max(0, timer.deadlineTick - currentTick);
+		int top = wheels.size() - 1;
+		int level = 0;
+		while (level < top && delta >= spans[level + 1]) {
+			level++;
+		}
+		// Au-delà de la portée de la roue : case la plus lointaine, reclassée à la redescente
+		long placementTick = delta >= spans[top + 1] ? currentTick + spans[top + 1] - 1 : timer.deadlineTick;
+		Set<Timer<K>> bucket = wheels.get(level).get(index(placementTick, level));
+		bucket.add(timer);
+		timer.bucket = bucket;
+	}
+
+	private int index(long tick, int level) {
+		return (int) ((tick / spans[level]) % wheelSize);
+	}
+
+	private static long ceilDiv(long value, long divisor) {
+		return -Math.floorDiv(-value, divisor);
+	}
+
+	private static final class Timer<K> {
+		private final K key;
+		private final long deadlineTick;
+		private Set<Timer<K>> bucket;
+
+		private Timer(K key, long deadlineTick) {
+			this.key = key;
+			this.deadlineTick = deadlineTick;
+		}
+	}
+}
@@ -1,31 +1,67 @@
 package com.mobility.mobility_backend.service.storage;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.attribute.PosixFilePermission;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.Comparator;
+import java.util.stream.Stream;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+/**
+ * Stockage des images d'offres sous uploads/offers. Seul l'en-tête du flux est
+ * lu pour vérifier la signature, le fichier est ensuite transféré tel quel
+ * (déplacement du fichier temporaire multipart quand c'est possible).
+ *
+ * L'occupation du dossier est tenue dans un index (fichiers du plus ancien au
+ * plus récent, octets cumulés) mis à jour à chaque dépôt et purge : le quota se
+ * vérifie sans parcourir le dossier. L'index est construit au démarrage puis
+ * recalé périodiquement sur le disque.
+ */
 @Service
 public class ImageStorageService {
 
+	private static final Logger logger = LoggerFactory.getLogger(ImageStorageService.class);
+
 	private static final Set<String> AUTHORIZED_CONTENT_TYPES = Set.of(
 			"image/jpeg", "image/png", "image/webp", "image/jpg");
 	private static final long MAX_FILE_SIZE_BYTES = 5 * 1024 * 1024; // 5 MB
-	private static final long MAX_DIRECTORY_SIZE_BYTES = 500L * 1024L * 1024L; // 500 MB
+	private static final int SIGNATURE_LENGTH = 12;
 	private final Path offersDirectory;
+	private final long maxDirectorySizeBytes;
 
-	public ImageStorageService() {
-		Path uploadsRoot = Paths.get("uploads").toAbsolutePath().normalize();
-		this.offersDirectory = uploadsRoot.resolve("offers");
+	// Fichiers du dossier par ancienneté (plus ancien en tête) et leur taille ; gardé par "this"
+	private final LinkedHashMap<Path, Long> storedFiles = new LinkedHashMap<>();
+	private long usedBytes;
+
+	@Autowired
+	public ImageStorageService(
+			@Value("${uploads.offers.max-directory-size-bytes:524288000}") long maxDirectorySizeBytes) {
+		this(Paths.get("uploads").toAbsolutePath().normalize().resolve("offers"), maxDirectorySizeBytes);
+	}
+
+	ImageStorageService(Path offersDirectory, long maxDirectorySizeBytes) {
+		this.offersDirectory = offersDirectory;
+		this.maxDirectorySizeBytes = maxDirectorySizeBytes;
 		createDirectoriesIfNeeded(this.offersDirectory);
+		reconcile();
 	}
 
 	public String storeOfferImage(MultipartFile file) {
@@ -46,7 +82,7 @@ public class ImageStorageService {
 			throw new IllegalArgumentException("Signature de fichier non valide");
 		}
 
-		if (getDirectorySize(offersDirectory) > MAX_DIRECTORY_SIZE_BYTES) {
+		if (getUsedBytes() > maxDirectorySizeBytes) {
 			throw new IllegalStateException("Quota de stockage dépassé pour les uploads");
 		}
 
@@ -55,9 +91,9 @@ public class ImageStorageService {
 		Path target = offersDirectory.resolve(filename);
 
 		try {
-			file.transferTo(target.toFile());
+			file.transferTo(target);
 			trySetSafePermissions(target);
-			enforceQuota();
+			enforceQuota(target, Files.size(target));
 		} catch (IOException ex) {
 			throw new RuntimeException("Impossible de sauvegarder l'image: " + ex.getMessage(), ex);
 		}
@@ -66,6 +102,42 @@ public class ImageStorageService {
 		return "/uploads/offers/" + filename;
 	}
 
+	public synchronized long getUsedBytes() {
+		return usedBytes;
+	}
+
+	// Filet de sécurité : recale l'index sur le disque (fichiers ajoutés ou supprimés hors application)
+	@Scheduled(fixedDelayString = "${uploads.offers.reconcile-interval-ms:3600000}",
+			initialDelayString = "${uploads.offers.reconcile-interval-ms:3600000}")
+	public synchronized void reconcile() {
+		List<DiskFile> files = new ArrayList<>();
+		try (Stream<Path> listing = Files.list(offersDirectory)) {
+			listing.filter(Files::isRegularFile).forEach(path -> {
+				try {
+					files.add(new DiskFile(path, Files.size(path), Files.getLastModifiedTime(path).toMillis()));
+				} catch (IOException e) {
+					// fichier supprimé pendant le parcours
+				}
+			});
+		} catch (IOException e) {
+			logger.warn("⚠️ Recalage du dossier uploads impossible: {}", e.getMessage());
+			return;
+		}
+		files.sort(Comparator.comparingLong(DiskFile::modifiedAt));
+
+		long previous = usedBytes;
+		storedFiles.clear();
+		usedBytes = 0;
+		for (DiskFile file : files) {
+			storedFiles.put(file.path(), file.size());
+			usedBytes += file.size();
+		}
+		if (previous != usedBytes) {
+			logger.info("📁 Dossier uploads recalé - {} fichiers, {} octets (index : {} octets)", storedFiles.size(),
+					usedBytes, previous);
+		}
+	}
+
 	private void createDirectoriesIfNeeded(Path directory) {
 		try {
 			Files.createDirectories(directory);
@@ -84,9 +156,10 @@ public class ImageStorageService {
 		return ".jpg";
 	}
 
+	// Seuls les premiers octets du flux sont lus (pas de chargement du fichier en mémoire)
 	private boolean isValidSignature(MultipartFile file) {
-		try {
-			byte[] header = file.getBytes();
+		try (InputStream input = file.getInputStream()) {
+			byte[] header = input.readNBytes(SIGNATURE_LENGTH);
 			return isPng(header) || isJpeg(header) || isWebp(header);
 		} catch (IOException e) {
 			return false;
@@ -108,55 +181,33 @@ public class ImageStorageService {
 				&& bytes[8]=='W' && bytes[9]=='E' && bytes[10]=='B' && bytes[11]=='P';
 	}
 
-	private long getDirectorySize(Path directory) {
-		try {
-			return Files.walk(directory)
-					.filter(Files::isRegularFile)
-					.mapToLong(p -> {
-						try {
-							return Files.size(p);
-						} catch (IOException e) {
-							return 0L;
-						}
-					})
-					.sum();
-		} catch (IOException e) {
-			return 0L;
-		}
-	}
-
-	private void enforceQuota() {
-		long size = getDirectorySize(offersDirectory);
-		if (size <= MAX_DIRECTORY_SIZE_BYTES) {
-			return;
-		}
-		try {
-			var files = Files.list(offersDirectory)
-					.filter(Files::isRegularFile)
-					.sorted(Comparator.comparingLong(p -> {
-						try {
-							return Files.getLastModifiedTime(p).toMillis();
-						} catch (IOException e) {
-							return Long.MAX_VALUE;
-						}
-					}))
-					.toList();
-			for (Path p : files) {
-				try {
-					Files.deleteIfExists(p);
-					size = getDirectorySize(offersDirectory);
-					if (size <= MAX_DIRECTORY_SIZE_BYTES) {
-						return;
-					}
-				} catch (IOException e) {
-					// ignore and continue
-				}
+	/**
+	 * Enregistre le fichier déposé puis purge les plus anciens tant que le quota
+	 * est dépassé ; l'index donne directement les candidats et leur taille.
+	 */
+	private void enforceQuota(Path stored, long size) {
+		List<Path> evicted = new ArrayList<>();
+		synchronized (this) {
+			if (storedFiles.putIfAbsent(stored, size) == null) {
+				usedBytes += size;
 			}
-			if (size > MAX_DIRECTORY_SIZE_BYTES) {
-				throw new IllegalStateException("Quota de stockage dépassé, purge impossible");
+			Iterator<Map.Entry<Path, Long>> oldest = storedFiles.entrySet().iterator();
+			while (usedBytes > maxDirectorySizeBytes && oldest.hasNext()) {
+				Map.Entry<Path, Long> entry = oldest.next();
+				oldest.remove();
+				usedBytes -= entry.getValue();
+				evicted.add(entry.getKey());
 			}
-		} catch (IOException e) {
-			throw new RuntimeException("Erreur lors du nettoyage du répertoire uploads: " + e.getMessage(), e);
+		}
+		for (Path path : evicted) {
+			try {
+				Files.deleteIfExists(path);
+			} catch (IOException e) {
+				// ignore and continue : rattrapé au prochain recalage
+			}
+		}
+		if (getUsedBytes() > maxDirectorySizeBytes) {
+			throw new IllegalStateException("Quota de stockage dépassé, purge impossible");
 		}
 	}
 
@@ -173,4 +224,7 @@ public class ImageStorageService {
 		} catch (Exception ignored) {
 		}
 	}
+
+	private record DiskFile(Path path, long size, long modifiedAt) {
+	}
 }
@@ -0,0 +1,54 @@
+package com.mobility.mobility_backend.util;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Effets de bord différés à la fin de la transaction en cours : caches,
+ * index mémoire et compteurs ne voient jamais une écriture annulée.
+ */
+public final class AfterCommit {
+
+	private AfterCommit() {
+	}
+
+	/**
+	 * Exécute l'action après validation de la transaction en cours, ou tout de
+	 * suite hors transaction. Rien n'est exécuté si la transaction est annulée.
+	 */
+	public static void run(Runnable action) {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+				@Override
+				public void afterCommit() {
+					action.run();
+				}
+			});
+		} else {
+			action.run();
+		}
+	}
+
+	/**
+	 * Exécute {@code onCommit} ou {@code onRollback} à la fin de la transaction
+	 * en cours.
+	 *
+	 * @return false hors transaction : aucune des deux actions n'est planifiée
+	 */
+	public static boolean onCompletion(Runnable onCommit, Runnable onRollback) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return false;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+			@Override
+			public void afterCompletion(int status) {
+				if (status == STATUS_COMMITTED) {
+					onCommit.run();
+				} else {
+					onRollback.run();
+				}
+			}
+		});
+		return true;
+	}
+}
@@ -0,0 +1,23 @@
+-- Webhooks Stripe idempotents : un seul enregistrement par event_id, compteur de tentatives pour le rejeu
+DO $$
+BEGIN
+    IF to_regclass('public.payment_events') IS NOT NULL THEN
+        ALTER TABLE payment_events
+        ADD COLUMN IF NOT EXISTS attempts INTEGER DEFAULT 0;
+
+        -- Index unique seulement si l'historique ne contient pas déjà de doublons (à traiter à la main)
+        IF NOT EXISTS (
+            SELECT event_id FROM payment_events
+            WHERE event_id IS NOT NULL
+            GROUP BY event_id HAVING COUNT(*) > 1
+        ) THEN
+            CREATE UNIQUE INDEX IF NOT EXISTS uk_payment_events_event_id ON payment_events (event_id);
+        ELSE
+            RAISE NOTICE 'payment_events contient des event_id en double : index unique non créé';
+        END IF;
+
+        CREATE INDEX IF NOT EXISTS idx_payment_events_status_received
+            ON payment_events (status, received_at);
+    END IF;
+END
+$$;
@@ -0,0 +1,17 @@
+-- Verrous des tâches planifiées (un seul réplica exécute chaque tâche)
+CREATE TABLE IF NOT EXISTS scheduler_locks (
+    name VARCHAR(64) PRIMARY KEY,
+    lock_until TIMESTAMP NOT NULL,
+    locked_at TIMESTAMP NOT NULL,
+    locked_by VARCHAR(255) NOT NULL
+);
+
+-- Transitions de paiement par lots : WHERE payment_status = ? AND updated_at < ? ORDER BY reservation_id
+DO $$
+BEGIN
+    IF to_regclass('public.reservations') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_reservations_payment_status_updated
+            ON reservations (payment_status, updated_at, reservation_id);
+    END IF;
+END
+$$;
@@ -0,0 +1,13 @@
+-- Rappel de paiement envoyé une seule fois (échéances tenues par la roue temporelle)
+DO $$
+BEGIN
+    IF to_regclass('public.reservations') IS NOT NULL THEN
+        ALTER TABLE reservations
+        ADD COLUMN IF NOT EXISTS payment_reminder_sent_at TIMESTAMP;
+
+        CREATE INDEX IF NOT EXISTS idx_reservations_payment_reminder
+            ON reservations (payment_status, reservation_date)
+            WHERE payment_reminder_sent_at IS NULL;
+    END IF;
+END
+$$;
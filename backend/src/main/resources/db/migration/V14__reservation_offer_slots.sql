@@ -0,0 +1,20 @@
+-- Créneau occupé par une réservation sur son offre : [reservation_date, slot_end)
+-- La contrainte d'exclusion interdit deux réservations actives qui se chevauchent sur la même offre
+CREATE EXTENSION IF NOT EXISTS btree_gist;
+
+DO $$
+BEGIN
+    IF to_regclass('public.reservations') IS NOT NULL THEN
+        ALTER TABLE reservations
+        ADD COLUMN IF NOT EXISTS slot_end TIMESTAMP;
+
+        IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'ex_reservations_offer_slot') THEN
+            -- Réservations antérieures (slot_end NULL) hors contrainte : d'éventuels doublons existants ne bloquent pas la migration
+            ALTER TABLE reservations
+            ADD CONSTRAINT ex_reservations_offer_slot
+                EXCLUDE USING gist (offer_id WITH =, tsrange(reservation_date, slot_end) WITH &&)
+                WHERE (slot_end IS NOT NULL AND status IN ('PENDING', 'CONFIRMED'));
+        END IF;
+    END IF;
+END
+$$;
@@ -0,0 +1,25 @@
+-- Dernière vérification de chaque utilisateur matérialisée par is_latest (statistiques et statuts courants)
+DO $$
+BEGIN
+    IF to_regclass('public.user_identity_verifications') IS NOT NULL THEN
+        ALTER TABLE user_identity_verifications
+        ADD COLUMN IF NOT EXISTS is_latest BOOLEAN NOT NULL DEFAULT FALSE;
+
+        -- Reprise de l'existant : la plus récente par updated_at, puis par id
+        UPDATE user_identity_verifications v
+        SET is_latest = TRUE
+        WHERE v.id = (
+            SELECT v2.id FROM user_identity_verifications v2
+            WHERE v2.user_id = v.user_id
+            ORDER BY v2.updated_at DESC NULLS LAST, v2.id DESC
+            LIMIT 1
+        );
+
+        CREATE INDEX IF NOT EXISTS idx_identity_verifications_latest_status
+            ON user_identity_verifications (status) WHERE is_latest;
+        -- Au plus une vérification courante par utilisateur
+        CREATE UNIQUE INDEX IF NOT EXISTS idx_identity_verifications_latest_user
+            ON user_identity_verifications (user_id) WHERE is_latest;
+    END IF;
+END
+$$;
@@ -0,0 +1,14 @@
+-- Une réservation dont le paiement a expiré ou échoué reste PENDING mais ne bloque plus son créneau
+DO $$
+BEGIN
+    IF to_regclass('public.reservations') IS NOT NULL THEN
+        ALTER TABLE reservations DROP CONSTRAINT IF EXISTS ex_reservations_offer_slot;
+
+        ALTER TABLE reservations
+        ADD CONSTRAINT ex_reservations_offer_slot
+            EXCLUDE USING gist (offer_id WITH =, tsrange(reservation_date, slot_end) WITH &&)
+            WHERE (slot_end IS NOT NULL AND status IN ('PENDING', 'CONFIRMED')
+                AND (payment_status IS NULL OR payment_status NOT IN ('EXPIRED', 'FAILED')));
+    END IF;
+END
+$$;
@@ -0,0 +1,18 @@
+-- Index composites pour GET /api/offers/search (filtres + tri par curseur pickup_datetime, offer_id)
+DO $$
+BEGIN
+    IF to_regclass('public.offers') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_offers_active_pickup
+            ON offers (active, pickup_datetime, offer_id);
+
+        CREATE INDEX IF NOT EXISTS idx_offers_city_active_pickup
+            ON offers (pickup_location_id, active, pickup_datetime, offer_id);
+
+        CREATE INDEX IF NOT EXISTS idx_offers_service_active_pickup
+            ON offers (mobility_service_id, active, pickup_datetime, offer_id);
+
+        CREATE INDEX IF NOT EXISTS idx_offers_active_price
+            ON offers (active, price);
+    END IF;
+END
+$$;
@@ -0,0 +1,16 @@
+-- Compteur de version des JWT par utilisateur : incrémenté pour révoquer tous les tokens émis
+DO $$
+BEGIN
+    IF to_regclass('public.users') IS NOT NULL THEN
+        ALTER TABLE users
+        ADD COLUMN IF NOT EXISTS token_version INTEGER DEFAULT 0;
+
+        UPDATE users
+        SET token_version = 0
+        WHERE token_version IS NULL;
+
+        ALTER TABLE users
+        ALTER COLUMN token_version SET NOT NULL;
+    END IF;
+END
+$$;
@@ -0,0 +1,9 @@
+-- Index composite pour la boîte de réception paginée (recipient, is_read, created_at) et le comptage des non lues
+DO $$
+BEGIN
+    IF to_regclass('public.notifications') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_notifications_recipient_read_created
+            ON notifications (recipient, is_read, created_at);
+    END IF;
+END
+$$;
@@ -0,0 +1,17 @@
+-- Index pour la purge par lots : sélection des expirées et des anciennes par catégorie
+DO $$
+BEGIN
+    IF to_regclass('public.notifications') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_notifications_expires_at
+            ON notifications (expires_at)
+            WHERE expires_at IS NOT NULL;
+
+        CREATE INDEX IF NOT EXISTS idx_notifications_category_created
+            ON notifications (category, created_at);
+    END IF;
+    IF to_regclass('public.notification_metadata') IS NOT NULL THEN
+        CREATE INDEX IF NOT EXISTS idx_notification_metadata_notification
+            ON notification_metadata (notification_id);
+    END IF;
+END
+$$;
@@ -0,0 +1,68 @@
+package com.mobility.mobility_backend.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import com.mobility.mobility_backend.service.JwtClaims;
+import com.mobility.mobility_backend.service.JwtService;
+
+/**
+ * Coût par requête de la validation JWT faite dans JwtAuthenticationFilter :
+ * vérification complète (cache désactivé) contre token déjà vérifié (cache LRU).
+ *
+ * Lancement : mvn test-compile puis exécuter {@link #main} avec le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+	private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+	private JwtService uncached;
+	private JwtService cached;
+	private UserDetails user;
+	private String token;
+
+	@Setup
+	public void setUp() {
+		uncached = new JwtService(SECRET, 3_600_000, 3_600_000, 0);
+		cached = new JwtService(SECRET, 3_600_000, 3_600_000, 1000);
+		user = User.withUsername("bench@locationup.fr").password("x").roles("USER").build();
+		token = cached.generateToken(user);
+	}
+
+	@Benchmark
+	public boolean verifyEveryRequest() {
+		JwtClaims claims = uncached.decode(token);
+		return uncached.isTokenValid(claims, user);
+	}
+
+	@Benchmark
+	public boolean verifiedTokenCache() {
+		JwtClaims claims = cached.decode(token);
+		return cached.isTokenValid(claims, user);
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(JwtServiceBenchmark.class.getSimpleName()).build()).run();
+	}
+}
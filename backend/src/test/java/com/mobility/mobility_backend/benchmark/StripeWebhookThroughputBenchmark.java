@@ -0,0 +1,142 @@
+package com.mobility.mobility_backend.benchmark;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.mobility.mobility_backend.entity.PaymentEventLog;
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.repository.PaymentEventLogRepository;
+import com.mobility.mobility_backend.repository.ReservationRepository;
+import com.mobility.mobility_backend.service.PaymentNotificationService;
+import com.mobility.mobility_backend.service.StripeWebhookService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Débit d'ingestion des webhooks Stripe (acquittement + traitement asynchrone)
+ * sur un flux synthétique d'événements {@code checkout.session.completed}
+ * répartis sur {@link #reservations} réservations, selon le nombre de bandes.
+ * Les dépôts sont simulés en mémoire : on mesure le pipeline, pas la base.
+ *
+ * Lancement : mvn test-compile puis exécuter {@link #main} avec le classpath de test.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StripeWebhookThroughputBenchmark {
+
+	private static final int EVENTS_PER_INVOCATION = 1000;
+
+	@Param({ "1", "4", "8" })
+	public int workers;
+
+	@Param({ "50" })
+	public int reservations;
+
+	private final Map<Long, PaymentEventLog> logs = new ConcurrentHashMap<>();
+	private final Map<String, Boolean> eventIds = new ConcurrentHashMap<>();
+	private final AtomicLong ids = new AtomicLong();
+	private final AtomicLong sequence = new AtomicLong();
+	private final AtomicReference<CountDownLatch> processed = new AtomicReference<>(new CountDownLatch(0));
+	private StripeWebhookService service;
+
+	@Setup
+	public void setUp() {
+		ReservationRepository reservationRepository = mock(ReservationRepository.class);
+		PaymentEventLogRepository logRepository = mock(PaymentEventLogRepository.class);
+		PaymentNotificationService notificationService = mock(PaymentNotificationService.class);
+		PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		when(logRepository.existsByEventId(anyString())).thenAnswer(invocation -> eventIds.containsKey(invocation.getArgument(0)));
+		when(logRepository.saveAndFlush(any(PaymentEventLog.class))).thenAnswer(invocation -> store(invocation.getArgument(0)));
+		when(logRepository.save(any(PaymentEventLog.class))).thenAnswer(invocation -> store(invocation.getArgument(0)));
+		when(logRepository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(logs.get(invocation.getArgument(0))));
+		when(logRepository.claim(any())).thenReturn(1);
+		when(reservationRepository.findById(anyInt())).thenAnswer(invocation -> {
+			Reservation reservation = new Reservation();
+			reservation.setReservationId(invocation.getArgument(0));
+			reservation.setPaymentStatus(Reservation.PaymentStatus.PENDING);
+			return Optional.of(reservation);
+		});
+		doAnswer(invocation -> {
+			processed.get().countDown();
+			return null;
+		}).when(notificationService).notifyPaymentSuccess(any());
+
+		service = new StripeWebhookService(reservationRepository, logRepository, notificationService,
+				transactionManager, new SimpleMeterRegistry(), workers, EVENTS_PER_INVOCATION, 5, 24);
+	}
+
+	@TearDown
+	public void tearDown() {
+		service.shutdown();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(EVENTS_PER_INVOCATION)
+	public void ingestAndProcess() throws Exception {
+		CountDownLatch latch = new CountDownLatch(EVENTS_PER_INVOCATION);
+		processed.set(latch);
+		for (int i = 0; i < EVENTS_PER_INVOCATION; i++) {
+			long n = sequence.incrementAndGet();
+			service.handleWebhook(syntheticEvent(n, (int) (n % reservations) + 1), null);
+		}
+		if (!latch.await(30, TimeUnit.SECONDS)) {
+			throw new IllegalStateException("Événements non traités : " + latch.getCount());
+		}
+	}
+
+	private static String syntheticEvent(long n, int reservationId) {
+		return "{\"id\":\"evt_bench_" + n + "\",\"object\":\"event\",\"type\":\"checkout.session.completed\","
+				+ "\"data\":{\"object\":{\"id\":\"cs_bench_" + n + "\",\"object\":\"checkout.session\","
+				+ "\"client_reference_id\":\"" + reservationId + "\"}}}";
+	}
+
+	private PaymentEventLog store(PaymentEventLog log) {
+		if (log.getId() == null) {
+			log.setId(ids.incrementAndGet());
+			eventIds.put(log.getEventId(), Boolean.TRUE);
+		}
+		logs.put(log.getId(), log);
+		return log;
+	}
+
+	public static void main(String[] args) throws RunnerException {
+		new Runner(new OptionsBuilder().include(StripeWebhookThroughputBenchmark.class.getSimpleName()).build()).run();
+	}
+}
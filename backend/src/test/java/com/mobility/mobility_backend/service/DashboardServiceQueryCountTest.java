@@ -0,0 +1,117 @@
+package com.mobility.mobility_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.mobility.mobility_backend.dto.DashboardTrendsDTO;
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.entity.Admin;
+import com.mobility.mobility_backend.entity.City;
+import com.mobility.mobility_backend.entity.MobilityService;
+import com.mobility.mobility_backend.entity.Offer;
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.entity.Role;
+import com.mobility.mobility_backend.entity.User;
+import com.mobility.mobility_backend.repository.OfferRepository;
+import com.mobility.mobility_backend.service.cache.AdminStatsCacheService;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = { "spring.flyway.enabled=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+public class DashboardServiceQueryCountTest {
+
+	@Autowired
+	private DashboardService dashboardService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockBean
+	private AdminStatsCacheService adminStatsCacheService;
+
+	/*
+	 * Les tendances du dashboard doivent se calculer en trois requêtes agrégées
+	 * (mois, catégories, villes), quel que soit le volume d'offres et de
+	 * réservations : aucun findAll() ni chargement paresseux par offre.
+	 */
+	@Test
+	void whenGetDashboardTrends_thenStatementCountIsBounded() {
+		Admin admin = new Admin(unique("admin"), unique("mail") + "@test.com", "password", 1);
+		admin.setRole("ROLE_ADMIN");
+		entityManager.persist(admin);
+		User user = entityManager.persist(new User(unique("user"), unique("mail") + "@test.com", "pwd", Role.ROLE_USER));
+		MobilityService voiture = createService("Voiture");
+		MobilityService velo = createService(null);
+		City paris = entityManager.persist(new City("Paris"));
+		City lyon = entityManager.persist(new City("Lyon"));
+
+		for (int i = 0; i < 12; i++) {
+			Offer offer = entityManager.persist(Offer.builder().pickupLocation(i % 3 == 0 ? lyon : paris)
+					.returnLocation(paris).mobilityService(i % 2 == 0 ? voiture : velo).admin(admin)
+					.pickupDatetime(LocalDateTime.now().plusDays(1)).description("Offre " + i)
+					.price(new BigDecimal("10.00")).build());
+			Reservation reservation = new Reservation();
+			reservation.setUser(user);
+			reservation.setOffer(offer);
+			reservation.setReservationDate(LocalDateTime.now());
+			reservation.setStatus(Reservation.ReservationStatus.PENDING);
+			entityManager.persist(reservation);
+		}
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		DashboardTrendsDTO trends = dashboardService.getDashboardTrends(6);
+
+		assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(3);
+		assertThat(trends.getReservationsByMonth()).hasSize(6);
+		assertThat(trends.getReservationsByMonth().get(5).getReservations()).isEqualTo(12);
+		assertThat(trends.getReservationsByMonth().get(5).getRevenue()).isEqualTo(120.0);
+		assertThat(trends.getOffersByCategory()).extracting("category").containsExactlyInAnyOrder("Voiture", "Autre");
+		assertThat(trends.getTopPickupCities()).first().extracting("city").isEqualTo("Paris");
+		assertThat(trends.getTopPickupCities()).first().extracting("count").isEqualTo(8L);
+	}
+
+	private MobilityService createService(String categorie) {
+		MobilityService service = new MobilityService(unique("service"), "desc");
+		service.setCategorie(categorie);
+		return entityManager.persist(service);
+	}
+
+	private String unique(String prefix) {
+		return prefix + "_" + UUID.randomUUID().toString().substring(0, 8);
+	}
+
+	// Contexte JPA minimal : évite le @ComponentScan global de MobilityApplication
+	@SpringBootConfiguration
+	@EntityScan(basePackageClasses = { Offer.class, NotificationMessage.class })
+	@EnableJpaRepositories(basePackageClasses = OfferRepository.class)
+	@Import(DashboardService.class)
+	static class TestConfig {
+	}
+}
@@ -0,0 +1,167 @@
+package com.mobility.mobility_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.mobility.mobility_backend.dto.finance.PaymentAlertDTO;
+import com.mobility.mobility_backend.dto.identity.IdentityStatusResponse;
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.entity.Admin;
+import com.mobility.mobility_backend.entity.City;
+import com.mobility.mobility_backend.entity.MobilityService;
+import com.mobility.mobility_backend.entity.Offer;
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.entity.Role;
+import com.mobility.mobility_backend.entity.User;
+import com.mobility.mobility_backend.repository.OfferRepository;
+import com.mobility.mobility_backend.repository.PaymentEventLogRepository;
+import com.mobility.mobility_backend.repository.ReservationRepository;
+import com.mobility.mobility_backend.service.finance.FinanceAggregateService;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = { "spring.flyway.enabled=false" })
+public class FinanceServiceAlertsTest {
+
+	@Autowired
+	private ReservationRepository reservationRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	private IdentityVerificationService identityVerificationService;
+	private FinanceService financeService;
+
+	@BeforeEach
+	void setUp() {
+		identityVerificationService = mock(IdentityVerificationService.class);
+		when(identityVerificationService.getLatestStatusForUsers(anyCollection()))
+				.thenAnswer(invocation -> invocation.<Collection<Integer>>getArgument(0).stream().distinct()
+						.collect(Collectors.toMap(Function.identity(),
+								id -> new IdentityStatusResponse("VERIFIED", true, null, null))));
+		financeService = new FinanceService(reservationRepository, mock(PaymentEventLogRepository.class),
+				identityVerificationService, mock(FinanceAggregateService.class));
+	}
+
+	/*
+	 * Statuts, gravité et limite sont appliqués par la requête, triés par date
+	 * décroissante ; les statuts d'identité sont résolus en un seul appel.
+	 */
+	@Test
+	void whenGettingAlerts_thenFiltersAndLimitAreAppliedInDatabase() {
+		User client = persistUser();
+		Offer offer = persistOffer();
+		Integer failed = persistReservation(client, offer, 1, Reservation.PaymentStatus.FAILED);
+		Integer pending = persistReservation(client, offer, 2, Reservation.PaymentStatus.PENDING);
+		Integer requiresAction = persistReservation(client, offer, 3, Reservation.PaymentStatus.REQUIRES_ACTION);
+		persistReservation(client, offer, 4, Reservation.PaymentStatus.PAID);
+		entityManager.flush();
+		entityManager.clear();
+
+		List<PaymentAlertDTO> latest = financeService.getAlerts(null, null, null, null, null, false, 2);
+		assertThat(latest).extracting(PaymentAlertDTO::getReservationId).containsExactly(requiresAction, pending);
+		assertThat(latest).allMatch(PaymentAlertDTO::isIdentityVerified);
+
+		assertThat(financeService.getAlerts("critique", null, null, null, null, false, 10))
+				.extracting(PaymentAlertDTO::getReservationId).containsExactly(failed);
+		assertThat(financeService.getAlerts(null, null, null, LocalDate.now().plusDays(2),
+				LocalDate.now().plusDays(2), false, 10)).extracting(PaymentAlertDTO::getReservationId)
+				.containsExactly(pending);
+
+		verify(identityVerificationService, times(3)).getLatestStatusForUsers(anyCollection());
+		verify(identityVerificationService, never()).getStatus(anyInt());
+	}
+
+	/*
+	 * La recherche texte porte sur le client, le numéro de réservation, le
+	 * statut et le message d'alerte (déduit du statut).
+	 */
+	@Test
+	void whenSearchingAlerts_thenClientIdAndMessageAreMatched() {
+		User alice = persistUser();
+		User bob = persistUser();
+		Offer offer = persistOffer();
+		Integer failed = persistReservation(alice, offer, 1, Reservation.PaymentStatus.FAILED);
+		Integer pending = persistReservation(bob, offer, 2, Reservation.PaymentStatus.PENDING);
+		entityManager.flush();
+		entityManager.clear();
+
+		assertThat(financeService.getAlerts(null, null, bob.getUsername().toUpperCase(), null, null, false, 10))
+				.extracting(PaymentAlertDTO::getReservationId).containsExactly(pending);
+		assertThat(financeService.getAlerts(null, null, "refusé", null, null, false, 10))
+				.extracting(PaymentAlertDTO::getReservationId).containsExactly(failed);
+		assertThat(financeService.getAlerts(null, List.of("PENDING", "FAILED"), String.valueOf(failed), null, null,
+				false, 10)).extracting(PaymentAlertDTO::getReservationId).contains(failed);
+		assertThat(financeService.getAlerts(null, null, "introuvable", null, null, false, 10)).isEmpty();
+	}
+
+	private User persistUser() {
+		User user = new User(unique("user"), unique("mail") + "@test.com", "pwd", Role.ROLE_USER);
+		entityManager.persist(user);
+		return user;
+	}
+
+	private Offer persistOffer() {
+		Admin admin = new Admin(unique("admin"), unique("mail") + "@test.com", "password", 1);
+		admin.setRole("ROLE_ADMIN");
+		entityManager.persist(admin);
+		MobilityService service = new MobilityService(unique("service"), "desc");
+		entityManager.persist(service);
+		City city = new City("Paris");
+		entityManager.persist(city);
+		Offer offer = Offer.builder().pickupLocation(city).returnLocation(city).mobilityService(service).admin(admin)
+				.pickupDatetime(LocalDateTime.now().plusDays(1)).description("Offre")
+				.price(new BigDecimal("10.00")).build();
+		entityManager.persist(offer);
+		return offer;
+	}
+
+	private Integer persistReservation(User user, Offer offer, int daysAhead, Reservation.PaymentStatus paymentStatus) {
+		Reservation reservation = new Reservation();
+		reservation.setUser(user);
+		reservation.setOffer(offer);
+		reservation.setReservationDate(LocalDate.now().plusDays(daysAhead).atTime(10, 0));
+		reservation.setStatus(Reservation.ReservationStatus.PENDING);
+		reservation.setPaymentStatus(paymentStatus);
+		entityManager.persist(reservation);
+		return reservation.getReservationId();
+	}
+
+	private String unique(String prefix) {
+		return prefix + "_" + UUID.randomUUID().toString().substring(0, 8);
+	}
+
+	// Contexte JPA minimal : évite le @ComponentScan global de MobilityApplication
+	@SpringBootConfiguration
+	@EntityScan(basePackageClasses = { Offer.class, NotificationMessage.class })
+	@EnableJpaRepositories(basePackageClasses = OfferRepository.class)
+	static class TestConfig {
+	}
+}
@@ -0,0 +1,124 @@
+package com.mobility.mobility_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+import java.util.Map;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.mobility.mobility_backend.dto.identity.IdentityVerificationStatsDTO;
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.entity.Offer;
+import com.mobility.mobility_backend.entity.Role;
+import com.mobility.mobility_backend.entity.User;
+import com.mobility.mobility_backend.repository.OfferRepository;
+import com.mobility.mobility_backend.repository.UserIdentityDocumentRepository;
+import com.mobility.mobility_backend.repository.UserIdentityVerificationRepository;
+import com.mobility.mobility_backend.repository.UserRepository;
+import com.mobility.mobility_backend.service.cache.IdentityStatusCacheService;
+import com.mobility.mobility_backend.service.notification.NotificationService;
+import com.stripe.model.identity.VerificationSession;
+
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = { "spring.flyway.enabled=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+public class IdentityVerificationStatsTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private UserRepository userRepository;
+
+	@Autowired
+	private UserIdentityVerificationRepository verificationRepository;
+
+	@Autowired
+	private UserIdentityDocumentRepository documentRepository;
+
+	private IdentityVerificationService service;
+
+	@BeforeEach
+	void setUp() {
+		service = new IdentityVerificationService(userRepository, verificationRepository, documentRepository,
+				mock(NotificationService.class), mock(IdentityStatusCacheService.class));
+	}
+
+	/*
+	 * Chaque écriture ne laisse qu'une vérification « latest » par utilisateur ;
+	 * les compteurs suivent les changements de statut et sont lus en une requête.
+	 */
+	@Test
+	void whenStatusesChange_thenStatsFollowLatestVerificationPerUser() {
+		User retried = persistUser();
+		User incomplete = persistUser();
+		User upgraded = persistUser();
+
+		service.updateVerificationFromSession(session("vs_a1", retried, "processing"));
+		service.updateVerificationFromSession(session("vs_a2", retried, "verified"));
+		service.updateVerificationFromSession(session("vs_b1", incomplete, "requires_input"));
+		service.updateVerificationFromSession(session("vs_c1", upgraded, "processing"));
+		assertStats(3, 1, 1, 1);
+
+		service.updateVerificationFromSession(session("vs_c1", upgraded, "verified"));
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+		assertStats(3, 2, 0, 1);
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+
+		assertThat(verificationRepository.findByUser_IdOrderByUpdatedAtDesc(retried.getId()))
+				.extracting(verification -> verification.isLatest())
+				.containsExactlyInAnyOrder(true, false);
+	}
+
+	private void assertStats(long total, long verified, long processing, long requiresInput) {
+		IdentityVerificationStatsDTO stats = service.getGlobalStats();
+		assertThat(stats.getTotal()).isEqualTo(total);
+		assertThat(stats.getVerified()).isEqualTo(verified);
+		assertThat(stats.getProcessing()).isEqualTo(processing);
+		assertThat(stats.getRequiresInput()).isEqualTo(requiresInput);
+		assertThat(stats.getPending()).isZero();
+	}
+
+	private VerificationSession session(String id, User user, String status) {
+		VerificationSession session = new VerificationSession();
+		session.setId(id);
+		session.setStatus(status);
+		session.setMetadata(Map.of("userId", String.valueOf(user.getId())));
+		return session;
+	}
+
+	private User persistUser() {
+		String suffix = UUID.randomUUID().toString().substring(0, 8);
+		return entityManager.persist(new User("user_" + suffix, "mail_" + suffix + "@test.com", "pwd", Role.ROLE_USER));
+	}
+
+	// Contexte JPA minimal : évite le @ComponentScan global de MobilityApplication
+	@SpringBootConfiguration
+	@EntityScan(basePackageClasses = { Offer.class, NotificationMessage.class })
+	@EnableJpaRepositories(basePackageClasses = OfferRepository.class)
+	static class TestConfig {
+	}
+}
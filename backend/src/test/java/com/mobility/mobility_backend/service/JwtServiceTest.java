@@ -0,0 +1,78 @@
+package com.mobility.mobility_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Base64;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JwtServiceTest {
+
+	private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+
+	private final JwtService jwtService = new JwtService(SECRET, 60_000, 120_000, 100);
+
+	private final UserDetails alice = User.withUsername("alice").password("x").roles("ADMIN").build();
+
+	/*
+	 * Un token généré par le service est décodé en une passe avec tous ses claims,
+	 * et le second décodage renvoie la même instance mise en cache.
+	 */
+	@Test
+	void whenDecodeGeneratedToken_thenClaimsAreParsedAndCached() {
+		String token = jwtService.generateToken(alice);
+
+		JwtClaims claims = jwtService.decode(token);
+
+		assertThat(claims.subject()).isEqualTo("alice");
+		assertThat(claims.role()).isEqualTo("ROLE_ADMIN");
+		assertThat(claims.expiresAt()).isAfter(claims.issuedAt());
+		assertThat(jwtService.decode(token)).isSameAs(claims);
+		assertThat(jwtService.isTokenValid(token, alice)).isTrue();
+		assertThat(jwtService.isRefreshTokenValid(token, alice)).isFalse();
+		assertThat(jwtService.isRefreshTokenValid(jwtService.generateRefreshToken(alice), alice)).isTrue();
+	}
+
+	/*
+	 * Le cache des tokens vérifiés est indexé par empreinte SHA-256 : le bearer
+	 * token brut n'y est jamais conservé.
+	 */
+	@Test
+	@SuppressWarnings("unchecked")
+	void whenTokenCached_thenRawTokenIsNotKept() {
+		String token = jwtService.generateToken(alice);
+
+		jwtService.decode(token);
+
+		Map<String, JwtClaims> verified = (Map<String, JwtClaims>) ReflectionTestUtils.getField(jwtService,
+				"verifiedTokens");
+		assertThat(verified).hasSize(1).doesNotContainKey(token);
+		assertThat(verified.keySet()).noneMatch(key -> key.contains(token.substring(token.lastIndexOf('.') + 1)));
+	}
+
+	/*
+	 * Un payload modifié, un token signé avec une autre clé ou un token expiré
+	 * sont refusés.
+	 */
+	@Test
+	void whenTokenTamperedForeignOrExpired_thenRejected() {
+		String token = jwtService.generateToken(alice);
+		String[] parts = token.split("\\.");
+		String forgedPayload = Base64.getUrlEncoder().withoutPadding()
+				.encodeToString("{\"sub\":\"mallory\",\"exp\":9999999999}".getBytes());
+		String forged = parts[0] + "." + forgedPayload + "." + parts[2];
+
+		JwtService otherKey = new JwtService("another-secret-another-secret-another-secret", 60_000, 0, 100);
+		String expired = jwtService.generateToken(Map.of(), alice, -1_000);
+
+		assertThat(jwtService.decode(forged)).isNull();
+		assertThat(jwtService.decode(otherKey.generateToken(alice))).isNull();
+		assertThat(jwtService.decode(expired)).isNull();
+		assertThat(jwtService.decode("not-a-token")).isNull();
+		assertThat(jwtService.extractUsername(forged)).isNull();
+	}
+}
@@ -2,6 +2,8 @@ package com.mobility.mobility_backend.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -16,12 +18,17 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.ActiveProfiles;
 
 import com.mobility.mobility_backend.dto.CreateOfferDTO;
 import com.mobility.mobility_backend.dto.OfferDTO;
 import com.mobility.mobility_backend.dto.OfferMapper;
+import com.mobility.mobility_backend.dto.OfferSearchCriteria;
+import com.mobility.mobility_backend.dto.OfferSearchPageDTO;
 import com.mobility.mobility_backend.entity.Admin;
 import com.mobility.mobility_backend.entity.City;
 import com.mobility.mobility_backend.entity.MobilityService;
@@ -30,6 +37,9 @@ import com.mobility.mobility_backend.repository.AdminRepository;
 import com.mobility.mobility_backend.repository.CityRepository;
 import com.mobility.mobility_backend.repository.MobilityServiceRepository;
 import com.mobility.mobility_backend.repository.OfferRepository;
+import com.mobility.mobility_backend.service.cache.OfferCatalogCacheService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 
 @ExtendWith(MockitoExtension.class)
 @ActiveProfiles("ci")
@@ -50,6 +60,10 @@ public class OfferServiceTest {
 	@Mock
 	private AdminRepository adminRepository;
 
+	@Spy
+	private OfferCatalogCacheService offerCatalogCache = new OfferCatalogCacheService(new SimpleMeterRegistry(), 100,
+			60, 300);
+
 	@InjectMocks
 	private OfferService offerService;
 
@@ -68,7 +82,8 @@ public class OfferServiceTest {
 		OfferDTO dto1 = new OfferDTO();
 		OfferDTO dto2 = new OfferDTO();
 
-		when(offerRepository.findAll()).thenReturn(offers);
+		when(offerRepository.searchOffers(any(), any(), any(), any(), any(), any(), any(), any(), any(),
+				any(Pageable.class))).thenReturn(offers);
 		when(offerMapper.toDTO(offer1)).thenReturn(dto1);
 		when(offerMapper.toDTO(offer2)).thenReturn(dto2);
 
@@ -77,7 +92,48 @@ public class OfferServiceTest {
 
 		// Then
 		assertThat(result).hasSize(2);
-		verify(offerRepository, times(1)).findAll();
+		// Seules les offres à venir : le plafond ne doit pas garder les plus anciennes
+		verify(offerRepository, times(1)).searchOffers(any(), any(), any(), any(), any(),
+				argThat(from -> from != null && !from.isAfter(LocalDateTime.now())), any(), any(), any(),
+				eq(PageRequest.of(0, OfferService.LEGACY_LIST_CAP + 1)));
+	}
+
+	/*
+	 * Ce test vérifie la pagination par curseur : une ligne de plus que la taille
+	 * demandée signale une page suivante, et le curseur renvoyé permet de
+	 * reprendre après la dernière offre de la page.
+	 */
+	@Test
+	void whenSearchOffersWithMoreRows_thenReturnNextCursor() {
+		// Given
+		LocalDateTime pickup = LocalDateTime.of(2030, 1, 1, 10, 0);
+		Offer offer1 = Offer.builder().pickupDatetime(pickup).build();
+		offer1.setOfferId(1);
+		Offer offer2 = Offer.builder().pickupDatetime(pickup).build();
+		offer2.setOfferId(2);
+		Offer offer3 = Offer.builder().pickupDatetime(pickup.plusHours(1)).build();
+		offer3.setOfferId(3);
+
+		when(offerRepository.searchOffers(any(), any(), any(), any(), any(), any(), any(), any(), any(),
+				any(Pageable.class))).thenReturn(Arrays.asList(offer1, offer2, offer3));
+		when(offerMapper.toDTO(any(Offer.class))).thenReturn(new OfferDTO());
+
+		OfferSearchCriteria criteria = new OfferSearchCriteria();
+		criteria.setSize(2);
+
+		// When
+		OfferSearchPageDTO page = offerService.searchOffers(criteria);
+
+		// Then
+		assertThat(page.getItems()).hasSize(2);
+		assertThat(page.isHasMore()).isTrue();
+		assertThat(page.getNextCursor()).isNotBlank();
+
+		// Page suivante : le curseur est décodé en (pickupDatetime, offerId)
+		criteria.setCursor(page.getNextCursor());
+		offerService.searchOffers(criteria);
+		verify(offerRepository).searchOffers(any(), any(), any(), any(), any(), any(), any(), eq(pickup), eq(2),
+				eq(PageRequest.of(0, 3)));
 	}
 
 	/*
@@ -104,6 +160,32 @@ public class OfferServiceTest {
 		assertThat(result.get()).isEqualTo(offerDTO);
 	}
 
+	/*
+	 * Ce test vérifie que le détail d'une offre est servi par le cache catalogue
+	 * au second appel, puis rechargé depuis la base après une mise à jour.
+	 */
+	@Test
+	void whenGetOfferByIdTwice_thenRepositoryIsHitOnceUntilUpdate() {
+		// Given
+		Integer offerId = 1;
+		Offer offer = new Offer();
+		when(offerRepository.findById(offerId)).thenReturn(Optional.of(offer));
+		when(offerMapper.toDTO(offer)).thenReturn(new OfferDTO());
+		when(offerRepository.save(any(Offer.class))).thenReturn(offer);
+
+		// When
+		offerService.getOfferById(offerId);
+		offerService.getOfferById(offerId);
+
+		// Then
+		verify(offerRepository, times(1)).findById(offerId);
+
+		// Une mise à jour invalide le détail : la lecture suivante repasse par la base
+		offerService.updateOfferStatus(offerId, false);
+		offerService.getOfferById(offerId);
+		verify(offerRepository, times(3)).findById(offerId);
+	}
+
 	/*
 	 * Ce test simule une recherche d'une offre inexistante par son ID et confirme
 	 * que le service gère correctement ce cas en renvoyant un Optional vide,
@@ -0,0 +1,226 @@
+package com.mobility.mobility_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.mobility.mobility_backend.dto.availability.OfferSlotProjection;
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.entity.Admin;
+import com.mobility.mobility_backend.entity.City;
+import com.mobility.mobility_backend.entity.MobilityService;
+import com.mobility.mobility_backend.entity.Offer;
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.entity.Role;
+import com.mobility.mobility_backend.entity.User;
+import com.mobility.mobility_backend.repository.OfferRepository;
+import com.mobility.mobility_backend.repository.ReservationRepository;
+import com.mobility.mobility_backend.repository.SchedulerLockRepository;
+import com.mobility.mobility_backend.service.availability.OfferAvailabilityService;
+import com.mobility.mobility_backend.service.finance.FinanceAggregateService;
+import com.mobility.mobility_backend.service.scheduling.SchedulerLockService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = { "spring.flyway.enabled=false" })
+// Chaque lot et chaque prise de verrou ont leur propre transaction : pas de transaction de test englobante
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PaymentReminderSchedulerTest {
+
+	@Autowired
+	private ReservationRepository reservationRepository;
+
+	@Autowired
+	private SchedulerLockRepository lockRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	/*
+	 * Les réservations PENDING trop anciennes passent à EXPIRED par lots
+	 * (UPDATE ensembliste), les notifications partent par lot et les agrégats
+	 * financiers reçoivent un delta par réservation, et les créneaux expirés sont
+	 * libérés ; les récentes ne bougent pas.
+	 */
+	@Test
+	void whenMarkExpiredPayments_thenStaleReservationsTransitionInChunks() {
+		List<Integer> stale = new ArrayList<>();
+		Integer[] fresh = new Integer[1];
+		Integer[] offerId = new Integer[1];
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			User user = persistUser();
+			Offer offer = persistOffer();
+			offerId[0] = offer.getOfferId();
+			for (int i = 0; i < 7; i++) {
+				stale.add(persistReservation(user, offer, LocalDateTime.now().plusDays(5),
+						LocalDateTime.now().minusDays(3)));
+			}
+			fresh[0] = persistReservation(user, offer, LocalDateTime.now().plusDays(5), LocalDateTime.now());
+		});
+
+		PaymentNotificationService notifications = mock(PaymentNotificationService.class);
+		FinanceAggregateService aggregates = mock(FinanceAggregateService.class);
+		OfferAvailabilityService availability = mock(OfferAvailabilityService.class);
+		PaymentReminderScheduler scheduler = scheduler(notifications, aggregates, availability, 3);
+
+		scheduler.markExpiredPayments();
+
+		assertThat(reservationRepository.findAllById(stale))
+				.extracting(Reservation::getPaymentStatus)
+				.containsOnly(Reservation.PaymentStatus.EXPIRED)
+				.hasSize(7);
+		assertThat(reservationRepository.findById(fresh[0]).orElseThrow().getPaymentStatus())
+				.isEqualTo(Reservation.PaymentStatus.PENDING);
+
+		@SuppressWarnings("unchecked")
+		ArgumentCaptor<List<Reservation>> batches = ArgumentCaptor.forClass(List.class);
+		verify(notifications, times(3)).notifyPaymentsExpired(batches.capture());
+		assertThat(batches.getAllValues()).extracting(List::size).containsExactly(3, 3, 1);
+		assertThat(batches.getAllValues().get(0).get(0).getUser()).isNotNull();
+		verify(aggregates, times(7)).apply(any(), any());
+		stale.forEach(id -> verify(availability).release(offerId[0], id));
+		verify(availability, times(0)).release(any(), eq(fresh[0]));
+		assertThat(reservationRepository.findActiveSlots(offerId[0]))
+				.extracting(OfferSlotProjection::getReservationId)
+				.containsExactly(fresh[0]);
+
+		// Deuxième passage : plus rien à faire
+		scheduler.markExpiredPayments();
+		verify(notifications, times(3)).notifyPaymentsExpired(anyList());
+	}
+
+	/*
+	 * Le rappel d'une réservation proche n'est envoyé qu'une fois, même si son
+	 * échéance est traitée deux fois (deux réplicas, puis le balayage cron).
+	 */
+	@Test
+	void whenRemindCalledTwice_thenReminderIsSentOnce() {
+		Integer[] ids = new Integer[2];
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			User user = persistUser();
+			Offer offer = persistOffer();
+			ids[0] = persistReservation(user, offer, LocalDateTime.now().plusHours(10), LocalDateTime.now());
+			ids[1] = persistReservation(user, offer, LocalDateTime.now().plusDays(3), LocalDateTime.now());
+		});
+		PaymentNotificationService notifications = mock(PaymentNotificationService.class);
+		PaymentReminderScheduler scheduler = scheduler(notifications, mock(FinanceAggregateService.class),
+				mock(OfferAvailabilityService.class), 10);
+
+		assertThat(scheduler.remind(List.of(ids[0], ids[1]))).isEqualTo(1);
+		assertThat(scheduler.remind(List.of(ids[0]))).isZero();
+		scheduler.sendReminders();
+
+		verify(notifications, times(1)).notifyUpcomingPayments(anyList());
+		assertThat(reservationRepository.findById(ids[0]).orElseThrow().getPaymentReminderSentAt()).isNotNull();
+		assertThat(reservationRepository.findById(ids[1]).orElseThrow().getPaymentReminderSentAt()).isNull();
+	}
+
+	/*
+	 * Tant qu'un nœud détient le verrou d'une tâche, un autre nœud ne l'exécute
+	 * pas ; une fois libéré (lockAtLeastFor écoulé), il le reprend.
+	 */
+	@Test
+	void whenLockIsHeld_thenOtherNodeSkipsTheTask() {
+		SchedulerLockService nodeA = new SchedulerLockService(lockRepository, transactionManager);
+		SchedulerLockService nodeB = new SchedulerLockService(lockRepository, transactionManager);
+		AtomicBoolean nestedRan = new AtomicBoolean();
+
+		boolean ranOnA = nodeA.runIfLeader("test.task", Duration.ofMinutes(5), Duration.ZERO,
+				() -> nestedRan.set(nodeB.runIfLeader("test.task", Duration.ofMinutes(5), Duration.ZERO, () -> {
+				})));
+
+		assertThat(ranOnA).isTrue();
+		assertThat(nestedRan).isFalse();
+		assertThat(nodeB.runIfLeader("test.task", Duration.ofMinutes(5), Duration.ZERO, () -> {
+		})).isTrue();
+		assertThat(lockRepository.findById("test.task").orElseThrow().getLockedBy()).isEqualTo(nodeB.getOwner());
+	}
+
+	private PaymentReminderScheduler scheduler(PaymentNotificationService notifications,
+			FinanceAggregateService aggregates, OfferAvailabilityService availability, int chunkSize) {
+		StaticListableBeanFactory beans = new StaticListableBeanFactory(
+				Map.of("financeAggregateService", aggregates, "offerAvailabilityService", availability));
+		return new PaymentReminderScheduler(reservationRepository, notifications,
+				new SchedulerLockService(lockRepository, transactionManager), transactionManager,
+				beans.getBeanProvider(FinanceAggregateService.class), beans.getBeanProvider(OfferAvailabilityService.class),
+				new SimpleMeterRegistry(), 120, 48, 24, chunkSize, 60_000, 0);
+	}
+
+	private User persistUser() {
+		User user = new User(unique("user"), unique("mail") + "@test.com", "pwd", Role.ROLE_USER);
+		entityManager.persist(user);
+		return user;
+	}
+
+	private Offer persistOffer() {
+		Admin admin = new Admin(unique("admin"), unique("mail") + "@test.com", "password", 1);
+		admin.setRole("ROLE_ADMIN");
+		entityManager.persist(admin);
+		MobilityService service = new MobilityService(unique("service"), "desc");
+		entityManager.persist(service);
+		City city = new City("Paris");
+		entityManager.persist(city);
+		Offer offer = Offer.builder().pickupLocation(city).returnLocation(city).mobilityService(service).admin(admin)
+				.pickupDatetime(LocalDateTime.now().plusDays(1)).description("Offre")
+				.price(new BigDecimal("10.00")).build();
+		entityManager.persist(offer);
+		return offer;
+	}
+
+	private Integer persistReservation(User user, Offer offer, LocalDateTime reservationDate, LocalDateTime updatedAt) {
+		Reservation reservation = new Reservation();
+		reservation.setUser(user);
+		reservation.setOffer(offer);
+		reservation.setReservationDate(reservationDate);
+		reservation.setStatus(Reservation.ReservationStatus.PENDING);
+		reservation.setPaymentStatus(Reservation.PaymentStatus.PENDING);
+		reservation.setUpdatedAt(updatedAt);
+		entityManager.persist(reservation);
+		return reservation.getReservationId();
+	}
+
+	private String unique(String prefix) {
+		return prefix + "_" + UUID.randomUUID().toString().substring(0, 8);
+	}
+
+	// Contexte JPA minimal : évite le @ComponentScan global de MobilityApplication
+	@SpringBootConfiguration
+	@EntityScan(basePackageClasses = { Offer.class, NotificationMessage.class })
+	@EnableJpaRepositories(basePackageClasses = OfferRepository.class)
+	static class TestConfig {
+	}
+}
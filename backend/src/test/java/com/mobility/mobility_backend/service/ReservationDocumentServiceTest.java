@@ -0,0 +1,121 @@
+package com.mobility.mobility_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import com.mobility.mobility_backend.dto.finance.ReceiptBatchDTO;
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.entity.Role;
+import com.mobility.mobility_backend.entity.User;
+import com.mobility.mobility_backend.repository.ReservationRepository;
+import com.mobility.mobility_backend.service.receipt.ReceiptContent;
+import com.mobility.mobility_backend.service.receipt.ReceiptStore;
+import com.mobility.mobility_backend.service.receipt.ReceiptTemplate;
+
+public class ReservationDocumentServiceTest {
+
+	@TempDir
+	Path storeDir;
+
+	private ReservationRepository reservationRepository;
+	private ReceiptStore receiptStore;
+	private ReservationDocumentService service;
+
+	@BeforeEach
+	void setUp() {
+		reservationRepository = mock(ReservationRepository.class);
+		receiptStore = new ReceiptStore(storeDir.toString());
+		service = new ReservationDocumentService(reservationRepository, new ReceiptTemplate(), receiptStore, 4);
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	/*
+	 * Le reçu est rendu une fois par version puis relu depuis le disque ; un
+	 * changement de statut de paiement donne une nouvelle version (nouvel ETag)
+	 * et remplace l'ancien fichier.
+	 */
+	@Test
+	void whenPaymentStatusChanges_thenReceiptIsRenderedAgainUnderNewVersion() throws Exception {
+		Reservation reservation = reservation(7, Reservation.PaymentStatus.PENDING);
+		when(reservationRepository.findWithReceiptDetailsByReservationId(7)).thenReturn(Optional.of(reservation));
+
+		ReceiptContent pending = service.describeReceipt(7);
+		Path first = service.getReceiptFile(pending);
+		assertThat(Files.readAllBytes(first)).startsWith("%PDF".getBytes());
+		long renderedAt = Files.getLastModifiedTime(first).toMillis();
+		Files.setLastModifiedTime(first, FileTime.fromMillis(renderedAt - 60_000));
+
+		assertThat(service.getReceiptFile(service.describeReceipt(7))).isEqualTo(first);
+		assertThat(Files.getLastModifiedTime(first).toMillis()).isEqualTo(renderedAt - 60_000);
+
+		reservation.setPaymentStatus(Reservation.PaymentStatus.PAID);
+		ReceiptContent paid = service.describeReceipt(7);
+		assertThat(ReservationDocumentService.etag(paid)).isNotEqualTo(ReservationDocumentService.etag(pending));
+		Path second = service.getReceiptFile(paid);
+		assertThat(second).isNotEqualTo(first).exists();
+		assertThat(first).doesNotExist();
+
+		receiptStore.evict(7);
+		assertThat(second).doesNotExist();
+	}
+
+	/*
+	 * Lot mensuel : les reçus des réservations payées sont rendus en parallèle,
+	 * un second passage réutilise les fichiers stockés.
+	 */
+	@Test
+	void whenRenderingMonthTwice_thenStoredReceiptsAreReused() throws Exception {
+		List<Reservation> paid = new ArrayList<>();
+		for (int id = 1; id <= 20; id++) {
+			paid.add(reservation(id, Reservation.PaymentStatus.PAID));
+		}
+		when(reservationRepository.findPaidWithReceiptDetails(any(), any())).thenReturn(paid);
+
+		ReceiptBatchDTO first = service.renderMonth(YearMonth.of(2030, 1));
+		assertThat(first.getTotal()).isEqualTo(20);
+		assertThat(first.getRendered()).isEqualTo(20);
+		assertThat(first.getFailed()).isZero();
+		try (Stream<Path> files = Files.walk(storeDir)) {
+			assertThat(files.filter(file -> file.toString().endsWith(".pdf")).count()).isEqualTo(20);
+		}
+
+		ReceiptBatchDTO second = service.renderMonth(YearMonth.of(2030, 1));
+		assertThat(second.getRendered()).isZero();
+		assertThat(second.getReused()).isEqualTo(20);
+	}
+
+	private Reservation reservation(Integer id, Reservation.PaymentStatus paymentStatus) {
+		User user = new User("client" + id, "client" + id + "@test.com", "pwd", Role.ROLE_USER);
+		Reservation reservation = new Reservation();
+		reservation.setReservationId(id);
+		reservation.setUser(user);
+		reservation.setReservationDate(LocalDateTime.of(2030, 1, 10, 9, 0));
+		reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
+		reservation.setPaymentStatus(paymentStatus);
+		reservation.setPaymentAmount(new BigDecimal("42.50"));
+		reservation.setPaymentDate(LocalDateTime.of(2030, 1, 5, 12, 0));
+		return reservation;
+	}
+}
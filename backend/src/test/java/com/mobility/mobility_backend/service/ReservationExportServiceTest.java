@@ -0,0 +1,144 @@
+package com.mobility.mobility_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.entity.Admin;
+import com.mobility.mobility_backend.entity.City;
+import com.mobility.mobility_backend.entity.MobilityService;
+import com.mobility.mobility_backend.entity.Offer;
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.entity.Role;
+import com.mobility.mobility_backend.entity.User;
+import com.mobility.mobility_backend.repository.OfferRepository;
+import com.mobility.mobility_backend.repository.ReservationRepository;
+
+import jakarta.persistence.EntityManager;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = { "spring.flyway.enabled=false" })
+public class ReservationExportServiceTest {
+
+	@Autowired
+	private ReservationRepository reservationRepository;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	/*
+	 * Filtres (client, anomalies de paiement) et tri par date décroissante sont
+	 * appliqués par la requête ; le contexte vidé à chaque ligne ne perd aucune
+	 * donnée (utilisateur et offre chargés avec la réservation).
+	 */
+	@Test
+	void whenExportingAnomaliesOfOneUser_thenRowsAreFilteredAndSortedInDatabase() throws Exception {
+		User client = persistUser();
+		User other = persistUser();
+		Offer offer = persistOffer("Citadine électrique");
+		Integer older = persistReservation(client, offer, LocalDateTime.now().plusDays(1),
+				Reservation.PaymentStatus.FAILED);
+		Integer newer = persistReservation(client, offer, LocalDateTime.now().plusDays(3),
+				Reservation.PaymentStatus.PENDING);
+		persistReservation(client, offer, LocalDateTime.now().plusDays(2), Reservation.PaymentStatus.PAID);
+		persistReservation(other, offer, LocalDateTime.now().plusDays(2), Reservation.PaymentStatus.FAILED);
+		entityManager.flush();
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		long rows = new ReservationExportService(reservationRepository, entityManager, 1).writeCsv(null, "ALL", null,
+				null, true, client.getId(), output, false);
+
+		String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+		assertThat(rows).isEqualTo(2);
+		assertThat(lines).hasSize(3);
+		assertThat(lines[0]).isEqualTo(ReservationExportService.HEADER);
+		assertThat(lines[1]).startsWith(newer + ";\"" + client.getUsername() + "\"").contains("\"PENDING\"")
+				.contains("\"Citadine électrique\"").contains(";10,00;");
+		assertThat(lines[2]).startsWith(older + ";").contains("\"FAILED\"");
+	}
+
+	/*
+	 * Export compressé : l'archive gzip est complète (finish) et contient le
+	 * même CSV, filtré ici par mot-clé et statut de paiement.
+	 */
+	@Test
+	void whenExportingWithGzip_thenArchiveDecompressesToCsv() throws Exception {
+		User client = persistUser();
+		Integer matching = persistReservation(client, persistOffer("Utilitaire 12m3"), LocalDateTime.now(),
+				Reservation.PaymentStatus.PAID);
+		persistReservation(client, persistOffer("Scooter"), LocalDateTime.now(), Reservation.PaymentStatus.PAID);
+		entityManager.flush();
+
+		ByteArrayOutputStream output = new ByteArrayOutputStream();
+		new ReservationExportService(reservationRepository, entityManager, 500).writeCsv("UTILITAIRE", "paid", null,
+				null, false, null, output, true);
+
+		String csv;
+		try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(output.toByteArray()))) {
+			csv = new String(input.readAllBytes(), StandardCharsets.UTF_8);
+		}
+		assertThat(csv.split("\n")).hasSize(2);
+		assertThat(csv.split("\n")[1]).startsWith(matching + ";").contains("\"Utilitaire 12m3\"");
+	}
+
+	private User persistUser() {
+		User user = new User(unique("user"), unique("mail") + "@test.com", "pwd", Role.ROLE_USER);
+		entityManager.persist(user);
+		return user;
+	}
+
+	private Offer persistOffer(String description) {
+		Admin admin = new Admin(unique("admin"), unique("mail") + "@test.com", "password", 1);
+		admin.setRole("ROLE_ADMIN");
+		entityManager.persist(admin);
+		MobilityService service = new MobilityService(unique("service"), "desc");
+		entityManager.persist(service);
+		City city = new City("Paris");
+		entityManager.persist(city);
+		Offer offer = Offer.builder().pickupLocation(city).returnLocation(city).mobilityService(service).admin(admin)
+				.pickupDatetime(LocalDateTime.now().plusDays(1)).description(description)
+				.price(new BigDecimal("10.00")).build();
+		entityManager.persist(offer);
+		return offer;
+	}
+
+	private Integer persistReservation(User user, Offer offer, LocalDateTime reservationDate,
+			Reservation.PaymentStatus paymentStatus) {
+		Reservation reservation = new Reservation();
+		reservation.setUser(user);
+		reservation.setOffer(offer);
+		reservation.setReservationDate(reservationDate);
+		reservation.setStatus(Reservation.ReservationStatus.CONFIRMED);
+		reservation.setPaymentStatus(paymentStatus);
+		entityManager.persist(reservation);
+		return reservation.getReservationId();
+	}
+
+	private String unique(String prefix) {
+		return prefix + "_" + UUID.randomUUID().toString().substring(0, 8);
+	}
+
+	// Contexte JPA minimal : évite le @ComponentScan global de MobilityApplication
+	@SpringBootConfiguration
+	@EntityScan(basePackageClasses = { Offer.class, NotificationMessage.class })
+	@EnableJpaRepositories(basePackageClasses = OfferRepository.class)
+	static class TestConfig {
+	}
+}
@@ -0,0 +1,143 @@
+package com.mobility.mobility_backend.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.mobility.mobility_backend.dto.ReservationDTO;
+import com.mobility.mobility_backend.dto.ReservationMapper;
+import com.mobility.mobility_backend.dto.availability.OfferSlotProjection;
+import com.mobility.mobility_backend.entity.Offer;
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.repository.OfferRepository;
+import com.mobility.mobility_backend.repository.ReservationRepository;
+import com.mobility.mobility_backend.repository.UserRepository;
+import com.mobility.mobility_backend.service.availability.OfferAvailabilityService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class ReservationServiceTest {
+
+	private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+	@Mock
+	private ReservationRepository reservationRepository;
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private OfferRepository offerRepository;
+
+	@Mock
+	private PaymentNotificationService paymentNotificationService;
+
+	@Mock
+	private IdentityVerificationService identityVerificationService;
+
+	@Mock
+	private DriverProfileService driverProfileService;
+
+	private OfferAvailabilityService availability;
+	private ReservationService reservationService;
+	private Reservation reservation;
+
+	@BeforeEach
+	void setUp() {
+		availability = new OfferAvailabilityService(reservationRepository, new SimpleMeterRegistry(), 120, 4, 60_000);
+		reservationService = new ReservationService(reservationRepository, userRepository, offerRepository,
+				new ReservationMapper(), paymentNotificationService, identityVerificationService, driverProfileService,
+				availability);
+
+		Offer offer = new Offer();
+		offer.setOfferId(1);
+		reservation = new Reservation();
+		reservation.setReservationId(41);
+		reservation.setOffer(offer);
+		reservation.setReservationDate(BASE);
+		reservation.setSlotEnd(BASE.plusMinutes(120));
+		reservation.setStatus(Reservation.ReservationStatus.PENDING);
+		when(reservationRepository.findById(41)).thenReturn(Optional.of(reservation));
+		when(reservationRepository.findActiveSlots(1)).thenReturn(List.of(activeSlot()));
+	}
+
+	/*
+	 * Un changement de date recalcule la fin du créneau et déplace le créneau
+	 * de la réservation dans l'index : l'ancien se libère, le nouveau est pris.
+	 */
+	@Test
+	void whenReservationDateChanges_thenSlotIsMovedAndSlotEndRecomputed() {
+		when(reservationRepository.saveAndFlush(any(Reservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+		ReservationDTO update = new ReservationDTO();
+		update.setReservationDate(BASE.plusMinutes(300));
+
+		reservationService.updateReservation(41, update);
+
+		assertThat(reservation.getSlotEnd()).isEqualTo(BASE.plusMinutes(420));
+		assertThat(availability.isAvailable(1, BASE)).isTrue();
+		assertThat(availability.isAvailable(1, BASE.plusMinutes(360))).isFalse();
+	}
+
+	/*
+	 * Seule la contrainte d'exclusion des créneaux devient un 409 ; toute autre
+	 * violation d'intégrité est propagée et l'ancien créneau est restitué.
+	 */
+	@Test
+	void whenOtherConstraintIsViolated_thenErrorIsNotReportedAsSlotConflict() {
+		ReservationDTO update = new ReservationDTO();
+		update.setReservationDate(BASE.plusMinutes(300));
+
+		when(reservationRepository.saveAndFlush(any(Reservation.class)))
+				.thenThrow(violation("ex_reservations_offer_slot"), violation("fk_reservations_user"));
+
+		assertThatThrownBy(() -> reservationService.updateReservation(41, update))
+				.isInstanceOfSatisfying(ResponseStatusException.class,
+						e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.CONFLICT));
+		reservation.setReservationDate(BASE);
+		assertThatThrownBy(() -> reservationService.updateReservation(41, update))
+				.isInstanceOf(DataIntegrityViolationException.class);
+		assertThat(availability.isAvailable(1, BASE)).isFalse();
+		assertThat(availability.isAvailable(1, BASE.plusMinutes(300))).isTrue();
+	}
+
+	private static OfferSlotProjection activeSlot() {
+		return new OfferSlotProjection() {
+			@Override
+			public Integer getReservationId() {
+				return 41;
+			}
+
+			@Override
+			public LocalDateTime getReservationDate() {
+				return BASE;
+			}
+
+			@Override
+			public LocalDateTime getSlotEnd() {
+				return BASE.plusMinutes(120);
+			}
+		};
+	}
+
+	private static DataIntegrityViolationException violation(String constraint) {
+		return new DataIntegrityViolationException("could not execute statement",
+				new ConstraintViolationException("violation", new SQLException("violation"), constraint));
+	}
+}
@@ -0,0 +1,108 @@
+package com.mobility.mobility_backend.service.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.mobility.mobility_backend.dto.auth.TokenVersionProjection;
+import com.mobility.mobility_backend.entity.Role;
+import com.mobility.mobility_backend.entity.User;
+import com.mobility.mobility_backend.repository.AdminRepository;
+import com.mobility.mobility_backend.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenVersionServiceTest {
+
+	@Mock
+	private UserRepository userRepository;
+
+	@Mock
+	private AdminRepository adminRepository;
+
+	@Mock
+	private UserDetailsCacheService userDetailsCache;
+
+	@InjectMocks
+	private TokenVersionService tokenVersionService;
+
+	@BeforeEach
+	void setUp() {
+		when(adminRepository.findAllUsernames()).thenReturn(List.of("admin"));
+		when(userRepository.findAllTokenVersions()).thenReturn(List.of(row("alice", 2)));
+		tokenVersionService.reload();
+	}
+
+	/*
+	 * Après chargement, les comptes users et admins sont connus et seule la
+	 * version courante est acceptée.
+	 */
+	@Test
+	void whenReloaded_thenOnlyCurrentVersionIsAccepted() {
+		assertThat(tokenVersionService.isKnown("alice")).isTrue();
+		assertThat(tokenVersionService.isCurrent("alice", 2)).isTrue();
+		assertThat(tokenVersionService.isCurrent("alice", 1)).isFalse();
+		assertThat(tokenVersionService.isCurrent("admin", 0)).isTrue();
+		assertThat(tokenVersionService.isKnown("bob")).isFalse();
+	}
+
+	/*
+	 * Une révocation (changement de rôle, désactivation) incrémente la version :
+	 * les anciens tokens sont refusés. Un compte supprimé n'est plus connu.
+	 */
+	@Test
+	void whenTokensRevoked_thenPreviousVersionIsRejected() {
+		User alice = new User("alice", "alice@mail.fr", "x", Role.ROLE_USER);
+		alice.setTokenVersion(2);
+
+		tokenVersionService.revokeTokens(alice, null);
+
+		assertThat(alice.getTokenVersion()).isEqualTo(3);
+		assertThat(tokenVersionService.isCurrent("alice", 2)).isFalse();
+		assertThat(tokenVersionService.isCurrent("alice", 3)).isTrue();
+		verify(userDetailsCache).evict("alice");
+
+		tokenVersionService.forget("alice");
+		assertThat(tokenVersionService.isKnown("alice")).isFalse();
+	}
+
+	/*
+	 * Un compte absent de la table (créé sur un autre réplica) est validé via la
+	 * base : la version lue est comparée au claim puis mémorisée.
+	 */
+	@Test
+	void whenAccountUnknown_thenVersionIsCheckedInDatabaseAndLearned() {
+		when(userRepository.findTokenVersionByUsername("bob")).thenReturn(Optional.of(row("bob", 4)));
+		when(userRepository.findTokenVersionByUsername("ghost")).thenReturn(Optional.empty());
+		when(adminRepository.existsByUsername("ghost")).thenReturn(false);
+
+		assertThat(tokenVersionService.isCurrentInDatabase("bob", 3)).isFalse();
+		assertThat(tokenVersionService.isKnown("bob")).isTrue();
+		assertThat(tokenVersionService.isCurrent("bob", 4)).isTrue();
+		assertThat(tokenVersionService.isCurrentInDatabase("ghost", 0)).isFalse();
+		assertThat(tokenVersionService.isKnown("ghost")).isFalse();
+	}
+
+	private static TokenVersionProjection row(String username, int version) {
+		return new TokenVersionProjection() {
+			@Override
+			public String getUsername() {
+				return username;
+			}
+
+			@Override
+			public Integer getTokenVersion() {
+				return version;
+			}
+		};
+	}
+}
@@ -0,0 +1,178 @@
+package com.mobility.mobility_backend.service.availability;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.mobility.mobility_backend.dto.availability.OfferSlotProjection;
+import com.mobility.mobility_backend.repository.ReservationRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class OfferAvailabilityServiceTest {
+
+	private static final LocalDateTime BASE = LocalDateTime.of(2030, 1, 1, 8, 0);
+
+	/*
+	 * Test de charge : 16 threads réservent en rafale des créneaux de 2 h qui se
+	 * chevauchent sur 8 offres, en libérant une partie des blocages (annulations).
+	 * À la fin, aucun couple de créneaux retenus ne se chevauche sur une offre.
+	 */
+	@Test
+	void whenBookingConcurrently_thenNoOfferIsDoubleBooked() throws Exception {
+		ReservationRepository repository = mock(ReservationRepository.class);
+		when(repository.findActiveSlots(anyInt())).thenReturn(List.of());
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		// Pas de relecture pendant la rafale : les conflits sont tous locaux
+		OfferAvailabilityService service = new OfferAvailabilityService(repository, registry, 120, 4, 60_000);
+
+		int threads = 16;
+		int attemptsPerThread = 2_000;
+		Map<Integer, List<LocalDateTime>> kept = new ConcurrentHashMap<>();
+		AtomicInteger reservationIds = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService pool = Executors.newFixedThreadPool(threads);
+		for (int t = 0; t < threads; t++) {
+			pool.submit(() -> {
+				start.await();
+				ThreadLocalRandom random = ThreadLocalRandom.current();
+				for (int i = 0; i < attemptsPerThread; i++) {
+					int offerId = random.nextInt(8);
+					LocalDateTime slotStart = BASE.plusMinutes(30L * random.nextInt(96));
+					try {
+						OfferAvailabilityService.Hold hold = service.hold(offerId, slotStart);
+						if (random.nextInt(4) == 0) {
+							hold.release();
+						} else {
+							hold.confirm(reservationIds.incrementAndGet());
+							kept.computeIfAbsent(offerId, id -> new CopyOnWriteArrayList<>()).add(slotStart);
+						}
+					} catch (ResponseStatusException e) {
+						rejected.incrementAndGet();
+					}
+				}
+				return null;
+			});
+		}
+		start.countDown();
+		pool.shutdown();
+		assertThat(pool.awaitTermination(30, TimeUnit.SECONDS)).isTrue();
+
+		for (List<LocalDateTime> starts : kept.values()) {
+			List<LocalDateTime> sorted = new ArrayList<>(starts);
+			sorted.sort(null);
+			for (int i = 1; i < sorted.size(); i++) {
+				assertThat(sorted.get(i)).isAfterOrEqualTo(sorted.get(i - 1).plusMinutes(120));
+			}
+		}
+		assertThat(rejected.get()).isPositive();
+		assertThat(registry.counter("availability.conflicts").count()).isEqualTo(rejected.get());
+		// Index chargé une seule fois par offre malgré la concurrence
+		verify(repository, times(kept.size())).findActiveSlots(anyInt());
+	}
+
+	/*
+	 * Les réservations actives en base bloquent leur créneau ; une annulation
+	 * libère le créneau, les créneaux bord à bord restent réservables.
+	 */
+	@Test
+	void whenReservationIsReleased_thenSlotBecomesAvailable() {
+		ReservationRepository repository = mock(ReservationRepository.class);
+		when(repository.findActiveSlots(1)).thenReturn(List.of(slot(41, BASE, null)));
+		OfferAvailabilityService service = new OfferAvailabilityService(repository, new SimpleMeterRegistry(), 120,
+				4, 0);
+
+		assertThatThrownBy(() -> service.hold(1, BASE.plusMinutes(60))).isInstanceOf(ResponseStatusException.class);
+		assertThat(service.isAvailable(1, BASE.plusMinutes(120))).isTrue();
+		assertThat(service.isAvailable(1, BASE.minusMinutes(120))).isTrue();
+
+		service.release(1, 41);
+		OfferAvailabilityService.Hold hold = service.hold(1, BASE.plusMinutes(60));
+		assertThat(hold.getEnd()).isEqualTo(BASE.plusMinutes(180));
+		hold.release();
+		assertThat(service.isAvailable(1, BASE)).isTrue();
+	}
+
+	/*
+	 * Une réservation annulée sur un autre réplica reste dans l'index local :
+	 * avant le 409, l'offre est relue en base et le créneau accordé. Les
+	 * créneaux bloqués localement (transaction en cours) survivent à la relecture.
+	 */
+	@Test
+	void whenSlotWasFreedOnAnotherReplica_thenIndexIsReloadedBeforeConflict() {
+		ReservationRepository repository = mock(ReservationRepository.class);
+		when(repository.findActiveSlots(1)).thenReturn(List.of(slot(41, BASE, null)), List.of());
+		OfferAvailabilityService service = new OfferAvailabilityService(repository, new SimpleMeterRegistry(), 120,
+				4, 0);
+		OfferAvailabilityService.Hold inFlight = service.hold(1, BASE.plusMinutes(300));
+
+		OfferAvailabilityService.Hold hold = service.hold(1, BASE.plusMinutes(60));
+
+		assertThat(hold.getEnd()).isEqualTo(BASE.plusMinutes(180));
+		assertThatThrownBy(() -> service.hold(1, BASE.plusMinutes(300))).isInstanceOf(ResponseStatusException.class);
+		inFlight.release();
+		assertThat(service.isAvailable(1, BASE.plusMinutes(300))).isTrue();
+	}
+
+	/*
+	 * Le changement de date d'une réservation ne se heurte pas à son propre
+	 * créneau ; annulé, il restitue l'ancien créneau.
+	 */
+	@Test
+	void whenReservationIsRescheduled_thenOwnSlotIsMovedAndRestoredOnRelease() {
+		ReservationRepository repository = mock(ReservationRepository.class);
+		when(repository.findActiveSlots(1)).thenReturn(List.of(slot(41, BASE, null), slot(42, BASE.plusMinutes(480), null)));
+		OfferAvailabilityService service = new OfferAvailabilityService(repository, new SimpleMeterRegistry(), 120,
+				4, 60_000);
+
+		OfferAvailabilityService.Hold hold = service.reschedule(1, 41, BASE.plusMinutes(60));
+		assertThat(service.isAvailable(1, BASE.minusMinutes(60))).isTrue();
+		assertThatThrownBy(() -> service.reschedule(1, 41, BASE.plusMinutes(420)))
+				.isInstanceOf(ResponseStatusException.class);
+		assertThat(service.isAvailable(1, BASE.plusMinutes(240))).isTrue();
+
+		hold.release();
+		assertThat(service.isAvailable(1, BASE.minusMinutes(60))).isFalse();
+		assertThat(service.isAvailable(1, BASE.plusMinutes(120))).isTrue();
+	}
+
+	private OfferSlotProjection slot(Integer reservationId, LocalDateTime start, LocalDateTime end) {
+		return new OfferSlotProjection() {
+			@Override
+			public Integer getReservationId() {
+				return reservationId;
+			}
+
+			@Override
+			public LocalDateTime getReservationDate() {
+				return start;
+			}
+
+			@Override
+			public LocalDateTime getSlotEnd() {
+				return end;
+			}
+		};
+	}
+}
@@ -0,0 +1,173 @@
+package com.mobility.mobility_backend.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisKeyCommands;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.listener.Topic;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobility.mobility_backend.dto.AdminStatsDTO;
+import com.mobility.mobility_backend.dto.UserDTO;
+import com.mobility.mobility_backend.service.redis.RedisCacheService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Cache admin branché sur le vrai {@link RedisCacheService} : seul le
+ * {@link RedisTemplate} est simulé (stockage clé/octets, SCAN/UNLINK, pub/sub).
+ */
+public class AdminStatsCacheServiceTest {
+
+	private final Map<String, byte[]> redisStore = new ConcurrentHashMap<>();
+	private final List<MessageListener> listeners = new ArrayList<>();
+
+	@SuppressWarnings("unchecked")
+	private final RedisTemplate<String, byte[]> redisTemplate = mock(RedisTemplate.class);
+	@SuppressWarnings("unchecked")
+	private final ValueOperations<String, byte[]> valueOperations = mock(ValueOperations.class);
+
+	private AdminStatsCacheService nodeA;
+	private AdminStatsCacheService nodeB;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+		doAnswer(invocation -> redisStore.put(invocation.getArgument(0), invocation.getArgument(1)))
+				.when(valueOperations).set(anyString(), any(byte[].class), anyLong(), any(TimeUnit.class));
+		when(valueOperations.get(anyString())).thenAnswer(invocation -> redisStore.get(invocation.getArgument(0)));
+
+		RedisConnection connection = connection();
+		when(redisTemplate.execute(any(RedisCallback.class)))
+				.thenAnswer(invocation -> invocation.<RedisCallback<?>>getArgument(0).doInRedis(connection));
+
+		RedisMessageListenerContainer listenerContainer = mock(RedisMessageListenerContainer.class);
+		doAnswer(invocation -> listeners.add(invocation.getArgument(0))).when(listenerContainer)
+				.addMessageListener(any(MessageListener.class), any(Topic.class));
+		RedisCacheService redis = new RedisCacheService(redisTemplate, listenerContainer, "cache:invalidation");
+
+		nodeA = node(redis);
+		nodeB = node(redis);
+	}
+
+	/*
+	 * Les statistiques et la page d'utilisateurs écrites par un réplica passent
+	 * par Redis (SET avec TTL) et sont relues, décodées, par l'autre réplica.
+	 */
+	@Test
+	void whenStatsCachedOnOneNode_thenOtherNodeReadsThemFromRedis() {
+		AdminStatsDTO stats = new AdminStatsDTO(10, 8, 5, 1, 3, 250.0, LocalDateTime.of(2025, 1, 1, 12, 0));
+		UserDTO user = new UserDTO();
+		user.setUsername("alice");
+
+		nodeA.cacheStats(stats);
+		nodeA.cacheUsers(0, 10, List.of(user));
+
+		verify(valueOperations).set(eq("admin:stats"), any(byte[].class), eq(5L), eq(TimeUnit.MINUTES));
+		verify(valueOperations).set(eq("admin:users:page:0:size:10"), any(byte[].class), eq(10L),
+				eq(TimeUnit.MINUTES));
+		assertThat(new String(redisStore.get("admin:stats"), StandardCharsets.UTF_8)).contains("\"totalUsers\":10");
+
+		AdminStatsDTO read = nodeB.getCachedStats();
+		assertThat(read.getTotalUsers()).isEqualTo(10);
+		assertThat(read.getLastUpdated()).isEqualTo(LocalDateTime.of(2025, 1, 1, 12, 0));
+		assertThat(nodeB.getCachedUsers(0, 10)).extracting(UserDTO::getUsername).containsExactly("alice");
+		verify(valueOperations).get("admin:stats");
+	}
+
+	/*
+	 * L'invalidation globale supprime les clés Redis par SCAN/UNLINK et, via le
+	 * pub/sub, le L1 des autres réplicas ; une panne Redis devient un défaut de cache.
+	 */
+	@Test
+	void whenAdminCacheInvalidated_thenRedisKeysAndOtherNodeL1AreCleared() {
+		nodeA.cacheStats(new AdminStatsDTO());
+		assertThat(nodeB.getCachedStats()).isNotNull();
+
+		nodeA.invalidateAllAdminCache();
+
+		assertThat(redisStore).isEmpty();
+		assertThat(nodeB.getCachedStats()).isNull();
+
+		when(valueOperations.get(anyString())).thenThrow(new RedisConnectionFailureException("down"));
+		nodeA.cacheStats(new AdminStatsDTO());
+		assertThat(nodeB.getCachedStats()).isNull();
+	}
+
+	private AdminStatsCacheService node(RedisCacheService redis) {
+		StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+		beanFactory.addBean("redisCacheService", redis);
+		TieredCacheService tiered = new TieredCacheService(
+				new MemoryCacheService(new SimpleMeterRegistry(), 100, 1000),
+				beanFactory.getBeanProvider(RedisCacheService.class),
+				new CacheCodec(new ObjectMapper().findAndRegisterModules()), 60);
+		tiered.subscribeToInvalidations();
+		AdminStatsCacheService service = new AdminStatsCacheService();
+		ReflectionTestUtils.setField(service, "tieredCacheService", tiered);
+		return service;
+	}
+
+	// Connexion simulée : SCAN sur les clés stockées, UNLINK, PUBLISH synchrone vers les abonnés
+	@SuppressWarnings({ "unchecked", "deprecation" })
+	private RedisConnection connection() {
+		RedisConnection connection = mock(RedisConnection.class);
+		RedisKeyCommands keyCommands = mock(RedisKeyCommands.class);
+		when(connection.keyCommands()).thenReturn(keyCommands);
+		when(keyCommands.scan(any(ScanOptions.class))).thenAnswer(invocation -> {
+			String pattern = invocation.<ScanOptions>getArgument(0).getPattern();
+			String prefix = pattern.substring(0, pattern.length() - 1);
+			Iterator<byte[]> keys = redisStore.keySet().stream().filter(key -> key.startsWith(prefix))
+					.map(key -> key.getBytes(StandardCharsets.UTF_8)).toList().iterator();
+			Cursor<byte[]> cursor = mock(Cursor.class);
+			when(cursor.hasNext()).thenAnswer(call -> keys.hasNext());
+			when(cursor.next()).thenAnswer(call -> keys.next());
+			return cursor;
+		});
+		when(keyCommands.unlink(any(byte[][].class))).thenAnswer(invocation -> {
+			long removed = 0;
+			for (Object key : invocation.getRawArguments()) {
+				for (byte[] bytes : key instanceof byte[][] many ? many : new byte[][] { (byte[]) key }) {
+					removed += redisStore.remove(new String(bytes, StandardCharsets.UTF_8)) != null ? 1 : 0;
+				}
+			}
+			return removed;
+		});
+		when(connection.publish(any(byte[].class), any(byte[].class))).thenAnswer(invocation -> {
+			DefaultMessage message = new DefaultMessage(invocation.getArgument(0), invocation.getArgument(1));
+			listeners.forEach(listener -> listener.onMessage(message, null));
+			return (long) listeners.size();
+		});
+		return connection;
+	}
+}
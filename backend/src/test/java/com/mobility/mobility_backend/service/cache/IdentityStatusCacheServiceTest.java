@@ -0,0 +1,170 @@
+package com.mobility.mobility_backend.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobility.mobility_backend.dto.identity.IdentityStatusSnapshot;
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.entity.Offer;
+import com.mobility.mobility_backend.entity.Role;
+import com.mobility.mobility_backend.entity.User;
+import com.mobility.mobility_backend.entity.UserIdentityDocument;
+import com.mobility.mobility_backend.entity.UserIdentityVerification;
+import com.mobility.mobility_backend.entity.UserIdentityVerification.VerificationStatus;
+import com.mobility.mobility_backend.repository.OfferRepository;
+import com.mobility.mobility_backend.repository.UserIdentityDocumentRepository;
+import com.mobility.mobility_backend.repository.UserIdentityVerificationRepository;
+import com.mobility.mobility_backend.service.redis.RedisCacheService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = { "spring.flyway.enabled=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+public class IdentityStatusCacheServiceTest {
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Autowired
+	private UserIdentityVerificationRepository verificationRepository;
+
+	@Autowired
+	private UserIdentityDocumentRepository documentRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	private IdentityStatusCacheService cache;
+
+	@BeforeEach
+	void setUp() {
+		TieredCacheService tiered = new TieredCacheService(
+				new MemoryCacheService(new SimpleMeterRegistry(), 1000, 10000),
+				new StaticListableBeanFactory().getBeanProvider(RedisCacheService.class),
+				new CacheCodec(new ObjectMapper().findAndRegisterModules()), 60);
+		cache = new IdentityStatusCacheService(tiered, verificationRepository, documentRepository, 300);
+	}
+
+	/*
+	 * Les statuts de plusieurs utilisateurs sont chargés en deux requêtes
+	 * (dernière vérification, nombre de documents), puis servis sans requête.
+	 */
+	@Test
+	void whenLoadingStatusesTwice_thenDatabaseIsQueriedOnceInBatch() {
+		User verified = persistUser();
+		UserIdentityVerification older = persistVerification(verified, VerificationStatus.REQUIRES_INPUT);
+		persistVerification(verified, VerificationStatus.VERIFIED);
+		persistDocument(verified, older);
+		persistDocument(verified, older);
+		User pending = persistUser();
+		persistVerification(pending, VerificationStatus.PROCESSING);
+		User unknown = persistUser();
+		entityManager.flush();
+		entityManager.clear();
+
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		Map<Integer, IdentityStatusSnapshot> first = cache
+				.getAll(List.of(verified.getId(), pending.getId(), unknown.getId()));
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+
+		assertThat(first.get(verified.getId()).getStatus()).isEqualTo("VERIFIED");
+		assertThat(first.get(verified.getId()).isVerified()).isTrue();
+		assertThat(first.get(verified.getId()).getDocumentCount()).isEqualTo(2);
+		assertThat(first.get(pending.getId()).getStatus()).isEqualTo("PROCESSING");
+		assertThat(first.get(unknown.getId()).getStatus()).isEqualTo("NONE");
+
+		statistics.clear();
+		Map<Integer, IdentityStatusSnapshot> second = cache
+				.getAll(List.of(verified.getId(), pending.getId(), unknown.getId()));
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+		assertThat(second).hasSize(3);
+	}
+
+	/*
+	 * Une nouvelle vérification remplace l'entrée en cache au rafraîchissement,
+	 * déclenché après la validation de la transaction qui l'a écrite.
+	 */
+	@Test
+	@Transactional(propagation = Propagation.NOT_SUPPORTED)
+	void whenVerificationChanges_thenRefreshReplacesCachedStatus() {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		User user = transaction.execute(status -> {
+			User created = persistUser();
+			persistVerification(created, VerificationStatus.PROCESSING);
+			return created;
+		});
+		assertThat(cache.get(user.getId()).getStatus()).isEqualTo("PROCESSING");
+
+		transaction.executeWithoutResult(status -> {
+			persistVerification(entityManager.find(User.class, user.getId()), VerificationStatus.VERIFIED);
+			cache.refresh(user.getId());
+			assertThat(cache.get(user.getId()).getStatus()).isEqualTo("PROCESSING");
+		});
+		assertThat(cache.get(user.getId()).isVerified()).isTrue();
+	}
+
+	private User persistUser() {
+		return entityManager.persist(new User(unique("user"), unique("mail") + "@test.com", "pwd", Role.ROLE_USER));
+	}
+
+	private UserIdentityVerification persistVerification(User user, VerificationStatus status) {
+		UserIdentityVerification verification = new UserIdentityVerification();
+		verification.setUser(user);
+		verification.setStripeSessionId(unique("vs"));
+		verification.setStatus(status);
+		verification.setLatest(true);
+		entityManager.persist(verification);
+		verificationRepository.clearLatestExcept(user.getId(), verification.getId());
+		return verification;
+	}
+
+	private void persistDocument(User user, UserIdentityVerification verification) {
+		UserIdentityDocument document = new UserIdentityDocument();
+		document.setUser(user);
+		document.setVerification(verification);
+		document.setDocumentType("passport");
+		document.setStatus("verified");
+		entityManager.persist(document);
+	}
+
+	private String unique(String prefix) {
+		return prefix + "_" + UUID.randomUUID().toString().substring(0, 8);
+	}
+
+	// Contexte JPA minimal : évite le @ComponentScan global de MobilityApplication
+	@SpringBootConfiguration
+	@EntityScan(basePackageClasses = { Offer.class, NotificationMessage.class })
+	@EnableJpaRepositories(basePackageClasses = OfferRepository.class)
+	static class TestConfig {
+	}
+}
@@ -0,0 +1,77 @@
+package com.mobility.mobility_backend.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class MemoryCacheServiceTest {
+
+	/*
+	 * Au-delà du nombre maximum d'entrées, la clé la moins récemment lue est
+	 * évincée et comptée dans les métriques.
+	 */
+	@Test
+	void whenMaxEntriesExceeded_thenLeastRecentlyUsedIsEvicted() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		MemoryCacheService cache = new MemoryCacheService(registry, 2, 100);
+
+		cache.set("admin:stats", "stats");
+		cache.set("admin:recent_activity", "activity");
+		cache.get("admin:stats");
+		cache.set("admin:users:page:0:size:10", List.of("a", "b"));
+
+		assertThat(cache.exists("admin:recent_activity")).isFalse();
+		assertThat(cache.get("admin:stats")).isEqualTo("stats");
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.weight()).isEqualTo(3);
+		assertThat(registry.get("cache.memory.evictions").tag("cause", "size").functionCounter().count())
+				.isEqualTo(1);
+		assertThat(registry.get("cache.memory.size").gauge().value()).isEqualTo(2);
+	}
+
+	/*
+	 * Le balayage supprime les entrées expirées jamais relues, et la suppression
+	 * par préfixe ne touche que les clés concernées.
+	 */
+	@Test
+	void whenSweepAndDeleteByPattern_thenOnlyTargetedKeysAreRemoved() throws InterruptedException {
+		MemoryCacheService cache = new MemoryCacheService(new SimpleMeterRegistry(), 100, 1000);
+
+		cache.set("admin:users:page:0:size:10", "page0", 1, TimeUnit.MILLISECONDS);
+		cache.set("admin:stats", "stats");
+		cache.set("offers:list", "offers");
+		Thread.sleep(5);
+
+		cache.purgeExpired();
+		assertThat(cache.size()).isEqualTo(2);
+
+		cache.deleteByPattern("admin:");
+		assertThat(cache.exists("admin:stats")).isFalse();
+		assertThat(cache.get("offers:list")).isEqualTo("offers");
+		assertThat(cache.weight()).isEqualTo(1);
+	}
+
+	/*
+	 * Les sondes (exists, TTL) et le balayage ne comptent pas comme des lectures :
+	 * la clé seulement sondée reste la moins récemment utilisée et part en premier.
+	 */
+	@Test
+	void whenProbingAndSweeping_thenLruOrderIsUnchanged() {
+		MemoryCacheService cache = new MemoryCacheService(new SimpleMeterRegistry(), 2, 100);
+
+		cache.set("admin:stats", "stats");
+		cache.set("admin:recent_activity", "activity");
+		assertThat(cache.exists("admin:stats")).isTrue();
+		assertThat(cache.getTtl("admin:stats")).isPositive();
+		cache.purgeExpired();
+		cache.set("offers:list", "offers");
+
+		assertThat(cache.exists("admin:stats")).isFalse();
+		assertThat(cache.exists("admin:recent_activity")).isTrue();
+	}
+}
@@ -0,0 +1,57 @@
+package com.mobility.mobility_backend.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class OfferCatalogCacheServiceTest {
+
+	/*
+	 * Un chargement terminé après une invalidation ne remet pas son résultat
+	 * (périmé) en cache : la lecture suivante recharge.
+	 */
+	@Test
+	void whenEvictedDuringLoad_thenStaleResultIsNotCached() {
+		OfferCatalogCacheService cache = new OfferCatalogCacheService(new SimpleMeterRegistry(), 100, 60, 300);
+		AtomicInteger loads = new AtomicInteger();
+
+		List<String> stale = cache.getListing("all", () -> {
+			loads.incrementAndGet();
+			// Écriture validée pendant la requête
+			cache.evictListings();
+			return List.of("ancienne");
+		});
+		assertThat(stale).containsExactly("ancienne");
+
+		List<String> fresh = cache.getListing("all", () -> {
+			loads.incrementAndGet();
+			return List.of("nouvelle");
+		});
+		assertThat(fresh).containsExactly("nouvelle");
+		assertThat(cache.getListing("all", () -> List.of("inattendue"))).containsExactly("nouvelle");
+		assertThat(loads.get()).isEqualTo(2);
+	}
+
+	/*
+	 * Les listes mises en cache sont des copies non modifiables : ni le chargeur
+	 * ni un appelant ne peuvent altérer l'entrée partagée.
+	 */
+	@Test
+	void whenListIsCached_thenSharedCopyIsImmutable() {
+		OfferCatalogCacheService cache = new OfferCatalogCacheService(new SimpleMeterRegistry(), 100, 60, 300);
+		List<String> loaded = new ArrayList<>(List.of("offre-1"));
+
+		List<String> first = cache.getListing("all", () -> loaded);
+		loaded.add("offre-2");
+
+		assertThatThrownBy(() -> first.add("offre-3")).isInstanceOf(UnsupportedOperationException.class);
+		assertThat(cache.getListing("all", () -> List.of())).containsExactly("offre-1");
+	}
+}
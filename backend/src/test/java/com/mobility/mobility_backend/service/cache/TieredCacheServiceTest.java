@@ -0,0 +1,147 @@
+package com.mobility.mobility_backend.service.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobility.mobility_backend.dto.AdminStatsDTO;
+import com.mobility.mobility_backend.dto.UserDTO;
+import com.mobility.mobility_backend.service.redis.RedisCacheService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class TieredCacheServiceTest {
+
+	private final CacheCodec codec = new CacheCodec(new ObjectMapper().findAndRegisterModules());
+
+	private InMemoryRedis redis;
+	private TieredCacheService nodeA;
+	private TieredCacheService nodeB;
+	private MemoryCacheService l1B;
+
+	@BeforeEach
+	void setUp() {
+		redis = new InMemoryRedis();
+		nodeA = node(new MemoryCacheService(new SimpleMeterRegistry(), 100, 1000), redis);
+		l1B = new MemoryCacheService(new SimpleMeterRegistry(), 100, 1000);
+		nodeB = node(l1B, redis);
+	}
+
+	/*
+	 * Une valeur écrite par un réplica est relue par l'autre via Redis, décodée
+	 * dans le bon type DTO, puis servie depuis son L1.
+	 */
+	@Test
+	void whenValueWrittenOnOneNode_thenOtherNodeReadsItThroughL2() {
+		AdminStatsDTO stats = new AdminStatsDTO(10, 8, 5, 1, 3, 250.0, LocalDateTime.of(2025, 1, 1, 12, 0));
+		nodeA.set("admin:stats", stats, 5, TimeUnit.MINUTES);
+		UserDTO user = new UserDTO();
+		user.setUsername("alice");
+		nodeA.set("admin:users:page:0:size:10", List.of(user), 5, TimeUnit.MINUTES);
+
+		AdminStatsDTO read = nodeB.get("admin:stats", AdminStatsDTO.class);
+		List<UserDTO> users = nodeB.getList("admin:users:page:0:size:10", UserDTO.class);
+
+		assertThat(read.getTotalUsers()).isEqualTo(10);
+		assertThat(read.getLastUpdated()).isEqualTo(LocalDateTime.of(2025, 1, 1, 12, 0));
+		assertThat(users).extracting(UserDTO::getUsername).containsExactly("alice");
+		assertThat(l1B.exists("admin:stats")).isTrue();
+	}
+
+	/*
+	 * L'invalidation par préfixe sur un réplica est diffusée en pub/sub et vide
+	 * le L1 des autres réplicas.
+	 */
+	@Test
+	void whenPrefixInvalidatedOnOneNode_thenOtherNodeL1IsCleared() {
+		nodeA.set("admin:stats", new AdminStatsDTO(), 5, TimeUnit.MINUTES);
+		nodeB.get("admin:stats", AdminStatsDTO.class);
+		assertThat(l1B.exists("admin:stats")).isTrue();
+
+		nodeA.deleteByPrefix("admin:");
+
+		assertThat(l1B.exists("admin:stats")).isFalse();
+		assertThat(nodeB.get("admin:stats", AdminStatsDTO.class)).isNull();
+	}
+
+	/*
+	 * Sans Redis, le cache fonctionne avec le seul niveau mémoire.
+	 */
+	@Test
+	void whenRedisAbsent_thenL1OnlyIsUsed() {
+		TieredCacheService local = node(new MemoryCacheService(new SimpleMeterRegistry(), 100, 1000), null);
+
+		local.set("admin:stats", new AdminStatsDTO(), 5, TimeUnit.MINUTES);
+
+		assertThat(local.get("admin:stats", AdminStatsDTO.class)).isNotNull();
+		local.deleteByPrefix("admin:");
+		assertThat(local.get("admin:stats", AdminStatsDTO.class)).isNull();
+	}
+
+	private TieredCacheService node(MemoryCacheService l1, RedisCacheService l2) {
+		StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+		if (l2 != null) {
+			beanFactory.addBean("redisCacheService", l2);
+		}
+		ObjectProvider<RedisCacheService> provider = beanFactory.getBeanProvider(RedisCacheService.class);
+		TieredCacheService service = new TieredCacheService(l1, provider, codec, 60);
+		service.subscribeToInvalidations();
+		return service;
+	}
+
+	/**
+	 * Remplaçant local de Redis : stockage clé/octets et diffusion synchrone des
+	 * messages d'invalidation à tous les abonnés.
+	 */
+	private static class InMemoryRedis extends RedisCacheService {
+
+		private final Map<String, byte[]> store = new ConcurrentHashMap<>();
+		private final List<Consumer<String>> subscribers = new ArrayList<>();
+
+		InMemoryRedis() {
+			super(null, null, "cache:invalidation");
+		}
+
+		@Override
+		public byte[] get(String key) {
+			return store.get(key);
+		}
+
+		@Override
+		public void set(String key, byte[] value, long timeout, TimeUnit unit) {
+			store.put(key, value);
+		}
+
+		@Override
+		public void delete(String key) {
+			store.remove(key);
+		}
+
+		@Override
+		public void deleteByPrefix(String prefix) {
+			store.keySet().removeIf(key -> key.startsWith(prefix));
+		}
+
+		@Override
+		public void publish(String message) {
+			subscribers.forEach(subscriber -> subscriber.accept(message));
+		}
+
+		@Override
+		public void subscribe(Consumer<String> handler) {
+			subscribers.add(handler);
+		}
+	}
+}
@@ -0,0 +1,141 @@
+package com.mobility.mobility_backend.service.finance;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.mobility.mobility_backend.dto.finance.PaymentAggregateProjection;
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.repository.ReservationRepository;
+
+@ExtendWith(MockitoExtension.class)
+public class FinanceAggregateServiceTest {
+
+	@Mock
+	private ReservationRepository reservationRepository;
+
+	@InjectMocks
+	private FinanceAggregateService financeAggregateService;
+
+	/*
+	 * La reconstruction doit charger les compteurs depuis le GROUP BY et exposer
+	 * les mêmes totaux que les anciennes requêtes SUM/COUNT.
+	 */
+	@Test
+	void whenRebuild_thenTotalsMatchAggregatedRows() {
+		YearMonth current = YearMonth.now();
+		when(reservationRepository.aggregateByPaymentStatusAndMonth()).thenReturn(List.of(
+				row(Reservation.PaymentStatus.PAID, Reservation.ReservationStatus.CONFIRMED, current, 2, "100.00"),
+				row(Reservation.PaymentStatus.PAID, Reservation.ReservationStatus.COMPLETED,
+						current.minusMonths(2), 1, "40.00"),
+				row(Reservation.PaymentStatus.PENDING, Reservation.ReservationStatus.PENDING, null, 3, "75.00")));
+
+		financeAggregateService.rebuild();
+
+		assertThat(financeAggregateService.totalCount()).isEqualTo(6);
+		assertThat(financeAggregateService.countByStatus(Reservation.ReservationStatus.PENDING)).isEqualTo(3);
+		assertThat(financeAggregateService.sumPaidAmount()).isEqualByComparingTo("140.00");
+		assertThat(financeAggregateService.sumPaidAmountSince(current)).isEqualByComparingTo("100.00");
+		assertThat(financeAggregateService.sumOutstandingAmount()).isEqualByComparingTo("75.00");
+		assertThat(financeAggregateService.paidHistory(current.minusMonths(5), current)).hasSize(2);
+	}
+
+	/*
+	 * Une transition PENDING -> PAID déplace la contribution de la réservation
+	 * d'un compteur à l'autre sans relire la base.
+	 */
+	@Test
+	void whenApplyTransition_thenCountersMoveBetweenBuckets() {
+		when(reservationRepository.aggregateByPaymentStatusAndMonth()).thenReturn(List.of());
+		financeAggregateService.rebuild();
+
+		Reservation.FinanceState pending = new Reservation.FinanceState(Reservation.PaymentStatus.PENDING,
+				Reservation.ReservationStatus.PENDING, null, new BigDecimal("30.00"));
+		Reservation.FinanceState paid = new Reservation.FinanceState(Reservation.PaymentStatus.PAID,
+				Reservation.ReservationStatus.CONFIRMED, LocalDateTime.now(), new BigDecimal("30.00"));
+
+		financeAggregateService.apply(null, pending);
+		assertThat(financeAggregateService.sumOutstandingAmount()).isEqualByComparingTo("30.00");
+
+		financeAggregateService.apply(pending, paid);
+		assertThat(financeAggregateService.sumOutstandingAmount()).isEqualByComparingTo("0");
+		assertThat(financeAggregateService.sumPaidAmountSince(YearMonth.now())).isEqualByComparingTo("30.00");
+		assertThat(financeAggregateService.breakdownByPaymentStatus().get(Reservation.PaymentStatus.PENDING).count())
+				.isZero();
+
+		financeAggregateService.apply(paid, null);
+		assertThat(financeAggregateService.totalCount()).isZero();
+	}
+
+	/*
+	 * Une transition validée pendant la requête de reconstruction attend la
+	 * bascule puis s'applique une seule fois aux compteurs rechargés.
+	 */
+	@Test
+	void whenTransitionArrivesDuringRebuild_thenItIsAppliedOnceToFreshCounters() throws Exception {
+		Reservation.FinanceState paid = new Reservation.FinanceState(Reservation.PaymentStatus.PAID,
+				Reservation.ReservationStatus.CONFIRMED, LocalDateTime.now(), new BigDecimal("25.00"));
+		Thread commit = new Thread(() -> financeAggregateService.apply(null, paid));
+		when(reservationRepository.aggregateByPaymentStatusAndMonth()).thenAnswer(invocation -> {
+			// Commit concurrent, non vu par le GROUP BY : il reste bloqué jusqu'à la bascule
+			commit.start();
+			while (commit.getState() != Thread.State.BLOCKED) {
+				Thread.onSpinWait();
+			}
+			return List.of(row(Reservation.PaymentStatus.PENDING, Reservation.ReservationStatus.PENDING, null, 1,
+					"10.00"));
+		});
+
+		financeAggregateService.rebuild();
+		commit.join(5000);
+
+		assertThat(financeAggregateService.totalCount()).isEqualTo(2);
+		assertThat(financeAggregateService.sumPaidAmount()).isEqualByComparingTo("25.00");
+		assertThat(financeAggregateService.sumOutstandingAmount()).isEqualByComparingTo("10.00");
+	}
+
+	private PaymentAggregateProjection row(Reservation.PaymentStatus paymentStatus,
+			Reservation.ReservationStatus status, YearMonth month, long count, String amount) {
+		return new PaymentAggregateProjection() {
+			@Override
+			public Reservation.PaymentStatus getPaymentStatus() {
+				return paymentStatus;
+			}
+
+			@Override
+			public Reservation.ReservationStatus getStatus() {
+				return status;
+			}
+
+			@Override
+			public Integer getPaymentYear() {
+				return month != null ? month.getYear() : null;
+			}
+
+			@Override
+			public Integer getPaymentMonth() {
+				return month != null ? month.getMonthValue() : null;
+			}
+
+			@Override
+			public Long getCount() {
+				return count;
+			}
+
+			@Override
+			public BigDecimal getAmount() {
+				return new BigDecimal(amount);
+			}
+		};
+	}
+}
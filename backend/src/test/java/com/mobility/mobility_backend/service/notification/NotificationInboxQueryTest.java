@@ -0,0 +1,153 @@
+package com.mobility.mobility_backend.service.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.mobility.mobility_backend.dto.socket.NotificationCategory;
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.dto.socket.NotificationPageDTO;
+import com.mobility.mobility_backend.dto.socket.NotificationSeverity;
+import com.mobility.mobility_backend.entity.Offer;
+import com.mobility.mobility_backend.repository.OfferRepository;
+import com.mobility.mobility_backend.service.cache.MemoryCacheService;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = { "spring.flyway.enabled=false",
+		"spring.jpa.properties.hibernate.generate_statistics=true" })
+public class NotificationInboxQueryTest {
+
+	@Autowired
+	private NotificationService notificationService;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@MockBean
+	private SseEmitterRegistry emitterRegistry;
+
+	@MockBean
+	private NotificationPersistenceQueue persistenceQueue;
+
+	@MockBean
+	private NotificationBus notificationBus;
+
+	@MockBean
+	private SseReplayBuffer replayBuffer;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+	}
+
+	/*
+	 * La boîte de réception se parcourt par curseur sans doublon ni trou, du plus
+	 * récent au plus ancien, et chaque page coûte au plus deux requêtes
+	 * (notifications + métadonnées par lot) quel que soit le nombre de lignes.
+	 */
+	@Test
+	void whenWalkingInboxPages_thenEveryNotificationIsReturnedOnceWithBoundedStatements() {
+		for (int i = 0; i < 25; i++) {
+			persist("42", LocalDateTime.now().minusMinutes(i), false);
+		}
+		persist("7", LocalDateTime.now(), false);
+		entityManager.flush();
+		entityManager.clear();
+
+		List<NotificationMessage> walked = new ArrayList<>();
+		String cursor = null;
+		int pages = 0;
+		do {
+			statistics.clear();
+			NotificationPageDTO page = notificationService.getInboxPage("42", null, null, false, cursor, 10);
+			assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+			walked.addAll(page.getItems());
+			cursor = page.getNextCursor();
+			pages++;
+		} while (cursor != null);
+
+		assertThat(pages).isEqualTo(3);
+		assertThat(walked).hasSize(25).extracting(NotificationMessage::getId).doesNotHaveDuplicates();
+		assertThat(walked).extracting(NotificationMessage::getCreatedAt)
+				.isSortedAccordingTo((a, b) -> b.compareTo(a));
+		assertThat(walked.get(0).getMetadata()).containsEntry("source", "test");
+	}
+
+	/*
+	 * Le compteur de non lues n'interroge la base qu'au premier accès, puis suit
+	 * exactement les lectures sans nouvelle requête COUNT.
+	 */
+	@Test
+	void whenReadingNotifications_thenUnreadCounterStaysExactWithoutCountQueries() {
+		NotificationMessage first = persist("42", LocalDateTime.now(), false);
+		persist("42", LocalDateTime.now().minusMinutes(1), false);
+		persist("42", LocalDateTime.now().minusMinutes(2), false);
+		persist("42", LocalDateTime.now().minusMinutes(3), true);
+		entityManager.flush();
+
+		assertThat(notificationService.getUnreadCount("42")).isEqualTo(3);
+
+		statistics.clear();
+		notificationService.markAsRead(first.getId(), "42");
+		notificationService.markAsRead(first.getId(), "42");
+		assertThat(notificationService.getUnreadCount("42")).isEqualTo(2);
+
+		notificationService.markAllAsRead("42");
+		assertThat(notificationService.getUnreadCount("42")).isZero();
+		// Uniquement les deux UPDATE de markAsRead et celui de markAllAsRead
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+	}
+
+	private NotificationMessage persist(String recipient, LocalDateTime createdAt, boolean read) {
+		NotificationMessage notification = new NotificationMessage();
+		notification.setCategory(NotificationCategory.USER_ACTION);
+		notification.setSeverity(NotificationSeverity.INFO);
+		notification.setTitle("Notification");
+		notification.setRecipient(recipient);
+		notification.setCreatedAt(createdAt);
+		notification.setRead(read);
+		notification.getMetadata().put("source", "test");
+		return entityManager.persist(notification);
+	}
+
+	// Contexte JPA minimal : évite le @ComponentScan global de MobilityApplication
+	@SpringBootConfiguration
+	@EntityScan(basePackageClasses = { Offer.class, NotificationMessage.class })
+	@EnableJpaRepositories(basePackageClasses = OfferRepository.class)
+	@Import({ NotificationService.class, UnreadCounterService.class, MemoryCacheService.class })
+	static class TestConfig {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+}
@@ -0,0 +1,164 @@
+package com.mobility.mobility_backend.service.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.repository.notification.NotificationRepository;
+import com.mobility.mobility_backend.service.cache.MemoryCacheService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationPersistenceQueueTest {
+
+	@Mock
+	private NotificationRepository notificationRepository;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+	private final List<String> writerThreads = new CopyOnWriteArrayList<>();
+
+	@BeforeEach
+	void setUp() {
+		when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+	}
+
+	/*
+	 * En mode async, submit() rend la main immédiatement et les notifications
+	 * sont persistées par lots bornés ; l'arrêt vide le reliquat.
+	 */
+	@Test
+	void whenAsync_thenNotificationsArePersistedInBatches() throws InterruptedException {
+		CountDownLatch allSubmitted = new CountDownLatch(1);
+		when(notificationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+			allSubmitted.await(5, TimeUnit.SECONDS);
+			batchSizes.add(((List<?>) invocation.getArgument(0)).size());
+			writerThreads.add(Thread.currentThread().getName());
+			return invocation.getArgument(0);
+		});
+		NotificationPersistenceQueue queue = new NotificationPersistenceQueue(notificationRepository,
+				unreadCounters(), transactionManager, new SimpleMeterRegistry(), "async", 1000, 100, 50);
+
+		for (int i = 0; i < 250; i++) {
+			queue.submit(new NotificationMessage());
+		}
+		allSubmitted.countDown();
+		queue.shutdown();
+
+		assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(250);
+		assertThat(batchSizes).allMatch(size -> size <= 100).hasSizeLessThanOrEqualTo(4);
+		assertThat(queue.getBacklogSize()).isZero();
+	}
+
+	/*
+	 * En mode sync, la notification est écrite sur le thread appelant avant que
+	 * submit() ne rende la main.
+	 */
+	@Test
+	void whenSync_thenNotificationIsPersistedOnCallerThread() {
+		when(notificationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+			writerThreads.add(Thread.currentThread().getName());
+			return invocation.getArgument(0);
+		});
+		NotificationPersistenceQueue queue = new NotificationPersistenceQueue(notificationRepository,
+				unreadCounters(), transactionManager, new SimpleMeterRegistry(), "sync", 1000, 100, 50);
+
+		queue.submit(new NotificationMessage());
+
+		assertThat(writerThreads).containsExactly(Thread.currentThread().getName());
+		assertThat(queue.getBacklogSize()).isZero();
+	}
+
+	/*
+	 * Le compteur de non lues inclut les notifications encore en file, puis les
+	 * reporte en base au commit du lot : ni oubli ni double comptage, sans
+	 * nouvelle requête COUNT.
+	 */
+	@Test
+	void whenNotificationsQueued_thenUnreadCounterIncludesThemUntilAndAfterCommit() throws InterruptedException {
+		CountDownLatch committed = new CountDownLatch(1);
+		when(notificationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+			committed.await(5, TimeUnit.SECONDS);
+			return invocation.getArgument(0);
+		});
+		when(notificationRepository.countUnreadByUserId("42")).thenReturn(1L);
+		UnreadCounterService unreadCounters = unreadCounters();
+		NotificationPersistenceQueue queue = new NotificationPersistenceQueue(notificationRepository,
+				unreadCounters, transactionManager, new SimpleMeterRegistry(), "async", 1000, 100, 50);
+		assertThat(unreadCounters.get("42")).isEqualTo(1);
+
+		queue.submit(notification("42", false));
+		queue.submit(notification("42", false));
+		queue.submit(notification("42", true));
+		assertThat(unreadCounters.get("42")).isEqualTo(3);
+
+		committed.countDown();
+		queue.shutdown();
+
+		assertThat(unreadCounters.get("42")).isEqualTo(3);
+		verify(notificationRepository).countUnreadByUserId("42");
+	}
+
+	/*
+	 * Une notification lue alors qu'elle est encore en file (l'UPDATE ne la voit
+	 * pas) est marquée lue juste après le commit de son lot, et le compteur suit.
+	 */
+	@Test
+	void whenMarkedReadWhileQueued_thenReadIsAppliedAfterCommit() throws InterruptedException {
+		CountDownLatch committed = new CountDownLatch(1);
+		when(notificationRepository.saveAll(anyList())).thenAnswer(invocation -> {
+			committed.await(5, TimeUnit.SECONDS);
+			return invocation.getArgument(0);
+		});
+		when(notificationRepository.countUnreadByUserId("42")).thenReturn(0L);
+		UnreadCounterService unreadCounters = unreadCounters();
+		NotificationPersistenceQueue queue = new NotificationPersistenceQueue(notificationRepository,
+				unreadCounters, transactionManager, new SimpleMeterRegistry(), "async", 1000, 100, 50);
+		NotificationMessage queued = notification("42", false);
+		// Pas encore en base, puis visible après le commit du lot
+		when(notificationRepository.markAsRead(queued.getId(), "42")).thenReturn(0, 1);
+
+		queue.submit(queued);
+		assertThat(unreadCounters.get("42")).isEqualTo(1);
+		queue.markReadWhenPersisted(queued.getId(), "42");
+		unreadCounters.markRead("42", () -> notificationRepository.markAsRead(queued.getId(), "42"));
+
+		committed.countDown();
+		queue.shutdown();
+
+		verify(notificationRepository, times(2)).markAsRead(queued.getId(), "42");
+		assertThat(unreadCounters.get("42")).isZero();
+	}
+
+	private UnreadCounterService unreadCounters() {
+		return new UnreadCounterService(notificationRepository,
+				new MemoryCacheService(new SimpleMeterRegistry(), 100, 1000), 300);
+	}
+
+	private static NotificationMessage notification(String recipient, boolean read) {
+		NotificationMessage notification = new NotificationMessage();
+		notification.setRecipient(recipient);
+		notification.setRead(read);
+		return notification;
+	}
+}
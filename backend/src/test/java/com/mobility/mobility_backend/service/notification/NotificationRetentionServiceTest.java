@@ -0,0 +1,108 @@
+package com.mobility.mobility_backend.service.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.mobility.mobility_backend.dto.socket.NotificationCategory;
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.dto.socket.NotificationSeverity;
+import com.mobility.mobility_backend.entity.Offer;
+import com.mobility.mobility_backend.repository.OfferRepository;
+import com.mobility.mobility_backend.repository.notification.NotificationRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = { "spring.flyway.enabled=false", "notifications.retention.chunk-size=3",
+		"notifications.retention.pause-ms=0", "notifications.retention.max-age-days.SYSTEM_ALERT=30" })
+public class NotificationRetentionServiceTest {
+
+	@Autowired
+	private NotificationRetentionService retentionService;
+
+	@Autowired
+	private NotificationRepository notificationRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@MockBean
+	private UnreadCounterService unreadCounters;
+
+	/*
+	 * Les expirées et les alertes système plus vieilles que leur rétention sont
+	 * supprimées par lots (métadonnées comprises) ; le reste est conservé.
+	 */
+	@Test
+	void whenPurging_thenExpiredAndTooOldRowsAreDeletedInChunksWithTheirMetadata() {
+		LocalDateTime now = LocalDateTime.now();
+		for (int i = 0; i < 7; i++) {
+			persist(NotificationCategory.USER_ACTION, now.minusDays(1), now.minusMinutes(1));
+		}
+		persist(NotificationCategory.SYSTEM_ALERT, now.minusDays(40), null);
+		persist(NotificationCategory.SYSTEM_ALERT, now.minusDays(40), null);
+		NotificationMessage recentAlert = persist(NotificationCategory.SYSTEM_ALERT, now.minusDays(10), null);
+		NotificationMessage oldAction = persist(NotificationCategory.USER_ACTION, now.minusDays(400), null);
+		NotificationMessage notExpired = persist(NotificationCategory.USER_ACTION, now, now.plusDays(1));
+		entityManager.flush();
+		entityManager.clear();
+
+		long deleted = retentionService.purge();
+
+		assertThat(deleted).isEqualTo(9);
+		assertThat(notificationRepository.findAll()).extracting(NotificationMessage::getId)
+				.containsExactlyInAnyOrder(recentAlert.getId(), oldAction.getId(), notExpired.getId());
+		Number metadataRows = (Number) entityManager.getEntityManager()
+				.createNativeQuery("SELECT COUNT(*) FROM notification_metadata").getSingleResult();
+		assertThat(metadataRows.longValue()).isEqualTo(3);
+		assertThat(meterRegistry.get("notifications.retention.deleted").tag("rule", "expired").counter().count())
+				.isEqualTo(7);
+		// 7 expirées en lots de 3 : 3 + 3 + 1
+		assertThat(meterRegistry.get("notifications.retention.chunk.duration").timer().count()).isGreaterThanOrEqualTo(3);
+	}
+
+	private NotificationMessage persist(NotificationCategory category, LocalDateTime createdAt,
+			LocalDateTime expiresAt) {
+		NotificationMessage notification = new NotificationMessage();
+		notification.setCategory(category);
+		notification.setSeverity(NotificationSeverity.INFO);
+		notification.setTitle("Notification");
+		notification.setRecipient("42");
+		notification.setCreatedAt(createdAt);
+		notification.setExpiresAt(expiresAt);
+		notification.getMetadata().put("source", "test");
+		return entityManager.persist(notification);
+	}
+
+	// Contexte JPA minimal : évite le @ComponentScan global de MobilityApplication
+	@SpringBootConfiguration
+	@EntityScan(basePackageClasses = { Offer.class, NotificationMessage.class })
+	@EnableJpaRepositories(basePackageClasses = OfferRepository.class)
+	@Import(NotificationRetentionService.class)
+	static class TestConfig {
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+}
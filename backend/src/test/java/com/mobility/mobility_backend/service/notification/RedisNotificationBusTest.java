@@ -0,0 +1,139 @@
+package com.mobility.mobility_backend.service.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisScriptingCommands;
+import org.springframework.data.redis.connection.ReturnType;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mobility.mobility_backend.dto.socket.NotificationCategory;
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.dto.socket.NotificationSeverity;
+import com.mobility.mobility_backend.service.cache.CacheCodec;
+
+public class RedisNotificationBusTest {
+
+	private final CacheCodec codec = new CacheCodec(new ObjectMapper().findAndRegisterModules());
+
+	// Canal Redis simulé : chaque publication est remise à tous les nœuds, émetteur compris
+	private final List<RedisNotificationBus> channelSubscribers = new ArrayList<>();
+
+	private final List<String> deliveredOnA = new CopyOnWriteArrayList<>();
+	private final List<String> deliveredOnB = new CopyOnWriteArrayList<>();
+
+	// Séquence Redis simulée (script INCR relevé au plancher)
+	private final AtomicLong sequence = new AtomicLong();
+
+	private RedisNotificationBus nodeA;
+	private RedisNotificationBus nodeB;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		RedisConnection connection = mock(RedisConnection.class);
+		when(connection.publish(any(byte[].class), any(byte[].class))).thenAnswer(invocation -> {
+			byte[] payload = invocation.getArgument(1);
+			channelSubscribers.forEach(bus -> bus.onMessage(payload));
+			return (long) channelSubscribers.size();
+		});
+		RedisScriptingCommands scripting = mock(RedisScriptingCommands.class);
+		when(connection.scriptingCommands()).thenReturn(scripting);
+		when(scripting.eval(any(byte[].class), any(ReturnType.class), anyInt(), any(byte[][].class)))
+				.thenAnswer(invocation -> {
+					Object[] arguments = invocation.getArguments();
+					long floor = Long.parseLong(
+							new String((byte[]) arguments[arguments.length - 1], StandardCharsets.UTF_8));
+					return sequence.updateAndGet(current -> Math.max(current + 1, floor));
+				});
+		RedisTemplate<String, byte[]> template = mock(RedisTemplate.class);
+		when(template.execute(any(RedisCallback.class)))
+				.thenAnswer(invocation -> ((RedisCallback<?>) invocation.getArgument(0)).doInRedis(connection));
+		RedisMessageListenerContainer container = mock(RedisMessageListenerContainer.class);
+
+		nodeA = new RedisNotificationBus(template, container, codec, "notifications:test");
+		nodeB = new RedisNotificationBus(template, container, codec, "notifications:test");
+		channelSubscribers.add(nodeA);
+		channelSubscribers.add(nodeB);
+		nodeA.subscribe(notification -> deliveredOnA.add(notification.getId()));
+		nodeB.subscribe(notification -> deliveredOnB.add(notification.getId()));
+	}
+
+	/*
+	 * Une notification publiée sur le nœud A est livrée une seule fois sur A
+	 * (localement) et une seule fois sur B (via Redis), sans doublon.
+	 */
+	@Test
+	void whenPublishedOnOneNode_thenEachNodeDeliversExactlyOnce() {
+		NotificationMessage notification = notification("42");
+
+		nodeA.publish(notification);
+
+		assertThat(deliveredOnA).containsExactly(notification.getId());
+		assertThat(deliveredOnB).containsExactly(notification.getId());
+	}
+
+	/*
+	 * Le contenu transmis par Redis est conservé (destinataire, métadonnées) ; la
+	 * copie reçue n'est pas marquée nouvelle et ne serait jamais réinsérée.
+	 */
+	@Test
+	void whenReceivedFromAnotherNode_thenNotificationContentIsPreserved() {
+		List<NotificationMessage> received = new ArrayList<>();
+		nodeB.subscribe(received::add);
+		NotificationMessage notification = notification("42");
+		notification.getMetadata().put("reservationId", "7");
+		notification.markNew();
+
+		nodeA.publish(notification);
+
+		assertThat(received).hasSize(1);
+		assertThat(received.get(0).getRecipient()).isEqualTo("42");
+		assertThat(received.get(0).getTitle()).isEqualTo("Paiement confirmé");
+		assertThat(received.get(0).getMetadata()).containsEntry("reservationId", "7");
+		assertThat(received.get(0).isNew()).isFalse();
+	}
+
+	/*
+	 * Les identifiants viennent de la séquence partagée, pas de l'horloge du
+	 * nœud : après un identifiant émis par un nœud en avance, l'autre nœud
+	 * continue au-dessus au lieu de revenir en arrière.
+	 */
+	@Test
+	void whenNodesAssignEventIds_thenIdsIncreaseAcrossNodes() {
+		long ahead = System.currentTimeMillis() * 1000 + 3_600_000_000L;
+		sequence.set(ahead);
+
+		long first = nodeA.nextEventId();
+		long second = nodeB.nextEventId();
+		long third = nodeA.nextEventId();
+
+		assertThat(first).isEqualTo(ahead + 1);
+		assertThat(second).isEqualTo(ahead + 2);
+		assertThat(third).isEqualTo(ahead + 3);
+	}
+
+	private static NotificationMessage notification(String recipient) {
+		NotificationMessage notification = new NotificationMessage();
+		notification.setCategory(NotificationCategory.USER_ACTION);
+		notification.setSeverity(NotificationSeverity.SUCCESS);
+		notification.setTitle("Paiement confirmé");
+		notification.setRecipient(recipient);
+		return notification;
+	}
+}
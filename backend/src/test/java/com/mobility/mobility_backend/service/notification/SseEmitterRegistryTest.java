@@ -0,0 +1,136 @@
+package com.mobility.mobility_backend.service.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class SseEmitterRegistryTest {
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	private SseEmitterRegistry registry;
+
+	@AfterEach
+	void tearDown() {
+		registry.shutdown();
+	}
+
+	/*
+	 * Un envoi ciblé n'atteint que les connexions du destinataire ; un broadcast
+	 * atteint toutes les connexions.
+	 */
+	@Test
+	void whenSendToRecipient_thenOnlyItsConnectionsReceive() throws InterruptedException {
+		registry = new SseEmitterRegistry(meterRegistry, 2, 10, "drop-oldest", 10000);
+		RecordingEmitter aliceWeb = new RecordingEmitter(null);
+		RecordingEmitter aliceMobile = new RecordingEmitter(null);
+		RecordingEmitter bob = new RecordingEmitter(null);
+		registry.register("1", aliceWeb);
+		registry.register("1", aliceMobile);
+		registry.register("2", bob);
+
+		assertThat(registry.sendTo("1", "notification", "hello")).isEqualTo(2);
+		assertThat(registry.broadcast("notification", "all")).isEqualTo(3);
+
+		aliceWeb.awaitEvents(2);
+		aliceMobile.awaitEvents(2);
+		bob.awaitEvents(1);
+		assertThat(bob.sent).hasSize(1);
+		assertThat(registry.getRecipientCount()).isEqualTo(2);
+	}
+
+	/*
+	 * Un client bloqué ne bloque pas l'appelant : sa file bornée perd les
+	 * événements les plus anciens et la perte est comptée.
+	 */
+	@Test
+	void whenClientIsSlow_thenOldestEventsAreDropped() throws InterruptedException {
+		registry = new SseEmitterRegistry(meterRegistry, 1, 2, "drop-oldest", 10000);
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingEmitter slow = new RecordingEmitter(release);
+		registry.register("1", slow);
+
+		registry.sendTo("1", "notification", "e1");
+		slow.awaitSendStarted();
+		for (int i = 2; i <= 5; i++) {
+			registry.sendTo("1", "notification", "e" + i);
+		}
+		release.countDown();
+
+		slow.awaitEvents(3);
+		assertThat(meterRegistry.get("notifications.sse.dropped").tag("cause", "queue-full").counter().count())
+				.isEqualTo(2);
+	}
+
+	/*
+	 * Un envoi bloqué au-delà du délai est abandonné : la connexion est fermée et
+	 * le seul thread du pool repart servir les autres clients.
+	 */
+	@Test
+	void whenSendStalls_thenConnectionIsClosedAndOthersAreServed() throws InterruptedException {
+		registry = new SseEmitterRegistry(meterRegistry, 1, 10, "drop-oldest", 50);
+		RecordingEmitter stalled = new RecordingEmitter(new CountDownLatch(1));
+		RecordingEmitter other = new RecordingEmitter(null);
+		registry.register("1", stalled);
+		registry.register("2", other);
+
+		registry.sendTo("1", "notification", "e1");
+		stalled.awaitSendStarted();
+		registry.sendTo("2", "notification", "e2");
+		Thread.sleep(100);
+		registry.disconnectStalledSends();
+
+		other.awaitEvents(1);
+		assertThat(registry.getConnectionCount()).isEqualTo(1);
+		assertThat(meterRegistry.get("notifications.sse.dropped").tag("cause", "send-timeout").counter().count())
+				.isEqualTo(1);
+	}
+
+	/**
+	 * SseEmitter qui enregistre les envois, éventuellement bloqué jusqu'à un signal.
+	 */
+	private static class RecordingEmitter extends SseEmitter {
+
+		private final List<Object> sent = new CopyOnWriteArrayList<>();
+		private final CountDownLatch release;
+		private final CountDownLatch sendStarted = new CountDownLatch(1);
+
+		RecordingEmitter(CountDownLatch release) {
+			this.release = release;
+		}
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			sendStarted.countDown();
+			if (release != null) {
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+			sent.add(builder);
+		}
+
+		void awaitSendStarted() throws InterruptedException {
+			assertThat(sendStarted.await(5, TimeUnit.SECONDS)).isTrue();
+		}
+
+		void awaitEvents(int count) throws InterruptedException {
+			long deadline = System.currentTimeMillis() + 5000;
+			while (sent.size() < count && System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+			assertThat(sent).hasSizeGreaterThanOrEqualTo(count);
+		}
+	}
+}
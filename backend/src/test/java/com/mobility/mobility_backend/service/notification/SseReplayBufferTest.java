@@ -0,0 +1,60 @@
+package com.mobility.mobility_backend.service.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.service.notification.SseReplayBuffer.Replay;
+
+public class SseReplayBufferTest {
+
+	// Identifiants attribués à la publication (séquence du bus)
+	private final AtomicLong eventIds = new AtomicLong();
+
+	/*
+	 * Le rejeu renvoie, dans l'ordre des identifiants, les événements du
+	 * destinataire et les diffusions postérieurs au Last-Event-ID.
+	 */
+	@Test
+	void whenReplayingSinceLastEventId_thenOnlyLaterEventsAreReturnedInOrder() {
+		SseReplayBuffer buffer = new SseReplayBuffer(10, 100);
+		NotificationMessage seen = record(buffer, "42");
+		NotificationMessage missedBroadcast = record(buffer, "all");
+		record(buffer, "7");
+		NotificationMessage missed = record(buffer, "42");
+
+		Replay replay = buffer.replaySince("42", seen.getEventId());
+
+		assertThat(replay.complete()).isTrue();
+		assertThat(replay.events()).containsExactly(missedBroadcast, missed);
+	}
+
+	/*
+	 * Si des événements postérieurs au Last-Event-ID ont été évincés du tampon,
+	 * le rejeu est signalé incomplet (le client doit recharger depuis l'API).
+	 */
+	@Test
+	void whenGapExceedsBuffer_thenReplayIsIncomplete() {
+		SseReplayBuffer buffer = new SseReplayBuffer(2, 100);
+		NotificationMessage seen = record(buffer, "42");
+		record(buffer, "42");
+		record(buffer, "42");
+		record(buffer, "42");
+
+		Replay replay = buffer.replaySince("42", seen.getEventId());
+
+		assertThat(replay.complete()).isFalse();
+		assertThat(replay.events()).hasSize(2);
+	}
+
+	private NotificationMessage record(SseReplayBuffer buffer, String recipient) {
+		NotificationMessage notification = new NotificationMessage();
+		notification.setRecipient(recipient);
+		notification.setEventId(eventIds.incrementAndGet());
+		buffer.record(notification);
+		return notification;
+	}
+}
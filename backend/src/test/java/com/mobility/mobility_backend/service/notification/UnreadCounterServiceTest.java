@@ -0,0 +1,50 @@
+package com.mobility.mobility_backend.service.notification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.mobility.mobility_backend.repository.notification.NotificationRepository;
+import com.mobility.mobility_backend.service.cache.MemoryCacheService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class UnreadCounterServiceTest {
+
+	@Mock
+	private NotificationRepository notificationRepository;
+
+	/*
+	 * Le COUNT d'amorçage d'un utilisateur ne bloque que sa tranche de verrous :
+	 * les lectures d'un autre destinataire passent pendant ce temps.
+	 */
+	@Test
+	void whenSeedingOneUser_thenOtherUsersAreNotBlocked() throws Exception {
+		CountDownLatch countStarted = new CountDownLatch(1);
+		CountDownLatch releaseCount = new CountDownLatch(1);
+		when(notificationRepository.countUnreadByUserId("1")).thenAnswer(invocation -> {
+			countStarted.countDown();
+			releaseCount.await(5, TimeUnit.SECONDS);
+			return 4L;
+		});
+		UnreadCounterService unreadCounters = new UnreadCounterService(notificationRepository,
+				new MemoryCacheService(new SimpleMeterRegistry(), 100, 1000), 300);
+
+		CompletableFuture<Long> seeding = CompletableFuture.supplyAsync(() -> unreadCounters.get("1"));
+		assertThat(countStarted.await(5, TimeUnit.SECONDS)).isTrue();
+
+		CompletableFuture.runAsync(() -> unreadCounters.markRead("2", () -> 1)).get(1, TimeUnit.SECONDS);
+
+		releaseCount.countDown();
+		assertThat(seeding.get(5, TimeUnit.SECONDS)).isEqualTo(4);
+	}
+}
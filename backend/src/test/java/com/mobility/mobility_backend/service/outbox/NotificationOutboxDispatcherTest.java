@@ -0,0 +1,174 @@
+package com.mobility.mobility_backend.service.outbox;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import com.icegreen.greenmail.util.GreenMail;
+import com.icegreen.greenmail.util.ServerSetupTest;
+import com.mobility.mobility_backend.dto.socket.NotificationMessage;
+import com.mobility.mobility_backend.entity.NotificationOutbox;
+import com.mobility.mobility_backend.entity.NotificationOutbox.Status;
+import com.mobility.mobility_backend.entity.Offer;
+import com.mobility.mobility_backend.repository.NotificationOutboxRepository;
+import com.mobility.mobility_backend.repository.OfferRepository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = { "spring.flyway.enabled=false", "notifications.outbox.max-attempts=2",
+		"notifications.outbox.email-rate-per-second=0", "notifications.outbox.sms-rate-per-second=0" })
+public class NotificationOutboxDispatcherTest {
+
+	@Autowired
+	private NotificationOutboxDispatcher dispatcher;
+
+	@Autowired
+	private NotificationOutboxService outboxService;
+
+	@Autowired
+	private NotificationOutboxRepository outboxRepository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private GreenMail smtpServer;
+
+	@Autowired
+	private FakeSmsGateway smsGateway;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		smtpServer.purgeEmailFromAllMailboxes();
+		smsGateway.sent.clear();
+		smsGateway.failuresLeft.set(0);
+	}
+
+	/*
+	 * Les messages mis en outbox partent via le serveur SMTP local et la
+	 * passerelle SMS factice, puis sont marqués SENT.
+	 */
+	@Test
+	void whenPolling_thenEmailsAndSmsAreDeliveredAndMarkedSent() {
+		outboxService.enqueueEmail("alice@test.com", "Paiement confirmé", "Merci");
+		outboxService.enqueueEmail("bob@test.com", "Paiement confirmé", "Merci");
+		outboxService.enqueueEmail("carol@test.com", "Paiement expiré", "Relancez");
+		outboxService.enqueueSms("+33600000001", "Paiement confirmé");
+
+		dispatcher.poll();
+
+		assertThat(smtpServer.getReceivedMessages()).hasSize(3);
+		assertThat(smsGateway.sent).containsExactly("+33600000001");
+		assertThat(rows()).extracting(NotificationOutbox::getStatus).containsOnly(Status.SENT);
+	}
+
+	/*
+	 * Un échec est retenté avec backoff (ligne non due tout de suite), puis
+	 * abandonné en FAILED après le nombre maximal de tentatives.
+	 */
+	@Test
+	void whenSendingFails_thenMessageIsRetriedWithBackoffThenMarkedFailed() {
+		smsGateway.failuresLeft.set(2);
+		NotificationOutbox sms = outboxService.enqueueSms("+33600000001", "Rappel");
+
+		dispatcher.poll();
+		NotificationOutbox afterFirst = reload(sms);
+		assertThat(afterFirst.getStatus()).isEqualTo(Status.PENDING);
+		assertThat(afterFirst.getAttempts()).isEqualTo(1);
+		assertThat(afterFirst.getNextAttemptAt()).isAfter(LocalDateTime.now());
+		assertThat(afterFirst.getLastError()).isEqualTo("passerelle indisponible");
+
+		dispatcher.poll();
+		assertThat(reload(sms).getAttempts()).isEqualTo(1);
+
+		afterFirst.setNextAttemptAt(LocalDateTime.now().minusSeconds(1));
+		outboxRepository.saveAndFlush(afterFirst);
+		dispatcher.poll();
+
+		assertThat(reload(sms).getStatus()).isEqualTo(Status.FAILED);
+		assertThat(smsGateway.sent).isEmpty();
+	}
+
+	private List<NotificationOutbox> rows() {
+		entityManager.flush();
+		entityManager.clear();
+		return outboxRepository.findAll();
+	}
+
+	private NotificationOutbox reload(NotificationOutbox message) {
+		entityManager.flush();
+		entityManager.clear();
+		return outboxRepository.findById(message.getId()).orElseThrow();
+	}
+
+	static class FakeSmsGateway implements SmsGateway {
+
+		final List<String> sent = new CopyOnWriteArrayList<>();
+		final AtomicInteger failuresLeft = new AtomicInteger();
+
+		@Override
+		public boolean isEnabled() {
+			return true;
+		}
+
+		@Override
+		public void send(String to, String body) {
+			if (failuresLeft.getAndDecrement() > 0) {
+				throw new IllegalStateException("passerelle indisponible");
+			}
+			sent.add(to);
+		}
+	}
+
+	// Contexte JPA minimal : évite le @ComponentScan global de MobilityApplication
+	@SpringBootConfiguration
+	@EntityScan(basePackageClasses = { Offer.class, NotificationMessage.class })
+	@EnableJpaRepositories(basePackageClasses = OfferRepository.class)
+	@Import({ NotificationOutboxDispatcher.class, NotificationOutboxService.class })
+	static class TestConfig {
+
+		@Bean(initMethod = "start", destroyMethod = "stop")
+		GreenMail smtpServer() {
+			return new GreenMail(ServerSetupTest.SMTP.dynamicPort());
+		}
+
+		@Bean
+		JavaMailSender javaMailSender(GreenMail smtpServer) {
+			JavaMailSenderImpl sender = new JavaMailSenderImpl();
+			sender.setHost("127.0.0.1");
+			sender.setPort(smtpServer.getSmtp().getPort());
+			return sender;
+		}
+
+		@Bean
+		FakeSmsGateway smsGateway() {
+			return new FakeSmsGateway();
+		}
+
+		@Bean
+		MeterRegistry meterRegistry() {
+			return new SimpleMeterRegistry();
+		}
+	}
+}
@@ -0,0 +1,287 @@
+package com.mobility.mobility_backend.service.payment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.mobility.mobility_backend.dto.payment.WebhookReplayProjection;
+import com.mobility.mobility_backend.entity.PaymentEventLog;
+import com.mobility.mobility_backend.entity.Reservation;
+import com.mobility.mobility_backend.repository.PaymentEventLogRepository;
+import com.mobility.mobility_backend.repository.ReservationRepository;
+import com.mobility.mobility_backend.service.PaymentNotificationService;
+import com.mobility.mobility_backend.service.StripeWebhookService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+@ExtendWith(MockitoExtension.class)
+public class StripeWebhookServiceTest {
+
+	@Mock
+	private ReservationRepository reservationRepository;
+
+	@Mock
+	private PaymentEventLogRepository logRepository;
+
+	@Mock
+	private PaymentNotificationService notificationService;
+
+	@Mock
+	private PlatformTransactionManager transactionManager;
+
+	private final Map<Long, PaymentEventLog> logs = new ConcurrentHashMap<>();
+	private final AtomicLong ids = new AtomicLong();
+	private StripeWebhookService service;
+
+	@BeforeEach
+	void setUp() {
+		lenient().when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+		lenient().when(logRepository.existsByEventId(anyString())).thenAnswer(invocation -> logs.values().stream()
+				.anyMatch(log -> invocation.getArgument(0).equals(log.getEventId())));
+		lenient().when(logRepository.saveAndFlush(any(PaymentEventLog.class))).thenAnswer(invocation -> store(invocation.getArgument(0)));
+		lenient().when(logRepository.save(any(PaymentEventLog.class))).thenAnswer(invocation -> store(invocation.getArgument(0)));
+		lenient().when(logRepository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(logs.get(invocation.getArgument(0))));
+		lenient().when(logRepository.claim(any())).thenAnswer(invocation -> claim(invocation.getArgument(0)));
+		lenient().when(logRepository.findReplayable(any(), any(), anyInt(), any())).thenAnswer(invocation -> logs.values().stream()
+				.filter(log -> "PENDING_RESERVATION".equals(log.getStatus()))
+				.map(StripeWebhookServiceTest::projection)
+				.toList());
+
+		service = new StripeWebhookService(reservationRepository, logRepository, notificationService,
+				transactionManager, new SimpleMeterRegistry(), 2, 100, 5, 24);
+	}
+
+	@AfterEach
+	void tearDown() {
+		service.shutdown();
+	}
+
+	/*
+	 * Un événement renvoyé par Stripe est acquitté comme doublon : la
+	 * réservation n'est payée et notifiée qu'une seule fois.
+	 */
+	@Test
+	void whenSameEventIsDeliveredTwice_thenItIsProcessedOnce() throws Exception {
+		Reservation reservation = reservation(42);
+		lenient().when(reservationRepository.findById(42)).thenReturn(Optional.of(reservation));
+		String payload = checkoutCompleted("evt_dup", "cs_dup", "42");
+
+		assertThat(service.handleWebhook(payload, null)).isTrue();
+		assertThat(service.handleWebhook(payload, null)).isFalse();
+
+		verify(notificationService, timeout(2000)).notifyPaymentSuccess(reservation);
+		awaitStatus("evt_dup", "PROCESSED");
+		verify(notificationService, times(1)).notifyPaymentSuccess(reservation);
+		assertThat(logs).hasSize(1);
+		assertThat(reservation.getPaymentStatus()).isEqualTo(Reservation.PaymentStatus.PAID);
+		assertThat(reservation.getPaymentReference()).isEqualTo("cs_dup");
+	}
+
+	/*
+	 * Un paiement reçu avant que la réservation soit visible reste en
+	 * PENDING_RESERVATION, puis est appliqué par le rejeu périodique.
+	 */
+	@Test
+	void whenReservationAppearsLater_thenPendingEventIsReplayed() throws Exception {
+		Reservation reservation = reservation(7);
+		lenient().when(reservationRepository.findById(7)).thenReturn(Optional.empty());
+
+		assertThat(service.handleWebhook(checkoutCompleted("evt_early", "cs_early", "7"), null)).isTrue();
+		awaitStatus("evt_early", "PENDING_RESERVATION");
+		verify(notificationService, never()).notifyPaymentSuccess(any());
+
+		lenient().when(reservationRepository.findById(7)).thenReturn(Optional.of(reservation));
+		service.replayPending();
+
+		verify(notificationService, timeout(2000)).notifyPaymentSuccess(reservation);
+		awaitStatus("evt_early", "PROCESSED");
+		assertThat(findByEventId("evt_early").getAttempts()).isEqualTo(2);
+	}
+
+	/*
+	 * Le rejeu tourne sur tous les réplicas : un même événement en attente n'est
+	 * pris en charge (UPDATE conditionnel) et appliqué que par l'un d'eux.
+	 */
+	@Test
+	void whenSeveralReplicasReplayTheSameEvent_thenItIsAppliedOnce() throws Exception {
+		Reservation reservation = reservation(9);
+		lenient().when(reservationRepository.findById(9)).thenReturn(Optional.empty());
+		assertThat(service.handleWebhook(checkoutCompleted("evt_multi", "cs_multi", "9"), null)).isTrue();
+		awaitStatus("evt_multi", "PENDING_RESERVATION");
+
+		lenient().when(reservationRepository.findById(9)).thenReturn(Optional.of(reservation));
+		StripeWebhookService otherReplica = new StripeWebhookService(reservationRepository, logRepository,
+				notificationService, transactionManager, new SimpleMeterRegistry(), 2, 100, 5, 24);
+		try {
+			service.replayPending();
+			otherReplica.replayPending();
+			awaitStatus("evt_multi", "PROCESSED");
+		} finally {
+			otherReplica.shutdown();
+		}
+
+		verify(notificationService, times(1)).notifyPaymentSuccess(reservation);
+		assertThat(findByEventId("evt_multi").getAttempts()).isEqualTo(2);
+	}
+
+	/*
+	 * Une session (client_reference_id) et un échec de PaymentIntent (référence
+	 * de paiement) d'une même réservation passent par la même bande : ils sont
+	 * traités dans leur ordre d'arrivée.
+	 */
+	@Test
+	void whenSessionAndIntentEventsTargetOneReservation_thenTheyShareAStripe() throws Exception {
+		service.shutdown();
+		service = new StripeWebhookService(reservationRepository, logRepository, notificationService,
+				transactionManager, new SimpleMeterRegistry(), 16, 100, 5, 24);
+		Map<Long, String> claimedOn = new ConcurrentHashMap<>();
+		doAnswer(invocation -> {
+			claimedOn.put(invocation.getArgument(0), Thread.currentThread().getName());
+			return 0;
+		}).when(logRepository).claim(any());
+		when(reservationRepository.findIdByPaymentReference("pi_11_secret")).thenReturn(Optional.of(11));
+
+		service.handleWebhook(checkoutCompleted("evt_session", "cs_11", "11"), null);
+		service.handleWebhook(paymentFailed("evt_intent", "pi_11", "pi_11_secret"), null);
+
+		long deadline = System.currentTimeMillis() + 2000;
+		while (claimedOn.size() < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(claimedOn).hasSize(2);
+		assertThat(claimedOn.get(findByEventId("evt_session").getId()))
+				.isEqualTo(claimedOn.get(findByEventId("evt_intent").getId()));
+	}
+
+	/*
+	 * Un événement RECEIVED encore en file n'est pas empilé une seconde fois par
+	 * le rejeu : il n'est pris en charge qu'une fois.
+	 */
+	@Test
+	void whenReceivedEventIsStillQueued_thenReplayDoesNotQueueItAgain() throws Exception {
+		service.shutdown();
+		service = new StripeWebhookService(reservationRepository, logRepository, notificationService,
+				transactionManager, new SimpleMeterRegistry(), 1, 100, 5, 24);
+		CountDownLatch release = new CountDownLatch(1);
+		List<Long> claims = new CopyOnWriteArrayList<>();
+		doAnswer(invocation -> {
+			release.await(5, TimeUnit.SECONDS);
+			claims.add(invocation.getArgument(0));
+			return 0;
+		}).when(logRepository).claim(any());
+		doAnswer(invocation -> logs.values().stream().filter(log -> "RECEIVED".equals(log.getStatus()))
+				.map(StripeWebhookServiceTest::projection).toList()).when(logRepository)
+				.findReplayable(any(), any(), anyInt(), any());
+
+		service.handleWebhook(checkoutCompleted("evt_busy", "cs_busy", "21"), null);
+		service.handleWebhook(checkoutCompleted("evt_waiting", "cs_waiting", "22"), null);
+		service.replayPending();
+		service.replayPending();
+		release.countDown();
+
+		long deadline = System.currentTimeMillis() + 2000;
+		while (claims.size() < 2 && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		Thread.sleep(100);
+		assertThat(claims).containsExactlyInAnyOrder(findByEventId("evt_busy").getId(),
+				findByEventId("evt_waiting").getId());
+	}
+
+	static String paymentFailed(String eventId, String intentId, String clientSecret) {
+		return "{\"id\":\"" + eventId + "\",\"object\":\"event\",\"type\":\"payment_intent.payment_failed\","
+				+ "\"data\":{\"object\":{\"id\":\"" + intentId + "\",\"object\":\"payment_intent\","
+				+ "\"client_secret\":\"" + clientSecret + "\"}}}";
+	}
+
+	static String checkoutCompleted(String eventId, String sessionId, String reference) {
+		return "{\"id\":\"" + eventId + "\",\"object\":\"event\",\"type\":\"checkout.session.completed\","
+				+ "\"data\":{\"object\":{\"id\":\"" + sessionId + "\",\"object\":\"checkout.session\","
+				+ "\"client_reference_id\":\"" + reference + "\"}}}";
+	}
+
+	private static Reservation reservation(int id) {
+		Reservation reservation = new Reservation();
+		reservation.setReservationId(id);
+		reservation.setPaymentStatus(Reservation.PaymentStatus.PENDING);
+		return reservation;
+	}
+
+	// UPDATE conditionnel simulé : seul le premier appel sur une ligne réclamable réussit
+	private int claim(Long id) {
+		PaymentEventLog log = logs.get(id);
+		synchronized (logs) {
+			if (log == null || !Set.of("RECEIVED", "PENDING_RESERVATION", "FAILED").contains(log.getStatus())) {
+				return 0;
+			}
+			log.setStatus("PROCESSING");
+			return 1;
+		}
+	}
+
+	private PaymentEventLog store(PaymentEventLog log) {
+		if (log.getId() == null) {
+			log.setId(ids.incrementAndGet());
+		}
+		logs.put(log.getId(), log);
+		return log;
+	}
+
+	private PaymentEventLog findByEventId(String eventId) {
+		return logs.values().stream().filter(log -> eventId.equals(log.getEventId())).findFirst().orElseThrow();
+	}
+
+	private void awaitStatus(String eventId, String status) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 2000;
+		while (!status.equals(findByEventId(eventId).getStatus()) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		assertThat(findByEventId(eventId).getStatus()).isEqualTo(status);
+	}
+
+	private static WebhookReplayProjection projection(PaymentEventLog log) {
+		return new WebhookReplayProjection() {
+			@Override
+			public Long getId() {
+				return log.getId();
+			}
+
+			@Override
+			public String getEventId() {
+				return log.getEventId();
+			}
+
+			@Override
+			public String getReservationReference() {
+				return log.getReservationReference();
+			}
+		};
+	}
+}
@@ -0,0 +1,71 @@
+package com.mobility.mobility_backend.service.scheduling;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class TimingWheelTest {
+
+	/*
+	 * Chaque minuteur expire exactement au tick de son échéance, qu'il soit
+	 * dans la première roue, redescendu d'une ou de plusieurs roues
+	 * supérieures, ou au-delà de la portée totale de la roue.
+	 */
+	@Test
+	void whenTimeAdvances_thenEachTimerFiresAtItsDeadlineTick() {
+		// 4 cases x 3 niveaux = 64 ticks de portée : les échéances plus lointaines sont reclassées
+		TimingWheel<Integer> wheel = new TimingWheel<>(10, 4, 3, 0);
+		Map<Integer, Long> deadlines = new HashMap<>();
+		Random random = new Random(42);
+		for (int key = 0; key < 300; key++) {
+			long deadlineMs = 10 + random.nextInt(2_000);
+			deadlines.put(key, deadlineMs);
+			wheel.schedule(key, deadlineMs);
+		}
+
+		Map<Integer, Long> firedAt = new HashMap<>();
+		for (long now = 0; now <= 2_100; now += 10) {
+			for (Integer key : wheel.advance(now)) {
+				firedAt.put(key, now);
+			}
+		}
+
+		assertThat(firedAt).hasSize(300);
+		deadlines.forEach((key, deadlineMs) -> assertThat(firedAt.get(key))
+				.as("minuteur %d (échéance %d ms)", key, deadlineMs)
+				.isEqualTo((deadlineMs + 9) / 10 * 10));
+		assertThat(wheel.size()).isZero();
+	}
+
+	/*
+	 * Réarmer remplace l'échéance précédente, annuler la supprime, et une
+	 * échéance déjà passée expire au tick suivant.
+	 */
+	@Test
+	void whenRescheduledOrCancelled_thenOnlyTheLatestDeadlineFires() {
+		TimingWheel<String> wheel = new TimingWheel<>(1_000, 64, 4, 0);
+		wheel.schedule("expiry", 5_000);
+		wheel.schedule("expiry", 120_000);
+		wheel.schedule("timeout", 7_000);
+		wheel.cancel("timeout");
+		wheel.schedule("late", -3_000);
+
+		List<String> fired = new ArrayList<>();
+		fired.addAll(wheel.advance(1_000));
+		assertThat(fired).containsExactly("late");
+
+		fired.addAll(wheel.advance(119_000));
+		assertThat(fired).containsExactly("late");
+		assertThat(wheel.contains("expiry")).isTrue();
+
+		fired.addAll(wheel.advance(120_000));
+		assertThat(fired).containsExactly("late", "expiry");
+		assertThat(wheel.size()).isZero();
+	}
+}
@@ -0,0 +1,74 @@
+package com.mobility.mobility_backend.service.storage;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+
+public class ImageStorageServiceTest {
+
+	private static final byte[] PNG_SIGNATURE = { (byte) 0x89, 0x50, 0x4E, 0x47, 0x0D, 0x0A, 0x1A, 0x0A };
+
+	@TempDir
+	Path offersDirectory;
+
+	/*
+	 * Le compteur d'occupation suit les dépôts ; au-delà du quota les images les
+	 * plus anciennes sont purgées sans reparcourir le dossier, et une signature
+	 * invalide est refusée sans rien écrire.
+	 */
+	@Test
+	void whenQuotaIsExceeded_thenOldestImagesAreEvictedFromCounter() throws Exception {
+		ImageStorageService service = new ImageStorageService(offersDirectory, 250);
+
+		String first = service.storeOfferImage(png("first.png", 100));
+		service.storeOfferImage(png("second.png", 100));
+		assertThat(service.getUsedBytes()).isEqualTo(200);
+
+		service.storeOfferImage(png("third.png", 100));
+		assertThat(service.getUsedBytes()).isEqualTo(200);
+		assertThat(offersDirectory.resolve(first.substring(first.lastIndexOf('/') + 1))).doesNotExist();
+		assertThat(directorySize()).isEqualTo(200);
+
+		MockMultipartFile forged = new MockMultipartFile("file", "forged.png", "image/png", new byte[100]);
+		assertThatThrownBy(() -> service.storeOfferImage(forged)).isInstanceOf(IllegalArgumentException.class);
+		assertThat(service.getUsedBytes()).isEqualTo(200);
+		assertThat(directorySize()).isEqualTo(200);
+	}
+
+	/*
+	 * Le recalage rattrape les fichiers ajoutés ou supprimés hors application.
+	 */
+	@Test
+	void whenFilesChangeOutsideService_thenReconcileRealignsCounter() throws Exception {
+		Files.write(offersDirectory.resolve("existing.png"), new byte[40]);
+		ImageStorageService service = new ImageStorageService(offersDirectory, 1_000);
+		assertThat(service.getUsedBytes()).isEqualTo(40);
+
+		String stored = service.storeOfferImage(png("new.png", 60));
+		Files.delete(offersDirectory.resolve(stored.substring(stored.lastIndexOf('/') + 1)));
+		Files.write(offersDirectory.resolve("manual.png"), new byte[15]);
+		assertThat(service.getUsedBytes()).isEqualTo(100);
+
+		service.reconcile();
+		assertThat(service.getUsedBytes()).isEqualTo(55);
+	}
+
+	private MockMultipartFile png(String name, int size) {
+		byte[] content = Arrays.copyOf(PNG_SIGNATURE, size);
+		return new MockMultipartFile("file", name, "image/png", content);
+	}
+
+	private long directorySize() throws Exception {
+		try (Stream<Path> files = Files.list(offersDirectory)) {
+			return files.mapToLong(path -> path.toFile().length()).sum();
+		}
+	}
+}